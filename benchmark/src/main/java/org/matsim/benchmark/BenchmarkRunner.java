@@ -0,0 +1,52 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the micro benchmarks of this package.  In contrast to {@link Benchmark}, which runs the full controler on
+ * the benchmark scenario, these measure single components on synthetic scenarios:
+ * <ul>
+ * <li>{@link QSimBenchmark}: mobsim runs, simulated time steps and events per second</li>
+ * <li>{@link EventsManagerBenchmark}: events per second through each events manager</li>
+ * <li>{@link RoutingBenchmark}: queries per second for each least-cost-path calculator</li>
+ * <li>{@link PopulationIOBenchmark}: persons per second written and read</li>
+ * </ul>
+ * The optional argument is a regular expression selecting the benchmarks, e.g. <code>Routing</code>; the results are
+ * written to <code>jmh-result.json</code> so that they can be compared between versions.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*Benchmark";
+		Options options = new OptionsBuilder()
+				.include(include)
+				.resultFormat(ResultFormatType.JSON)
+				.result("jmh-result.json")
+				.build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,147 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.events.EventsManagerImpl;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.ParallelEventsManager;
+import org.matsim.core.events.ParallelEventsManagerImpl;
+import org.matsim.vehicles.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Events per second through each {@link EventsManager} implementation, including the synchronization at the end
+ * of every time step.  The handlers only count, so this measures the overhead of the events manager itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventsManagerBenchmark {
+
+	private static final int NUMBER_OF_EVENTS = 1_000_000;
+	private static final int NUMBER_OF_TIME_STEPS = 3600;
+	private static final int NUMBER_OF_LINKS = 10_000;
+
+	@Param({"EventsManagerImpl", "ParallelEventsManager", "ParallelEventsManagerImpl", "SimStepParallelEventsManagerImpl"})
+	public String eventsManager;
+
+	@Param({"1", "4"})
+	public int handlers;
+
+	private EventsManager events;
+	private Event[] eventArray;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(4711);
+		this.eventArray = new Event[NUMBER_OF_EVENTS];
+		for (int i = 0; i < NUMBER_OF_EVENTS; i++) {
+			double time = (double) i * NUMBER_OF_TIME_STEPS / NUMBER_OF_EVENTS;
+			Id<Vehicle> vehicleId = Id.create(random.nextInt(NUMBER_OF_EVENTS / 10), Vehicle.class);
+			Id<Link> linkId = Id.create(random.nextInt(NUMBER_OF_LINKS), Link.class);
+			this.eventArray[i] = (i & 1) == 0 ? new LinkEnterEvent(Math.floor(time), vehicleId, linkId)
+					: new LinkLeaveEvent(Math.floor(time), vehicleId, linkId);
+		}
+
+		this.events = createEventsManager(this.eventsManager);
+		for (int i = 0; i < this.handlers; i++) {
+			this.events.addHandler(new CountingHandler());
+		}
+	}
+
+	private static EventsManager createEventsManager(final String type) {
+		int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+		switch (type) {
+			case "EventsManagerImpl": return new EventsManagerImpl();
+			case "ParallelEventsManager": return new ParallelEventsManager(true, threads);
+			case "ParallelEventsManagerImpl": return new ParallelEventsManagerImpl(threads);
+			case "SimStepParallelEventsManagerImpl":
+				// not public, but this is what the controler uses with these settings
+				Config config = ConfigUtils.createConfig();
+				config.parallelEventHandling().setNumberOfThreads(threads);
+				config.parallelEventHandling().setSynchronizeOnSimSteps(true);
+				return EventsUtils.createEventsManager(config);
+			default: throw new IllegalArgumentException("unknown events manager " + type);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_EVENTS)
+	public void processEvents() {
+		this.events.initProcessing();
+		double time = this.eventArray[0].getTime();
+		for (Event event : this.eventArray) {
+			if (event.getTime() != time) {
+				this.events.afterSimStep(time);
+				time = event.getTime();
+			}
+			this.events.processEvent(event);
+		}
+		this.events.afterSimStep(time);
+		this.events.finishProcessing();
+	}
+
+	private static final class CountingHandler implements LinkEnterEventHandler, LinkLeaveEventHandler {
+		private long count = 0;
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			this.count++;
+		}
+
+		@Override
+		public void handleEvent(LinkLeaveEvent event) {
+			this.count--;
+		}
+
+		@Override
+		public void reset(int iteration) {
+			this.count = 0;
+		}
+	}
+
+}
@@ -0,0 +1,88 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Persons per second written and read in the current population format.  Reading and writing is done in memory,
+ * so the results do not depend on the disk; with compression, real files are slower.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PopulationIOBenchmark {
+
+	private static final int NUMBER_OF_PERSONS = 20_000;
+
+	@Param({"100"})
+	public int gridSize;
+
+	private Scenario scenario;
+	private byte[] populationXml;
+
+	@Setup
+	public void setup() {
+		this.scenario = SyntheticScenario.createScenario(this.gridSize, NUMBER_OF_PERSONS, 4711);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PopulationWriter(this.scenario.getPopulation(), this.scenario.getNetwork()).write(out);
+		this.populationXml = out.toByteArray();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_PERSONS)
+	public byte[] writePopulation() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(this.populationXml.length);
+		new PopulationWriter(this.scenario.getPopulation(), this.scenario.getNetwork()).write(out);
+		return out.toByteArray();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUMBER_OF_PERSONS)
+	public Scenario readPopulation() {
+		Scenario readScenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		new PopulationReader(readScenario).parse(new ByteArrayInputStream(this.populationXml));
+		return readScenario;
+	}
+
+}
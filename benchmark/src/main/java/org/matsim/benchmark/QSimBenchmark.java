@@ -0,0 +1,101 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.mobsim.framework.listeners.MobsimAfterSimStepListener;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs the QSim on a synthetic scenario, one full mobsim run per invocation.  Besides the time per run, the
+ * simulated time steps and the events per second are reported as secondary results.
+ * <p></p>
+ * The scenario is generated once per trial; its plans are not changed by a mobsim run, so every run does the same work.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QSimBenchmark {
+
+	@Param({"100"})
+	public int gridSize;
+
+	@Param({"10000", "100000"})
+	public int persons;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private Scenario scenario;
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+		public long simSteps;
+		public long events;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			this.simSteps = 0;
+			this.events = 0;
+		}
+	}
+
+	@Setup
+	public void setup() {
+		this.scenario = SyntheticScenario.createScenario(this.gridSize, this.persons, 4711);
+		this.scenario.getConfig().qsim().setNumberOfThreads(this.threads);
+	}
+
+	@Benchmark
+	public void runMobsim(final Counters counters) {
+		EventsManager events = EventsUtils.createEventsManager(this.scenario.getConfig());
+		events.addHandler((BasicEventHandler) (Event event) -> counters.events++);
+		QSim qsim = new QSimBuilder(this.scenario.getConfig()).useDefaults().build(this.scenario, events);
+		qsim.addQueueSimulationListeners((MobsimAfterSimStepListener) e -> counters.simSteps++);
+		events.initProcessing();
+		qsim.run();
+		events.finishProcessing();
+	}
+
+}
@@ -0,0 +1,108 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.AStarLandmarksFactory;
+import org.matsim.core.router.DijkstraFactory;
+import org.matsim.core.router.FastAStarLandmarksFactory;
+import org.matsim.core.router.FastDijkstraFactory;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Least-cost-path queries per second for each {@link LeastCostPathCalculator} implementation, on grid networks
+ * of different size with random origin-destination pairs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class RoutingBenchmark {
+
+	private static final int NUMBER_OF_OD_PAIRS = 1024;
+
+	@Param({"Dijkstra", "FastDijkstra", "FastDijkstraRadix", "FastDijkstraBuckets", "AStarLandmarks", "FastAStarLandmarks"})
+	public String router;
+
+	@Param({"50", "200"})
+	public int gridSize;
+
+	private LeastCostPathCalculator pathCalculator;
+	private Node[] fromNodes;
+	private Node[] toNodes;
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		Scenario scenario = SyntheticScenario.createScenario(this.gridSize, 0, 4711);
+		FreespeedTravelTimeAndDisutility freespeed = new FreespeedTravelTimeAndDisutility(scenario.getConfig().planCalcScore());
+		this.pathCalculator = createFactory(this.router).createPathCalculator(scenario.getNetwork(), freespeed, freespeed);
+
+		Node[] nodes = scenario.getNetwork().getNodes().values().toArray(new Node[0]);
+		Random random = new Random(4711);
+		this.fromNodes = new Node[NUMBER_OF_OD_PAIRS];
+		this.toNodes = new Node[NUMBER_OF_OD_PAIRS];
+		for (int i = 0; i < NUMBER_OF_OD_PAIRS; i++) {
+			this.fromNodes[i] = nodes[random.nextInt(nodes.length)];
+			this.toNodes[i] = nodes[random.nextInt(nodes.length)];
+		}
+	}
+
+	private static LeastCostPathCalculatorFactory createFactory(final String router) {
+		switch (router) {
+			case "Dijkstra": return new DijkstraFactory();
+			case "FastDijkstra": return new FastDijkstraFactory();
+			case "FastDijkstraRadix": return new FastDijkstraFactory(false, MinHeapFactory.radix());
+			case "FastDijkstraBuckets": return new FastDijkstraFactory(false, MinHeapFactory.buckets(0.1));
+			case "AStarLandmarks": return new AStarLandmarksFactory(1);
+			case "FastAStarLandmarks": return new FastAStarLandmarksFactory(1);
+			default: throw new IllegalArgumentException("unknown router " + router);
+		}
+	}
+
+	@Benchmark
+	public Path route() {
+		int i = this.next;
+		this.next = (i + 1) % NUMBER_OF_OD_PAIRS;
+		return this.pathCalculator.calcLeastCostPath(this.fromNodes[i], this.toNodes[i], 8 * 3600.0, null, null);
+	}
+
+}
@@ -0,0 +1,152 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.router.FastDijkstraFactory;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleType;
+import org.matsim.vehicles.VehicleUtils;
+
+/**
+ * Generates scenarios of arbitrary size for the benchmarks, so that they do not depend on any input files.
+ * <p></p>
+ * The network is a square grid with links in both directions.  Every person has a home-work-home plan with car
+ * legs between two random links; the legs are routed and get a vehicle, so the scenario can be passed to a
+ * {@link org.matsim.core.mobsim.qsim.QSim} directly.  For the same arguments, the same scenario is generated.
+ */
+public final class SyntheticScenario {
+
+	private static final double LINK_LENGTH = 500.0;
+	private static final double FREESPEED = 50.0 / 3.6;
+	private static final double CAPACITY = 1200.0;
+
+	private SyntheticScenario() {
+	}
+
+	public static Scenario createScenario(final int gridSize, final int numberOfPersons, final long seed) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setEndTime(30 * 3600.0);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		createGridNetwork(scenario.getNetwork(), gridSize);
+		createPopulation(scenario, numberOfPersons, new Random(seed));
+		return scenario;
+	}
+
+	/**
+	 * Fills the network with <code>gridSize</code> x <code>gridSize</code> nodes, each connected to its neighbours
+	 * in both directions.
+	 */
+	public static void createGridNetwork(final Network network, final int gridSize) {
+		Node[][] nodes = new Node[gridSize][gridSize];
+		for (int x = 0; x < gridSize; x++) {
+			for (int y = 0; y < gridSize; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.create(x + "_" + y, Node.class),
+						new Coord(x * LINK_LENGTH, y * LINK_LENGTH));
+			}
+		}
+		for (int x = 0; x < gridSize; x++) {
+			for (int y = 0; y < gridSize; y++) {
+				if (x + 1 < gridSize) {
+					addLinkPair(network, nodes[x][y], nodes[x + 1][y]);
+				}
+				if (y + 1 < gridSize) {
+					addLinkPair(network, nodes[x][y], nodes[x][y + 1]);
+				}
+			}
+		}
+	}
+
+	private static void addLinkPair(final Network network, final Node a, final Node b) {
+		NetworkUtils.createAndAddLink(network, Id.create(a.getId() + "-" + b.getId(), Link.class), a, b, LINK_LENGTH, FREESPEED, CAPACITY, 1);
+		NetworkUtils.createAndAddLink(network, Id.create(b.getId() + "-" + a.getId(), Link.class), b, a, LINK_LENGTH, FREESPEED, CAPACITY, 1);
+	}
+
+	private static void createPopulation(final Scenario scenario, final int numberOfPersons, final Random random) {
+		Network network = scenario.getNetwork();
+		Link[] links = network.getLinks().values().toArray(new Link[network.getLinks().size()]);
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+
+		VehicleType vehicleType = VehicleUtils.getDefaultVehicleType();
+		scenario.getVehicles().addVehicleType(vehicleType);
+
+		FreespeedTravelTimeAndDisutility freespeed = new FreespeedTravelTimeAndDisutility(scenario.getConfig().planCalcScore());
+		LeastCostPathCalculator router = new FastDijkstraFactory().createPathCalculator(network, freespeed, freespeed);
+
+		for (int i = 0; i < numberOfPersons; i++) {
+			Person person = pf.createPerson(Id.create(i, Person.class));
+			Link home = links[random.nextInt(links.length)];
+			Link work = links[random.nextInt(links.length)];
+			Plan plan = pf.createPlan();
+			Activity morning = pf.createActivityFromLinkId("h", home.getId());
+			morning.setEndTime(6 * 3600.0 + random.nextInt(4 * 3600));
+			plan.addActivity(morning);
+			plan.addLeg(pf.createLeg(TransportMode.car));
+			Activity day = pf.createActivityFromLinkId("w", work.getId());
+			day.setEndTime(morning.getEndTime() + 8 * 3600.0 + random.nextInt(2 * 3600));
+			plan.addActivity(day);
+			plan.addLeg(pf.createLeg(TransportMode.car));
+			plan.addActivity(pf.createActivityFromLinkId("h", home.getId()));
+			person.addPlan(plan);
+			person.setSelectedPlan(plan);
+			population.addPerson(person);
+
+			Id<Vehicle> vehicleId = Id.create(person.getId(), Vehicle.class);
+			scenario.getVehicles().addVehicle(VehicleUtils.getFactory().createVehicle(vehicleId, vehicleType));
+			Link from = home;
+			for (PlanElement pe : plan.getPlanElements()) {
+				if (pe instanceof Leg) {
+					Link to = from == home ? work : home;
+					Path path = router.calcLeastCostPath(from.getToNode(), to.getFromNode(), 0.0, person, null);
+					NetworkRoute route = RouteUtils.createLinkNetworkRouteImpl(from.getId(), NetworkUtils.getLinkIds(path.links), to.getId());
+					route.setVehicleId(vehicleId);
+					((Leg) pe).setRoute(route);
+					from = to;
+				}
+			}
+		}
+	}
+
+}
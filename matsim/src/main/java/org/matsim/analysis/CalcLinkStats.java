@@ -86,6 +86,23 @@ public class CalcLinkStats {
 		this.volScaleFactor = vol_scale_factor;
 	}
 
+	private CalcLinkStats(final CalcLinkStats other) {
+		this.network = other.network;
+		this.nofHours = other.nofHours;
+		this.volScaleFactor = other.volScaleFactor;
+		this.count = other.count;
+		this.linkData = new TreeMap<>(other.linkData);
+	}
+
+	/**
+	 * @return a copy of the current data which can be written while this instance is filled again.  The copy shares
+	 * the data of the links with this instance, which is fine because {@link #reset()} replaces this data instead of
+	 * changing it.  Hence, this instance has to be reset before it gets new data.
+	 */
+	/*package*/ CalcLinkStats snapshot() {
+		return new CalcLinkStats(this);
+	}
+
 	public void addData(final VolumesAnalyzer analyzer, final TravelTime ttimes) {
 		this.count++;
 		// TODO verify ttimes has hourly timeBin-Settings
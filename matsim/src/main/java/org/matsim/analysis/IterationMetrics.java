@@ -0,0 +1,279 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IterationMetrics.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.analysis;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+
+/**
+ * Named counters, timers and gauges which are filled during an iteration, e.g. by the mobsim and the routers, and
+ * written at the end of the iteration by the {@link IterationMetricsControlerListener}.  In contrast to the
+ * {@link IterationStopWatch}, which measures the steps of the controler, the metrics are meant for things that
+ * happen very often, and all of them may be updated from several threads.
+ * <p></p>
+ * The metrics are disabled by default.  Code that measures something should check {@link #isEnabled()} before,
+ * so that it does not even take the time when nobody is interested in it.  Counters and timers should be looked
+ * up once and then be kept, as {@link #reset()} only sets their values to zero.
+ *
+ * @see org.matsim.core.config.groups.ControlerConfigGroup#isWriteIterationMetrics()
+ */
+@Singleton
+public final class IterationMetrics {
+
+	private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+	private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+	private final Map<String, Double> gauges = new ConcurrentSkipListMap<>();
+
+	private volatile boolean enabled = false;
+
+	@Inject
+	public IterationMetrics() {
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(final boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Counter getCounter(final String name) {
+		Counter counter = this.counters.get(name);
+		if (counter == null) {
+			this.counters.putIfAbsent(name, new Counter());
+			counter = this.counters.get(name);
+		}
+		return counter;
+	}
+
+	public Timer getTimer(final String name) {
+		Timer timer = this.timers.get(name);
+		if (timer == null) {
+			this.timers.putIfAbsent(name, new Timer());
+			timer = this.timers.get(name);
+		}
+		return timer;
+	}
+
+	public Map<String, Timer> getTimers() {
+		return this.timers;
+	}
+
+	public void setGauge(final String name, final double value) {
+		this.gauges.put(name, value);
+	}
+
+	public Map<String, Double> getGauges() {
+		return this.gauges;
+	}
+
+	/**
+	 * Sets all counters and timers to zero and removes all gauges.
+	 */
+	public void reset() {
+		for (Counter counter : this.counters.values()) {
+			counter.reset();
+		}
+		for (Timer timer : this.timers.values()) {
+			timer.reset();
+		}
+		this.gauges.clear();
+	}
+
+	/**
+	 * Writes all metrics of the current iteration as one JSON object.
+	 */
+	public void writeJson(final String filename, final int iteration) {
+		try (BufferedWriter out = IOUtils.getBufferedWriter(filename)) {
+			out.write("{\n  \"iteration\": " + iteration + ",\n  \"counters\": {");
+			String separator = "\n";
+			for (Map.Entry<String, Counter> e : this.counters.entrySet()) {
+				out.write(separator + "    " + quote(e.getKey()) + ": " + e.getValue().get());
+				separator = ",\n";
+			}
+			out.write("\n  },\n  \"timers\": {");
+			separator = "\n";
+			for (Map.Entry<String, Timer> e : this.timers.entrySet()) {
+				Timer timer = e.getValue();
+				out.write(separator + "    " + quote(e.getKey()) + ": { \"count\": " + timer.getCount()
+						+ ", \"total_ms\": " + toMillis(timer.getTotalNanos())
+						+ ", \"mean_ms\": " + toMillis(timer.getMeanNanos())
+						+ ", \"p50_ms\": " + toMillis(timer.getPercentileNanos(0.5))
+						+ ", \"p99_ms\": " + toMillis(timer.getPercentileNanos(0.99))
+						+ ", \"max_ms\": " + toMillis(timer.getMaxNanos()) + " }");
+				separator = ",\n";
+			}
+			out.write("\n  },\n  \"gauges\": {");
+			separator = "\n";
+			for (Map.Entry<String, Double> e : this.gauges.entrySet()) {
+				out.write(separator + "    " + quote(e.getKey()) + ": " + e.getValue());
+				separator = ",\n";
+			}
+			out.write("\n  }\n}\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/*package*/ static void writeCsvHeader(final BufferedWriter out) throws IOException {
+		out.write("iteration;type;name;count;total_ms;mean_ms;p50_ms;p99_ms;max_ms;value\n");
+	}
+
+	/**
+	 * Writes all metrics of the current iteration, one per line.
+	 */
+	/*package*/ void writeCsv(final BufferedWriter out, final int iteration) throws IOException {
+		for (Map.Entry<String, Counter> e : this.counters.entrySet()) {
+			out.write(iteration + ";counter;" + e.getKey() + ";;;;;;;" + e.getValue().get() + "\n");
+		}
+		for (Map.Entry<String, Timer> e : this.timers.entrySet()) {
+			Timer timer = e.getValue();
+			out.write(iteration + ";timer;" + e.getKey() + ";" + timer.getCount() + ";" + toMillis(timer.getTotalNanos())
+					+ ";" + toMillis(timer.getMeanNanos()) + ";" + toMillis(timer.getPercentileNanos(0.5))
+					+ ";" + toMillis(timer.getPercentileNanos(0.99)) + ";" + toMillis(timer.getMaxNanos()) + ";\n");
+		}
+		for (Map.Entry<String, Double> e : this.gauges.entrySet()) {
+			out.write(iteration + ";gauge;" + e.getKey() + ";;;;;;;" + e.getValue() + "\n");
+		}
+	}
+
+	private static double toMillis(final double nanos) {
+		return nanos / 1e6;
+	}
+
+	private static String quote(final String s) {
+		return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+	public static final class Counter {
+		private final LongAdder value = new LongAdder();
+
+		Counter() {
+		}
+
+		public void increment() {
+			this.value.increment();
+		}
+
+		public void add(final long n) {
+			this.value.add(n);
+		}
+
+		public long get() {
+			return this.value.sum();
+		}
+
+		void reset() {
+			this.value.reset();
+		}
+	}
+
+	/**
+	 * Counts how often something took how long.  Besides the sum and the maximum, it keeps a histogram with one bin
+	 * per power of two nanoseconds, from which the percentiles are estimated.
+	 */
+	public static final class Timer {
+		private static final int BINS = 64;
+
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+		private final AtomicLongArray histogram = new AtomicLongArray(BINS);
+
+		Timer() {
+		}
+
+		public void record(final long nanos) {
+			long n = nanos < 0 ? 0 : nanos;
+			this.count.increment();
+			this.totalNanos.add(n);
+			long max = this.maxNanos.get();
+			while (n > max && !this.maxNanos.compareAndSet(max, n)) {
+				max = this.maxNanos.get();
+			}
+			this.histogram.incrementAndGet(BINS - Long.numberOfLeadingZeros(n));
+		}
+
+		public long getCount() {
+			return this.count.sum();
+		}
+
+		public long getTotalNanos() {
+			return this.totalNanos.sum();
+		}
+
+		public long getMaxNanos() {
+			return this.maxNanos.get();
+		}
+
+		public double getMeanNanos() {
+			long count = getCount();
+			return count == 0 ? 0.0 : (double) getTotalNanos() / count;
+		}
+
+		/**
+		 * @return an upper bound of the given percentile, which is at most twice the actual value.
+		 */
+		public long getPercentileNanos(final double percentile) {
+			long count = 0;
+			long[] bins = new long[BINS];
+			for (int i = 0; i < BINS; i++) {
+				bins[i] = this.histogram.get(i);
+				count += bins[i];
+			}
+			if (count == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(percentile * count);
+			long seen = 0;
+			for (int i = 0; i < BINS; i++) {
+				seen += bins[i];
+				if (seen >= rank && bins[i] > 0) {
+					// bin i holds the values with i significant bits
+					return i == 0 ? 0 : Math.min((1L << i) - 1, getMaxNanos());
+				}
+			}
+			return getMaxNanos();
+		}
+
+		void reset() {
+			this.count.reset();
+			this.totalNanos.reset();
+			this.maxNanos.set(0);
+			for (int i = 0; i < BINS; i++) {
+				this.histogram.set(i, 0);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IterationMetricsControlerListener.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.analysis;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
+import org.matsim.core.controler.events.StartupEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
+import org.matsim.core.controler.listener.StartupListener;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+
+/**
+ * Enables the {@link IterationMetrics}, adds the number of events per type and the garbage collection and heap
+ * usage of each iteration, and writes all metrics to <code>ITERS/it.N/N.metrics.json</code> and to
+ * <code>metrics.csv</code> in the output directory.
+ * <p></p>
+ * If {@link ControlerConfigGroup#isTimeEventHandlers()} is set, the events manager also records the time spent in
+ * each event handler, and the handlers which took the most time are listed in the log at the end of each iteration.
+ *
+ * @see IterationMetricsModule
+ */
+final class IterationMetricsControlerListener implements StartupListener, IterationStartsListener, IterationEndsListener, ShutdownListener {
+
+	private static final Logger log = Logger.getLogger(IterationMetricsControlerListener.class);
+
+	static final String FILENAME_METRICS = "metrics";
+	static final String PREFIX_EVENT_HANDLERS = "events.handler.";
+	private static final int LOGGED_EVENT_HANDLERS = 10;
+
+	@Inject private IterationMetrics metrics;
+	@Inject private ControlerConfigGroup controlerConfigGroup;
+	@Inject private EventsManager eventsManager;
+	@Inject private OutputDirectoryHierarchy controlerIO;
+
+	private BufferedWriter csv = null;
+	private long gcCountAtStart = 0;
+	private long gcTimeAtStart = 0;
+
+	@Override
+	public void notifyStartup(final StartupEvent event) {
+		this.metrics.setEnabled(true);
+		this.eventsManager.addHandler(new EventCounter(this.metrics));
+		if (this.controlerConfigGroup.isTimeEventHandlers() && !EventsUtils.setHandlerMetrics(this.eventsManager, this.metrics)) {
+			log.warn("The events manager " + this.eventsManager.getClass().getName() + " cannot time its event handlers.");
+		}
+		this.csv = IOUtils.getBufferedWriter(this.controlerIO.getOutputFilename(FILENAME_METRICS + ".csv"));
+		try {
+			IterationMetrics.writeCsvHeader(this.csv);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void notifyIterationStarts(final IterationStartsEvent event) {
+		this.metrics.reset();
+		this.gcCountAtStart = getGcCount();
+		this.gcTimeAtStart = getGcTime();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+
+	@Override
+	public void notifyIterationEnds(final IterationEndsEvent event) {
+		this.metrics.setGauge("gc.count", getGcCount() - this.gcCountAtStart);
+		this.metrics.setGauge("gc.time_ms", getGcTime() - this.gcTimeAtStart);
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				MemoryUsage usage = pool.getPeakUsage();
+				if (usage != null) {
+					peak += usage.getUsed();
+				}
+			}
+		}
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		this.metrics.setGauge("heap.peak_mb", peak / (1024. * 1024.));
+		this.metrics.setGauge("heap.used_mb", heap.getUsed() / (1024. * 1024.));
+		this.metrics.setGauge("heap.committed_mb", heap.getCommitted() / (1024. * 1024.));
+		this.metrics.setGauge("heap.max_mb", heap.getMax() / (1024. * 1024.));
+		if (this.controlerConfigGroup.isTimeEventHandlers()) {
+			logSlowestEventHandlers();
+		}
+
+		this.metrics.writeJson(this.controlerIO.getIterationFilename(event.getIteration(), FILENAME_METRICS + ".json"), event.getIteration());
+		try {
+			this.metrics.writeCsv(this.csv, event.getIteration());
+			this.csv.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void notifyShutdown(final ShutdownEvent event) {
+		if (this.csv != null) {
+			try {
+				this.csv.close();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			this.csv = null;
+		}
+	}
+
+	private void logSlowestEventHandlers() {
+		List<Map.Entry<String, IterationMetrics.Timer>> handlers = new ArrayList<>();
+		for (Map.Entry<String, IterationMetrics.Timer> e : this.metrics.getTimers().entrySet()) {
+			if (e.getKey().startsWith(PREFIX_EVENT_HANDLERS) && e.getValue().getCount() > 0) {
+				handlers.add(e);
+			}
+		}
+		Collections.sort(handlers, new Comparator<Map.Entry<String, IterationMetrics.Timer>>() {
+			@Override
+			public int compare(Map.Entry<String, IterationMetrics.Timer> o1, Map.Entry<String, IterationMetrics.Timer> o2) {
+				return Long.compare(o2.getValue().getTotalNanos(), o1.getValue().getTotalNanos());
+			}
+		});
+		log.info("event handlers which took the most time in this iteration:");
+		for (Map.Entry<String, IterationMetrics.Timer> e : handlers.subList(0, Math.min(LOGGED_EVENT_HANDLERS, handlers.size()))) {
+			IterationMetrics.Timer timer = e.getValue();
+			log.info("  " + e.getKey().substring(PREFIX_EVENT_HANDLERS.length()) + ": " + timer.getTotalNanos() / 1000000 + " ms for "
+					+ timer.getCount() + " events");
+		}
+	}
+
+	private static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	private static long getGcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+
+	/**
+	 * Counts the events per type.  The events managers may call this from several threads.
+	 */
+	private static final class EventCounter implements BasicEventHandler {
+		private final IterationMetrics metrics;
+		private final IterationMetrics.Counter all;
+		private final Map<String, IterationMetrics.Counter> perType = new ConcurrentHashMap<>();
+
+		EventCounter(final IterationMetrics metrics) {
+			this.metrics = metrics;
+			this.all = metrics.getCounter("events");
+		}
+
+		@Override
+		public void handleEvent(final Event event) {
+			this.all.increment();
+			String type = event.getEventType();
+			IterationMetrics.Counter counter = this.perType.get(type);
+			if (counter == null) {
+				counter = this.metrics.getCounter("events." + type);
+				this.perType.put(type, counter);
+			}
+			counter.increment();
+		}
+
+		@Override
+		public void reset(final int iteration) {
+			// the counters are reset together with all other metrics at the start of the iteration
+		}
+	}
+
+}
@@ -237,6 +237,24 @@ public class LegHistogram implements PersonDepartureEventHandler, PersonArrivalE
 		return this.iteration;
 	}
 
+	/**
+	 * @return a copy of the data gathered so far, which is not affected by later events or resets and can hence be
+	 * written while the next iteration runs.
+	 */
+	LegHistogram copy() {
+		LegHistogram copy = new LegHistogram(this.binSize, this.nofBins);
+		copy.personIds = this.personIds;
+		copy.iteration = this.iteration;
+		for (Map.Entry<String, DataFrame> e : this.data.entrySet()) {
+			DataFrame dataFrame = e.getValue();
+			DataFrame dataFrameCopy = copy.getDataForMode(e.getKey());
+			System.arraycopy(dataFrame.countsDep, 0, dataFrameCopy.countsDep, 0, dataFrame.countsDep.length);
+			System.arraycopy(dataFrame.countsArr, 0, dataFrameCopy.countsArr, 0, dataFrame.countsArr.length);
+			System.arraycopy(dataFrame.countsStuck, 0, dataFrameCopy.countsStuck, 0, dataFrame.countsStuck.length);
+		}
+		return copy;
+	}
+
 	DataFrame getAllModesData() {
 		DataFrame result = new DataFrame(this.binSize, this.nofBins + 1);
 		for (DataFrame byMode : this.data.values()) {
@@ -24,6 +24,7 @@ import org.apache.log4j.Logger;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputTaskExecutor;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
@@ -43,6 +44,7 @@ final class LegHistogramListener implements IterationEndsListener, IterationStar
 	@Inject private LegHistogram histogram;
 	@Inject private ControlerConfigGroup controlerConfigGroup;
 	@Inject private OutputDirectoryHierarchy controlerIO;
+	@Inject private OutputTaskExecutor outputTaskExecutor;
 
 	static private final Logger log = Logger.getLogger(LegHistogramListener.class);
 
@@ -53,15 +55,21 @@ final class LegHistogramListener implements IterationEndsListener, IterationStar
 
 	@Override
 	public void notifyIterationEnds(final IterationEndsEvent event) {
-		this.histogram.write(controlerIO.getIterationFilename(event.getIteration(), "legHistogram.txt"));
 		this.printStats();
-		if (controlerConfigGroup.isCreateGraphs()) {
-			LegHistogramChart.writeGraphic(this.histogram, controlerIO.getIterationFilename(event.getIteration(), "legHistogram_all.png"));
-			for (String legMode : this.histogram.getLegModes()) {
-				LegHistogramChart.writeGraphic(this.histogram, controlerIO.getIterationFilename(event.getIteration(), "legHistogram_" + legMode + ".png"), legMode);
+		final int iteration = event.getIteration();
+		final LegHistogram histogram = this.outputTaskExecutor.isInBackground() ? this.histogram.copy() : this.histogram;
+		this.outputTaskExecutor.submit("leg histogram", new Runnable() {
+			@Override
+			public void run() {
+				histogram.write(controlerIO.getIterationFilename(iteration, "legHistogram.txt"));
+				if (controlerConfigGroup.isCreateGraphs()) {
+					LegHistogramChart.writeGraphic(histogram, controlerIO.getIterationFilename(iteration, "legHistogram_all.png"));
+					for (String legMode : histogram.getLegModes()) {
+						LegHistogramChart.writeGraphic(histogram, controlerIO.getIterationFilename(iteration, "legHistogram_" + legMode + ".png"), legMode);
+					}
+				}
 			}
-		}
-
+		});
 	}
 
 	private void printStats() {
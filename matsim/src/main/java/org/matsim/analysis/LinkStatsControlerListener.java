@@ -24,6 +24,7 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.LinkStatsConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputTaskExecutor;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.listener.IterationEndsListener;
@@ -45,6 +46,7 @@ final class LinkStatsControlerListener implements IterationEndsListener, Iterati
 	@Inject private VolumesAnalyzer volumes;
 	@Inject private OutputDirectoryHierarchy controlerIO;
 	@Inject private Map<String, TravelTime> travelTime;
+	@Inject private OutputTaskExecutor outputTaskExecutor;
     private int iterationsUsed = 0;
 	private boolean doReset = false;
 
@@ -58,7 +60,15 @@ final class LinkStatsControlerListener implements IterationEndsListener, Iterati
 		}
 
 		if (createLinkStatsInIteration(iteration)) {
-			linkStats.writeFile(this.controlerIO.getIterationFilename(iteration, Controler.FILENAME_LINKSTATS));
+			// the reset at the start of the next iteration replaces the data, so the snapshot does not change while it is written
+			final CalcLinkStats linkStatsToWrite = this.outputTaskExecutor.isInBackground() ? linkStats.snapshot() : linkStats;
+			final String filename = this.controlerIO.getIterationFilename(iteration, Controler.FILENAME_LINKSTATS);
+			this.outputTaskExecutor.submit("link stats", new Runnable() {
+				@Override
+				public void run() {
+					linkStatsToWrite.writeFile(filename);
+				}
+			});
 			this.doReset = true;
 		}
 	}
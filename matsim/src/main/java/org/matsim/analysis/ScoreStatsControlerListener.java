@@ -42,6 +42,7 @@ import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputTaskExecutor;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.events.StartupEvent;
@@ -85,6 +86,7 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 	
 	private final boolean createPNG;
 	private final ControlerConfigGroup controlerConfigGroup;
+	private final OutputTaskExecutor outputTaskExecutor;
 
 	Map<ScoreItem,Map< Integer, Double>> scoreHistory = new HashMap<>() ;
 	private int minIteration = 0;
@@ -93,8 +95,9 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 
 	@Inject
 	ScoreStatsControlerListener(ControlerConfigGroup controlerConfigGroup, Population population1, OutputDirectoryHierarchy controlerIO,
-			PlanCalcScoreConfigGroup scoreConfig, Provider<TripRouter> tripRouterFactory ) {
+			PlanCalcScoreConfigGroup scoreConfig, Provider<TripRouter> tripRouterFactory, OutputTaskExecutor outputTaskExecutor ) {
 		this.controlerConfigGroup = controlerConfigGroup;
+		this.outputTaskExecutor = outputTaskExecutor;
 		this.population = population1;
 		this.fileName = controlerIO.getOutputFilename(FILENAME_SCORESTATS);
 		this.createPNG = controlerConfigGroup.isCreateGraphs();
@@ -193,13 +196,8 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 		log.info("-- avg. of the avg. plan score per agent: " + (sumAvgScores / nofAvgScores));
 		log.info("-- avg. score of the best plan of each agent: " + (sumScoreBest / nofScoreBest));
 
-		try {
-			this.out.write(event.getIteration() + "\t" + (sumExecutedScores / nofExecutedScores) + "\t" +
-					(sumScoreWorst / nofScoreWorst) + "\t" + (sumAvgScores / nofAvgScores) + "\t" + (sumScoreBest / nofScoreBest) + "\n");
-			this.out.flush();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		final String line = event.getIteration() + "\t" + (sumExecutedScores / nofExecutedScores) + "\t" +
+				(sumScoreWorst / nofScoreWorst) + "\t" + (sumAvgScores / nofAvgScores) + "\t" + (sumScoreBest / nofScoreBest) + "\n";
 
 //		int index = event.getIteration() - this.minIteration;
 
@@ -208,20 +206,39 @@ public class ScoreStatsControlerListener implements StartupListener, IterationEn
 		this.scoreHistory.get( ScoreItem.average ).put( event.getIteration(), sumAvgScores / nofAvgScores ) ;
 		this.scoreHistory.get( ScoreItem.executed ).put( event.getIteration(), sumExecutedScores / nofExecutedScores ) ;
 
-		if (this.createPNG && event.getIteration() > this.minIteration) {
-			// create chart when data of more than one iteration is available.
-			XYLineChart chart = new XYLineChart("Score Statistics", "iteration", "score");
-//			double[] iterations = new double[index + 1];
-//			for (int i = 0; i <= index; i++) {
-//				iterations[i] = i + this.minIteration;
-//			}
-			chart.addSeries("avg. worst score", this.scoreHistory.get( ScoreItem.worst ) ) ;
-			chart.addSeries("avg. best score", this.scoreHistory.get( ScoreItem.best) );
-			chart.addSeries("avg. of plans' average score", this.scoreHistory.get( ScoreItem.average) );
-			chart.addSeries("avg. executed score", this.scoreHistory.get( ScoreItem.executed ) );
-			chart.addMatsimLogo();
-			chart.saveAsPng(this.fileName + ".png", 800, 600);
+		final boolean createChart = this.createPNG && event.getIteration() > this.minIteration;
+		// the history is changed again in the next iteration, so a chart created in the background gets a copy of it
+		final Map<ScoreItem, Map<Integer, Double>> history;
+		if (createChart && this.outputTaskExecutor.isInBackground()) {
+			history = new HashMap<>();
+			for (Entry<ScoreItem, Map<Integer, Double>> e : this.scoreHistory.entrySet()) {
+				history.put(e.getKey(), new TreeMap<>(e.getValue()));
+			}
+		} else {
+			history = this.scoreHistory;
 		}
+		this.outputTaskExecutor.submit("score stats", new Runnable() {
+			@Override
+			public void run() {
+				try {
+					out.write(line);
+					out.flush();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+
+				if (createChart) {
+					// create chart when data of more than one iteration is available.
+					XYLineChart chart = new XYLineChart("Score Statistics", "iteration", "score");
+					chart.addSeries("avg. worst score", history.get( ScoreItem.worst ) ) ;
+					chart.addSeries("avg. best score", history.get( ScoreItem.best) );
+					chart.addSeries("avg. of plans' average score", history.get( ScoreItem.average) );
+					chart.addSeries("avg. executed score", history.get( ScoreItem.executed ) );
+					chart.addMatsimLogo();
+					chart.saveAsPng(fileName + ".png", 800, 600);
+				}
+			}
+		});
 	}
 
 	@Override
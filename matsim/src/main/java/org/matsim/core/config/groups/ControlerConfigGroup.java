@@ -37,7 +37,7 @@ import java.util.Set;
 public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private static final Logger log = Logger.getLogger( ControlerConfigGroup.class );
 
-	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, FastDijkstra, FastAStarLandmarks}
+	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, FastDijkstra, FastAStarLandmarks, BidirectionalDijkstra, BidirectionalAStarLandmarks}
 
 	public enum EventsFileFormat {xml}
 
@@ -56,6 +56,11 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private static final String OVERWRITE_FILE = "overwriteFiles";
 	private static final String CREATE_GRAPHS = "createGraphs";
 	private static final String DUMP_DATA_AT_END = "dumpDataAtEnd";
+	private static final String WRITE_OUTPUT_IN_BACKGROUND = "writeOutputInBackground";
+	private static final String WRITE_ITERATION_METRICS = "writeIterationMetrics";
+	private static final String TIME_EVENT_HANDLERS = "timeEventHandlers";
+	private static final String POPULATION_SAMPLE_INITIAL_FRACTION = "populationSampleInitialFraction";
+	private static final String POPULATION_SAMPLE_FULL_ITERATION = "populationSampleFullIteration";
 
 	/*package*/ static final String MOBSIM = "mobsim";
 	public enum MobsimType {qsim, JDEQSim}
@@ -81,6 +86,11 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private int writeSnapshotsInterval = 1;
 	private boolean createGraphs = true;
 	private boolean dumpDataAtEnd = true;
+	private boolean writeOutputInBackground = false;
+	private boolean writeIterationMetrics = false;
+	private boolean timeEventHandlers = false;
+	private Double populationSampleInitialFraction = null;
+	private int populationSampleFullIteration = -1;
 	private OverwriteFileSetting overwriteFileSetting = OverwriteFileSetting.failIfDirectoryExists;
 
 	public ControlerConfigGroup() {
@@ -91,7 +101,9 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	public final Map<String, String> getComments() {
 		Map<String,String> map = super.getComments();
 		map.put(ROUTINGALGORITHM_TYPE, "The type of routing (least cost path) algorithm used, may have the values: " + RoutingAlgorithmType.Dijkstra + ", " + 
-				RoutingAlgorithmType.FastDijkstra + ", " + RoutingAlgorithmType.AStarLandmarks + " or "  + RoutingAlgorithmType.FastAStarLandmarks);
+				RoutingAlgorithmType.FastDijkstra + ", " + RoutingAlgorithmType.AStarLandmarks + ", "  + RoutingAlgorithmType.FastAStarLandmarks + ", " +
+				RoutingAlgorithmType.BidirectionalDijkstra + " or " + RoutingAlgorithmType.BidirectionalAStarLandmarks + ". " +
+				RoutingAlgorithmType.BidirectionalDijkstra + " approximates time-dependent costs in its backward search and may return slightly more expensive routes in congested networks.");
 		map.put(RUNID, "An identifier for the current run which is used as prefix for output files and mentioned in output xml files etc.");
 		map.put(EVENTS_FILE_FORMAT, "Default="+EventsFileFormat.xml+"; Specifies the file format for writing events. Currently supported: xml."+IOUtils.NATIVE_NEWLINE+ "\t\t" +
 				"Multiple values can be specified separated by commas (',').");
@@ -120,6 +132,20 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 		map.put(WRITE_SNAPSHOTS_INTERVAL, "iterationNumber % " + WRITE_SNAPSHOTS_INTERVAL + " == 0 defines in which iterations snapshots are written " +
 				"to a file. `0' disables snapshots writing completely");
 		map.put(DUMP_DATA_AT_END, "true if at the end of a run, plans, network, config etc should be dumped to a file");
+		map.put(WRITE_OUTPUT_IN_BACKGROUND, "Default=false. If true, some of the per-iteration output (events file, leg histograms," +
+				" link stats, score stats) is written on a background thread while the next iteration already runs." +
+				" The output files of an iteration may hence be incomplete until a later iteration or the end of the run.");
+		map.put(WRITE_ITERATION_METRICS, "Default=false. If true, counters and timers of the mobsim, the routing and the events, as well as" +
+				" garbage collection and heap statistics, are written for every iteration to metrics.json in the iteration directory" +
+				" and to metrics.csv in the output directory.");
+		map.put(TIME_EVENT_HANDLERS, "Default=false. Only used if " + WRITE_ITERATION_METRICS + " is true. If true, the time spent in every" +
+				" event handler is added to the metrics, per handler class and event type. This makes the events handling somewhat slower.");
+		map.put(POPULATION_SAMPLE_INITIAL_FRACTION, "Default=not set. If set to a value between 0 and 1, the first iteration only simulates, replans and scores" +
+				" this fraction of the population, drawn separately from each subpopulation. The fraction grows geometrically until the full population" +
+				" is used from iteration " + POPULATION_SAMPLE_FULL_ITERATION + " on. The flow and storage capacity factors of the qsim are multiplied" +
+				" with the fraction. Persons which are not part of the sample keep their plans unchanged.");
+		map.put(POPULATION_SAMPLE_FULL_ITERATION, "Iteration from which on the full population is used if " + POPULATION_SAMPLE_INITIAL_FRACTION +
+				" is set. Must be larger than the first iteration.");
 		return map;
 	}
 
@@ -342,6 +368,59 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	public void setDumpDataAtEnd(boolean dumpDataAtEnd) {
 		this.dumpDataAtEnd = dumpDataAtEnd;
 	}
+
+	@StringGetter(WRITE_OUTPUT_IN_BACKGROUND)
+	public boolean isWriteOutputInBackground() {
+		return writeOutputInBackground;
+	}
+
+	@StringSetter(WRITE_OUTPUT_IN_BACKGROUND)
+	public void setWriteOutputInBackground(boolean writeOutputInBackground) {
+		this.writeOutputInBackground = writeOutputInBackground;
+	}
+
+	@StringGetter(WRITE_ITERATION_METRICS)
+	public boolean isWriteIterationMetrics() {
+		return writeIterationMetrics;
+	}
+
+	@StringSetter(WRITE_ITERATION_METRICS)
+	public void setWriteIterationMetrics(boolean writeIterationMetrics) {
+		this.writeIterationMetrics = writeIterationMetrics;
+	}
+
+	@StringGetter(POPULATION_SAMPLE_INITIAL_FRACTION)
+	public Double getPopulationSampleInitialFraction() {
+		return populationSampleInitialFraction;
+	}
+
+	@StringSetter(POPULATION_SAMPLE_INITIAL_FRACTION)
+	public void setPopulationSampleInitialFraction(Double populationSampleInitialFraction) {
+		if (populationSampleInitialFraction != null && (populationSampleInitialFraction <= 0 || populationSampleInitialFraction > 1)) {
+			throw new IllegalArgumentException(POPULATION_SAMPLE_INITIAL_FRACTION + " must be larger than 0 and at most 1, but is " + populationSampleInitialFraction);
+		}
+		this.populationSampleInitialFraction = populationSampleInitialFraction;
+	}
+
+	@StringGetter(POPULATION_SAMPLE_FULL_ITERATION)
+	public int getPopulationSampleFullIteration() {
+		return populationSampleFullIteration;
+	}
+
+	@StringSetter(POPULATION_SAMPLE_FULL_ITERATION)
+	public void setPopulationSampleFullIteration(int populationSampleFullIteration) {
+		this.populationSampleFullIteration = populationSampleFullIteration;
+	}
+
+	@StringGetter(TIME_EVENT_HANDLERS)
+	public boolean isTimeEventHandlers() {
+		return timeEventHandlers;
+	}
+
+	@StringSetter(TIME_EVENT_HANDLERS)
+	public void setTimeEventHandlers(boolean timeEventHandlers) {
+		this.timeEventHandlers = timeEventHandlers;
+	}
 	// ---
 	int writePlansUntilIteration = 1 ;
 	public int getWritePlansUntilIteration() {
@@ -365,5 +444,8 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 			log.warn( "this is not recommended, as it might result in a directory containing output from several model runs" );
 			log.warn( "prefer the options "+OverwriteFileSetting.deleteDirectoryIfExists+" or "+OverwriteFileSetting.failIfDirectoryExists );
 		}
+		if ( this.populationSampleInitialFraction != null && this.populationSampleFullIteration <= this.firstIteration ) {
+			throw new RuntimeException( POPULATION_SAMPLE_FULL_ITERATION + " must be larger than the first iteration if " + POPULATION_SAMPLE_INITIAL_FRACTION + " is set." );
+		}
 	}
 }
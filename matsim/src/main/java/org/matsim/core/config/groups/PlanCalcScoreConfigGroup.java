@@ -150,6 +150,7 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 
 	// ---
 	private static final String FRACTION_OF_ITERATIONS_TO_START_SCORE_MSA = "fractionOfIterationsToStartScoreMSA";
+	private static final String INCREMENTAL_SCORING_TOLERANCE = "incrementalScoringTolerance";
 
 	// ---
 
@@ -396,6 +397,10 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 				"[utils/unit_of_money] conversion of money (e.g. toll, distance cost) into utils. Normall positive (i.e. toll/cost/fare are processed as negative amounts of money).");
 		map.put(WRITE_EXPERIENCED_PLANS,
 				"write a plans file in each iteration directory which contains what each agent actually did, and the score it received.");
+		map.put(INCREMENTAL_SCORING_TOLERANCE,
+				"[sec] if set, agents who execute the same selected plan as in the iteration in which they were last scored, and whose activity "
+						+ "and leg times all differ by at most this many seconds from that iteration, are not scored again but receive the score "
+						+ "of that iteration.  Saves scoring time in late iterations; scores become approximate.  Default: not set, i.e. all agents are scored.");
 
 		return map;
 	}
@@ -770,6 +775,14 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 		return delegate.getFractionOfIterationsToStartScoreMSA();
 	}
 
+	public void setIncrementalScoringTolerance(Double val) {
+		delegate.setIncrementalScoringTolerance(val);
+	}
+
+	public Double getIncrementalScoringTolerance() {
+		return delegate.getIncrementalScoringTolerance();
+	}
+
 	@Override
 	public final void setLocked() {
 		super.setLocked();
@@ -1520,6 +1533,8 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 
 		private Double fractionOfIterationsToStartScoreMSA = null;
 
+		private Double incrementalScoringTolerance = null;
+
 		private boolean usingOldScoringBelowZeroUtilityDuration = false;
 
 		@StringGetter(FRACTION_OF_ITERATIONS_TO_START_SCORE_MSA)
@@ -1533,6 +1548,20 @@ public final class PlanCalcScoreConfigGroup extends ConfigGroup {
 			this.fractionOfIterationsToStartScoreMSA = fractionOfIterationsToStartScoreMSA;
 		}
 
+		@StringGetter(INCREMENTAL_SCORING_TOLERANCE)
+		public Double getIncrementalScoringTolerance() {
+			return incrementalScoringTolerance;
+		}
+
+		@StringSetter(INCREMENTAL_SCORING_TOLERANCE)
+		public void setIncrementalScoringTolerance(Double incrementalScoringTolerance) {
+			testForLocked();
+			if (incrementalScoringTolerance != null && incrementalScoringTolerance < 0) {
+				throw new IllegalArgumentException(INCREMENTAL_SCORING_TOLERANCE + " must not be negative, but is " + incrementalScoringTolerance);
+			}
+			this.incrementalScoringTolerance = incrementalScoringTolerance;
+		}
+
 		@StringGetter(LEARNING_RATE)
 		public double getLearningRate() {
 			return learningRate;
@@ -77,6 +77,17 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 	
 	// ---
 
+	private static final String ROUTE_CACHE_SIZE = "routeCacheSize" ;
+	private int routeCacheSize = 0 ;
+
+	private static final String ROUTE_CACHE_TIME_BIN_SIZE = "routeCacheTimeBinSize" ;
+	private double routeCacheTimeBinSize = 900. ;
+
+	private static final String BATCH_ROUTING_TIME_BIN_SIZE = "batchRoutingTimeBinSize" ;
+	private double batchRoutingTimeBinSize = 0. ;
+	
+	// ---
+
 	public static class ModeRoutingParams extends ReflectiveConfigGroup implements MatsimParameters {
 		public static final String SET_TYPE = "teleportedModeParameters";
 		public static final String MODE = "mode";
@@ -398,6 +409,12 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 			setTeleportedModeSpeed(UNDEFINED, Double.parseDouble(value));
 		} else if (NETWORK_MODES.equals(key)) {
 			setNetworkModes(Arrays.asList(CollectionUtils.stringToArray(value)));
+		} else if (ROUTE_CACHE_SIZE.equals(key)) {
+			setRouteCacheSize(Integer.parseInt(value));
+		} else if (ROUTE_CACHE_TIME_BIN_SIZE.equals(key)) {
+			setRouteCacheTimeBinSize(Double.parseDouble(value));
+		} else if (BATCH_ROUTING_TIME_BIN_SIZE.equals(key)) {
+			setBatchRoutingTimeBinSize(Double.parseDouble(value));
 		} else if (key.startsWith(TELEPORTED_MODE_SPEEDS)) {
 			setTeleportedModeSpeed(key.substring(TELEPORTED_MODE_SPEEDS.length()), Double.parseDouble(value));
 		} else if (key.startsWith(TELEPORTED_MODE_FREESPEED_FACTORS)) {
@@ -411,6 +428,9 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 	public final Map<String, String> getParams() {
 		Map<String, String> map = super.getParams();
 		map.put( NETWORK_MODES, CollectionUtils.arrayToString(this.networkModes.toArray(new String[this.networkModes.size()])));
+		map.put( ROUTE_CACHE_SIZE, Integer.toString(this.routeCacheSize) );
+		map.put( ROUTE_CACHE_TIME_BIN_SIZE, Double.toString(this.routeCacheTimeBinSize) );
+		map.put( BATCH_ROUTING_TIME_BIN_SIZE, Double.toString(this.batchRoutingTimeBinSize) );
 
 		//		map.put( BEELINE_DISTANCE_FACTOR, Double.toString(this.getBeelineDistanceFactor()) );
 
@@ -436,6 +456,16 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 	        map.put(RANDOMNESS, "strength of the randomness for the utility of money in routing under toll.  "
 	          		+ "Leads to Pareto-optimal route with randomly drawn money-vs-other-attributes tradeoff. "
 	          		+ "Technically the width parameter of a log-normal distribution. 3.0 seems to be a good value. " ) ;
+		map.put(ROUTE_CACHE_SIZE, "maximum number of trips of the network modes which are cached per re-routing thread and iteration, "
+				+ "so that agents with the same origin link, destination link and departure time bin get a copy of the same route.  "
+				+ "The least recently used trips are dropped first.  0 (the default) disables the cache.  Routes are then no longer "
+				+ "person-specific, so the cache is only used with a routingRandomness of 0.") ;
+		map.put(ROUTE_CACHE_TIME_BIN_SIZE, "size of the departure time bins of the route cache, in seconds.") ;
+		map.put(BATCH_ROUTING_TIME_BIN_SIZE, "when the plans are prepared for the mobsim, e.g. the initial plans, the trips without routes whose departure "
+				+ "time is known beforehand are routed in batches: all trips of a network mode from the same link whose departure times "
+				+ "fall into the same bin of this size (in seconds) are routed with one least-cost path tree, which starts at their "
+				+ "earliest departure time.  0 (the default) routes every trip separately.  Only used with a routingRandomness of 0 and "
+				+ "without access/egress walks.") ;
 		return map;
 	}
 
@@ -535,9 +565,51 @@ public final class PlansCalcRouteConfigGroup extends ConfigGroup {
 		this.routingRandomness = routingRandomness;
 	}
 
+	public int getRouteCacheSize() {
+		return this.routeCacheSize;
+	}
+	public void setRouteCacheSize(int routeCacheSize) {
+		testForLocked() ;
+		this.routeCacheSize = routeCacheSize;
+	}
+
+	public double getRouteCacheTimeBinSize() {
+		return this.routeCacheTimeBinSize;
+	}
+	public void setRouteCacheTimeBinSize(double routeCacheTimeBinSize) {
+		testForLocked() ;
+		this.routeCacheTimeBinSize = routeCacheTimeBinSize;
+	}
+
+	public double getBatchRoutingTimeBinSize() {
+		return this.batchRoutingTimeBinSize;
+	}
+	public void setBatchRoutingTimeBinSize(double batchRoutingTimeBinSize) {
+		testForLocked() ;
+		this.batchRoutingTimeBinSize = batchRoutingTimeBinSize;
+	}
+
 	@Override protected void checkConsistency(Config config) {
 		super.checkConsistency(config);
 
+		if ( this.routeCacheSize < 0 ) {
+			throw new RuntimeException( ROUTE_CACHE_SIZE + " must not be negative." ) ;
+		}
+		if ( this.routeCacheTimeBinSize <= 0. ) {
+			throw new RuntimeException( ROUTE_CACHE_TIME_BIN_SIZE + " must be positive." ) ;
+		}
+		if ( this.routeCacheSize > 0 && this.routingRandomness > 0. ) {
+			log.warn( ROUTE_CACHE_SIZE + " is set, but " + RANDOMNESS + " is " + this.routingRandomness + ", so the routes depend on the "
+					+ "person and the route cache is not used.  Set " + RANDOMNESS + " to 0 to use it." ) ;
+		}
+		if ( this.batchRoutingTimeBinSize < 0. ) {
+			throw new RuntimeException( BATCH_ROUTING_TIME_BIN_SIZE + " must not be negative." ) ;
+		}
+		if ( this.batchRoutingTimeBinSize > 0. && this.routingRandomness > 0. ) {
+			log.warn( BATCH_ROUTING_TIME_BIN_SIZE + " is set, but " + RANDOMNESS + " is " + this.routingRandomness + ", so the routes depend "
+					+ "on the person and are not routed in batches.  Set " + RANDOMNESS + " to 0 to use it." ) ;
+		}
+
 //		if ( this.insertingAccessEgressWalk ) {
 //			// we need scoring parameters for each resulting interaction activity
 //			for ( String mode : this.getNetworkModes() ) {
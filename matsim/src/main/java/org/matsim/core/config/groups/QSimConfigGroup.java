@@ -265,6 +265,8 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 				+ "flows are updated only if an agent wants to enter the link or an agent is added to buffer. "
 				+ "Default is true.") ;
 		map.put(USE_LANES, "Set this parameter to true if lanes should be used, false if not.");
+		map.put(SNAPSHOT_WRITER_MAX_LAG, SNAPSHOT_WRITER_MAX_LAG_CMT);
+		map.put(USING_VEHICLE_POOL, USING_VEHICLE_POOL_CMT);
 		{	
 			StringBuilder stb = new StringBuilder() ;
 			for ( VehiclesSource src : VehiclesSource.values() ) {
@@ -586,6 +588,44 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		return this.usingTravelTimeCheckInTeleportation = val ;
 	}
 	
+	private static final String SNAPSHOT_WRITER_MAX_LAG = "snapshotWriterMaxLag";
+	private int snapshotWriterMaxLag = 0;
+	@StringGetter(SNAPSHOT_WRITER_MAX_LAG)
+	public int getSnapshotWriterMaxLag() {
+		return this.snapshotWriterMaxLag;
+	}
+	/**
+	 * @param snapshotWriterMaxLag -- {@value #SNAPSHOT_WRITER_MAX_LAG_CMT}
+	 */
+	@StringSetter(SNAPSHOT_WRITER_MAX_LAG)
+	public void setSnapshotWriterMaxLag(int snapshotWriterMaxLag) {
+		if ( snapshotWriterMaxLag < 0 ) {
+			throw new IllegalArgumentException( "Snapshot writer lag must not be negative, got " + snapshotWriterMaxLag );
+		}
+		this.snapshotWriterMaxLag = snapshotWriterMaxLag;
+	}
+	static final String SNAPSHOT_WRITER_MAX_LAG_CMT = "Number of snapshots that may be pending while a background thread "
+			+ "writes them.  `0' writes snapshots synchronously on the mobsim thread.  If positive, the mobsim only copies "
+			+ "vehicle positions into a buffer and blocks when this many snapshots are not yet written.";
+	// ---
+	private static final String USING_VEHICLE_POOL = "usingVehiclePool";
+	private boolean usingVehiclePool = false;
+	@StringGetter(USING_VEHICLE_POOL)
+	public boolean isUsingVehiclePool() {
+		return this.usingVehiclePool;
+	}
+	/**
+	 * @param usingVehiclePool -- {@value #USING_VEHICLE_POOL_CMT}
+	 */
+	@StringSetter(USING_VEHICLE_POOL)
+	public void setUsingVehiclePool(boolean usingVehiclePool) {
+		this.usingVehiclePool = usingVehiclePool;
+	}
+	static final String USING_VEHICLE_POOL_CMT = "If true, the mobsim vehicles of the population are kept between iterations "
+			+ "and reset instead of being created again for every mobsim run.  Reduces garbage collection at the start of "
+			+ "each mobsim for large populations.";
+	// ---
+	
 	static final String PCU_THRESHOLD_FOR_FLOW_CAPACITY_EASING = //
 			"Flow capacity easing is activated for vehicles of size equal or smaller than the specified threshold. "
 			+ "Introduced to minimise the chances of buses being severely delayed in downsampled scenarios";
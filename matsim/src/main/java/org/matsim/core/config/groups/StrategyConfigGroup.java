@@ -277,6 +277,11 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TMP_FILE_ROOT_DIR, "root directory for temporary files generated by the external executable. Provided as a service; "
 				+ "I don't think this is used by MATSim.") ;
 		map.put(ReflectiveDelegate.EXTERNAL_EXE_TIME_OUT, "time out value (in seconds) after which matsim will consider the external strategy as failed") ;
+		map.put(ReflectiveDelegate.NUMBER_OF_THREADS, "number of threads which remove surplus plans, choose the strategies of the agents and run them.  "
+				+ "``0'' (the default) does this on the main thread with the global random number generator.  Any other value uses random "
+				+ "numbers derived from the agent ids, so that the results do not depend on the number of threads; plan selectors and the "
+				+ "first strategy modules must then be thread-safe.  Multi-threaded modules still get their plans in agent order and use "
+				+ "the global numberOfThreads.") ;
 		return map ;
 	}
 
@@ -385,6 +390,14 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		return delegate.getFractionOfIterationsToDisableInnovation();
 	}
 
+	public int getNumberOfThreads() {
+		return delegate.getNumberOfThreads();
+	}
+
+	public void setNumberOfThreads(int numberOfThreads) {
+		delegate.setNumberOfThreads(numberOfThreads);
+	}
+
 	public void setFractionOfIterationsToDisableInnovation(double fraction) {
 		delegate.setFractionOfIterationsToDisableInnovation(fraction);
 	}
@@ -401,6 +414,7 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		 static final String EXTERNAL_EXE_TIME_OUT = "ExternalExeTimeOut";
 		 static final String ITERATION_FRACTION_TO_DISABLE_INNOVATION = "fractionOfIterationsToDisableInnovation" ;
 		 static final String PLAN_SELECTOR_FOR_REMOVAL = "planSelectorForRemoval" ;
+		 static final String NUMBER_OF_THREADS = "numberOfThreads" ;
 
 		private int maxAgentPlanMemorySize = 5;
 		private String externalExeConfigTemplate = null;
@@ -412,6 +426,8 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		//---
 		private double fraction = Double.POSITIVE_INFINITY ;
 		//---
+		private int numberOfThreads = 0 ;
+		//---
 
 		public ReflectiveDelegate() {
 			super( StrategyConfigGroup.GROUP_NAME );
@@ -477,6 +493,16 @@ public final class StrategyConfigGroup extends ConfigGroup {
 		public void setFractionOfIterationsToDisableInnovation(double fraction) {
 			this.fraction = fraction;
 		}
+
+		@StringGetter( NUMBER_OF_THREADS )
+		public int getNumberOfThreads() {
+			return numberOfThreads;
+		}
+
+		@StringSetter( NUMBER_OF_THREADS )
+		public void setNumberOfThreads(int numberOfThreads) {
+			this.numberOfThreads = numberOfThreads;
+		}
 	}
 }
 
@@ -57,6 +57,8 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
 
+	private static final String SNAPSHOT_FOR_ROUTING = "useSnapshotForRouting";
+
 	private TravelTimeCalculatorType travelTimeCalculator = TravelTimeCalculatorType.TravelTimeCalculatorArray;
 	private String travelTimeAggregator = "optimistic";
 	private String travelTimeGetter = "average";
@@ -70,6 +72,8 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private boolean filterModes = false;
 	private boolean separateModes = true;
 
+	private boolean useSnapshotForRouting = false;
+
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
 		analyzedModes.add( TransportMode.car ) ;
@@ -90,6 +94,9 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 							 "respected by the travel time collector. 'car' is default which includes also buses from the pt simulation module.");
 		map.put(FILTERMODES, "(only for backwards compatiblity; only used if " + SEPARATEMODES + "==false)  Only modes included in analyzedModes are included." ) ;
 		map.put(SEPARATEMODES, "(only for backwards compatibility) If false, link travel times are measured and aggregated over all vehicles using the link." ) ;
+		map.put(SNAPSHOT_FOR_ROUTING, "If true, the router sees the travel times of the last completed iteration, frozen at its end, while the " +
+				"events of the running iteration are collected into a second buffer.  Within-day or asynchronous routing then never reads " +
+				"partially collected or half-reset data.  Doubles the memory used for the travel time data.  Default is false." ) ;
 		map.put( TRAVEL_TIME_CALCULATOR, "possible values: " + Arrays.stream( TravelTimeCalculatorType.values() ).map( type -> type.toString() + ' ' ).collect( Collectors.joining() ) );
 		return map;
 	}
@@ -213,5 +220,15 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	public void setSeparateModes(boolean separateModes) {
 		this.separateModes = separateModes;
 	}
+	// ---
+	@StringGetter(SNAPSHOT_FOR_ROUTING)
+	public boolean isUseSnapshotForRouting() {
+		return this.useSnapshotForRouting;
+	}
+
+	@StringSetter(SNAPSHOT_FOR_ROUTING)
+	public void setUseSnapshotForRouting(boolean useSnapshotForRouting) {
+		this.useSnapshotForRouting = useSnapshotForRouting;
+	}
 
 }
@@ -35,6 +35,8 @@ import org.matsim.core.gbl.MatsimRandom;
 
     private final IterationStopWatch stopwatch;
 
+    private final OutputTaskExecutor outputTaskExecutor;
+
 
     /**
      * This is deliberately not even protected.  kai, jul'12
@@ -49,10 +51,16 @@ import org.matsim.core.gbl.MatsimRandom;
     }
 
     AbstractController(ControlerListenerManagerImpl controlerListenerManager, IterationStopWatch stopWatch, MatsimServices matsimServices) {
+        this(controlerListenerManager, stopWatch, matsimServices, new OutputTaskExecutor(false));
+    }
+
+    AbstractController(ControlerListenerManagerImpl controlerListenerManager, IterationStopWatch stopWatch, MatsimServices matsimServices,
+            OutputTaskExecutor outputTaskExecutor) {
         log.info("Used Controler-Class: " + this.getClass().getCanonicalName());
         this.controlerListenerManagerImpl = controlerListenerManager;
         this.controlerListenerManagerImpl.setControler(matsimServices);
         this.stopwatch = stopWatch;
+        this.outputTaskExecutor = outputTaskExecutor;
     }
 
     private void resetRandomNumbers(long seed, int iteration) {
@@ -82,7 +90,12 @@ import org.matsim.core.gbl.MatsimRandom;
 
             @Override
             public void shutdown(boolean unexpected) {
-                controlerListenerManagerImpl.fireControlerShutdownEvent(unexpected);
+                // the shutdown listeners close and copy the output files, so the output written in the background has to be complete
+                try {
+                    outputTaskExecutor.awaitCompletion();
+                } finally {
+                    controlerListenerManagerImpl.fireControlerShutdownEvent(unexpected);
+                }
             }
         };
         MatsimRuntimeModifications.run(runnable);
@@ -48,6 +48,7 @@ class NewControler extends AbstractController implements ControlerI {
 	private final PlansScoring plansScoring;
 	private final TerminationCriterion terminationCriterion;
 	private final DumpDataAtEnd dumpDataAtEnd;
+	private final PopulationSampling populationSampling;
 	private final Set<ControlerListener> controlerListenersDeclaredByModules;
 	private final ControlerConfigGroup controlerConfigGroup;
 	private final OutputDirectoryHierarchy outputDirectoryHierarchy;
@@ -59,9 +60,9 @@ class NewControler extends AbstractController implements ControlerI {
 			 PlansScoring plansScoring, TerminationCriterion terminationCriterion, DumpDataAtEnd dumpDataAtEnd,
 			 Set<ControlerListener> controlerListenersDeclaredByModules, ControlerConfigGroup controlerConfigGroup,
 			 OutputDirectoryHierarchy outputDirectoryHierarchy
-			, PrepareForMobsim prepareForMobsim
+			, PrepareForMobsim prepareForMobsim, OutputTaskExecutor outputTaskExecutor, PopulationSampling populationSampling
  ) {
-		super(controlerListenerManager, stopWatch, matsimServices);
+		super(controlerListenerManager, stopWatch, matsimServices, outputTaskExecutor);
 		this.config = config;
 		this.prepareForMobsim = prepareForMobsim;
 		this.config.addConfigConsistencyChecker(new ConfigConsistencyCheckerImpl());
@@ -73,6 +74,7 @@ class NewControler extends AbstractController implements ControlerI {
 		this.plansScoring = plansScoring;
 		this.terminationCriterion = terminationCriterion;
 		this.dumpDataAtEnd = dumpDataAtEnd;
+		this.populationSampling = populationSampling;
 		this.controlerListenersDeclaredByModules = controlerListenersDeclaredByModules;
 		this.controlerConfigGroup = controlerConfigGroup;
 		this.outputDirectoryHierarchy = outputDirectoryHierarchy;
@@ -103,7 +105,9 @@ class NewControler extends AbstractController implements ControlerI {
 		this.addCoreControlerListener(this.plansReplanning);
 		this.addCoreControlerListener(this.plansDumping);
 		this.addCoreControlerListener(this.eventsHandling);
-		// must be last being added (=first being executed)
+		this.addCoreControlerListener(this.populationSampling);
+		// must be last being added (=first being executed): it removes the persons which are not part of the sample
+		// before anyone else sees the population, and adds them again before the data is dumped at the end
 
 		for (ControlerListener controlerListener : this.controlerListenersDeclaredByModules) {
 			this.addControlerListener(controlerListener);
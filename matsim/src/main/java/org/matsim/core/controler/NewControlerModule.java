@@ -11,6 +11,7 @@ public final class NewControlerModule extends AbstractModule {
 		
 		bind(IterationStopWatch.class).asEagerSingleton();
 		bind(OutputDirectoryHierarchy.class).asEagerSingleton();
+		bind(OutputTaskExecutor.class).asEagerSingleton();
 		bind(TerminationCriterion.class).to(TerminateAtFixedIterationNumber.class);
 		bind(MatsimServices.class).to(MatsimServicesImpl.class);
 
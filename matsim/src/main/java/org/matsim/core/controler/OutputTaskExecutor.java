@@ -0,0 +1,133 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * OutputTaskExecutor.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+
+/**
+ * Runs the output tasks of controler listeners, e.g. writing files and charts, in the background while the
+ * controler continues with the next iteration.  A listener which wants to use this takes a snapshot of its data
+ * in the listener method and submits a task that only works on this snapshot, so that the task is not affected by
+ * anything that happens in the next iteration.
+ * <p></p>
+ * The tasks run one after the other on a single thread, in the order they were submitted, so tasks writing to
+ * the same file do not need any synchronization among each other.  The controler waits for all tasks before
+ * it fires the shutdown event.  If background output is disabled by
+ * {@link ControlerConfigGroup#isWriteOutputInBackground()}, the tasks are run directly in {@link #submit(String, Runnable)}.
+ * <p></p>
+ * A task that fails makes the next call of {@link #submit(String, Runnable)} or {@link #awaitCompletion()} fail.
+ */
+public final class OutputTaskExecutor {
+
+	private static final Logger log = Logger.getLogger(OutputTaskExecutor.class);
+
+	private final boolean inBackground;
+	private ExecutorService executor = null;
+	private volatile RuntimeException failure = null;
+
+	@Inject
+	OutputTaskExecutor(final ControlerConfigGroup config) {
+		this(config.isWriteOutputInBackground());
+	}
+
+	public OutputTaskExecutor(final boolean inBackground) {
+		this.inBackground = inBackground;
+	}
+
+	public boolean isInBackground() {
+		return this.inBackground;
+	}
+
+	/**
+	 * @param name a name of the task, used in log messages
+	 * @param task a task that only uses data which is not changed anymore by anybody else
+	 */
+	public synchronized void submit(final String name, final Runnable task) {
+		checkFailure();
+		if (!this.inBackground) {
+			task.run();
+			return;
+		}
+		if (this.executor == null) {
+			this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable r) {
+					Thread thread = new Thread(r, "OutputTaskExecutor");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		this.executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (failure != null) {
+					return;
+				}
+				try {
+					task.run();
+				} catch (RuntimeException | Error e) {
+					log.error("output task " + name + " failed.", e);
+					failure = new RuntimeException("output task " + name + " failed.", e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Waits until all submitted tasks are done.  Tasks may be submitted again afterwards.
+	 */
+	public synchronized void awaitCompletion() {
+		if (this.executor != null) {
+			log.info("waiting for the output tasks running in the background...");
+			this.executor.shutdown();
+			try {
+				while (!this.executor.awaitTermination(1, TimeUnit.MINUTES)) {
+					log.info("still waiting for the output tasks running in the background...");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			} finally {
+				this.executor = null;
+			}
+			log.info("all output tasks are done.");
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() {
+		RuntimeException e = this.failure;
+		if (e != null) {
+			this.failure = null;
+			throw e;
+		}
+	}
+
+}
@@ -5,10 +5,13 @@ import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.TransportMode;
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.config.groups.FacilitiesConfigGroup;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.PlansCalcRouteConfigGroup;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.gbl.Gbl;
 import org.matsim.core.network.NetworkUtils;
@@ -28,9 +31,18 @@ import org.matsim.vehicles.VehicleUtils;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class PrepareForMobsimImpl implements PrepareForMobsim {
 	// I think it is ok to have this public final.  Since one may want to use it as a delegate.  kai, may'18
@@ -49,11 +61,13 @@ public final class PrepareForMobsimImpl implements PrepareForMobsim {
 	private final Provider<TripRouter> tripRouterProvider;
 	private final QSimConfigGroup qSimConfigGroup;
 	private final FacilitiesConfigGroup facilitiesConfigGroup;
+	private final PlansCalcRouteConfigGroup plansCalcRouteConfigGroup;
 	
 	@Inject
 	PrepareForMobsimImpl(GlobalConfigGroup globalConfigGroup, Scenario scenario, Network network,
 				Population population, ActivityFacilities activityFacilities, Provider<TripRouter> tripRouterProvider,
-				QSimConfigGroup qSimConfigGroup, FacilitiesConfigGroup facilitiesConfigGroup) {
+				QSimConfigGroup qSimConfigGroup, FacilitiesConfigGroup facilitiesConfigGroup,
+				PlansCalcRouteConfigGroup plansCalcRouteConfigGroup) {
 		this.globalConfigGroup = globalConfigGroup;
 		this.scenario = scenario;
 		this.network = network;
@@ -62,6 +76,7 @@ public final class PrepareForMobsimImpl implements PrepareForMobsim {
 		this.tripRouterProvider = tripRouterProvider;
 		this.qSimConfigGroup = qSimConfigGroup;
 		this.facilitiesConfigGroup = facilitiesConfigGroup;
+		this.plansCalcRouteConfigGroup = plansCalcRouteConfigGroup;
 	}
 	
 	
@@ -87,19 +102,79 @@ public final class PrepareForMobsimImpl implements PrepareForMobsim {
 		}
 		
 		// make sure all routes are calculated.
+		final boolean routingInBatches = plansCalcRouteConfigGroup.getBatchRoutingTimeBinSize() > 0.
+				&& plansCalcRouteConfigGroup.getRoutingRandomness() == 0. ;
+		final Set<Plan> plansToRoute = Collections.synchronizedSet( Collections.newSetFromMap( new IdentityHashMap<>() ) );
 		ParallelPersonAlgorithmUtils.run(population, globalConfigGroup.getNumberOfThreads(),
 				new ParallelPersonAlgorithmUtils.PersonAlgorithmProvider() {
 					@Override
 					public AbstractPersonAlgorithm getPersonAlgorithm() {
+						if ( routingInBatches ) {
+							// (only collect the plans here, they are routed together below)
+							return new PersonPrepareForSim(plansToRoute::add, scenario, carOnlyNetwork );
+						}
 						return new PersonPrepareForSim(new PlanRouter(tripRouterProvider.get(), activityFacilities), scenario, carOnlyNetwork );
 					}
 					// yyyyyy This prepared network is only used for computing the distance.  So the full network would
 					// actually be better than the car-only network, without doing damage elsewhere.  No?  kai, jul'18
 				}
 		);
+		if ( routingInBatches ) {
+			routeInBatches( plansToRoute );
+		}
 		
 		// yy Could now set the vehicle IDs in the routes.  But can as well also do this later (currently in PopulationAgentSource).  kai, jun'18
 		
 	}
+
+	/**
+	 * Routes the plans with {@link PlanRouter#runInBatches(List)}.  The plans are split between the threads by the
+	 * location of their first activity, so that the first trips from the same link, which are the ones most often
+	 * grouped, end up in the same batch however many threads there are.
+	 */
+	private void routeInBatches( final Set<Plan> plansToRoute ) {
+		int numberOfThreads = Math.max( 1, globalConfigGroup.getNumberOfThreads() );
+		final List<List<Plan>> parts = new ArrayList<>( numberOfThreads );
+		for ( int i = 0 ; i < numberOfThreads ; i++ ) {
+			parts.add( new ArrayList<>() );
+		}
+		// (in the order of the population, not in the order in which the threads above handed the plans over)
+		for ( Person person : population.getPersons().values() ) {
+			for ( Plan plan : person.getPlans() ) {
+				if ( plansToRoute.contains( plan ) ) {
+					parts.get( Math.floorMod( getLocationKey( plan ).hashCode(), numberOfThreads ) ).add( plan );
+				}
+			}
+		}
+		log.info( "routing " + plansToRoute.size() + " plans in batches." );
+
+		ExecutorService executor = Executors.newFixedThreadPool( numberOfThreads );
+		try {
+			List<Future<?>> futures = new ArrayList<>( numberOfThreads );
+			for ( final List<Plan> part : parts ) {
+				futures.add( executor.submit( () -> new PlanRouter( tripRouterProvider.get(), activityFacilities ).runInBatches( part ) ) );
+			}
+			for ( Future<?> future : futures ) {
+				future.get();
+			}
+		} catch ( InterruptedException e ) {
+			throw new RuntimeException( e );
+		} catch ( ExecutionException e ) {
+			throw new RuntimeException( "Exception while routing the plans in batches.", e.getCause() );
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static String getLocationKey( final Plan plan ) {
+		if ( plan.getPlanElements().isEmpty() ) {
+			return "" ;
+		}
+		Activity firstActivity = (Activity) plan.getPlanElements().get( 0 );
+		if ( firstActivity.getLinkId() != null ) {
+			return firstActivity.getLinkId().toString() ;
+		}
+		return firstActivity.getFacilityId() == null ? "" : firstActivity.getFacilityId().toString() ;
+	}
 	
 }
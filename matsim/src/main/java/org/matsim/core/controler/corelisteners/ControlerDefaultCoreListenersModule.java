@@ -39,6 +39,7 @@ public class ControlerDefaultCoreListenersModule extends AbstractModule {
 		bind( PlansDumping.class ).to( PlansDumpingImpl.class );
 		bind( EventsHandling.class ).to( EventsHandlingImpl.class );
 		bind( DumpDataAtEnd.class ).to( DumpDataAtEndImpl.class );
+		bind( PopulationSampling.class ).to( PopulationSamplingImpl.class );
 	}
 }
 
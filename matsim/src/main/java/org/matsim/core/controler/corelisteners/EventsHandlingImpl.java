@@ -20,6 +20,7 @@
 
 package org.matsim.core.controler.corelisteners;
 
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -30,6 +31,7 @@ import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.ControlerConfigGroup.EventsFileFormat;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.controler.OutputDirectoryHierarchy;
+import org.matsim.core.controler.OutputTaskExecutor;
 import org.matsim.core.controler.events.BeforeMobsimEvent;
 import org.matsim.core.controler.events.IterationEndsEvent;
 import org.matsim.core.controler.events.ShutdownEvent;
@@ -38,9 +40,12 @@ import org.matsim.core.controler.listener.IterationEndsListener;
 import org.matsim.core.controler.listener.ShutdownListener;
 import org.matsim.core.events.algorithms.EventWriter;
 import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculatorModule;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import com.google.inject.name.Named;
 
 @Singleton
 final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
@@ -58,14 +63,22 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 	
 	private OutputDirectoryHierarchy controlerIO ;
 
+	private final OutputTaskExecutor outputTaskExecutor;
+
 	private int writeMoreUntilIteration;
 
+	@Inject(optional = true)
+	@Named(TravelTimeCalculatorModule.SNAPSHOTS_FOR_ROUTING)
+	private Set<TravelTimeCalculator> snapshotsForRouting = Collections.emptySet();
+
 	@Inject
 	EventsHandlingImpl(
 			final EventsManager eventsManager,
 			final ControlerConfigGroup config,
-			final OutputDirectoryHierarchy controlerIO) {
+			final OutputDirectoryHierarchy controlerIO,
+			final OutputTaskExecutor outputTaskExecutor) {
 		this.eventsManager = eventsManager;
+		this.outputTaskExecutor = outputTaskExecutor;
 		this.writeEventsInterval = config.getWriteEventsInterval();
 		this.lastIteration = config.getLastIteration() ;
 		this.eventsFileFormats = config.getEventsFileFormats();
@@ -104,11 +117,24 @@ final class EventsHandlingImpl implements EventsHandling, BeforeMobsimListener,
 		 * Events that are produced after the Mobsim has ended, e.g. by the RoadProcing 
 		 * module, should also be written to the events file.
 		 */
-		for (EventWriter writer : this.eventWriters) {
-			writer.closeFile();
+		for (final EventWriter writer : this.eventWriters) {
 			this.eventsManager.removeHandler(writer);
+			// the writer does not get any events anymore, so flushing and compressing the rest of the file can be done in the background
+			this.outputTaskExecutor.submit("close events file", new Runnable() {
+				@Override
+				public void run() {
+					writer.closeFile();
+				}
+			});
 		}
 		this.eventWriters.clear();
+		/*
+		 * All events of the iteration are processed now.  The routing snapshots are frozen here, in a core listener, so that
+		 * the iteration-end listeners of the modules (e.g. the link stats) already see the travel times of this iteration.
+		 */
+		for (TravelTimeCalculator calculator : this.snapshotsForRouting) {
+			calculator.freezeSnapshotForRouting();
+		}
 	}
 
 	@Override
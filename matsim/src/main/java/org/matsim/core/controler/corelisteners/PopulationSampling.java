@@ -0,0 +1,31 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationSampling.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler.corelisteners;
+
+import org.matsim.core.controler.listener.ControlerListener;
+
+/**
+ * Marker interface, allowing to replace the element providing
+ * this functionality in the Controler by Injection.
+ *
+ * @see org.matsim.core.config.groups.ControlerConfigGroup#getPopulationSampleInitialFraction()
+ */
+public interface PopulationSampling extends ControlerListener {}
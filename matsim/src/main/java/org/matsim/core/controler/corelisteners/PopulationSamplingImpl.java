@@ -0,0 +1,187 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationSamplingImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler.corelisteners;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.PlansConfigGroup;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * {@link org.matsim.core.controler.listener.ControlerListener} that runs the early iterations on a sample of the
+ * population.  At the start of each iteration, the persons which are not part of the sample are removed from the
+ * population, so that they are neither replanned nor simulated nor scored; they are added again, in their original
+ * order, at the start of the next iteration and at shutdown, i.e. before the output is dumped.  The qsim's flow and
+ * storage capacity factors are multiplied with the sample fraction.
+ * <p></p>
+ * The persons of each subpopulation are shuffled once, and every sample consists of the first persons of each
+ * subpopulation.  Thus, a larger sample contains all persons of the smaller ones, and the persons keep their plans,
+ * scores and the learned travel times when the sample grows.
+ *
+ * @see ControlerConfigGroup#getPopulationSampleInitialFraction()
+ */
+@Singleton
+final class PopulationSamplingImpl implements PopulationSampling, IterationStartsListener, ShutdownListener {
+
+	private static final Logger log = Logger.getLogger(PopulationSamplingImpl.class);
+
+	private final Population population;
+	private final QSimConfigGroup qsimConfigGroup;
+	private final PlansConfigGroup plansConfigGroup;
+	private final Double initialFraction;
+	private final int firstIteration;
+	private final int fullIteration;
+	private final long randomSeed;
+
+	private final double flowCapFactor;
+	private final double storageCapFactor;
+
+	private List<Person> allPersons = null;
+	private List<List<Person>> strata = null;
+	private boolean sampled = false;
+
+	@Inject
+	PopulationSamplingImpl(Population population, ControlerConfigGroup controlerConfigGroup, QSimConfigGroup qsimConfigGroup,
+			PlansConfigGroup plansConfigGroup, GlobalConfigGroup globalConfigGroup) {
+		this.population = population;
+		this.qsimConfigGroup = qsimConfigGroup;
+		this.plansConfigGroup = plansConfigGroup;
+		this.initialFraction = controlerConfigGroup.getPopulationSampleInitialFraction();
+		this.firstIteration = controlerConfigGroup.getFirstIteration();
+		this.fullIteration = controlerConfigGroup.getPopulationSampleFullIteration();
+		this.randomSeed = globalConfigGroup.getRandomSeed();
+		this.flowCapFactor = qsimConfigGroup.getFlowCapFactor();
+		this.storageCapFactor = qsimConfigGroup.getStorageCapFactor();
+	}
+
+	/**
+	 * @return the fraction of the population used in the given iteration.  It grows geometrically from the initial
+	 * fraction in the first iteration to 1 in the iteration from which on the full population is used.
+	 */
+	/*package*/ double getSampleFraction(final int iteration) {
+		if (this.initialFraction == null || iteration >= this.fullIteration) {
+			return 1.0;
+		}
+		double progress = (double) (Math.max(iteration, this.firstIteration) - this.firstIteration) / (this.fullIteration - this.firstIteration);
+		return Math.pow(this.initialFraction, 1.0 - progress);
+	}
+
+	@Override
+	public void notifyIterationStarts(final IterationStartsEvent event) {
+		if (this.initialFraction == null) {
+			return;
+		}
+		restorePopulation();
+		double fraction = getSampleFraction(event.getIteration());
+		this.qsimConfigGroup.setFlowCapFactor(this.flowCapFactor * fraction);
+		this.qsimConfigGroup.setStorageCapFactor(this.storageCapFactor * fraction);
+		if (fraction >= 1.0) {
+			return;
+		}
+		if (this.strata == null) {
+			initStrata();
+		}
+		int sampleSize = 0;
+		for (List<Person> stratum : this.strata) {
+			int size = (int) Math.ceil(fraction * stratum.size());
+			for (Person person : stratum.subList(size, stratum.size())) {
+				this.population.removePerson(person.getId());
+			}
+			sampleSize += size;
+		}
+		this.sampled = true;
+		log.info("iteration " + event.getIteration() + " uses a sample of " + sampleSize + " of " + this.allPersons.size()
+				+ " persons (fraction " + fraction + ", flowCapFactor " + this.qsimConfigGroup.getFlowCapFactor()
+				+ ", storageCapFactor " + this.qsimConfigGroup.getStorageCapFactor() + ")");
+	}
+
+	@Override
+	public void notifyShutdown(final ShutdownEvent event) {
+		restorePopulation();
+		this.qsimConfigGroup.setFlowCapFactor(this.flowCapFactor);
+		this.qsimConfigGroup.setStorageCapFactor(this.storageCapFactor);
+	}
+
+	private void initStrata() {
+		this.allPersons = new ArrayList<>(this.population.getPersons().values());
+		String attributeName = this.plansConfigGroup.getSubpopulationAttributeName();
+		Map<Object, List<Person>> strataBySubpopulation = new LinkedHashMap<>();
+		for (Person person : this.allPersons) {
+			Object subpopulation = attributeName == null ? null
+					: this.population.getPersonAttributes().getAttribute(person.getId().toString(), attributeName);
+			List<Person> stratum = strataBySubpopulation.get(subpopulation);
+			if (stratum == null) {
+				stratum = new ArrayList<>();
+				strataBySubpopulation.put(subpopulation, stratum);
+			}
+			stratum.add(person);
+		}
+		// (own random number generator, so that the sample does not depend on what else uses random numbers)
+		Random random = new Random(this.randomSeed);
+		this.strata = new ArrayList<>(strataBySubpopulation.values());
+		for (List<Person> stratum : this.strata) {
+			Collections.shuffle(stratum, random);
+		}
+	}
+
+	/**
+	 * Adds the persons which are not part of the current sample again, keeping the original order of the population.
+	 */
+	private void restorePopulation() {
+		if (!this.sampled) {
+			return;
+		}
+		List<Person> current = new ArrayList<>(this.population.getPersons().values());
+		for (Person person : current) {
+			this.population.removePerson(person.getId());
+		}
+		for (Person person : this.allPersons) {
+			this.population.addPerson(person);
+		}
+		for (Person person : current) {
+			// persons which were added during the sampled iterations
+			Id<Person> personId = person.getId();
+			if (!this.population.getPersons().containsKey(personId)) {
+				this.population.addPerson(person);
+			}
+		}
+		this.sampled = false;
+	}
+
+}
@@ -30,6 +30,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.IterationMetrics;
 import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.ActivityStartEvent;
 import org.matsim.api.core.v01.events.Event;
@@ -102,6 +103,7 @@ public final class EventsManagerImpl implements EventsManager {
 		protected final Class<?> eventClass;
 		protected final EventHandler eventHandler;
 		protected final Method method;
+		protected IterationMetrics.Timer timer = null;
 
 		protected HandlerInfo(final Class<?> eventClass, final EventHandler eventHandler, final Method method) {
 			this.eventClass = eventClass;
@@ -117,6 +119,8 @@ public final class EventsManagerImpl implements EventsManager {
 	private long counter = 0;
 	private long nextCounterMsg = 1;
 
+	private IterationMetrics metrics = null;
+
 	private HandlerData findHandler(final Class<?> evklass) {
 		for (HandlerData handler : this.handlerData) {
 			if (handler.eventklass == evklass) {
@@ -197,6 +201,18 @@ public final class EventsManagerImpl implements EventsManager {
 		// nothing to do in this implementation
 	}
 
+	/**
+	 * While the given metrics are enabled, the time spent in each call of an event handler is recorded in a timer
+	 * named <code>events.handler.&lt;class of the handler&gt;.&lt;event type&gt;</code>.  Taking the time costs
+	 * about as much as a simple handler itself, so this should only be switched on to find slow handlers.
+	 *
+	 * @param metrics the metrics to record the times in, or <code>null</code> to not record them at all.
+	 */
+	public void setHandlerMetrics(final IterationMetrics metrics) {
+		this.metrics = metrics;
+		this.cacheHandlers.clear();
+	}
+
 	private void addHandlerInterfaces(final EventHandler handler, final Class<?> handlerClass) {
 		Method[] classmethods = handlerClass.getMethods();
 		for (Method method : classmethods) {
@@ -217,22 +233,41 @@ public final class EventsManagerImpl implements EventsManager {
 	}
 
 	private void computeEvent(final Event event) {
+		final boolean timed = this.metrics != null && this.metrics.isEnabled();
 		for (HandlerInfo info : getHandlersForClass(event.getClass())) {
 			synchronized(info.eventHandler) {
-				if (callHandlerFast(info.eventClass, event, info.eventHandler)) {
-					continue;
-				}
-				try {
-					info.method.invoke(info.eventHandler, event);
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+				if (timed) {
+					long start = System.nanoTime();
+					callHandler(info, event);
+					getTimer(info, event).record(System.nanoTime() - start);
+				} else {
+					callHandler(info, event);
 				}
 			}
 		}
 	}
 
+	private void callHandler(final HandlerInfo info, final Event event) {
+		if (callHandlerFast(info.eventClass, event, info.eventHandler)) {
+			return;
+		}
+		try {
+			info.method.invoke(info.eventHandler, event);
+		} catch (IllegalArgumentException | IllegalAccessException e) {
+			throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
+		}
+	}
+
+	private IterationMetrics.Timer getTimer(final HandlerInfo info, final Event event) {
+		// the infos are cached per event class, so each of them only sees one event type
+		if (info.timer == null) {
+			info.timer = this.metrics.getTimer("events.handler." + info.eventHandler.getClass().getName() + "." + event.getEventType());
+		}
+		return info.timer;
+	}
+
 	private HandlerInfo[] getHandlersForClass(final Class<?> eventClass) {
 		Class<?> klass = eventClass;
 		HandlerInfo[] cache = this.cacheHandlers.get(eventClass);
@@ -1,5 +1,6 @@
 package org.matsim.core.events;
 
+import org.matsim.analysis.IterationMetrics;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.controler.Injector;
@@ -36,6 +37,27 @@ public class EventsUtils {
     		return new SynchronizedEventsManagerImpl(events);
     	}
     }
+    /**
+     * Lets the events manager record the time spent in each of its event handlers in the given metrics.
+     *
+     * @return <code>false</code> if the events manager does not support this.
+     * @see EventsManagerImpl#setHandlerMetrics(IterationMetrics)
+     */
+    public static boolean setHandlerMetrics(EventsManager events, IterationMetrics metrics) {
+    	if (events instanceof SynchronizedEventsManagerImpl) {
+    		return setHandlerMetrics(((SynchronizedEventsManagerImpl) events).getDelegate(), metrics);
+    	} else if (events instanceof EventsManagerImpl) {
+    		((EventsManagerImpl) events).setHandlerMetrics(metrics);
+    	} else if (events instanceof SimStepParallelEventsManagerImpl) {
+    		((SimStepParallelEventsManagerImpl) events).setHandlerMetrics(metrics);
+    	} else if (events instanceof ParallelEventsManagerImpl) {
+    		((ParallelEventsManagerImpl) events).setHandlerMetrics(metrics);
+    	} else {
+    		return false;
+    	}
+    	return true;
+    }
+
     public static void readEvents( EventsManager events, String filename ) {
     	new MatsimEventsReader(events).readFile(filename) ;
 	}
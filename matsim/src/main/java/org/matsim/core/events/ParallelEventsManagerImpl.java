@@ -24,6 +24,7 @@ import java.lang.Thread.UncaughtExceptionHandler;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.IterationMetrics;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
@@ -149,6 +150,17 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		}
 	}
 
+	/**
+	 * @see EventsManagerImpl#setHandlerMetrics(IterationMetrics)
+	 */
+	public void setHandlerMetrics(final IterationMetrics metrics) {
+		synchronized (this) {
+			for (int i = 0; i < events.length; i++) {
+				events[i].setHandlerMetrics(metrics);
+			}
+		}
+	}
+
 	private void printEventHandlers() {
 		synchronized (this) {
 			for (int i = 0; i < events.length; i++) {
@@ -21,6 +21,7 @@
 package org.matsim.core.events;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.IterationMetrics;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup;
@@ -109,6 +110,14 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		handlerCount++;
 	}
 
+	/**
+	 * @see EventsManagerImpl#setHandlerMetrics(IterationMetrics)
+	 */
+	public void setHandlerMetrics(final IterationMetrics metrics) {
+		delegate.setHandlerMetrics(metrics);
+		for (EventsManagerImpl eventsManager : eventsManagers) eventsManager.setHandlerMetrics(metrics);
+	}
+
 	@Override
 	public void removeHandler(final EventHandler handler) {
 		delegate.removeHandler(handler);
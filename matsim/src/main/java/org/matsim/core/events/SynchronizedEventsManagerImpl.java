@@ -80,4 +80,8 @@ class SynchronizedEventsManagerImpl implements EventsManager {
 		delegate.finishProcessing();
 	}
 
+	/*package*/ EventsManager getDelegate() {
+		return delegate;
+	}
+
 }
@@ -58,6 +58,9 @@ public abstract class MatsimRandom {
 	private static final Random random = new Random(DEFAULT_RANDOM_SEED);
 //	private static final Random random = new InstrumentedRandom(DEFAULT_RANDOM_SEED);
 
+	/** random number generators replacing the global one on some threads, see {@link #setThreadRandom(Random)} */
+	private static final ThreadLocal<Random> threadRandom = new ThreadLocal<>();
+
 	/** Resets the random number generator with a default random seed. */
 	public static void reset() {
 		reset(DEFAULT_RANDOM_SEED);
@@ -70,11 +73,38 @@ public abstract class MatsimRandom {
 	public static void reset(final long seed) {
 		lastUsedSeed = seed;
 		internalCounter = 0;
-		getRandom().setSeed(seed);
+		random.setSeed(seed);
 //		prepareRNG(random);
 	}
 	public static Random getRandom() {
-		return random;
+		Random r = threadRandom.get();
+		return r == null ? random : r;
+	}
+
+	/**
+	 * Makes {@link #getRandom()} return the given random number generator on the current thread instead of the
+	 * global one, so that code drawing from {@link #getRandom()} can run on several threads with reproducible
+	 * results.  Call it again with <code>null</code> afterwards to return to the global random number generator.
+	 */
+	public static void setThreadRandom(final Random r) {
+		if (r == null) {
+			threadRandom.remove();
+		} else {
+			threadRandom.set(r);
+		}
+	}
+
+	/**
+	 * Returns a random number generator which only depends on the seed and the key, e.g. one per person, so that
+	 * the numbers drawn for a key do not depend on the order in which the keys are handled.  Neighbouring seeds or
+	 * keys give uncorrelated generators.
+	 */
+	public static Random getDerivedInstance(final long seed, final long key) {
+		// the finalizer of SplitMix64, which spreads the bits of seed and key over the whole seed of the generator
+		long z = seed + (key + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new Random(z ^ (z >>> 31));
 	}
 
 	/** Returns an instance of a random number generator, which can be used
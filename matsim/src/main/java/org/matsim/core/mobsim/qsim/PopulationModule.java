@@ -2,6 +2,7 @@ package org.matsim.core.mobsim.qsim;
 
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
+import org.matsim.core.config.Config;
 import org.matsim.core.mobsim.qsim.agents.AgentFactory;
 import org.matsim.core.mobsim.qsim.agents.DefaultAgentFactory;
 import org.matsim.core.mobsim.qsim.agents.PopulationAgentSource;
@@ -9,6 +10,7 @@ import org.matsim.core.mobsim.qsim.agents.TransitAgentFactory;
 import org.matsim.core.mobsim.qsim.interfaces.Netsim;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicleFactory;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicleImpl;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehiclePool;
 import org.matsim.pt.config.TransitConfigGroup;
 
 public class PopulationModule extends AbstractQSimModule {
@@ -32,7 +34,11 @@ public class PopulationModule extends AbstractQSimModule {
 	
 	@Provides
 	@Singleton
-	QVehicleFactory provideQVehicleFactory( ) {
+	QVehicleFactory provideQVehicleFactory( Config config, QVehiclePool pool ) {
+		if ( config.qsim().isUsingVehiclePool() ) {
+			// the pool is bound outside of the QSim scope and thus survives between iterations
+			return pool.createFactoryForNewMobsim() ;
+		}
 		return QVehicleImpl::new;
 	}
 }
@@ -21,6 +21,7 @@
 package org.matsim.core.mobsim.qsim;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.IterationMetrics;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.events.PersonDepartureEvent;
@@ -132,6 +133,10 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		if (analyzeRunTimes) this.mobsimEngineRunTimes = new HashMap<>();
 		else this.mobsimEngineRunTimes = null;
 	}
+	// for the iteration metrics; null if they are disabled
+	private final IterationMetrics metrics;
+	private IterationMetrics.Timer simStepTimer = null;
+	private Map<MobsimEngine, IterationMetrics.Timer> mobsimEngineTimers = null;
 
 	/*package (for tests)*/ final InternalInterface internalInterface = new InternalInterface() {
 
@@ -194,8 +199,9 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 	 *
 	 */
 	@Inject
-	private QSim( final Scenario sc, EventsManager events, Injector childInjector ) {
+	private QSim( final Scenario sc, EventsManager events, Injector childInjector, IterationMetrics metrics ) {
 		this.scenario = sc;
+		this.metrics = metrics;
 		if ( sc.getConfig().qsim().getNumberOfThreads() > 1) {
 			this.events = EventsUtils.getParallelFeedableInstance( events );
 		} else {
@@ -265,6 +271,14 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		for (MobsimEngine mobsimEngine : this.mobsimEngines) {
 			mobsimEngine.onPrepareSim();
 		}
+
+		if (this.metrics.isEnabled()) {
+			this.simStepTimer = this.metrics.getTimer("mobsim.simStep");
+			this.mobsimEngineTimers = new HashMap<>();
+			for (MobsimEngine mobsimEngine : this.mobsimEngines) {
+				this.mobsimEngineTimers.put(mobsimEngine, this.metrics.getTimer("mobsim.engine." + mobsimEngine.getClass().getSimpleName()));
+			}
+		}
 	}
 
 	private void createAgents() {
@@ -336,6 +350,7 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 	 */
 	/*package*/ boolean doSimStep() {
 		if (analyzeRunTimes) this.startTime = System.nanoTime();
+		final long stepStartTime = this.simStepTimer != null ? System.nanoTime() : 0;
 
 		final double now = this.getSimTimer().getTimeOfDay();
 
@@ -349,8 +364,10 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		 */
 		if (this.withindayEngine != null) {
 			if (analyzeRunTimes) startTime = System.nanoTime();
+			final long engineStartTime = this.mobsimEngineTimers != null ? System.nanoTime() : 0;
 			this.withindayEngine.doSimStep(now);
 			if (analyzeRunTimes) this.mobsimEngineRunTimes.get(this.withindayEngine).addAndGet(System.nanoTime() - this.startTime);
+			if (this.mobsimEngineTimers != null) this.mobsimEngineTimers.get(this.withindayEngine).record(System.nanoTime() - engineStartTime);
 		}
 
 		// "added" engines
@@ -360,9 +377,11 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 			// withindayEngine.doSimStep(time) has already been called
 			if (mobsimEngine == this.withindayEngine) continue;
 
+			final long engineStartTime = this.mobsimEngineTimers != null ? System.nanoTime() : 0;
 			mobsimEngine.doSimStep(now);
 			
 			if (analyzeRunTimes) this.mobsimEngineRunTimes.get(mobsimEngine).addAndGet(System.nanoTime() - this.startTime);
+			if (this.mobsimEngineTimers != null) this.mobsimEngineTimers.get(mobsimEngine).record(System.nanoTime() - engineStartTime);
 		}
 
 		if (analyzeRunTimes) this.startTime = System.nanoTime();
@@ -387,6 +406,7 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		}
 		
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startTime;
+		if (this.simStepTimer != null) this.simStepTimer.record(System.nanoTime() - stepStartTime);
 
 		return doContinue;
 	}
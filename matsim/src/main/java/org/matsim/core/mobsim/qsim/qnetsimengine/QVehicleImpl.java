@@ -89,6 +89,17 @@ public class QVehicleImpl implements QVehicle {
 		}
 	}
 
+	/**
+	 * Brings the vehicle back into the state after construction, so that it can be used in another mobsim run.
+	 */
+	/*package*/ void reset() {
+		this.linkEnterTime = 0. ;
+		this.earliestLinkExitTime = 0. ;
+		this.driver = null ;
+		this.passengers.clear();
+		this.currentLink = null ;
+	}
+
 	@Override
 	public void setCurrentLink( final Link link ) {
 		this.currentLink = link;
@@ -0,0 +1,85 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QVehiclePool.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.google.inject.Singleton;
+
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Keeps the {@link QVehicleImpl}s of one mobsim run, so that the next run can reset and re-use them instead of
+ * creating a new object per vehicle.  Lives outside of the QSim scope, i.e. one pool per controler.
+ * <p></p>
+ * Vehicles are identified by object identity: if a {@link Vehicle} is replaced in the vehicles container, a new
+ * mobsim vehicle is created for it.  Vehicles that are not requested during a mobsim run are dropped from the pool,
+ * so the pool never holds more than the vehicles of the last run.
+ */
+@Singleton
+public final class QVehiclePool {
+
+	private Map<Vehicle, QVehicleImpl> vehicles = new IdentityHashMap<>();
+	private Map<Vehicle, QVehicleImpl> previousVehicles = new IdentityHashMap<>();
+
+	private int createdCount = 0;
+	private int reusedCount = 0;
+
+	/**
+	 * Starts a new mobsim run.  The vehicles handed out by the previous factory may be reset and handed out again
+	 * by the returned one, so they must not be used any more.
+	 */
+	public synchronized QVehicleFactory createFactoryForNewMobsim() {
+		Map<Vehicle, QVehicleImpl> tmp = this.previousVehicles;
+		this.previousVehicles = this.vehicles;
+		this.vehicles = tmp;
+		this.vehicles.clear();
+		return this::getOrCreate;
+	}
+
+	/*package*/ synchronized QVehicle getOrCreate(final Vehicle vehicle) {
+		if (this.vehicles.containsKey(vehicle)) {
+			// requested twice within the same run; this is not for the pool
+			this.createdCount++;
+			return new QVehicleImpl(vehicle);
+		}
+		QVehicleImpl qVehicle = this.previousVehicles.remove(vehicle);
+		if (qVehicle == null) {
+			qVehicle = new QVehicleImpl(vehicle);
+			this.createdCount++;
+		} else {
+			qVehicle.reset();
+			this.reusedCount++;
+		}
+		this.vehicles.put(vehicle, qVehicle);
+		return qVehicle;
+	}
+
+	public synchronized int getCreatedCount() {
+		return this.createdCount;
+	}
+
+	public synchronized int getReusedCount() {
+		return this.reusedCount;
+	}
+
+}
@@ -73,10 +73,8 @@ final class CompressedNetworkRouteImpl extends AbstractRoute implements NetworkR
 
 	@Override
 	public CompressedNetworkRouteImpl clone() {
-		CompressedNetworkRouteImpl cloned = (CompressedNetworkRouteImpl) super.clone();
-		ArrayList<Id<Link>> tmpRoute = cloned.route;
-		cloned.route = new ArrayList<Id<Link>>(tmpRoute); // deep copy
-		return cloned;
+		// the compressed link ids are shared with the clone, since neither changes its list in place
+		return (CompressedNetworkRouteImpl) super.clone();
 	}
 
 	@Override
@@ -192,22 +190,24 @@ final class CompressedNetworkRouteImpl extends AbstractRoute implements NetworkR
 
 	@Override
 	public void setLinkIds(final Id<Link> startLinkId, final List<Id<Link>> srcRoute, final Id<Link> endLinkId) {
-		this.route.clear();
 		setStartLinkId(startLinkId);
 		setEndLinkId(endLinkId);
 		this.routeModCountState = this.modCount;
 		if ((srcRoute == null) || (srcRoute.size() == 0)) {
+			this.route = new ArrayList<Id<Link>>(0);
 			this.uncompressedLength = 0;
 			return;
 		}
+		ArrayList<Id<Link>> compressedRoute = new ArrayList<Id<Link>>();
 		Id<Link> previousLinkId = startLinkId;
 		for (Id<Link> linkId : srcRoute) {
 			if (!this.subsequentLinks.get(previousLinkId).equals(linkId)) {
-				this.route.add(linkId);
+				compressedRoute.add(linkId);
 			}
 			previousLinkId = linkId;
 		}
-		this.route.trimToSize();
+		compressedRoute.trimToSize();
+		this.route = compressedRoute;
 		this.uncompressedLength = srcRoute.size();
 //		System.out.println("uncompressed size: \t" + this.uncompressedLength + "\tcompressed size: \t" + this.route.size());
 		
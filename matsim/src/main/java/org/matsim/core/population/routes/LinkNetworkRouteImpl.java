@@ -38,6 +38,7 @@ final class LinkNetworkRouteImpl extends AbstractRoute implements NetworkRoute {
 
 	/*package*/ final static String ROUTE_TYPE = "links";
 	
+	// never changed after it was filled, but replaced by setLinkIds, so that clones can share it
 	private ArrayList<Id<Link>> route = new ArrayList<>();
 	private List<Id<Link>> safeRoute = Collections.unmodifiableList(this.route);
 	private double travelCost = Double.NaN;
@@ -60,11 +61,8 @@ final class LinkNetworkRouteImpl extends AbstractRoute implements NetworkRoute {
 
 	@Override
 	public LinkNetworkRouteImpl clone() {
-		LinkNetworkRouteImpl cloned = (LinkNetworkRouteImpl) super.clone();
-		ArrayList<Id<Link>> tmp = cloned.route;
-		cloned.route = new ArrayList<>(tmp); // deep copy of route
-		cloned.safeRoute = Collections.unmodifiableList(cloned.route);
-		return cloned;
+		// the link ids are shared with the clone, since neither changes its list in place
+		return (LinkNetworkRouteImpl) super.clone();
 	}
 
 	@Override
@@ -140,13 +138,10 @@ final class LinkNetworkRouteImpl extends AbstractRoute implements NetworkRoute {
 
 	@Override
 	public void setLinkIds(final Id<Link> startLinkId, final List<Id<Link>> srcRoute, final Id<Link> endLinkId) {
-		this.route.clear();
 		setStartLinkId(startLinkId);
 		setEndLinkId(endLinkId);
-		if (srcRoute != null) {
-			this.route.addAll(srcRoute);
-		}
-		this.route.trimToSize();
+		this.route = srcRoute == null ? new ArrayList<>(0) : new ArrayList<>(srcRoute);
+		this.safeRoute = Collections.unmodifiableList(this.route);
 	}
 
 	@Override
@@ -21,11 +21,13 @@ package org.matsim.core.replanning;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.BasicPlan;
 import org.matsim.api.core.v01.population.HasPlansAndId;
+import org.matsim.core.replanning.modules.AbstractMultithreadedModule;
 import org.matsim.core.replanning.modules.GenericPlanStrategyModule;
 import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomUnscoredPlanSelector;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author nagel
@@ -37,7 +39,7 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	private GenericPlanStrategyModule<T> firstModule = null;
 	private final ArrayList<GenericPlanStrategyModule<T>> modules = new ArrayList<>();
 	private final ArrayList<T> plans = new ArrayList<>();
-	private long counter = 0;
+	private final AtomicLong counter = new AtomicLong();
 	private ReplanningContext replanningContext;
 	private final static Logger log = Logger.getLogger(PlanStrategyImpl.class);
 
@@ -66,7 +68,19 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 	
 	@Override
 	public void run(final HasPlansAndId<T, I> person) {
-		this.counter++;
+		handOver(runForPerson(person));
+	}
+
+	/**
+	 * Selects the plan of the person and, if there is a module, makes a copy of it the selected plan.  The first
+	 * module already works on the copy here unless it is an {@link AbstractMultithreadedModule}, which distributes
+	 * its plans over its own threads in the order they are handed to it.  May be called concurrently for different
+	 * persons, see {@link GenericStrategyManager#setNumberOfThreads(int)}.
+	 *
+	 * @return the copy, which must be passed to {@link #handOver(BasicPlan)}, or <code>null</code> if there is no module.
+	 */
+	/*package*/ T runForPerson(final HasPlansAndId<T, I> person) {
+		this.counter.incrementAndGet();
 		
 		// if there is at least one unscored plan, find that one:
 		T plan = new RandomUnscoredPlanSelector<T, I>().selectPlan(person) ;
@@ -85,18 +99,35 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 		}
 
 		// if there is a "module" (i.e. "innovation"):
-		if (this.firstModule != null) {
-			
-			// set the working plan to a copy of the selected plan:
-			plan = person.createCopyOfSelectedPlanAndMakeSelected();
-			
-			// add new plan to container that contains the plans that are handled by this PlanStrategy:
-			this.plans.add(plan);
-
-			// start working on this new plan:
+		if (this.firstModule == null) {
+			return null;
+		}
+
+		// set the working plan to a copy of the selected plan:
+		plan = person.createCopyOfSelectedPlanAndMakeSelected();
+
+		// start working on this new plan, unless the module wants to see the plans in order:
+		if (!(this.firstModule instanceof AbstractMultithreadedModule)) {
 			this.firstModule.handlePlan(plan);
 		}
+		return plan;
+	}
 
+	/**
+	 * Adds the plan returned by {@link #runForPerson(HasPlansAndId)} to the plans handled by this strategy.  Must be
+	 * called on one thread, in the order of the persons, so that the remaining modules see the same sequence of plans
+	 * however many threads ran {@link #runForPerson(HasPlansAndId)}.
+	 */
+	/*package*/ void handOver(final T plan) {
+		if (plan == null) {
+			return;
+		}
+		// add new plan to container that contains the plans that are handled by this PlanStrategy:
+		this.plans.add(plan);
+
+		if (this.firstModule instanceof AbstractMultithreadedModule) {
+			this.firstModule.handlePlan(plan);
+		}
 	}
 
 	@Override
@@ -122,8 +153,8 @@ public class GenericPlanStrategyImpl<T extends BasicPlan, I> implements GenericP
 			}
 		}
 		this.plans.clear();
-		log.info("Plan-Strategy finished, " + this.counter + " plans handled. Strategy: " + this.toString());
-		this.counter = 0;
+		log.info("Plan-Strategy finished, " + this.counter.get() + " plans handled. Strategy: " + this.toString());
+		this.counter.set(0);
 	}
 
 	@Override
@@ -26,6 +26,12 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.BasicPlan;
@@ -72,10 +78,30 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 	private PlanSelector<PL, AG> removalPlanSelector = new GenericWorstPlanForRemovalSelector<>();
 
 	private String subpopulationAttributeName = null;
+
+	private int numberOfThreads = 0;
+	private ExecutorService executor = null; // created on first use, and kept for the following iterations
 	
 	public GenericStrategyManager() {
 	}
 
+	/**
+	 * Sets the number of threads which remove the surplus plans, choose the strategies and run them.  With
+	 * <code>0</code> (the default), all persons are handled on the calling thread, drawing from the global
+	 * {@link MatsimRandom#getRandom()}.  Otherwise, every person gets its own random number generators derived from
+	 * its id, so that the results do not depend on the number of threads; the removal selector, the plan selectors
+	 * and the first modules of the strategies must then be thread-safe.  First modules which are
+	 * {@link org.matsim.core.replanning.modules.AbstractMultithreadedModule}s, the later modules and strategies which
+	 * are not {@link GenericPlanStrategyImpl}s still get the plans on the calling thread, in the order of the persons.
+	 */
+	public final void setNumberOfThreads(final int numberOfThreads) {
+		if (numberOfThreads != this.numberOfThreads && this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
 	/**
 	 * @param name the name of the subpopulation attribute
 	 * in the person's object attributes.
@@ -193,34 +219,139 @@ public class GenericStrategyManager<PL extends BasicPlan, AG extends HasPlansAnd
 			strategy.init(replanningContext);
 		}
 
-		// then go through the population and ...
-		for (HasPlansAndId<PL, AG> person : persons ) {
-
-			// ... reduce the number of plans to the allowed maximum (in evol comp lang this is "selection")
-			if ((this.maxPlansPerAgent > 0) && (person.getPlans().size() > this.maxPlansPerAgent)) {
-				removePlans( person, this.maxPlansPerAgent);
+		if (this.numberOfThreads > 0) {
+			runPartitioned(persons, subPopLookup);
+		} else {
+			// then go through the population and ...
+			for (HasPlansAndId<PL, AG> person : persons ) {
+				// ... reduce the number of plans and choose the strategy ...
+				GenericPlanStrategy<PL, AG> strategy = removePlansAndChooseStrategy(person, subPopLookup);
+				// ... and run the strategy:
+				strategy.run(person);
 			}
+		}
+
+		// finally make sure all strategies have finished there work
+		for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
+			strategy.finish();
+		}
+
+	}
+
+	private GenericPlanStrategy<PL, AG> removePlansAndChooseStrategy(final HasPlansAndId<PL, AG> person, final ObjectAttributes subPopLookup) {
+		// ... reduce the number of plans to the allowed maximum (in evol comp lang this is "selection")
+		if ((this.maxPlansPerAgent > 0) && (person.getPlans().size() > this.maxPlansPerAgent)) {
+			removePlans( person, this.maxPlansPerAgent);
+		}
+
+		// ... choose the strategy to be used for this person (in evol comp lang this would be the choice of the mutation operator)
+		String subpopName = null;
+		if (this.subpopulationAttributeName != null) {
+			subpopName = (String) subPopLookup.getAttribute(person.getId().toString(), this.subpopulationAttributeName);
+		}
+		GenericPlanStrategy<PL, AG> strategy = this.chooseStrategy(person, subpopName);
+
+		if (strategy==null) {
+			throw new RuntimeException("No strategy found! Have you defined at least one replanning strategy per subpopulation? Current subpopulation = " + subpopName);
+		}
+		return strategy;
+	}
 
-			// ... choose the strategy to be used for this person (in evol comp lang this would be the choice of the mutation operator)
-			String subpopName = null;
-			if (this.subpopulationAttributeName != null) {
-				subpopName = (String) subPopLookup.getAttribute(person.getId().toString(), this.subpopulationAttributeName);
+	/**
+	 * Removes the plans, chooses the strategies and runs them for contiguous parts of the population on several
+	 * threads, drawing from random number generators derived from the person id, see {@link #setNumberOfThreads(int)}.
+	 * The new plans are then handed over to the strategies in the order of the persons.
+	 */
+	private void runPartitioned(final Iterable<? extends HasPlansAndId<PL, AG>> persons, final ObjectAttributes subPopLookup) {
+		final List<HasPlansAndId<PL, AG>> personList = new ArrayList<>();
+		for (HasPlansAndId<PL, AG> person : persons) {
+			personList.add(person);
+		}
+		final List<GenericPlanStrategy<PL, AG>> chosenStrategies = new ArrayList<>(Collections.nCopies(personList.size(), null));
+		final List<PL> newPlans = new ArrayList<>(Collections.nCopies(personList.size(), null));
+		final long removalSeed = MatsimRandom.getRandom().nextLong();
+		final long strategySeed = MatsimRandom.getRandom().nextLong();
+
+		if (this.executor == null) {
+			this.executor = Executors.newFixedThreadPool(this.numberOfThreads, new NamedThreadFactory());
+		}
+		int numberOfParts = Math.max(1, Math.min(this.numberOfThreads, personList.size()));
+		List<Future<?>> futures = new ArrayList<>(numberOfParts);
+		for (int t = 0; t < numberOfParts; t++) {
+			final int start = (int) ((long) personList.size() * t / numberOfParts);
+			final int end = (int) ((long) personList.size() * (t + 1) / numberOfParts);
+			futures.add(this.executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					try {
+						for (int i = start; i < end; i++) {
+							HasPlansAndId<PL, AG> person = personList.get(i);
+							MatsimRandom.setThreadRandom(MatsimRandom.getDerivedInstance(removalSeed, getPersonKey(person)));
+							GenericPlanStrategy<PL, AG> strategy = removePlansAndChooseStrategy(person, subPopLookup);
+							chosenStrategies.set(i, strategy);
+							if (strategy instanceof GenericPlanStrategyImpl) {
+								MatsimRandom.setThreadRandom(MatsimRandom.getDerivedInstance(strategySeed, getPersonKey(person)));
+								newPlans.set(i, ((GenericPlanStrategyImpl<PL, AG>) strategy).runForPerson(person));
+							}
+						}
+					} finally {
+						MatsimRandom.setThreadRandom(null);
+					}
+					return null;
+				}
+			}));
+		}
+		try {
+			for (Future<?> future : futures) {
+				future.get();
 			}
-			GenericPlanStrategy<PL, AG> strategy = this.chooseStrategy(person, subpopName);
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Some threads crashed while running the strategies.", e.getCause());
+		}
 
-			if (strategy==null) {
-				throw new RuntimeException("No strategy found! Have you defined at least one replanning strategy per subpopulation? Current subpopulation = " + subpopName);
+		try {
+			for (int i = 0; i < personList.size(); i++) {
+				GenericPlanStrategy<PL, AG> strategy = chosenStrategies.get(i);
+				if (strategy instanceof GenericPlanStrategyImpl) {
+					((GenericPlanStrategyImpl<PL, AG>) strategy).handOver(newPlans.get(i));
+				} else {
+					// strategies of unknown implementation are not assumed to be thread-safe:
+					HasPlansAndId<PL, AG> person = personList.get(i);
+					MatsimRandom.setThreadRandom(MatsimRandom.getDerivedInstance(strategySeed, getPersonKey(person)));
+					strategy.run(person);
+				}
 			}
-			
-			// ... and run the strategy:
-			strategy.run(person);
+		} finally {
+			MatsimRandom.setThreadRandom(null);
 		}
+	}
 
-		// finally make sure all strategies have finished there work
-		for (GenericPlanStrategy<PL, AG> strategy : distinctStrategies()) {
-			strategy.finish();
+	/**
+	 * @return a 64 bit FNV-1a hash of the id string.  (Not the hash code of the id, which may depend on the order in
+	 * which ids were created, and not the 32 bit hash code of the string, which collides too easily.)
+	 */
+	/*package*/ static long getPersonKey(final HasPlansAndId<?, ?> person) {
+		String id = person.getId().toString();
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < id.length(); i++) {
+			char c = id.charAt(i);
+			hash = (hash ^ (c & 0xff)) * 0x100000001b3L;
+			hash = (hash ^ (c >>> 8)) * 0x100000001b3L;
 		}
+		return hash;
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+		private int count = 0;
 
+		@Override
+		public Thread newThread(final Runnable r) {
+			Thread thread = new Thread(r, "GenericStrategyManager." + this.count++);
+			thread.setDaemon(true);
+			return thread;
+		}
 	}
 
 	private Collection<GenericPlanStrategy<PL, AG>> distinctStrategies() {
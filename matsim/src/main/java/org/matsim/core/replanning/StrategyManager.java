@@ -56,6 +56,7 @@ public class StrategyManager implements MatsimManager {
 
 		this();
 		setMaxPlansPerAgent(strategyConfigGroup.getMaxAgentPlanMemorySize());
+		setNumberOfThreads(strategyConfigGroup.getNumberOfThreads());
 
 		int globalInnovationDisableAfter = (int) ((controlerConfigGroup.getLastIteration() - controlerConfigGroup.getFirstIteration())
 				* strategyConfigGroup.getFractionOfIterationsToDisableInnovation() + controlerConfigGroup.getFirstIteration());
@@ -222,6 +223,13 @@ public class StrategyManager implements MatsimManager {
 		delegate.setMaxPlansPerAgent(maxPlansPerAgent);
 	}
 
+	/**
+	 * @see GenericStrategyManager#setNumberOfThreads(int)
+	 */
+	public final void setNumberOfThreads(final int numberOfThreads) {
+		delegate.setNumberOfThreads(numberOfThreads);
+	}
+
 	public final int getMaxPlansPerAgent() {
 		return delegate.getMaxPlansPerAgent();
 	}
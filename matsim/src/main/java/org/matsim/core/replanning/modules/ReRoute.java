@@ -20,11 +20,16 @@
 
 package org.matsim.core.replanning.modules;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.controler.Controler;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.router.PlanRouter;
+import org.matsim.core.router.TripRouteCache;
 import org.matsim.core.router.TripRouter;
 import org.matsim.facilities.ActivityFacilities;
 
@@ -37,11 +42,17 @@ import javax.inject.Provider;
  * @author mrieser
  */
 public class ReRoute extends AbstractMultithreadedModule {
+
+	private static final Logger log = Logger.getLogger(ReRoute.class);
 	
 	private ActivityFacilities facilities;
 
 	private final Provider<TripRouter> tripRouterProvider;
 
+	// one per plan algorithm, i.e. per thread, and created anew in every iteration, so that the cached routes
+	// always belong to the current travel times
+	private final List<TripRouteCache> routeCaches = new ArrayList<>();
+
 	public ReRoute(ActivityFacilities facilities, Provider<TripRouter> tripRouterProvider, GlobalConfigGroup globalConfigGroup) {
 		super(globalConfigGroup);
 		this.facilities = facilities;
@@ -54,9 +65,38 @@ public class ReRoute extends AbstractMultithreadedModule {
 
 	@Override
 	public final PlanAlgorithm getPlanAlgoInstance() {
+			TripRouter tripRouter = tripRouterProvider.get();
+			TripRouteCache routeCache = null;
+			if (tripRouter.getConfig() != null) {
+				routeCache = TripRouteCache.create(tripRouter.getConfig().plansCalcRoute());
+			}
+			if (routeCache != null) {
+				synchronized (this.routeCaches) {
+					this.routeCaches.add(routeCache);
+				}
+			}
 			return new PlanRouter(
-					tripRouterProvider.get(),
-					facilities);
+					tripRouter,
+					facilities,
+					routeCache);
+	}
+
+	@Override
+	protected void afterFinishReplanningHook() {
+		synchronized (this.routeCaches) {
+			if (!this.routeCaches.isEmpty()) {
+				long hits = 0;
+				long misses = 0;
+				for (TripRouteCache routeCache : this.routeCaches) {
+					hits += routeCache.getHitCount();
+					misses += routeCache.getMissCount();
+				}
+				long requests = hits + misses;
+				log.info("route cache: " + hits + " hits, " + misses + " misses, hit rate "
+						+ (requests == 0 ? 0.0 : (double) hits / requests));
+				this.routeCaches.clear();
+			}
+		}
 	}
 
 }
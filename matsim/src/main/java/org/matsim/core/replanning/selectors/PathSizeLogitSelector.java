@@ -20,7 +20,7 @@
 
 package org.matsim.core.replanning.selectors;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +34,6 @@ import org.matsim.api.core.v01.population.PlanElement;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.population.routes.NetworkRoute;
-import org.matsim.core.population.routes.RouteUtils;
 
 import javax.inject.Inject;
 
@@ -47,10 +46,25 @@ import javax.inject.Inject;
  */
 public final class PathSizeLogitSelector extends AbstractPlanSelector {
 
+	/**
+	 * Legs whose departure times differ by more than this are not considered to overlap.
+	 */
+	private static final double OVERLAP_TIME_WINDOW = 3600;
+
 	private final double pathSizeLogitExponent;
 	private final double logitScaleFactor;
 	private Network network;
 
+	// the links of the network, numbered so that the link uses of a person's plans can be sorted by link
+	private volatile LinkIndex linkIndex = null;
+
+	private final ThreadLocal<Buffers> buffers = new ThreadLocal<Buffers>() {
+		@Override
+		protected Buffers initialValue() {
+			return new Buffers();
+		}
+	};
+
 	public PathSizeLogitSelector( final double pathSizeLogitExponent, final double logitScaleFactor, final Network network ) {
 		this.pathSizeLogitExponent = pathSizeLogitExponent ;
 		this.logitScaleFactor = logitScaleFactor ;
@@ -70,79 +84,73 @@ public final class PathSizeLogitSelector extends AbstractPlanSelector {
 
 		double maxScore = Double.NEGATIVE_INFINITY;
 
-		HashMap<Id<Link>, ArrayList<Double>> linksInTime = new HashMap<>();
-		// (a data structure that memorizes possible leg start times for link utilization (??))
-		
-		HashMap<Integer,Double> planLength = new HashMap<Integer, Double>();
-		// (a data structure that memorizes the total travel distance of each plan)
-		// (yyyy is it obvious that no two plans can have the same hash code?  what happens if they do?  kai, oct'12)
-		// (why not just <Plan,Double>?????)
-		
+		// Every use of a link by a leg is an "occurrence".  The occurrences are stored in the order of the plans, legs
+		// and links; for each, the link, its length and the departure time of the leg is memorized.  (The departure time
+		// is the time used to decide whether two uses of the same link overlap.)
+		Buffers buf = this.buffers.get();
+		LinkIndex linkIndex = this.linkIndex;
+		buf.ensurePlans(plans.size());
+		int occurrences = 0;
+
 		//this gets the choice sets C_n
 		//TODO [GL] since the lack of information in Route(),
 		//the very first and the very last link of a path will be ignored - gl
 		//dg, 09-2013: as first and last link are equal for all routes between to activities this is no major issue
 
+		int planIndex = 0;
 		for (Plan plan : plans) {
 
 			if (plan.getScore() > maxScore) maxScore = plan.getScore();
 
 			double pathSize = 0;
-			double currentEndTime = 0.0;
+			buf.planStart[planIndex] = occurrences;
 			for (PlanElement pe : plan.getPlanElements()) {
 				if (pe instanceof Leg) {
 					Leg leg = (Leg) pe;
-					currentEndTime = leg.getDepartureTime();
+					double currentEndTime = leg.getDepartureTime();
 
 					NetworkRoute r = (NetworkRoute) leg.getRoute();
 					// (yyyy this will fail when the route is not a network route.  kai, oct'12)
 
-					pathSize += RouteUtils.calcDistanceExcludingStartEndLink(r, network);
-					// (i.e. pathSize will be the sum over all routes of the plan)
-					
-					for (Id<Link> linkId : r.getLinkIds()){
-						ArrayList<Double> lit = linksInTime.get(linkId);
-						if (lit == null){
-							lit = new ArrayList<Double>();
-							linksInTime.put(linkId, lit);
+					List<Id<Link>> linkIds = r.getLinkIds();
+					buf.ensureOccurrences(occurrences + linkIds.size());
+					double dist = 0;
+					for (Id<Link> linkId : linkIds) {
+						Integer index = linkIndex == null ? null : linkIndex.indices.get(linkId);
+						if (index == null) {
+							linkIndex = extendLinkIndex(linkId);
+							index = linkIndex.indices.get(linkId);
 						}
-						lit.add(currentEndTime);
+						double length = linkIndex.links[index].getLength();
+						dist += length;
+						buf.linkIndex[occurrences] = index;
+						buf.length[occurrences] = length;
+						buf.time[occurrences] = currentEndTime;
+						occurrences++;
 					}
+					pathSize += dist;
+					// (i.e. pathSize will be the sum over all routes of the plan, without the start and end links)
 				}
 			}
-			planLength.put(plan.hashCode(), pathSize);
+			buf.planLength[planIndex] = pathSize;
+			planIndex++;
 		}
+		buf.planStart[planIndex] = occurrences;
 
+		calcDenominators(buf, occurrences);
+
+		planIndex = 0;
 		for (Plan plan : plans) {
 
 			double tmp = 0;
-			for (PlanElement pe : plan.getPlanElements()) {
-				if (pe instanceof Leg) {
-					Leg leg = (Leg) pe;
-					double currentTime = leg.getDepartureTime();
-					NetworkRoute route = (NetworkRoute) leg.getRoute();
-					for (Id<Link> linkId : route.getLinkIds()){
-						double denominator = 0;
-						for (double dbl : linksInTime.get(linkId)){
-							//TODO this is just for testing (those legs where the departure time differs more then 3600 seconds will not compared to each other) - need a
-							//little bit to brood on it - gl
-							// An alternative might be to use a kernal, e.g. a Gaussian.  Something like
-							// denominator += exp( (dbl-currentTime)^2 / sigma^2 ) .  kai, oct'12
-							if (Math.abs(dbl - currentTime) <= 3600)
-								denominator++;
-						}
-						// (the meaning seems to be: for each link that the plan uses, it checks how many other times the
-						// same link is used by a leg that has roughly the same departure time (*))
-
-						Link link = network.getLinks().get(linkId);
-						tmp += link.getLength() / denominator;
-						// (for a plan, the weight of a link is divided by the number of times it is used)
-					}
-				}
+			for (int i = buf.planStart[planIndex]; i < buf.planStart[planIndex + 1]; i++) {
+				tmp += buf.length[i] / buf.denominator[i];
+				// (for a plan, the weight of a link is divided by the number of times it is used)
 			}
 			// tmp is now a number that contains the ``reduced'' travel distance of the plan.  Divide it by the full travel distance
 			// of the plan, and take to the power of this.beta:
-			double PSi = Math.pow(tmp/planLength.get(plan.hashCode()), this.pathSizeLogitExponent);
+			double PSi = Math.pow(tmp/buf.planLength[planIndex], this.pathSizeLogitExponent);
+			planIndex++;
 			
 			double weight;
 			if (Double.isInfinite(maxScore)) {
@@ -171,4 +179,164 @@ public final class PathSizeLogitSelector extends AbstractPlanSelector {
 		return weights ;
 	}
 
+	/**
+	 * For every occurrence, counts how often the same link is used by a leg with roughly the same departure time
+	 * (including the occurrence itself).  The occurrences are sorted by link, and for every link the departure times
+	 * are sorted, so that the overlapping uses can be found by binary search instead of comparing all pairs.
+	 */
+	private static void calcDenominators(final Buffers buf, final int occurrences) {
+		long[] keys = buf.keys;
+		for (int i = 0; i < occurrences; i++) {
+			keys[i] = ((long) buf.linkIndex[i] << 32) | i;
+		}
+		Arrays.sort(keys, 0, occurrences);
+
+		double[] times = buf.groupTimes;
+		int groupStart = 0;
+		while (groupStart < occurrences) {
+			int link = (int) (keys[groupStart] >>> 32);
+			int groupEnd = groupStart;
+			boolean finite = true;
+			while (groupEnd < occurrences && (int) (keys[groupEnd] >>> 32) == link) {
+				double time = buf.time[(int) keys[groupEnd]];
+				times[groupEnd - groupStart] = time;
+				finite &= !Double.isInfinite(time) && !Double.isNaN(time);
+				groupEnd++;
+			}
+			int size = groupEnd - groupStart;
+			if (finite) {
+				Arrays.sort(times, 0, size);
+			}
+			for (int k = groupStart; k < groupEnd; k++) {
+				int i = (int) keys[k];
+				double currentTime = buf.time[i];
+				int count;
+				if (finite) {
+					count = firstAfterWindow(times, size, currentTime) - firstInWindow(times, size, currentTime);
+				} else {
+					// undefined departure times do not overlap with anything, not even with themselves, which does not fit
+					// the binary search; compare all pairs instead
+					count = 0;
+					for (int j = 0; j < size; j++) {
+						if (overlaps(times[j], currentTime)) count++;
+					}
+				}
+				buf.denominator[i] = count;
+			}
+			groupStart = groupEnd;
+		}
+	}
+
+	private static boolean overlaps(final double time, final double currentTime) {
+		//TODO this is just for testing (those legs where the departure time differs more then 3600 seconds will not compared to each other) - need a
+		//little bit to brood on it - gl
+		// An alternative might be to use a kernal, e.g. a Gaussian.  Something like
+		// denominator += exp( (dbl-currentTime)^2 / sigma^2 ) .  kai, oct'12
+		return Math.abs(time - currentTime) <= OVERLAP_TIME_WINDOW;
+	}
+
+	/**
+	 * @return the index of the first of the sorted times which overlaps with the current time or is later.
+	 */
+	private static int firstInWindow(final double[] times, final int size, final double currentTime) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (times[mid] >= currentTime || overlaps(times[mid], currentTime)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * @return the index of the first of the sorted times which is later than the current time and does not overlap with it.
+	 */
+	private static int firstAfterWindow(final double[] times, final int size, final double currentTime) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (times[mid] > currentTime && !overlaps(times[mid], currentTime)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	private synchronized LinkIndex extendLinkIndex(final Id<Link> linkId) {
+		LinkIndex index = this.linkIndex;
+		if (index == null || index.indices.get(linkId) == null) {
+			// first call, or links were added to the network since the last call
+			index = new LinkIndex(index, this.network);
+			if (index.indices.get(linkId) == null) {
+				throw new IllegalArgumentException("Link " + linkId + " is not part of the network.");
+			}
+			this.linkIndex = index;
+		}
+		return index;
+	}
+
+	/**
+	 * Numbers the links of the network.  A new index keeps the numbers of the previous one, so that the numbers
+	 * stay consistent while a person is handled even if another thread extends the index in the meantime.
+	 */
+	private static final class LinkIndex {
+		final Map<Id<Link>, Integer> indices;
+		final Link[] links;
+
+		LinkIndex(final LinkIndex previous, final Network network) {
+			this.indices = previous == null ? new HashMap<Id<Link>, Integer>() : new HashMap<>(previous.indices);
+			int size = this.indices.size();
+			Link[] links = previous == null ? new Link[network.getLinks().size()] : Arrays.copyOf(previous.links, size + network.getLinks().size());
+			for (Link link : network.getLinks().values()) {
+				if (!this.indices.containsKey(link.getId())) {
+					this.indices.put(link.getId(), size);
+					links[size] = link;
+					size++;
+				}
+			}
+			this.links = links;
+		}
+	}
+
+	/**
+	 * Arrays which are re-used for all persons handled by the same thread.
+	 */
+	private static final class Buffers {
+		int[] planStart = new int[8];
+		double[] planLength = new double[8];
+
+		int[] linkIndex = new int[256];
+		double[] length = new double[256];
+		double[] time = new double[256];
+		double[] denominator = new double[256];
+		long[] keys = new long[256];
+		double[] groupTimes = new double[256];
+
+		void ensurePlans(final int plans) {
+			if (this.planStart.length < plans + 1) {
+				this.planStart = new int[plans + 1];
+				this.planLength = new double[plans + 1];
+			}
+		}
+
+		void ensureOccurrences(final int occurrences) {
+			if (this.linkIndex.length < occurrences) {
+				int size = Math.max(occurrences, 2 * this.linkIndex.length);
+				this.linkIndex = Arrays.copyOf(this.linkIndex, size);
+				this.length = Arrays.copyOf(this.length, size);
+				this.time = Arrays.copyOf(this.time, size);
+				this.denominator = new double[size];
+				this.keys = new long[size];
+				this.groupTimes = new double[size];
+			}
+		}
+	}
+
 }
@@ -0,0 +1,324 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * AbstractBidirectionalRouter.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.priorityqueue.HasIndex;
+import org.matsim.core.router.priorityqueue.MinHeap;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Labels, priority queues and path construction shared by the routers that search from both the origin
+ * (forward) and the destination (backward).  The forward search always uses the time-dependent link costs;
+ * how the backward search is run and when the search stops is up to the sub-classes.
+ * <p></p>
+ * All labels are stored in arrays indexed by the nodes of a {@link RoutingGraph}, and are invalidated
+ * by a search counter instead of resetting them for each route.
+ * <p></p>
+ * This class is NOT thread-safe!
+ */
+/*package*/ abstract class AbstractBidirectionalRouter implements LeastCostPathCalculator {
+
+	private static final Logger log = Logger.getLogger(AbstractBidirectionalRouter.class);
+
+	final RoutingGraph graph;
+	final TravelDisutility travelDisutility;
+	final TravelTime travelTime;
+
+	// forward labels; fLink is the position of the link in the out-links of the graph, -1 for the origin, and fPrevious the
+	// node at the start of that link
+	final double[] fCost;
+	final double[] fTime;
+	final int[] fLink;
+	final int[] fPrevious;
+	private final int[] fVisited;
+
+	// backward labels; bLink is the position of the link in the in-links of the graph, -1 for the destination, and bNext the
+	// node at the end of that link
+	final double[] bCost;
+	final int[] bLink;
+	final int[] bNext;
+	private final int[] bVisited;
+	private final int[] bSettled;
+
+	final NodeHeap fHeap;
+	final NodeHeap bHeap;
+
+	private int searchId = 0;
+	private final List<Link> bestPath = new ArrayList<>();
+
+	Person person = null;
+	Vehicle vehicle = null;
+
+	AbstractBidirectionalRouter(final RoutingGraph graph, final TravelDisutility travelDisutility, final TravelTime travelTime,
+			final MinHeapFactory heapFactory) {
+		this.graph = graph;
+		this.travelDisutility = travelDisutility;
+		this.travelTime = travelTime;
+		int n = graph.getNodeCount();
+		this.fCost = new double[n];
+		this.fTime = new double[n];
+		this.fLink = new int[n];
+		this.fPrevious = new int[n];
+		this.fVisited = new int[n];
+		this.bCost = new double[n];
+		this.bLink = new int[n];
+		this.bNext = new int[n];
+		this.bVisited = new int[n];
+		this.bSettled = new int[n];
+		this.fHeap = new NodeHeap(n, heapFactory);
+		this.bHeap = new NodeHeap(n, heapFactory);
+	}
+
+	@Override
+	public Path calcLeastCostPath(final Node fromNode, final Node toNode, final double starttime, final Person person, final Vehicle vehicle) {
+		int fromIndex = checkNodeBelongsToNetwork(fromNode);
+		int toIndex = checkNodeBelongsToNetwork(toNode);
+		if (fromIndex == toIndex) {
+			List<Node> nodes = new ArrayList<>(1);
+			nodes.add(fromNode);
+			return new Path(nodes, new ArrayList<>(0), 0.0, 0.0);
+		}
+
+		this.searchId++;
+		if (this.searchId == Integer.MAX_VALUE) {
+			Arrays.fill(this.fVisited, 0);
+			Arrays.fill(this.bVisited, 0);
+			Arrays.fill(this.bSettled, 0);
+			this.searchId = 1;
+		}
+		this.fHeap.clear();
+		this.bHeap.clear();
+		this.person = person;
+		this.vehicle = vehicle;
+
+		this.bestPath.clear();
+		if (!search(fromIndex, toIndex, starttime)) {
+			log.warn("No route was found from node " + fromNode.getId() + " to node " + toNode.getId() + ". The network is probably not connected.");
+			return null;
+		}
+		return constructPath(fromIndex, starttime);
+	}
+
+	/**
+	 * Runs the search.  Both searches are initialized with the origin and the destination already.  Whenever a
+	 * better path is found, it must be stored with {@link #storeBestPath(int, int, int)}.
+	 *
+	 * @return <code>false</code> if the destination cannot be reached.
+	 */
+	abstract boolean search(int fromIndex, int toIndex, double startTime);
+
+	private int checkNodeBelongsToNetwork(final Node node) {
+		int index = this.graph.getNodeIndex(node);
+		if (index < 0 || this.graph.getNode(index) != node) {
+			throw new IllegalArgumentException("The nodes passed as parameters are not part of the network stored by "+
+					getClass().getSimpleName() + ": the validity of the results cannot be guaranteed. Aborting!");
+		}
+		return index;
+	}
+
+	/**
+	 * Sets the forward label of the node if it has none yet or the new cost is lower, and adds the node to the
+	 * forward queue.  A node that was already polled is put back into the queue.
+	 *
+	 * @return <code>true</code> if the label was changed.
+	 */
+	final boolean updateForward(final int node, final double cost, final double time, final int link, final int previous, final double key) {
+		if (this.fVisited[node] == this.searchId) {
+			if (cost >= this.fCost[node]) {
+				return false;
+			}
+		} else {
+			this.fVisited[node] = this.searchId;
+		}
+		this.fCost[node] = cost;
+		this.fTime[node] = time;
+		this.fLink[node] = link;
+		this.fPrevious[node] = previous;
+		this.fHeap.update(node, key);
+		return true;
+	}
+
+	/**
+	 * Same as {@link #updateForward(int, double, double, int, int, double)} for the backward search.
+	 */
+	final boolean updateBackward(final int node, final double cost, final int link, final int next, final double key) {
+		if (this.bVisited[node] == this.searchId) {
+			if (cost >= this.bCost[node]) {
+				return false;
+			}
+		} else {
+			this.bVisited[node] = this.searchId;
+		}
+		this.bCost[node] = cost;
+		this.bLink[node] = link;
+		this.bNext[node] = next;
+		this.bSettled[node] = 0; // it is settled again when it is polled the next time
+		this.bHeap.update(node, key);
+		return true;
+	}
+
+	final int pollForward() {
+		return this.fHeap.poll();
+	}
+
+	final int pollBackward() {
+		int node = this.bHeap.poll();
+		this.bSettled[node] = this.searchId;
+		return node;
+	}
+
+	final boolean isForwardVisited(final int node) {
+		return this.fVisited[node] == this.searchId;
+	}
+
+	final boolean isBackwardVisited(final int node) {
+		return this.bVisited[node] == this.searchId;
+	}
+
+	final boolean isBackwardSettled(final int node) {
+		return this.bSettled[node] == this.searchId;
+	}
+
+	/**
+	 * @return the time-dependent cost of following the backward labels from the node to the destination,
+	 * starting at the given time.
+	 */
+	final double calcBackwardPathCost(final int node, final double time) {
+		double cost = 0.0;
+		double now = time;
+		for (int current = node; this.bLink[current] >= 0; current = this.bNext[current]) {
+			Link link = this.graph.getInLink(this.bLink[current]);
+			cost += this.travelDisutility.getLinkTravelDisutility(link, now, this.person, this.vehicle);
+			now += this.travelTime.getLinkTravelTime(link, now, this.person, this.vehicle);
+		}
+		return cost;
+	}
+
+	/**
+	 * Stores the path following the forward labels from the origin to the meeting node, and the backward labels
+	 * from there to the destination.  The path has to be copied, since the labels may still change later on.
+	 */
+	final void storeBestPath(final int fromIndex, final int toIndex, final int meetingNode) {
+		this.bestPath.clear();
+		for (int current = meetingNode; current != fromIndex; current = this.fPrevious[current]) {
+			this.bestPath.add(this.graph.getOutLink(this.fLink[current]));
+		}
+		Collections.reverse(this.bestPath);
+		for (int current = meetingNode; current != toIndex; current = this.bNext[current]) {
+			this.bestPath.add(this.graph.getInLink(this.bLink[current]));
+		}
+	}
+
+	private Path constructPath(final int fromIndex, final double startTime) {
+		List<Link> links = new ArrayList<>(this.bestPath);
+
+		// evaluate the path with the time-dependent costs, since the backward part may have been found with other costs
+		List<Node> nodes = new ArrayList<>(links.size() + 1);
+		nodes.add(this.graph.getNode(fromIndex));
+		double cost = 0.0;
+		double time = startTime;
+		for (Link link : links) {
+			cost += this.travelDisutility.getLinkTravelDisutility(link, time, this.person, this.vehicle);
+			time += this.travelTime.getLinkTravelTime(link, time, this.person, this.vehicle);
+			nodes.add(link.getToNode());
+		}
+		return new Path(nodes, links, time - startTime, cost);
+	}
+
+	/**
+	 * A min-heap of node indices, backed by a {@link MinHeap} of the given {@link MinHeapFactory}.
+	 */
+	static final class NodeHeap {
+		private final MinHeap<NodeEntry> heap;
+		private final NodeEntry[] entries;
+		private final double[] keys;
+
+		NodeHeap(final int nodeCount, final MinHeapFactory heapFactory) {
+			this.heap = heapFactory.createMinHeap(nodeCount);
+			this.entries = new NodeEntry[nodeCount];
+			for (int i = 0; i < nodeCount; i++) {
+				this.entries[i] = new NodeEntry(i);
+			}
+			this.keys = new double[nodeCount];
+		}
+
+		boolean isEmpty() {
+			return this.heap.isEmpty();
+		}
+
+		/**
+		 * @return the lowest key, or {@link Double#POSITIVE_INFINITY} if the heap is empty.
+		 */
+		double peekKey() {
+			NodeEntry first = this.heap.peek();
+			return first == null ? Double.POSITIVE_INFINITY : this.keys[first.index];
+		}
+
+		int poll() {
+			return this.heap.poll().index;
+		}
+
+		/**
+		 * Adds the node, or changes its key if it is already in the heap.
+		 */
+		void update(final int node, final double key) {
+			NodeEntry entry = this.entries[node];
+			if (!this.heap.add(entry, key) && !this.heap.decreaseKey(entry, key)) {
+				// a higher key
+				this.heap.remove(entry);
+				this.heap.add(entry, key);
+			}
+			this.keys[node] = key;
+		}
+
+		void clear() {
+			this.heap.reset();
+		}
+	}
+
+	private static final class NodeEntry implements HasIndex {
+		final int index;
+
+		NodeEntry(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public int getArrayIndex() {
+			return this.index;
+		}
+	}
+
+}
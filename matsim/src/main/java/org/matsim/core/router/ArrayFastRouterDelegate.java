@@ -20,7 +20,11 @@
 
 package org.matsim.core.router;
 
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.util.AStarNodeData;
 import org.matsim.core.router.util.ArrayRoutingNetwork;
 import org.matsim.core.router.util.ArrayRoutingNetworkNode;
 import org.matsim.core.router.util.NodeData;
@@ -28,35 +32,95 @@ import org.matsim.core.router.util.NodeDataFactory;
 
 /*package*/ class ArrayFastRouterDelegate extends AbstractFastRouterDelegate {
 
-	private final ArrayRoutingNetwork network;
-	private final NodeData[] nodeData;
-	private boolean isInitialized = false;
+	/*
+	 * The routing network is built on the RoutingGraph of the network and shared by all routers of a
+	 * factory, so a router only owns the labels of its routes. They are stored in flat arrays indexed
+	 * by the array index of the nodes. Between routes, they are invalidated by the iteration id of the
+	 * Dijkstra, which is stored per node as generation stamp, instead of being reset or reallocated.
+	 */
+	private final int[] iterationIds;
+	private final double[] costs;
+	private final double[] times;
+	private final Link[] prevLinks;
+	// only used by the AStar routers
+	private double[] expectedRemainingCosts = null;
 	
 	/*package*/ ArrayFastRouterDelegate(final Dijkstra dijkstra, final NodeDataFactory nodeDataFactory,
 			final ArrayRoutingNetwork network) {
 		super(dijkstra, nodeDataFactory);
-		this.network = network;
-		this.nodeData = new NodeData[network.getNodes().size()];
+		int nodeCount = network.getNodes().size();
+		this.iterationIds = new int[nodeCount];
+		Arrays.fill(this.iterationIds, Integer.MIN_VALUE);
+		this.costs = new double[nodeCount];
+		this.times = new double[nodeCount];
+		this.prevLinks = new Link[nodeCount];
 	}
 
-	@Override
-	public final void initialize() {
-		// lazy initialization
-		if (!isInitialized) {
-			for (Node node : this.network.getNodes().values()) {
-				int index = ((ArrayRoutingNetworkNode) node).getArrayIndex();
-				this.nodeData[index] = nodeDataFactory.createNodeData();
-			}
-			
-			this.isInitialized = true;
-		}
-	}
-	
 	/*
-	 * The NodeData is taken from the array.
+	 * The Dijkstra sub-classes work on NodeData objects, so a short-lived view on the labels of the
+	 * node is returned. It is an AStarNodeData, since it is used by the Dijkstra and the AStar routers.
 	 */
 	public NodeData getData(final Node n) {
-		ArrayRoutingNetworkNode routingNetworkNode = (ArrayRoutingNetworkNode) n;
-		return this.nodeData[routingNetworkNode.getArrayIndex()];
+		return new ArrayNodeData(((ArrayRoutingNetworkNode) n).getArrayIndex());
+	}
+
+	private final class ArrayNodeData extends AStarNodeData {
+
+		private final int index;
+
+		ArrayNodeData(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void resetVisited() {
+			iterationIds[this.index] = Integer.MIN_VALUE;
+		}
+
+		@Override
+		public void visit(final Link comingFrom, final double cost, final double time, final int iterID) {
+			prevLinks[this.index] = comingFrom;
+			costs[this.index] = cost;
+			times[this.index] = time;
+			iterationIds[this.index] = iterID;
+		}
+
+		@Override
+		public boolean isVisited(final int iterID) {
+			return iterationIds[this.index] == iterID;
+		}
+
+		@Override
+		public double getCost() {
+			return costs[this.index];
+		}
+
+		@Override
+		public double getTime() {
+			return times[this.index];
+		}
+
+		@Override
+		public Link getPrevLink() {
+			return prevLinks[this.index];
+		}
+
+		@Override
+		public double getExpectedCost() {
+			return getExpectedRemainingCost() + getCost();
+		}
+
+		@Override
+		public void setExpectedRemainingCost(final double expectedCost) {
+			if (expectedRemainingCosts == null) {
+				expectedRemainingCosts = new double[iterationIds.length];
+			}
+			expectedRemainingCosts[this.index] = expectedCost;
+		}
+
+		@Override
+		public double getExpectedRemainingCost() {
+			return expectedRemainingCosts == null ? 0 : expectedRemainingCosts[this.index];
+		}
 	}
-}
\ No newline at end of file
+}
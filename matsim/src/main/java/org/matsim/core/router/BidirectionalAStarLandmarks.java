@@ -0,0 +1,234 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BidirectionalAStarLandmarks.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.PreProcessLandmarks;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * A* with landmarks searching from the origin and from the destination, which returns the least-cost path also
+ * for time-dependent costs.
+ * <p></p>
+ * The forward search is a regular time-dependent A* search.  The backward search uses the minimal link costs
+ * ({@link TravelDisutility#getLinkMinimumTravelDisutility(Link)}), so its labels are lower bounds of the remaining
+ * cost to the destination, and is only used to prune the forward search (following Nannicini et al., 2008:
+ * Bidirectional A* search for time-dependent fast paths):
+ * <ol>
+ * <li>Both searches run alternately until they meet.  Each node reached by both gives a path, with the prefix
+ * from the forward search and the rest from the backward search, evaluated with the time-dependent costs; the
+ * cheapest of these paths is an upper bound for the cost of the least-cost path.</li>
+ * <li>The backward search continues until its lowest key exceeds the upper bound.  Afterwards, all nodes on the
+ * least-cost path have been settled by it.</li>
+ * <li>The forward search only continues on nodes settled by the backward search whose cost and remaining
+ * lower bound do not exceed the upper bound, until its lowest key reaches the upper bound.</li>
+ * </ol>
+ * Both searches use the landmarks of a {@link PreProcessLandmarks} for their estimates, like
+ * {@link AStarLandmarks}, but choose the active landmarks only once per route.
+ * <p></p>
+ * This class is NOT thread-safe!
+ *
+ * @see BidirectionalAStarLandmarksFactory
+ * @see AStarLandmarks
+ */
+public final class BidirectionalAStarLandmarks extends AbstractBidirectionalRouter {
+
+	/*package*/ static final int ACTIVE_LANDMARKS = 4;
+
+	/**
+	 * The landmark data of a {@link PreProcessLandmarks} in arrays indexed by the nodes of a {@link RoutingGraph}.
+	 * Immutable, so it can be shared like the graph.
+	 */
+	/*package*/ static final class Landmarks {
+		private final int count;
+		private final double[] minTravelCost; // node * count + landmark
+		private final double[] maxTravelCost;
+		private final double[] x;
+		private final double[] y;
+		private final double minTravelCostPerLength;
+
+		Landmarks(final RoutingGraph graph, final PreProcessLandmarks preProcessData) {
+			this.count = preProcessData.getLandmarks().length;
+			int nodeCount = graph.getNodeCount();
+			this.minTravelCost = new double[nodeCount * this.count];
+			this.maxTravelCost = new double[nodeCount * this.count];
+			this.x = new double[nodeCount];
+			this.y = new double[nodeCount];
+			for (int n = 0; n < nodeCount; n++) {
+				PreProcessLandmarks.LandmarksData data = preProcessData.getNodeData(graph.getNode(n));
+				for (int i = 0; i < this.count; i++) {
+					this.minTravelCost[n * this.count + i] = data.getMinLandmarkTravelTime(i);
+					this.maxTravelCost[n * this.count + i] = data.getMaxLandmarkTravelTime(i);
+				}
+				Coord coord = graph.getNode(n).getCoord();
+				this.x[n] = coord.getX();
+				this.y[n] = coord.getY();
+			}
+			this.minTravelCostPerLength = preProcessData.getMinTravelCostPerLength();
+		}
+
+		/**
+		 * Same estimate as in {@link AStarLandmarks}, which is symmetric in the two nodes.
+		 */
+		double estimate(final int node1, final int node2, final int landmark) {
+			double estimate = 0.0;
+			double d1 = this.minTravelCost[node1 * this.count + landmark] - this.maxTravelCost[node2 * this.count + landmark];
+			if (d1 > estimate) {
+				estimate = d1;
+			}
+			double d2 = this.minTravelCost[node2 * this.count + landmark] - this.maxTravelCost[node1 * this.count + landmark];
+			if (d2 > estimate) {
+				estimate = d2;
+			}
+			return estimate;
+		}
+
+		double estimateEuclidean(final int node1, final int node2) {
+			double dx = this.x[node1] - this.x[node2];
+			double dy = this.y[node1] - this.y[node2];
+			double estimate = Math.sqrt(dx * dx + dy * dy) * this.minTravelCostPerLength;
+			return estimate > 0.0 ? estimate : 0.0; // also catches NaN
+		}
+	}
+
+	private final Landmarks landmarks;
+	private final int[] activeLandmarks;
+	private int activeLandmarkCount = 0;
+
+	// please use BidirectionalAStarLandmarksFactory when you want to create an instance of this
+	BidirectionalAStarLandmarks(final RoutingGraph graph, final Landmarks landmarks,
+			final TravelDisutility travelDisutility, final TravelTime travelTime, final MinHeapFactory heapFactory) {
+		super(graph, travelDisutility, travelTime, heapFactory);
+		this.landmarks = landmarks;
+		this.activeLandmarks = new int[Math.min(ACTIVE_LANDMARKS, landmarks.count)];
+	}
+
+	@Override
+	boolean search(final int fromIndex, final int toIndex, final double startTime) {
+		initializeActiveLandmarks(fromIndex, toIndex);
+		updateForward(fromIndex, 0.0, startTime, -1, -1, estimate(fromIndex, toIndex));
+		updateBackward(toIndex, 0.0, -1, -1, estimate(fromIndex, toIndex));
+
+		double bestCost = Double.POSITIVE_INFINITY;
+		boolean backwardDone = false;
+		boolean forwardTurn = true;
+		while (true) {
+			if (!forwardTurn && !backwardDone) {
+				forwardTurn = true;
+				if (this.bHeap.isEmpty() || this.bHeap.peekKey() > bestCost) {
+					backwardDone = true;
+				} else {
+					int node = pollBackward();
+					double nodeCost = this.bCost[node];
+					for (int l = this.graph.getInStart(node), end = this.graph.getInEnd(node); l < end; l++) {
+						int fromNode = this.graph.getInLinkFromNode(l);
+						double cost = nodeCost + this.travelDisutility.getLinkMinimumTravelDisutility(this.graph.getInLink(l));
+						updateBackward(fromNode, cost, l, node, cost + estimate(fromIndex, fromNode));
+					}
+					if (isForwardVisited(node) && this.fCost[node] + nodeCost < bestCost) {
+						double cost = this.fCost[node] + calcBackwardPathCost(node, this.fTime[node]);
+						if (cost < bestCost) {
+							bestCost = cost;
+							storeBestPath(fromIndex, toIndex, node);
+						}
+					}
+				}
+				continue;
+			}
+			forwardTurn = false;
+
+			if (this.fHeap.isEmpty() || this.fHeap.peekKey() >= bestCost) {
+				break;
+			}
+			int node = pollForward();
+			double nodeCost = this.fCost[node];
+			double nodeTime = this.fTime[node];
+			if (isBackwardVisited(node) && nodeCost + this.bCost[node] < bestCost) {
+				// this includes the destination, for which the backward path is empty
+				double cost = nodeCost + calcBackwardPathCost(node, nodeTime);
+				if (cost < bestCost) {
+					bestCost = cost;
+					storeBestPath(fromIndex, toIndex, node);
+				}
+			}
+			for (int l = this.graph.getOutStart(node), end = this.graph.getOutEnd(node); l < end; l++) {
+				int toNode = this.graph.getOutLinkToNode(l);
+				if (backwardDone && !isBackwardSettled(toNode)) {
+					continue; // cannot be on the least-cost path
+				}
+				Link link = this.graph.getOutLink(l);
+				double cost = nodeCost + this.travelDisutility.getLinkTravelDisutility(link, nodeTime, this.person, this.vehicle);
+				if (backwardDone && cost + this.bCost[toNode] >= bestCost) {
+					continue;
+				}
+				if (!isForwardVisited(toNode) || cost < this.fCost[toNode]) {
+					double time = nodeTime + this.travelTime.getLinkTravelTime(link, nodeTime, this.person, this.vehicle);
+					updateForward(toNode, cost, time, l, node, cost + estimate(toNode, toIndex));
+				}
+			}
+		}
+		return bestCost < Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Chooses the landmarks which give the best estimate between origin and destination.
+	 */
+	private void initializeActiveLandmarks(final int fromIndex, final int toIndex) {
+		double[] estimates = new double[this.activeLandmarks.length];
+		this.activeLandmarkCount = 0;
+		for (int i = 0; i < this.landmarks.count; i++) {
+			double estimate = this.landmarks.estimate(fromIndex, toIndex, i);
+			int pos = this.activeLandmarkCount;
+			while (pos > 0 && estimates[pos - 1] < estimate) {
+				pos--;
+			}
+			if (pos < this.activeLandmarks.length) {
+				int last = Math.min(this.activeLandmarkCount, this.activeLandmarks.length - 1);
+				System.arraycopy(estimates, pos, estimates, pos + 1, last - pos);
+				System.arraycopy(this.activeLandmarks, pos, this.activeLandmarks, pos + 1, last - pos);
+				estimates[pos] = estimate;
+				this.activeLandmarks[pos] = i;
+				if (this.activeLandmarkCount < this.activeLandmarks.length) {
+					this.activeLandmarkCount++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return a lower bound of the cost between the two nodes, in either direction.
+	 */
+	private double estimate(final int node1, final int node2) {
+		double estimate = this.landmarks.estimateEuclidean(node1, node2);
+		for (int i = 0; i < this.activeLandmarkCount; i++) {
+			double landmarkEstimate = this.landmarks.estimate(node1, node2, this.activeLandmarks[i]);
+			if (landmarkEstimate > estimate) {
+				estimate = landmarkEstimate;
+			}
+		}
+		return estimate;
+	}
+
+}
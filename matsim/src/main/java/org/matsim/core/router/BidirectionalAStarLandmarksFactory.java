@@ -0,0 +1,93 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BidirectionalAStarLandmarksFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.PreProcessLandmarks;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Creates {@link BidirectionalAStarLandmarks} routers.  The graph and the landmarks are created once per network,
+ * with the travel disutility of the first router, and shared by all routers.
+ * <p></p>
+ * The monotone queues ({@link MinHeapFactory#radix()}, {@link MinHeapFactory#buckets(double)}) only work if the
+ * landmark estimates are consistent with the link costs; otherwise the queues throw an
+ * {@link IllegalStateException} during routing, so the default is a binary heap.
+ */
+@Singleton
+public class BidirectionalAStarLandmarksFactory implements LeastCostPathCalculatorFactory {
+
+	private final Map<Network, RoutingGraph> graphs = new HashMap<>();
+	private final Map<Network, BidirectionalAStarLandmarks.Landmarks> landmarks = new HashMap<>();
+
+	private final int nThreads;
+	private final MinHeapFactory heapFactory;
+
+	@Inject
+	public BidirectionalAStarLandmarksFactory(final GlobalConfigGroup globalConfigGroup) {
+		this(globalConfigGroup.getNumberOfThreads());
+	}
+
+	public BidirectionalAStarLandmarksFactory(final int numberOfThreads) {
+		this(numberOfThreads, MinHeapFactory.binary());
+	}
+
+	/**
+	 * @param heapFactory the priority queue to use for both searches
+	 */
+	public BidirectionalAStarLandmarksFactory(final int numberOfThreads, final MinHeapFactory heapFactory) {
+		this.nThreads = numberOfThreads;
+		this.heapFactory = heapFactory;
+	}
+
+	public BidirectionalAStarLandmarksFactory() {
+		this(8);
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		RoutingGraph graph = this.graphs.get(network);
+		BidirectionalAStarLandmarks.Landmarks networkLandmarks = this.landmarks.get(network);
+		if (graph == null) {
+			graph = new RoutingGraph(network);
+			PreProcessLandmarks preProcessLandmarks = new PreProcessLandmarks(travelCosts);
+			preProcessLandmarks.setNumberOfThreads(this.nThreads);
+			preProcessLandmarks.run(network);
+			networkLandmarks = new BidirectionalAStarLandmarks.Landmarks(graph, preProcessLandmarks);
+			this.graphs.put(network, graph);
+			this.landmarks.put(network, networkLandmarks);
+		}
+		return new BidirectionalAStarLandmarks(graph, networkLandmarks, travelCosts, travelTimes, this.heapFactory);
+	}
+
+}
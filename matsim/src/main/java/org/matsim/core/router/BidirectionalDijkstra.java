@@ -0,0 +1,100 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BidirectionalDijkstra.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Dijkstra's algorithm searching alternately from the origin and from the destination until the two searches
+ * meet, which settles roughly half as many nodes as a search from the origin alone.
+ * <p></p>
+ * The time at which a link is entered is only known in the forward search.  The backward search therefore
+ * approximates the time-dependent costs by the costs at the departure time.  The returned path is the least-cost
+ * path if the costs do not depend on time, e.g. with free speed travel times, and otherwise a path that is
+ * optimal up to the difference between the costs at the departure time and the actual ones on the part found
+ * by the backward search.  The travel time and cost of the returned path are always the time-dependent ones.
+ * Use the {@link BidirectionalAStarLandmarks} if exact least-cost paths are required.
+ * <p></p>
+ * This class is NOT thread-safe!
+ *
+ * @see BidirectionalDijkstraFactory
+ */
+public final class BidirectionalDijkstra extends AbstractBidirectionalRouter {
+
+	// please use BidirectionalDijkstraFactory when you want to create an instance of this
+	BidirectionalDijkstra(final RoutingGraph graph, final TravelDisutility travelDisutility, final TravelTime travelTime,
+			final MinHeapFactory heapFactory) {
+		super(graph, travelDisutility, travelTime, heapFactory);
+	}
+
+	@Override
+	boolean search(final int fromIndex, final int toIndex, final double startTime) {
+		updateForward(fromIndex, 0.0, startTime, -1, -1, 0.0);
+		updateBackward(toIndex, 0.0, -1, -1, 0.0);
+
+		double bestCost = Double.POSITIVE_INFINITY;
+		// if one queue runs empty, all nodes reachable in that direction are settled and the best path is known
+		while (!this.fHeap.isEmpty() && !this.bHeap.isEmpty()) {
+			double forwardKey = this.fHeap.peekKey();
+			double backwardKey = this.bHeap.peekKey();
+			if (forwardKey + backwardKey >= bestCost) {
+				break;
+			}
+			if (forwardKey <= backwardKey) {
+				int node = pollForward();
+				double nodeCost = this.fCost[node];
+				double nodeTime = this.fTime[node];
+				for (int l = this.graph.getOutStart(node), end = this.graph.getOutEnd(node); l < end; l++) {
+					Link link = this.graph.getOutLink(l);
+					int toNode = this.graph.getOutLinkToNode(l);
+					double cost = nodeCost + this.travelDisutility.getLinkTravelDisutility(link, nodeTime, this.person, this.vehicle);
+					if (!isForwardVisited(toNode) || cost < this.fCost[toNode]) {
+						double time = nodeTime + this.travelTime.getLinkTravelTime(link, nodeTime, this.person, this.vehicle);
+						if (updateForward(toNode, cost, time, l, node, cost) && isBackwardVisited(toNode)
+								&& cost + this.bCost[toNode] < bestCost) {
+							bestCost = cost + this.bCost[toNode];
+							storeBestPath(fromIndex, toIndex, toNode);
+						}
+					}
+				}
+			} else {
+				int node = pollBackward();
+				double nodeCost = this.bCost[node];
+				for (int l = this.graph.getInStart(node), end = this.graph.getInEnd(node); l < end; l++) {
+					Link link = this.graph.getInLink(l);
+					int fromNode = this.graph.getInLinkFromNode(l);
+					double cost = nodeCost + this.travelDisutility.getLinkTravelDisutility(link, startTime, this.person, this.vehicle);
+					if (updateBackward(fromNode, cost, l, node, cost) && isForwardVisited(fromNode)
+							&& this.fCost[fromNode] + cost < bestCost) {
+						bestCost = this.fCost[fromNode] + cost;
+						storeBestPath(fromIndex, toIndex, fromNode);
+					}
+				}
+			}
+		}
+		return bestCost < Double.POSITIVE_INFINITY;
+	}
+
+}
@@ -0,0 +1,66 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BidirectionalDijkstraFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Creates {@link BidirectionalDijkstra} routers.  The graph is created once per network and shared by all routers.
+ * Both searches are plain Dijkstra searches, so the monotone queues ({@link MinHeapFactory#radix()},
+ * {@link MinHeapFactory#buckets(double)}) can be used if the link costs are non-negative.
+ */
+@Singleton
+public class BidirectionalDijkstraFactory implements LeastCostPathCalculatorFactory {
+
+	private final Map<Network, RoutingGraph> graphs = new HashMap<>();
+	private final MinHeapFactory heapFactory;
+
+	@Inject
+	public BidirectionalDijkstraFactory() {
+		this(MinHeapFactory.binary());
+	}
+
+	/**
+	 * @param heapFactory the priority queue to use for both searches
+	 */
+	public BidirectionalDijkstraFactory(final MinHeapFactory heapFactory) {
+		this.heapFactory = heapFactory;
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		RoutingGraph graph = this.graphs.computeIfAbsent(network, RoutingGraph::new);
+		return new BidirectionalDijkstra(graph, travelCosts, travelTimes, this.heapFactory);
+	}
+
+}
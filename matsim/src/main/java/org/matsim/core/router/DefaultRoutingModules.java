@@ -23,6 +23,7 @@ import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.core.config.groups.PlansCalcRouteConfigGroup;
 import org.matsim.core.config.groups.PlansCalcRouteConfigGroup.ModeRoutingParams;
 import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.utils.leastcostpathtree.ArrayLeastCostPathTree;
 
 /**
  * @author nagel
@@ -63,6 +64,21 @@ public final class DefaultRoutingModules {
 				net,
 				routeAlgo);
 	}
+
+	/**
+	 * Creates network router without access/egress, which routes batches of requests with the same origin and departure
+	 * time bin with one search in the given tree.
+	 */
+	public static RoutingModule createPureNetworkRouter( String mode, PopulationFactory popFact, Network net, final LeastCostPathCalculator routeAlgo,
+			final ArrayLeastCostPathTree batchTree, double batchTimeBinSize ) {
+		return new NetworkRoutingModule(
+				mode,
+				popFact,
+				net,
+				routeAlgo,
+				batchTree,
+				batchTimeBinSize);
+	}
 	
 	public static RoutingModule createAccessEgressNetworkRouter( String mode, PopulationFactory popFact, Network net, 
 			final LeastCostPathCalculator routeAlgo, PlansCalcRouteConfigGroup calcRouteConfig ) {
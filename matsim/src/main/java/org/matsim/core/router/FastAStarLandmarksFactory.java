@@ -33,19 +33,22 @@ import org.matsim.core.router.util.ArrayRoutingNetworkFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.PreProcessLandmarks;
+import org.matsim.core.router.util.RoutingGraph;
 import org.matsim.core.router.util.RoutingNetwork;
-import org.matsim.core.router.util.RoutingNetworkFactory;
 import org.matsim.core.router.util.RoutingNetworkNode;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 
 /**
+ * Creates {@link FastAStarLandmarks} routers.  The routing network is built on a {@link RoutingGraph} once per
+ * network, together with the landmarks, and shared by all routers; every router only keeps its own label arrays.
+ *
  * @author cdobler
  */
 @Singleton
 public class FastAStarLandmarksFactory implements LeastCostPathCalculatorFactory {
 	
-	private final RoutingNetworkFactory routingNetworkFactory;
+	private final ArrayRoutingNetworkFactory routingNetworkFactory;
 	private final Map<Network, RoutingNetwork> routingNetworks = new HashMap<>();
 	private final Map<Network, PreProcessLandmarks> preProcessData = new HashMap<>();
 
@@ -88,20 +91,18 @@ public class FastAStarLandmarksFactory implements LeastCostPathCalculatorFactory
 		PreProcessLandmarks preProcessLandmarks = this.preProcessData.get(network);
 		
 		if (routingNetwork == null) {
-			routingNetwork = this.routingNetworkFactory.createRoutingNetwork(network);
+			routingNetwork = this.routingNetworkFactory.createRoutingNetwork(new RoutingGraph(network));
 			
-			if (preProcessLandmarks == null) {
-				preProcessLandmarks = new PreProcessLandmarks(travelCosts);
-				preProcessLandmarks.setNumberOfThreads(nThreads);
-				preProcessLandmarks.run(network);
-				this.preProcessData.put(network, preProcessLandmarks);
-				
-				for (RoutingNetworkNode node : routingNetwork.getNodes().values()) {
-					node.setDeadEndData(preProcessLandmarks.getNodeData(node.getNode()));
-				}
-			}				
+			preProcessLandmarks = new PreProcessLandmarks(travelCosts);
+			preProcessLandmarks.setNumberOfThreads(nThreads);
+			preProcessLandmarks.run(network);
+			
+			for (RoutingNetworkNode node : routingNetwork.getNodes().values()) {
+				node.setDeadEndData(preProcessLandmarks.getNodeData(node.getNode()));
+			}
 			
 			this.routingNetworks.put(network, routingNetwork);
+			this.preProcessData.put(network, preProcessLandmarks);
 		}
 		FastRouterDelegateFactory fastRouterFactory = new ArrayFastRouterDelegateFactory();
 		
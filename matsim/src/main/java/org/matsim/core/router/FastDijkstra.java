@@ -22,7 +22,8 @@ package org.matsim.core.router;
 
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Person;
-import org.matsim.core.router.priorityqueue.BinaryMinHeap;
+import org.matsim.core.router.priorityqueue.MinHeap;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
 import org.matsim.core.router.util.ArrayRoutingNetwork;
 import org.matsim.core.router.util.ArrayRoutingNetworkNode;
 import org.matsim.core.router.util.DijkstraNodeData;
@@ -49,7 +50,8 @@ public class FastDijkstra extends Dijkstra {
 
 	private final RoutingNetwork routingNetwork;
 	private final FastRouterDelegate fastRouter;
-	private BinaryMinHeap<ArrayRoutingNetworkNode> heap = null;
+	private final MinHeapFactory heapFactory;
+	private MinHeap<ArrayRoutingNetworkNode> heap = null;
 	private int maxSize = -1;
 	
 	/*
@@ -58,7 +60,13 @@ public class FastDijkstra extends Dijkstra {
 	 */
 	FastDijkstra(final RoutingNetwork routingNetwork, final TravelDisutility costFunction, final TravelTime timeFunction,
 			final PreProcessDijkstra preProcessData, final FastRouterDelegateFactory fastRouterFactory) {
+		this(routingNetwork, costFunction, timeFunction, preProcessData, fastRouterFactory, MinHeapFactory.binary());
+	}
+
+	FastDijkstra(final RoutingNetwork routingNetwork, final TravelDisutility costFunction, final TravelTime timeFunction,
+			final PreProcessDijkstra preProcessData, final FastRouterDelegateFactory fastRouterFactory, final MinHeapFactory heapFactory) {
 		super(routingNetwork, costFunction, timeFunction, preProcessData);
+		this.heapFactory = heapFactory;
 		
 		this.routingNetwork = routingNetwork;
 		this.fastRouter = fastRouterFactory.createFastRouterDelegate(this, new DijkstraNodeDataFactory(), routingNetwork);
@@ -85,14 +93,14 @@ public class FastDijkstra extends Dijkstra {
 	@Override
 	/*package*/ RouterPriorityQueue<? extends Node> createRouterPriorityQueue() {
 		/*
-		 * Re-use existing BinaryMinHeap instead of creating a new one. For large networks (> 10^6 nodes and links) this reduced
+		 * Re-use existing MinHeap instead of creating a new one. For large networks (> 10^6 nodes and links) this reduced
 		 * the computation time by 40%! cdobler, oct'15
 		 */
 		if (this.routingNetwork instanceof ArrayRoutingNetwork) {
 			int size = this.routingNetwork.getNodes().size();
 			if (this.heap == null || this.maxSize != size) {
 				this.maxSize = size;
-				this.heap = new BinaryMinHeap<>(maxSize);
+				this.heap = this.heapFactory.createMinHeap(maxSize);
 				return this.heap;
 			} else {
 				this.heap.reset();
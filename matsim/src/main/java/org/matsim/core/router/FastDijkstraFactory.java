@@ -21,12 +21,13 @@
 package org.matsim.core.router;
 
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
 import org.matsim.core.router.util.ArrayRoutingNetworkFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.PreProcessDijkstra;
+import org.matsim.core.router.util.RoutingGraph;
 import org.matsim.core.router.util.RoutingNetwork;
-import org.matsim.core.router.util.RoutingNetworkFactory;
 import org.matsim.core.router.util.RoutingNetworkNode;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
@@ -37,11 +38,17 @@ import javax.inject.Singleton;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Creates {@link FastDijkstra} routers.  The routing network is built on a {@link RoutingGraph} once per network,
+ * together with the dead-end data if they are used, and shared by all routers; every router only keeps its own
+ * label arrays.
+ */
 @Singleton
 public class FastDijkstraFactory implements LeastCostPathCalculatorFactory {
 	
 	private final boolean usePreProcessData;
-	private final RoutingNetworkFactory routingNetworkFactory;
+	private final ArrayRoutingNetworkFactory routingNetworkFactory;
+	private final MinHeapFactory heapFactory;
 	private final Map<Network, RoutingNetwork> routingNetworks = new HashMap<>();
 	private final Map<Network, PreProcessDijkstra> preProcessData = new HashMap<>();
 
@@ -54,8 +61,20 @@ public class FastDijkstraFactory implements LeastCostPathCalculatorFactory {
 		this(usePreProcessData, FastRouterType.ARRAY);
 	}
 
+	/**
+	 * @param heapFactory the priority queue to use, e.g. {@link MinHeapFactory#radix()} for non-negative link costs
+	 */
+	public FastDijkstraFactory(final boolean usePreProcessData, final MinHeapFactory heapFactory) {
+		this(usePreProcessData, FastRouterType.ARRAY, heapFactory);
+	}
+
 	private FastDijkstraFactory(final boolean usePreProcessData, final FastRouterType fastRouterType) {
+		this(usePreProcessData, fastRouterType, MinHeapFactory.binary());
+	}
+
+	private FastDijkstraFactory(final boolean usePreProcessData, final FastRouterType fastRouterType, final MinHeapFactory heapFactory) {
 		this.usePreProcessData = usePreProcessData;
+		this.heapFactory = heapFactory;
 				
 		switch (fastRouterType) {
 		case ARRAY:
@@ -75,7 +94,7 @@ public class FastDijkstraFactory implements LeastCostPathCalculatorFactory {
 		PreProcessDijkstra preProcessDijkstra = this.preProcessData.get(network);
 
 		if (routingNetwork == null) {
-			routingNetwork = this.routingNetworkFactory.createRoutingNetwork(network);
+			routingNetwork = this.routingNetworkFactory.createRoutingNetwork(new RoutingGraph(network));
 			
 			if (this.usePreProcessData) {
 				if (preProcessDijkstra == null) {
@@ -93,6 +112,6 @@ public class FastDijkstraFactory implements LeastCostPathCalculatorFactory {
 		}
 		FastRouterDelegateFactory fastRouterFactory = new ArrayFastRouterDelegateFactory();
 		
-		return new FastDijkstra(routingNetwork, travelCosts, travelTimes, preProcessDijkstra, fastRouterFactory);
+		return new FastDijkstra(routingNetwork, travelCosts, travelTimes, preProcessDijkstra, fastRouterFactory, this.heapFactory);
 	}
 }
\ No newline at end of file
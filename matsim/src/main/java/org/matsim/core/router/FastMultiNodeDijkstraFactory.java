@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
 import org.matsim.core.router.util.ArrayRoutingNetworkFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
@@ -39,6 +40,7 @@ public class FastMultiNodeDijkstraFactory implements LeastCostPathCalculatorFact
 	private final boolean searchAllEndNodes;
 	private final boolean usePreProcessData;
 	private final RoutingNetworkFactory routingNetworkFactory;
+	private final MinHeapFactory heapFactory;
 	private final Map<Network, RoutingNetwork> routingNetworks = new HashMap<>();
 	private final Map<Network, PreProcessDijkstra> preProcessData = new HashMap<>();
 	
@@ -51,8 +53,16 @@ public class FastMultiNodeDijkstraFactory implements LeastCostPathCalculatorFact
 	}
 		
 	public FastMultiNodeDijkstraFactory(final boolean usePreProcessData, final boolean searchAllEndNodes) {
+		this(usePreProcessData, searchAllEndNodes, MinHeapFactory.binary());
+	}
+
+	/**
+	 * @param heapFactory the priority queue to use, e.g. {@link MinHeapFactory#radix()} for non-negative link costs
+	 */
+	public FastMultiNodeDijkstraFactory(final boolean usePreProcessData, final boolean searchAllEndNodes, final MinHeapFactory heapFactory) {
 		this.usePreProcessData = usePreProcessData;
 		this.searchAllEndNodes = searchAllEndNodes;
+		this.heapFactory = heapFactory;
 		this.routingNetworkFactory = new ArrayRoutingNetworkFactory();
 	}
 
@@ -81,6 +91,6 @@ public class FastMultiNodeDijkstraFactory implements LeastCostPathCalculatorFact
 		}
 		FastRouterDelegateFactory fastRouterFactory = new ArrayFastRouterDelegateFactory();
 		
-		return new FastMultiNodeDijkstra(routingNetwork, travelCosts, travelTimes, preProcessDijkstra, fastRouterFactory, this.searchAllEndNodes);
+		return new FastMultiNodeDijkstra(routingNetwork, travelCosts, travelTimes, preProcessDijkstra, fastRouterFactory, this.searchAllEndNodes, this.heapFactory);
 	}
 }
\ No newline at end of file
@@ -44,6 +44,10 @@ public class LeastCostPathCalculatorModule extends AbstractModule {
             bind(LeastCostPathCalculatorFactory.class).to(FastDijkstraFactory.class);
         } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.FastAStarLandmarks)) {
             bind(LeastCostPathCalculatorFactory.class).to(FastAStarLandmarksFactory.class);
+        } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.BidirectionalDijkstra)) {
+            bind(LeastCostPathCalculatorFactory.class).to(BidirectionalDijkstraFactory.class);
+        } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.BidirectionalAStarLandmarks)) {
+            bind(LeastCostPathCalculatorFactory.class).to(BidirectionalAStarLandmarksFactory.class);
         }
     }
 
@@ -0,0 +1,181 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LinkToLinkDijkstra.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.LinkToLinkTravelTime;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Dijkstra's algorithm with the links instead of the nodes as labels, which respects turn restrictions and
+ * takes the travel times of the turning moves into account directly on the original network.
+ * <p></p>
+ * The costs and times are the same as those of a Dijkstra on the inverted network, as used by the
+ * {@link LinkToLinkRoutingModule} before: a turn from link <code>a</code> to link <code>b</code> takes
+ * {@link LinkToLinkTravelTime#getLinkToLinkTravelTime(Link, Link, double)} and costs the disutility of
+ * <code>b</code>, evaluated with a {@link TravelTime} that returns the travel time of that turn.  Hence, the
+ * travel time and cost of a route include the from-link but not the to-link.
+ * <p></p>
+ * This class is NOT thread-safe!
+ *
+ * @see LinkToLinkGraph
+ */
+/*package*/ final class LinkToLinkDijkstra {
+
+	private static final Logger log = Logger.getLogger(LinkToLinkDijkstra.class);
+
+	private final LinkToLinkGraph graph;
+	private final LinkToLinkTravelTime linkToLinkTravelTime;
+	private final TurnTravelTime turnTravelTime;
+	private final TravelDisutility travelDisutility;
+
+	private final double[] cost;
+	private final double[] time;
+	private final int[] previous;
+	private final int[] visited;
+	private final AbstractBidirectionalRouter.NodeHeap heap;
+	private int searchId = 0;
+
+	LinkToLinkDijkstra(final LinkToLinkGraph graph, final TravelDisutilityFactory travelDisutilityFactory,
+			final LinkToLinkTravelTime linkToLinkTravelTime) {
+		this.graph = graph;
+		this.linkToLinkTravelTime = linkToLinkTravelTime;
+		this.turnTravelTime = new TurnTravelTime(linkToLinkTravelTime);
+		this.travelDisutility = travelDisutilityFactory.createTravelDisutility(this.turnTravelTime);
+		int n = graph.getLinkCount();
+		this.cost = new double[n];
+		this.time = new double[n];
+		this.previous = new int[n];
+		this.visited = new int[n];
+		this.heap = new AbstractBidirectionalRouter.NodeHeap(n, MinHeapFactory.binary());
+	}
+
+	/**
+	 * @return the path from the end of <code>fromLink</code> to the start of <code>toLink</code>, or
+	 * <code>null</code> if <code>toLink</code> cannot be reached.  The travel time and cost include the
+	 * <code>fromLink</code>, see above.
+	 */
+	Path calcLeastCostPath(final Link fromLink, final Link toLink, final double startTime, final Person person, final Vehicle vehicle) {
+		int fromIndex = checkLinkBelongsToNetwork(fromLink);
+		int toIndex = checkLinkBelongsToNetwork(toLink);
+
+		this.searchId++;
+		if (this.searchId == Integer.MAX_VALUE) {
+			Arrays.fill(this.visited, 0);
+			this.searchId = 1;
+		}
+		this.heap.clear();
+
+		update(fromIndex, 0.0, startTime, -1);
+		boolean found = false;
+		while (!this.heap.isEmpty()) {
+			int link = this.heap.poll();
+			if (link == toIndex) {
+				found = true;
+				break;
+			}
+			double linkCost = this.cost[link];
+			double linkTime = this.time[link];
+			Link currentLink = this.graph.getLink(link);
+			this.turnTravelTime.fromLink = currentLink;
+			for (int t = this.graph.turnStart[link], end = this.graph.turnStart[link + 1]; t < end; t++) {
+				int toLinkIndex = this.graph.turnToLink[t];
+				Link nextLink = this.graph.getLink(toLinkIndex);
+				double newCost = linkCost + this.travelDisutility.getLinkTravelDisutility(nextLink, linkTime, person, vehicle);
+				if (this.visited[toLinkIndex] != this.searchId || newCost < this.cost[toLinkIndex]) {
+					double newTime = linkTime + this.linkToLinkTravelTime.getLinkToLinkTravelTime(currentLink, nextLink, linkTime);
+					update(toLinkIndex, newCost, newTime, link);
+				}
+			}
+		}
+		this.turnTravelTime.fromLink = null;
+
+		if (!found) {
+			log.warn("No route was found from link " + fromLink.getId() + " to link " + toLink.getId() + ". Some turns are probably not allowed.");
+			return null;
+		}
+		return constructPath(fromIndex, toIndex, startTime);
+	}
+
+	private int checkLinkBelongsToNetwork(final Link link) {
+		int index = this.graph.getLinkIndex(link);
+		if (index < 0 || this.graph.getLink(index) != link) {
+			throw new IllegalArgumentException("The link " + link.getId() + " is not part of the network stored by "
+					+ getClass().getSimpleName() + ": the validity of the results cannot be guaranteed. Aborting!");
+		}
+		return index;
+	}
+
+	private void update(final int link, final double newCost, final double newTime, final int previousLink) {
+		this.visited[link] = this.searchId;
+		this.cost[link] = newCost;
+		this.time[link] = newTime;
+		this.previous[link] = previousLink;
+		this.heap.update(link, newCost);
+	}
+
+	private Path constructPath(final int fromIndex, final int toIndex, final double startTime) {
+		List<Link> links = new ArrayList<>();
+		for (int current = this.previous[toIndex]; current != fromIndex && current >= 0; current = this.previous[current]) {
+			links.add(this.graph.getLink(current));
+		}
+		Collections.reverse(links);
+		List<Node> nodes = new ArrayList<>(links.size() + 1);
+		nodes.add(this.graph.getLink(fromIndex).getToNode());
+		for (Link link : links) {
+			nodes.add(link.getToNode());
+		}
+		return new Path(nodes, links, this.time[toIndex] - startTime, this.cost[toIndex]);
+	}
+
+	/**
+	 * The travel time of the turn from {@link #fromLink} to the link given as parameter, so that the travel
+	 * disutility of a link can be evaluated for the turn that enters it.
+	 */
+	private static final class TurnTravelTime implements TravelTime {
+
+		private final LinkToLinkTravelTime linkToLinkTravelTime;
+		Link fromLink = null;
+
+		TurnTravelTime(final LinkToLinkTravelTime linkToLinkTravelTime) {
+			this.linkToLinkTravelTime = linkToLinkTravelTime;
+		}
+
+		@Override
+		public double getLinkTravelTime(final Link link, final double time, final Person person, final Vehicle vehicle) {
+			return this.linkToLinkTravelTime.getLinkToLinkTravelTime(this.fromLink, link, time);
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LinkToLinkGraph.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.network.algorithms.NetworkExpandNode.TurnInfo;
+import org.matsim.core.network.algorithms.NetworkTurnInfoBuilderI;
+
+/**
+ * The links of a network with the allowed turns between them in compressed form: the links which may be entered
+ * from link <code>i</code> are stored at positions <code>turnStart[i]</code> to <code>turnStart[i+1] - 1</code> of
+ * <code>turnToLink</code>.  This holds the same information as the inverted network created by the
+ * {@link org.matsim.core.network.algorithms.NetworkInverter}, without creating a node for every link and a link for
+ * every turn.
+ * <p></p>
+ * Instances are immutable and can be shared by the routers of all threads.
+ *
+ * @see LinkToLinkDijkstra
+ */
+/*package*/ final class LinkToLinkGraph {
+
+	private final Network network;
+	private final Link[] links;
+	private final Map<Id<Link>, Integer> linkIndices;
+
+	final int[] turnStart;
+	final int[] turnToLink;
+
+	/**
+	 * @param allowedTurns the allowed turns per from-link, as created by a {@link NetworkTurnInfoBuilderI}.  Turns
+	 * from links without an entry are not allowed.
+	 */
+	LinkToLinkGraph(final Network network, final Map<Id<Link>, List<TurnInfo>> allowedTurns) {
+		this.network = network;
+		int linkCount = network.getLinks().size();
+		this.links = new Link[linkCount];
+		this.linkIndices = new HashMap<>((int) (linkCount / 0.75) + 1);
+		int index = 0;
+		for (Link link : network.getLinks().values()) {
+			this.links[index] = link;
+			this.linkIndices.put(link.getId(), index);
+			index++;
+		}
+
+		int turnCount = 0; // an upper bound, each turn info allows at most one turn
+		for (List<TurnInfo> turnInfos : allowedTurns.values()) {
+			turnCount += turnInfos.size();
+		}
+		this.turnStart = new int[linkCount + 1];
+		int[] turns = new int[turnCount];
+		int pos = 0;
+		Set<Id<Link>> toLinkIds = new HashSet<>();
+		for (int i = 0; i < linkCount; i++) {
+			this.turnStart[i] = pos;
+			List<TurnInfo> turnInfos = allowedTurns.get(this.links[i].getId());
+			if (turnInfos == null) {
+				continue;
+			}
+			toLinkIds.clear();
+			for (TurnInfo turnInfo : turnInfos) {
+				toLinkIds.add(turnInfo.getToLinkId());
+			}
+			// like the NetworkInverter, only consider turns to the out-links of the link's to-node
+			for (Link outLink : this.links[i].getToNode().getOutLinks().values()) {
+				Integer outIndex = this.linkIndices.get(outLink.getId());
+				if (outIndex != null && toLinkIds.contains(outLink.getId())) {
+					turns[pos++] = outIndex;
+				}
+			}
+		}
+		this.turnStart[linkCount] = pos;
+		this.turnToLink = pos == turns.length ? turns : Arrays.copyOf(turns, pos);
+	}
+
+	LinkToLinkGraph(final Network network, final NetworkTurnInfoBuilderI turnInfoBuilder) {
+		this(network, turnInfoBuilder.createAllowedTurnInfos());
+	}
+
+	Network getNetwork() {
+		return this.network;
+	}
+
+	int getLinkCount() {
+		return this.links.length;
+	}
+
+	/**
+	 * @return the index of the link, or <code>-1</code> if it is not part of the graph.
+	 */
+	int getLinkIndex(final Link link) {
+		Integer index = this.linkIndices.get(link.getId());
+		return index == null ? -1 : index;
+	}
+
+	Link getLink(final int index) {
+		return this.links[index];
+	}
+
+}
@@ -37,9 +37,6 @@ public class LinkToLinkRouting
     @Inject
     PopulationFactory populationFactory;
 
-    @Inject
-    LeastCostPathCalculatorFactory leastCostPathCalcFactory;
-
     @Inject
     Map<String, TravelDisutilityFactory> travelDisutilities;
 
@@ -53,6 +50,10 @@ public class LinkToLinkRouting
     NetworkTurnInfoBuilderI networkTurnInfoBuilder;
 
 
+    // the allowed turns do not change, so all routing modules of this mode share them
+    private LinkToLinkGraph graph = null;
+
+
     public LinkToLinkRouting(String mode)
     {
         this.mode = mode;
@@ -62,8 +63,16 @@ public class LinkToLinkRouting
     @Override
     public RoutingModule get()
     {
-        return new LinkToLinkRoutingModule(mode, populationFactory, network,
-                leastCostPathCalcFactory, travelDisutilities.get(mode), travelTimes,
-                networkTurnInfoBuilder);
+        return new LinkToLinkRoutingModule(mode, populationFactory, getGraph(),
+                travelDisutilities.get(mode), travelTimes);
+    }
+
+
+    private synchronized LinkToLinkGraph getGraph()
+    {
+        if (graph == null || graph.getNetwork() != network) {
+            graph = new LinkToLinkGraph(network, networkTurnInfoBuilder);
+        }
+        return graph;
     }
 }
\ No newline at end of file
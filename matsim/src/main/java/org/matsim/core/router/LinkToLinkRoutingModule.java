@@ -49,11 +49,12 @@ import org.matsim.vehicles.Vehicle;
 
 
 /**
- * This leg router takes travel times needed for turning moves into account. This is done by a
+ * This leg router takes travel times needed for turning moves into account. This is done either by a
  * routing on an inverted network, i.e. the links of the street networks are converted to nodes and
- * for each turning move a link is inserted. This LegRouter can only be used if the
- * enableLinkToLinkRouting parameter in the controler config module is set and AStarLandmarks
- * routing is not enabled.
+ * for each turning move a link is inserted, or by a {@link LinkToLinkDijkstra} on the original network,
+ * which gives the same routes without the memory needed for the inverted network. This LegRouter can
+ * only be used if the enableLinkToLinkRouting parameter in the controler config module is set and
+ * AStarLandmarks routing is not enabled.
  * 
  * @author dgrether
  * @author michalm
@@ -63,6 +64,7 @@ class LinkToLinkRoutingModule implements RoutingModule
     private final Network invertedNetwork;
     private final Network network;
     private final LeastCostPathCalculator leastCostPathCalculator;
+    private final LinkToLinkDijkstra linkToLinkDijkstra;
     private final PopulationFactory populationFactory;
     private final String mode;
 
@@ -85,6 +87,22 @@ class LinkToLinkRoutingModule implements RoutingModule
         TravelDisutility travelCost = travelCostCalculatorFactory.createTravelDisutility(invertedTravelTimes);
 
         leastCostPathCalculator = leastCostPathCalcFactory.createPathCalculator(invertedNetwork, travelCost, invertedTravelTimes);
+        linkToLinkDijkstra = null;
+    }
+
+    /**
+     * Routes directly on the original network, with the turns of the given graph.
+     */
+    LinkToLinkRoutingModule(final String mode, final PopulationFactory populationFactory,
+            LinkToLinkGraph graph, TravelDisutilityFactory travelCostCalculatorFactory,
+            LinkToLinkTravelTime l2ltravelTimes)
+    {
+        this.network = graph.getNetwork();
+        this.populationFactory = populationFactory;
+        this.mode = mode;
+        this.invertedNetwork = null;
+        this.leastCostPathCalculator = null;
+        this.linkToLinkDijkstra = new LinkToLinkDijkstra(graph, travelCostCalculatorFactory, l2ltravelTimes);
     }
 
     @Override
@@ -98,16 +116,27 @@ class LinkToLinkRoutingModule implements RoutingModule
 		
 		if (!toFacility.getLinkId().equals(fromFacility.getLinkId())) {
 		    // (a "true" route)	        
-		    Node fromInvNode = this.invertedNetwork.getNodes()
-		            .get(Id.create(fromFacility.getLinkId(), Node.class));
-		    Node toInvNode = this.invertedNetwork.getNodes().get(Id.create(toFacility.getLinkId(), Node.class));
-		
-		    Path invPath = leastCostPathCalculator.calcLeastCostPath(fromInvNode, toInvNode, departureTime, person, null);
-		    if (invPath == null) {
-		        throw new RuntimeException("No route found on inverted network from link "
-		                + fromFacility.getLinkId() + " to link " + toFacility.getLinkId() + ".");
-		    }		
-		    Path path = invertPath(invPath);
+		    Path path;
+		    if (this.linkToLinkDijkstra != null) {
+		        Link fromLink = this.network.getLinks().get(fromFacility.getLinkId());
+		        Link toLink = this.network.getLinks().get(toFacility.getLinkId());
+		        path = this.linkToLinkDijkstra.calcLeastCostPath(fromLink, toLink, departureTime, person, null);
+		        if (path == null) {
+		            throw new RuntimeException("No route found from link "
+		                    + fromFacility.getLinkId() + " to link " + toFacility.getLinkId() + ".");
+		        }
+		    } else {
+		        Node fromInvNode = this.invertedNetwork.getNodes()
+		                .get(Id.create(fromFacility.getLinkId(), Node.class));
+		        Node toInvNode = this.invertedNetwork.getNodes().get(Id.create(toFacility.getLinkId(), Node.class));
+
+		        Path invPath = leastCostPathCalculator.calcLeastCostPath(fromInvNode, toInvNode, departureTime, person, null);
+		        if (invPath == null) {
+		            throw new RuntimeException("No route found on inverted network from link "
+		                    + fromFacility.getLinkId() + " to link " + toFacility.getLinkId() + ".");
+		        }
+		        path = invertPath(invPath);
+		    }
 		    
 			NetworkRoute route = this.populationFactory.getRouteFactories().createRoute(NetworkRoute.class, fromFacility.getLinkId(), toFacility.getLinkId());
 			route.setLinkIds(fromFacility.getLinkId(), NetworkUtils.getLinkIds(path.links), toFacility.getLinkId());
@@ -18,8 +18,12 @@
  * *********************************************************************** */
 package org.matsim.core.router;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
@@ -34,7 +38,9 @@ import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.population.routes.RouteUtils;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.utils.misc.Time;
 import org.matsim.facilities.Facility;
+import org.matsim.utils.leastcostpathtree.ArrayLeastCostPathTree;
 
 /**
  * This wraps a "computer science" {@link LeastCostPathCalculator}, which routes from a node to another node, into something that
@@ -52,49 +58,147 @@ public final class NetworkRoutingModule implements RoutingModule {
 	private final Network network;
 	private final LeastCostPathCalculator routeAlgo;
 
+	private final ArrayLeastCostPathTree batchTree;
+	private final double batchTimeBinSize;
+
 
 	 public NetworkRoutingModule(
 			final String mode,
 			final PopulationFactory populationFactory,
 			final Network network,
 			final LeastCostPathCalculator routeAlgo) {
+		 this( mode, populationFactory, network, routeAlgo, null, 0. ) ;
+	}
+
+	/**
+	 * Creates a module which routes batches of requests with one search per from-link and departure time bin, see
+	 * {@link #calcRoutes(List)}.  Only use this if the travel disutility does not depend on the person, e.g. without
+	 * routing randomness: the searches are run without a person, so a randomizing travel disutility will throw.
+	 *
+	 * @param batchTree used by {@link #calcRoutes(List)}.  May be <code>null</code>: in this case, every request is
+	 * routed separately.  The tree must be based on the same network and travel time and disutility as the
+	 * <code>routeAlgo</code>.
+	 * @param batchTimeBinSize the size of the departure time bins, in seconds.
+	 */
+	 public NetworkRoutingModule(
+			final String mode,
+			final PopulationFactory populationFactory,
+			final Network network,
+			final LeastCostPathCalculator routeAlgo,
+			final ArrayLeastCostPathTree batchTree,
+			final double batchTimeBinSize) {
 		 Gbl.assertNotNull(network);
 //		 Gbl.assertIf( network.getLinks().size()>0 ) ; // otherwise network for mode probably not defined
 		 // makes many tests fail.  
+		 if ( batchTree != null && batchTimeBinSize <= 0. ) {
+			 throw new IllegalArgumentException( "the time bin size for batch routing must be positive, but is " + batchTimeBinSize ) ;
+		 }
 		 this.network = network;
 		 this.routeAlgo = routeAlgo;
 		 this.mode = mode;
 		 this.populationFactory = populationFactory;
+		 this.batchTree = batchTree;
+		 this.batchTimeBinSize = batchTimeBinSize;
 	}
 
 	@Override
 	public List<? extends PlanElement> calcRoute(final Facility fromFacility, final Facility toFacility, final double departureTime,
 			final Person person) {		
-		Leg newLeg = this.populationFactory.createLeg( this.mode );
-
 		Gbl.assertNotNull(fromFacility);
 		Gbl.assertNotNull(toFacility);
 
-		Link fromLink = this.network.getLinks().get(fromFacility.getLinkId());
-		if ( fromLink==null ) {
-			Gbl.assertNotNull( fromFacility.getCoord() ) ;
-			fromLink = NetworkUtils.getNearestLink( network, fromFacility.getCoord()) ;
-		}
-		Link toLink = this.network.getLinks().get(toFacility.getLinkId());
-		if ( toLink==null ) {
-			Gbl.assertNotNull( toFacility.getCoord() ) ;
-			toLink = NetworkUtils.getNearestLink(network, toFacility.getCoord());
-		}
-		Gbl.assertNotNull(fromLink);
-		Gbl.assertNotNull(toLink);
+		Link fromLink = getLink(fromFacility);
+		Link toLink = getLink(toFacility);
 		
+		Path path = null;
 		if (toLink != fromLink) {
 			// (a "true" route)
 			Node startNode = fromLink.getToNode(); // start at the end of the "current" link
 			Node endNode = toLink.getFromNode(); // the target is the start of the link
-			Path path = this.routeAlgo.calcLeastCostPath(startNode, endNode, departureTime, person, null);
+			path = this.routeAlgo.calcLeastCostPath(startNode, endNode, departureTime, person, null);
 			if (path == null)
 				throw new RuntimeException("No route found from node " + startNode.getId() + " to node " + endNode.getId() + " by mode " + this.mode + ".");
+		}
+		return Arrays.asList( createLeg(fromLink, toLink, path, departureTime) );
+	}
+
+	/**
+	 * If a batch tree is set, the requests are grouped by their from-link and departure time bin: bin <code>k</code>
+	 * holds the departure times from <code>k * batchTimeBinSize</code> (inclusive) to
+	 * <code>(k + 1) * batchTimeBinSize</code> (exclusive).  The requests of a group with more than one request are
+	 * routed with one search, which starts at the earliest departure time in the group and is run without a person.
+	 * So with time-dependent travel times, all routes of a group, and their travel times, are the ones for that
+	 * earliest departure time; the departure time of each leg is still the requested one.  Requests without a
+	 * departure time, and groups of one request, are routed separately with {@link #calcRoute}.
+	 */
+	@Override
+	public List<List<? extends PlanElement>> calcRoutes(final List<RoutingRequest> requests) {
+		if (this.batchTree == null) {
+			return RoutingModule.super.calcRoutes(requests);
+		}
+
+		// group the requests by from-link and departure time bin, in the order of their first request:
+		Link[] fromLinks = new Link[requests.size()];
+		Link[] toLinks = new Link[requests.size()];
+		Map<Link, Map<Long, List<Integer>>> groups = new LinkedHashMap<>();
+		for (int i = 0; i < requests.size(); i++) {
+			RoutingRequest request = requests.get(i);
+			fromLinks[i] = getLink(request.getFromFacility());
+			toLinks[i] = getLink(request.getToFacility());
+			long timeBin = Time.isUndefinedTime(request.getDepartureTime()) ? Long.MIN_VALUE
+					: (long) Math.floor(request.getDepartureTime() / this.batchTimeBinSize);
+			groups.computeIfAbsent(fromLinks[i], k -> new LinkedHashMap<>()).computeIfAbsent(timeBin, k -> new ArrayList<>()).add(i);
+		}
+
+		List<List<? extends PlanElement>> trips = new ArrayList<>(Collections.nCopies(requests.size(), null));
+		for (Map<Long, List<Integer>> groupsOfLink : groups.values()) {
+			for (Map.Entry<Long, List<Integer>> group : groupsOfLink.entrySet()) {
+				List<Integer> indices = group.getValue();
+				if (indices.size() == 1 || group.getKey() == Long.MIN_VALUE) {
+					for (int i : indices) {
+						RoutingRequest request = requests.get(i);
+						trips.set(i, calcRoute(request.getFromFacility(), request.getToFacility(), request.getDepartureTime(), request.getPerson()));
+					}
+					continue;
+				}
+				double earliestDepartureTime = Double.POSITIVE_INFINITY;
+				for (int i : indices) {
+					earliestDepartureTime = Math.min(earliestDepartureTime, requests.get(i).getDepartureTime());
+				}
+				Link fromLink = fromLinks[indices.get(0)];
+				this.batchTree.calculate(fromLink.getToNode(), earliestDepartureTime, null, null);
+				for (int i : indices) {
+					Path path = null;
+					if (toLinks[i] != fromLink) {
+						Node endNode = toLinks[i].getFromNode();
+						path = this.batchTree.getPath(endNode);
+						if (path == null)
+							throw new RuntimeException("No route found from node " + fromLink.getToNode().getId() + " to node " + endNode.getId() + " by mode " + this.mode + ".");
+					}
+					trips.set(i, Arrays.asList( createLeg(fromLink, toLinks[i], path, requests.get(i).getDepartureTime()) ));
+				}
+			}
+		}
+		return trips;
+	}
+
+	private Link getLink(final Facility facility) {
+		Link link = this.network.getLinks().get(facility.getLinkId());
+		if ( link==null ) {
+			Gbl.assertNotNull( facility.getCoord() ) ;
+			link = NetworkUtils.getNearestLink( network, facility.getCoord()) ;
+		}
+		Gbl.assertNotNull(link);
+		return link;
+	}
+
+	/**
+	 * @param path the path from the to-node of the from-link to the from-node of the to-link, or <code>null</code>
+	 * if both links are the same.
+	 */
+	private Leg createLeg(final Link fromLink, final Link toLink, final Path path, final double departureTime) {
+		Leg newLeg = this.populationFactory.createLeg( this.mode );
+		if (path != null) {
 			NetworkRoute route = this.populationFactory.getRouteFactories().createRoute(NetworkRoute.class, fromLink.getId(), toLink.getId());
 			route.setLinkIds(fromLink.getId(), NetworkUtils.getLinkIds(path.links), toLink.getId());
 			route.setTravelTime(path.travelTime);
@@ -112,8 +216,7 @@ public final class NetworkRoutingModule implements RoutingModule {
 			newLeg.setTravelTime(0);
 		}
 		newLeg.setDepartureTime(departureTime);
-
-		return Arrays.asList( newLeg );
+		return newLeg;
 	}
 
 	@Override
@@ -10,7 +10,10 @@ import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
 import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
+import org.matsim.utils.leastcostpathtree.ArrayLeastCostPathTree;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -100,16 +103,24 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 		if (travelTime == null) {
 			throw new RuntimeException("No TravelTime bound for mode "+routingMode+".");
 		}
+		TravelDisutility travelDisutility = travelDisutilityFactory.createTravelDisutility(travelTime);
 		LeastCostPathCalculator routeAlgo =
 				leastCostPathCalculatorFactory.createPathCalculator(
 						filteredNetwork,
-						travelDisutilityFactory.createTravelDisutility(travelTime),
+						travelDisutility,
 						travelTime);
 
 		// the following again refers to the (transport)mode, since it will determine the mode of the leg on the network:
 		if ( plansCalcRouteConfigGroup.isInsertingAccessEgressWalk() ) {
 			return DefaultRoutingModules.createAccessEgressNetworkRouter(mode, populationFactory, filteredNetwork, routeAlgo,
 					plansCalcRouteConfigGroup) ;
+		} else if ( plansCalcRouteConfigGroup.getBatchRoutingTimeBinSize() > 0. && plansCalcRouteConfigGroup.getRoutingRandomness() == 0. ) {
+			// (the batches are routed without a person, so only if the travel disutility does not depend on the person)
+			RoutingGraph routingGraph = this.singleModeNetworksCache.getRoutingGraphsCache().computeIfAbsent(mode,
+					m -> new RoutingGraph(this.singleModeNetworksCache.getSingleModeNetworksCache().get(m)));
+			ArrayLeastCostPathTree batchTree = new ArrayLeastCostPathTree(routingGraph, travelTime, travelDisutility);
+			return DefaultRoutingModules.createPureNetworkRouter(mode, populationFactory, filteredNetwork, routeAlgo, batchTree,
+					plansCalcRouteConfigGroup.getBatchRoutingTimeBinSize());
 		} else {
 			return DefaultRoutingModules.createPureNetworkRouter(mode, populationFactory, filteredNetwork, routeAlgo);
 		}
@@ -19,7 +19,10 @@
  * *********************************************************************** */
 package org.matsim.core.router;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.population.Activity;
@@ -35,6 +38,7 @@ import org.matsim.core.router.TripStructureUtils.Trip;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.facilities.ActivityFacilities;
 import org.matsim.facilities.FacilitiesUtils;
+import org.matsim.facilities.Facility;
 import org.matsim.vehicles.Vehicle;
 
 /**
@@ -47,6 +51,7 @@ import org.matsim.vehicles.Vehicle;
 public class PlanRouter implements PlanAlgorithm, PersonAlgorithm {
 	private final TripRouter tripRouter;
 	private final ActivityFacilities facilities;
+	private final TripRouteCache routeCache;
 
 	/**
 	 * Initialises an instance.
@@ -54,12 +59,25 @@ public class PlanRouter implements PlanAlgorithm, PersonAlgorithm {
 	 * @param facilities the {@link ActivityFacilities} to which activities are refering.
 	 * May be <tt>null</tt>: in this case, the router will be given facilities wrapping the
 	 * origin and destination activity.
+	 * @param routeCache the cache for the trips computed by the <tt>tripRouter</tt>.
+	 * May be <tt>null</tt>: in this case, every trip is routed.
 	 */
 	public PlanRouter(
 			final TripRouter tripRouter,
-			final ActivityFacilities facilities) {
+			final ActivityFacilities facilities,
+			final TripRouteCache routeCache) {
 		this.tripRouter = tripRouter;
 		this.facilities = facilities;
+		this.routeCache = routeCache;
+	}
+
+	/**
+	 * Short for initialising without route cache.
+	 */
+	public PlanRouter(
+			final TripRouter tripRouter,
+			final ActivityFacilities facilities) {
+		this( tripRouter , facilities , null );
 	}
 
 	/**
@@ -86,22 +104,103 @@ public class PlanRouter implements PlanAlgorithm, PersonAlgorithm {
 		final List<Trip> trips = TripStructureUtils.getTrips( plan , tripRouter.getStageActivityTypes() );
 
 		for (Trip oldTrip : trips) {
-			final List<? extends PlanElement> newTrip =
-					tripRouter.calcRoute(
-							tripRouter.getMainModeIdentifier().identifyMainMode( oldTrip.getTripElements() ),
-						  FacilitiesUtils.toFacility( oldTrip.getOriginActivity(), facilities ),
-						  FacilitiesUtils.toFacility( oldTrip.getDestinationActivity(), facilities ),
-							calcEndOfActivity( oldTrip.getOriginActivity() , plan, tripRouter.getConfig() ),
-							plan.getPerson() );
-			putVehicleFromOldTripIntoNewTripIfMeaningful(oldTrip, newTrip);
-			TripRouter.insertTrip(
-					plan, 
-					oldTrip.getOriginActivity(),
-					newTrip,
-					oldTrip.getDestinationActivity());
+			route( plan, oldTrip );
+		}
+	}
+
+	/**
+	 * Routes all trips of the given plans, like {@link #run(Plan)}, but passes the trips whose departure time is known
+	 * beforehand, i.e. which start after an activity with an end time, to the {@link TripRouter} at once, in one batch
+	 * per main mode.  A routing module can then share work between the trips of different plans, see
+	 * {@link RoutingModule#calcRoutes(List)}.  The other trips are routed afterwards, plan by plan and in order, since
+	 * their departure times depend on the trips before them.  The route cache is not used for the batches.
+	 */
+	public void runInBatches(final List<Plan> plans) {
+		final Map<String, List<RoutingRequest>> requests = new LinkedHashMap<>();
+		final Map<String, List<Trip>> batchedTrips = new LinkedHashMap<>();
+		final Map<String, List<Plan>> batchedPlans = new LinkedHashMap<>();
+		final List<List<Trip>> remainingTrips = new ArrayList<>( plans.size() );
+
+		for (Plan plan : plans) {
+			final List<Trip> remaining = new ArrayList<>();
+			for (Trip trip : TripStructureUtils.getTrips( plan , tripRouter.getStageActivityTypes() )) {
+				final double departureTime = trip.getOriginActivity().getEndTime();
+				if ( Time.isUndefinedTime( departureTime ) ) {
+					remaining.add( trip );
+					continue;
+				}
+				final String mainMode = tripRouter.getMainModeIdentifier().identifyMainMode( trip.getTripElements() );
+				requests.computeIfAbsent( mainMode, k -> new ArrayList<>() ).add( new RoutingRequest(
+						FacilitiesUtils.toFacility( trip.getOriginActivity(), facilities ),
+						FacilitiesUtils.toFacility( trip.getDestinationActivity(), facilities ),
+						departureTime,
+						plan.getPerson() ) );
+				batchedTrips.computeIfAbsent( mainMode, k -> new ArrayList<>() ).add( trip );
+				batchedPlans.computeIfAbsent( mainMode, k -> new ArrayList<>() ).add( plan );
+			}
+			remainingTrips.add( remaining );
+		}
+
+		for (Map.Entry<String, List<RoutingRequest>> entry : requests.entrySet()) {
+			final List<List<? extends PlanElement>> newTrips = tripRouter.calcRoutes( entry.getKey(), entry.getValue() );
+			final List<Trip> oldTrips = batchedTrips.get( entry.getKey() );
+			final List<Plan> plansOfTrips = batchedPlans.get( entry.getKey() );
+			for (int i = 0; i < newTrips.size(); i++) {
+				insert( plansOfTrips.get( i ), oldTrips.get( i ), newTrips.get( i ) );
+			}
+		}
+
+		for (int i = 0; i < plans.size(); i++) {
+			for (Trip oldTrip : remainingTrips.get( i )) {
+				route( plans.get( i ), oldTrip );
+			}
 		}
 	}
 
+	private void route( final Plan plan, final Trip oldTrip ) {
+		final List<? extends PlanElement> newTrip =
+				calcRoute(
+						tripRouter.getMainModeIdentifier().identifyMainMode( oldTrip.getTripElements() ),
+					  FacilitiesUtils.toFacility( oldTrip.getOriginActivity(), facilities ),
+					  FacilitiesUtils.toFacility( oldTrip.getDestinationActivity(), facilities ),
+						calcEndOfActivity( oldTrip.getOriginActivity() , plan, tripRouter.getConfig() ),
+						plan.getPerson() );
+		insert( plan, oldTrip, newTrip );
+	}
+
+	private static void insert( final Plan plan, final Trip oldTrip, final List<? extends PlanElement> newTrip ) {
+		putVehicleFromOldTripIntoNewTripIfMeaningful(oldTrip, newTrip);
+		TripRouter.insertTrip(
+				plan, 
+				oldTrip.getOriginActivity(),
+				newTrip,
+				oldTrip.getDestinationActivity());
+	}
+
+	private List<? extends PlanElement> calcRoute(
+			final String mainMode,
+			final Facility fromFacility,
+			final Facility toFacility,
+			final double departureTime,
+			final Person person) {
+		if ( routeCache == null || !routeCache.isCachedMode( mainMode ) ) {
+			return tripRouter.calcRoute( mainMode, fromFacility, toFacility, departureTime, person );
+		}
+		List<? extends PlanElement> trip = routeCache.getTrip( mainMode, fromFacility, toFacility, departureTime );
+		if ( trip == null ) {
+			trip = tripRouter.calcRoute( mainMode, fromFacility, toFacility, departureTime, person );
+			routeCache.putTrip( mainMode, fromFacility, toFacility, departureTime, trip );
+		}
+		return trip;
+	}
+
+	/**
+	 * @return the cache for the routed trips, or <tt>null</tt> if there is none.
+	 */
+	public TripRouteCache getRouteCache() {
+		return routeCache;
+	}
+
 	/**
 	 * If the old trip had vehicles set in its network routes, and it used a single vehicle,
 	 * and if the new trip does not come with vehicles set in its network routes,
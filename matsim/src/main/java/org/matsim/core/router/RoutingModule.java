@@ -19,6 +19,7 @@
  * *********************************************************************** */
 package org.matsim.core.router;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.matsim.api.core.v01.population.Person;
@@ -59,6 +60,23 @@ public interface RoutingModule {
 			Person person);
 	// NOTE: It makes some sense to _not_ have the vehicle as an argument here ... since that only makes sense for vehicular modes. kai, feb'19
 
+	/**
+	 * Computes the routes of several trips at once, so that implementations can share work between them, e.g.
+	 * one search for all trips from the same origin.  The default implementation calls
+	 * {@link #calcRoute(Facility, Facility, double, Person)} for every request.
+	 *
+	 * @param requests the trips to route
+	 * @return the trips as returned by {@link #calcRoute(Facility, Facility, double, Person)}, in the order
+	 * of the requests.
+	 */
+	public default List<List<? extends PlanElement>> calcRoutes(List<RoutingRequest> requests) {
+		List<List<? extends PlanElement>> trips = new ArrayList<>(requests.size());
+		for (RoutingRequest request : requests) {
+			trips.add(calcRoute(request.getFromFacility(), request.getToFacility(), request.getDepartureTime(), request.getPerson()));
+		}
+		return trips;
+	}
+
 	/**
 	 * Gives access to the activity types to consider as stages.
 	 * </ul>
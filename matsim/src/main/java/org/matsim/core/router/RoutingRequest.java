@@ -0,0 +1,68 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RoutingRequest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.gbl.Gbl;
+import org.matsim.facilities.Facility;
+
+/**
+ * The arguments of one call to {@link RoutingModule#calcRoute(Facility, Facility, double, Person)}, so that
+ * several trips can be passed to {@link RoutingModule#calcRoutes(java.util.List)} at once.
+ */
+public final class RoutingRequest {
+
+	private final Facility fromFacility;
+	private final Facility toFacility;
+	private final double departureTime;
+	private final Person person;
+
+	public RoutingRequest(final Facility fromFacility, final Facility toFacility, final double departureTime, final Person person) {
+		Gbl.assertNotNull(fromFacility);
+		Gbl.assertNotNull(toFacility);
+		this.fromFacility = fromFacility;
+		this.toFacility = toFacility;
+		this.departureTime = departureTime;
+		this.person = person;
+	}
+
+	public Facility getFromFacility() {
+		return this.fromFacility;
+	}
+
+	public Facility getToFacility() {
+		return this.toFacility;
+	}
+
+	public double getDepartureTime() {
+		return this.departureTime;
+	}
+
+	public Person getPerson() {
+		return this.person;
+	}
+
+	@Override
+	public String toString() {
+		return "[RoutingRequest: from=" + this.fromFacility + " to=" + this.toFacility + " departureTime=" + this.departureTime + "]";
+	}
+
+}
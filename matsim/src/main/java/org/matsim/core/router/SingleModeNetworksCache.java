@@ -4,12 +4,22 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.util.RoutingGraph;
 
 public class SingleModeNetworksCache {
 
 	private Map<String, Network> singleModeNetworksCache = new ConcurrentHashMap<>();
 
+	private Map<String, RoutingGraph> routingGraphsCache = new ConcurrentHashMap<>();
+
 	public Map<String, Network> getSingleModeNetworksCache() {
 		return singleModeNetworksCache;
 	}
+
+	/**
+	 * @return the {@link RoutingGraph}s of the networks in {@link #getSingleModeNetworksCache()}, by mode.
+	 */
+	public Map<String, RoutingGraph> getRoutingGraphsCache() {
+		return routingGraphsCache;
+	}
 }
@@ -0,0 +1,247 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TripRouteCache.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.config.groups.PlansCalcRouteConfigGroup;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.facilities.Facility;
+
+/**
+ * A bounded cache of routed trips, used by the {@link PlanRouter} so that trips with the same main mode, origin link,
+ * destination link and departure time bin are only routed once.  When the cache is full, the least recently used
+ * trip is dropped.
+ * <p></p>
+ * The routing module of a mode, and hence its travel disutility, is fixed within one {@link TripRouter}, so the
+ * cache must not be shared between trip routers.  It also does not know when the travel times change; it is meant
+ * to live for one replanning of one iteration, see {@link org.matsim.core.replanning.modules.ReRoute}.  A cached
+ * trip is returned to all persons, so it should only be used for modes whose routes do not depend on the person.
+ * <p></p>
+ * This class is NOT thread-safe!
+ */
+public final class TripRouteCache {
+
+	private final Set<String> modes;
+	private final double timeBinSize;
+	private final boolean keyByCoord;
+	private final Map<Key, CachedTrip> trips;
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * @param modes the main modes whose trips are cached
+	 * @param maxSize the maximum number of cached trips
+	 * @param timeBinSize the size of the departure time bins, in seconds
+	 * @param keyByCoord whether the coordinates of the facilities are part of the key, e.g. because access and egress
+	 * legs are inserted
+	 */
+	public TripRouteCache(final Collection<String> modes, final int maxSize, final double timeBinSize, final boolean keyByCoord) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("The maximum size of the cache must be positive, but is " + maxSize);
+		}
+		if (timeBinSize <= 0.0) {
+			throw new IllegalArgumentException("The time bin size must be positive, but is " + timeBinSize);
+		}
+		this.modes = new HashSet<>(modes);
+		this.timeBinSize = timeBinSize;
+		this.keyByCoord = keyByCoord;
+		this.trips = new LinkedHashMap<Key, CachedTrip>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, CachedTrip> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * With a routing randomness above 0, every person routes with its own travel disutility (see
+	 * {@link org.matsim.core.router.costcalculators.RandomizingTimeDistanceTravelDisutilityFactory}), so no cache is
+	 * created then.
+	 *
+	 * @return a cache for the network modes as configured, or <code>null</code> if the cache is disabled.
+	 */
+	public static TripRouteCache create(final PlansCalcRouteConfigGroup config) {
+		if (config.getRouteCacheSize() <= 0 || config.getRoutingRandomness() > 0.0) {
+			return null;
+		}
+		return new TripRouteCache(config.getNetworkModes(), config.getRouteCacheSize(), config.getRouteCacheTimeBinSize(),
+				config.isInsertingAccessEgressWalk());
+	}
+
+	/**
+	 * @return a copy of the cached trip, with all times shifted to the given departure time, or <code>null</code> if
+	 * there is none.
+	 */
+	public List<PlanElement> getTrip(final String mainMode, final Facility fromFacility, final Facility toFacility,
+			final double departureTime) {
+		if (!isCacheable(mainMode, departureTime)) {
+			return null;
+		}
+		CachedTrip cached = this.trips.get(createKey(mainMode, fromFacility, toFacility, departureTime));
+		if (cached == null) {
+			this.misses++;
+			return null;
+		}
+		this.hits++;
+		return copy(cached.trip, departureTime - cached.departureTime);
+	}
+
+	/**
+	 * Stores a copy of the trip, so that later changes of the trip do not affect the cache.  Trips which consist of
+	 * other plan elements than legs and activities are not cached.
+	 */
+	public void putTrip(final String mainMode, final Facility fromFacility, final Facility toFacility,
+			final double departureTime, final List<? extends PlanElement> trip) {
+		if (!isCacheable(mainMode, departureTime)) {
+			return;
+		}
+		for (PlanElement pe : trip) {
+			if (!(pe instanceof Leg) && !(pe instanceof Activity)) {
+				return;
+			}
+		}
+		this.trips.put(createKey(mainMode, fromFacility, toFacility, departureTime), new CachedTrip(copy(trip, 0.0), departureTime));
+	}
+
+	public boolean isCachedMode(final String mainMode) {
+		return this.modes.contains(mainMode);
+	}
+
+	public long getHitCount() {
+		return this.hits;
+	}
+
+	public long getMissCount() {
+		return this.misses;
+	}
+
+	public double getHitRate() {
+		long requests = this.hits + this.misses;
+		return requests == 0 ? 0.0 : (double) this.hits / requests;
+	}
+
+	public int size() {
+		return this.trips.size();
+	}
+
+	public void clear() {
+		this.trips.clear();
+	}
+
+	private boolean isCacheable(final String mainMode, final double departureTime) {
+		return this.modes.contains(mainMode) && !Time.isUndefinedTime(departureTime);
+	}
+
+	private Key createKey(final String mainMode, final Facility fromFacility, final Facility toFacility, final double departureTime) {
+		int timeBin = (int) Math.floor(departureTime / this.timeBinSize);
+		return new Key(mainMode, fromFacility.getLinkId(), toFacility.getLinkId(),
+				this.keyByCoord || fromFacility.getLinkId() == null ? fromFacility.getCoord() : null,
+				this.keyByCoord || toFacility.getLinkId() == null ? toFacility.getCoord() : null,
+				timeBin);
+	}
+
+	private static List<PlanElement> copy(final List<? extends PlanElement> trip, final double timeShift) {
+		List<PlanElement> copy = new ArrayList<>(trip.size());
+		for (PlanElement pe : trip) {
+			if (pe instanceof Leg) {
+				Leg leg = PopulationUtils.createLeg((Leg) pe);
+				leg.setDepartureTime(shift(leg.getDepartureTime(), timeShift));
+				copy.add(leg);
+			} else {
+				Activity activity = PopulationUtils.createActivity((Activity) pe);
+				activity.setStartTime(shift(activity.getStartTime(), timeShift));
+				activity.setEndTime(shift(activity.getEndTime(), timeShift));
+				copy.add(activity);
+			}
+		}
+		return copy;
+	}
+
+	private static double shift(final double time, final double timeShift) {
+		return Time.isUndefinedTime(time) ? time : time + timeShift;
+	}
+
+	private static final class CachedTrip {
+		final List<PlanElement> trip;
+		final double departureTime;
+
+		CachedTrip(final List<PlanElement> trip, final double departureTime) {
+			this.trip = trip;
+			this.departureTime = departureTime;
+		}
+	}
+
+	private static final class Key {
+		private final String mode;
+		private final Id<Link> fromLinkId;
+		private final Id<Link> toLinkId;
+		private final Coord fromCoord;
+		private final Coord toCoord;
+		private final int timeBin;
+		private final int hash;
+
+		Key(final String mode, final Id<Link> fromLinkId, final Id<Link> toLinkId, final Coord fromCoord,
+				final Coord toCoord, final int timeBin) {
+			this.mode = mode;
+			this.fromLinkId = fromLinkId;
+			this.toLinkId = toLinkId;
+			this.fromCoord = fromCoord;
+			this.toCoord = toCoord;
+			this.timeBin = timeBin;
+			this.hash = Objects.hash(mode, fromLinkId, toLinkId, fromCoord, toCoord, timeBin);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.timeBin == other.timeBin && this.mode.equals(other.mode)
+					&& Objects.equals(this.fromLinkId, other.fromLinkId) && Objects.equals(this.toLinkId, other.toLinkId)
+					&& Objects.equals(this.fromCoord, other.fromCoord) && Objects.equals(this.toCoord, other.toCoord);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+
+}
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.matsim.analysis.IterationMetrics;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
@@ -66,6 +67,9 @@ public final class TripRouter implements MatsimExtensionPoint {
 
 	private MainModeIdentifier mainModeIdentifier = new MainModeIdentifierImpl();
 
+	private final IterationMetrics metrics;
+	private final Map<String, IterationMetrics.Timer> routingTimers = new HashMap<>();
+
 	private Config config;
 	// (I need the config in the PlanRouter to figure out activity end times. And since the PlanRouter is not
 	// injected, I cannot get it there directly.  kai, oct'17)
@@ -92,7 +96,7 @@ public final class TripRouter implements MatsimExtensionPoint {
 			return this ;
 		}
 		public TripRouter build() {
-			return new TripRouter( routingModuleProviders, mainModeIdentifier, config ) ;
+			return new TripRouter( routingModuleProviders, mainModeIdentifier, config, null ) ;
 		}
 	}
 
@@ -105,8 +109,10 @@ public final class TripRouter implements MatsimExtensionPoint {
 //	// kai, sep'16
 
 	@Inject
-	TripRouter(Map<String, Provider<RoutingModule>> routingModuleProviders, MainModeIdentifier mainModeIdentifier, Config config ) {
-		
+	TripRouter(Map<String, Provider<RoutingModule>> routingModuleProviders, MainModeIdentifier mainModeIdentifier, Config config,
+			IterationMetrics metrics ) {
+		this.metrics = metrics ;
+
 		for (Map.Entry<String, Provider<RoutingModule>> entry : routingModuleProviders.entrySet()) {
 			setRoutingModule(entry.getKey(), entry.getValue().get());
 		}
@@ -218,12 +224,17 @@ public final class TripRouter implements MatsimExtensionPoint {
 		RoutingModule module = routingModules.get( mainMode );
 		
 		if (module != null) {
+			final boolean measure = metrics != null && metrics.isEnabled() ;
+			final long start = measure ? System.nanoTime() : 0 ;
 			final List<? extends PlanElement> trip =
 					module.calcRoute(
 						fromFacility,
 						toFacility,
 						departureTime,
 						person);
+			if ( measure ) {
+				getRoutingTimer( mainMode ).record( System.nanoTime() - start );
+			}
 
 			if ( trip == null ) {
 				throw new NullPointerException( "Routing module "+module+" returned a null Trip for main mode "+mainMode );
@@ -235,6 +246,58 @@ public final class TripRouter implements MatsimExtensionPoint {
 		throw new UnknownModeException( "unregistered main mode |"+mainMode+"|: does not pertain to "+routingModules.keySet() );
 	}
 
+	/**
+	 * Routes several trips with the given main mode at once, see {@link RoutingModule#calcRoutes(List)}.
+	 *
+	 * @param mainMode the main mode for the trips
+	 * @param requests the trips to route
+	 * @return the trips, in the order of the requests.
+	 *
+	 * @throws UnknownModeException if no RoutingModule is registered for the
+	 * given mode.
+	 */
+	public synchronized List<List<? extends PlanElement>> calcRoutes(
+			final String mainMode,
+			final List<RoutingRequest> requests) {
+		RoutingModule module = routingModules.get( mainMode );
+
+		if (module != null) {
+			final boolean measure = metrics != null && metrics.isEnabled() ;
+			final long start = measure ? System.nanoTime() : 0 ;
+			final List<List<? extends PlanElement>> trips = module.calcRoutes( requests );
+			if ( measure && !requests.isEmpty() ) {
+				// (recorded as if all requests took the same time, so that the mean per trip stays comparable. )
+				long nanosPerRequest = ( System.nanoTime() - start ) / requests.size() ;
+				IterationMetrics.Timer timer = getRoutingTimer( mainMode ) ;
+				for ( int i = 0 ; i < requests.size() ; i++ ) {
+					timer.record( nanosPerRequest ) ;
+				}
+			}
+
+			if ( trips == null || trips.size() != requests.size() ) {
+				throw new RuntimeException( "Routing module "+module+" did not return one trip per request for main mode "+mainMode );
+			}
+			for ( List<? extends PlanElement> trip : trips ) {
+				if ( trip == null ) {
+					throw new NullPointerException( "Routing module "+module+" returned a null Trip for main mode "+mainMode );
+				}
+			}
+
+			return trips;
+		}
+
+		throw new UnknownModeException( "unregistered main mode |"+mainMode+"|: does not pertain to "+routingModules.keySet() );
+	}
+
+	private IterationMetrics.Timer getRoutingTimer( final String mainMode ) {
+		IterationMetrics.Timer timer = routingTimers.get( mainMode ) ;
+		if ( timer == null ) {
+			timer = metrics.getTimer( "routing." + mainMode ) ;
+			routingTimers.put( mainMode, timer ) ;
+		}
+		return timer ;
+	}
+
 	public static class UnknownModeException extends RuntimeException {
 		private UnknownModeException(
 				final String msg) {
@@ -0,0 +1,244 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * AbstractBucketMinHeap.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.priorityqueue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Common storage of the monotone priority queues {@link RadixMinHeap} and {@link BucketMinHeap}: the entries are kept
+ * in buckets, each a doubly linked list threaded through arrays indexed by {@link HasIndex#getArrayIndex()}, so that
+ * an entry can be moved to another bucket or removed in constant time.
+ * <p></p>
+ * Monotone queues rely on no entry being added with a lower priority than the last polled one, which holds for
+ * Dijkstra with non-negative link costs.  Adding an entry with a lower priority throws an
+ * {@link IllegalStateException}, since the queue could not return the entries in order any more.
+ * <p></p>
+ * Besides the regular buckets, there is an {@link #OVERFLOW} bucket for entries that a subclass cannot place in them,
+ * e.g. ones with an infinite cost.
+ *
+ * @param <E> the type of elements held in this collection
+ */
+/*package*/ abstract class AbstractBucketMinHeap<E extends HasIndex> implements MinHeap<E> {
+
+	/**
+	 * The bucket for entries outside of the regular buckets.
+	 */
+	static final int OVERFLOW = Integer.MAX_VALUE;
+
+	final E[] data; // by index of the entry
+	final double[] costs; // by index of the entry
+	private final int[] next;
+	private final int[] prev;
+	final int[] bucketOf; // -1 if the entry is not in the queue
+	int[] heads; // first entry of each bucket, -1 if the bucket is empty
+	private int overflowHead = -1; // first entry of the overflow bucket, -1 if it is empty
+	private int overflowSize = 0;
+	private int size = 0;
+
+	@SuppressWarnings("unchecked")
+	AbstractBucketMinHeap(final int maxSize, final int bucketCount) {
+		this.data = (E[]) new HasIndex[maxSize];
+		this.costs = new double[maxSize];
+		this.next = new int[maxSize];
+		this.prev = new int[maxSize];
+		this.bucketOf = new int[maxSize];
+		Arrays.fill(this.bucketOf, -1);
+		this.heads = new int[bucketCount];
+		Arrays.fill(this.heads, -1);
+	}
+
+	final boolean contains(final int index) {
+		return this.bucketOf[index] >= 0;
+	}
+
+	/**
+	 * @return the first entry of the bucket, or <code>-1</code> if it is empty.
+	 */
+	final int head(final int bucket) {
+		return bucket == OVERFLOW ? this.overflowHead : this.heads[bucket];
+	}
+
+	private void setHead(final int bucket, final int index) {
+		if (bucket == OVERFLOW) {
+			this.overflowHead = index;
+		} else {
+			this.heads[bucket] = index;
+		}
+	}
+
+	/**
+	 * @return the number of entries in the {@link #OVERFLOW} bucket.
+	 */
+	final int overflowSize() {
+		return this.overflowSize;
+	}
+
+	final void link(final int index, final int bucket) {
+		int head = head(bucket);
+		this.next[index] = head;
+		this.prev[index] = -1;
+		if (head >= 0) {
+			this.prev[head] = index;
+		}
+		setHead(bucket, index);
+		this.bucketOf[index] = bucket;
+		if (bucket == OVERFLOW) {
+			this.overflowSize++;
+		}
+	}
+
+	final void unlink(final int index) {
+		int p = this.prev[index];
+		int n = this.next[index];
+		if (p >= 0) {
+			this.next[p] = n;
+		} else {
+			setHead(this.bucketOf[index], n);
+		}
+		if (n >= 0) {
+			this.prev[n] = p;
+		}
+		if (this.bucketOf[index] == OVERFLOW) {
+			this.overflowSize--;
+		}
+		this.bucketOf[index] = -1;
+	}
+
+	final int nextInBucket(final int index) {
+		return this.next[index];
+	}
+
+	final void insert(final E value, final double cost, final int bucket) {
+		int index = value.getArrayIndex();
+		this.data[index] = value;
+		this.costs[index] = cost;
+		link(index, bucket);
+		this.size++;
+	}
+
+	/**
+	 * @return the entries of a bucket, which is emptied.  The entries have to be linked again.
+	 */
+	final int[] drainBucket(final int bucket, int[] buffer) {
+		int count = 0;
+		for (int i = head(bucket); i >= 0; i = this.next[i]) {
+			if (count + 1 >= buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			buffer[++count] = i;
+		}
+		buffer[0] = count;
+		setHead(bucket, -1);
+		if (bucket == OVERFLOW) {
+			this.overflowSize = 0;
+		}
+		return buffer;
+	}
+
+	/**
+	 * Scans the whole bucket, so this is linear in the number of entries in it.
+	 *
+	 * @return the index of the entry with the lowest cost in the bucket (the lowest index on ties), or <code>-1</code>.
+	 */
+	final int findMinInBucket(final int bucket) {
+		int min = head(bucket);
+		for (int i = min; i >= 0; i = this.next[i]) {
+			if (this.costs[i] < this.costs[min] || (this.costs[i] == this.costs[min] && i < min)) {
+				min = i;
+			}
+		}
+		return min;
+	}
+
+	@Override
+	public boolean remove(final E value) {
+		if (value == null) return false;
+		int index = value.getArrayIndex();
+		if (!contains(index)) {
+			return false;
+		}
+		unlink(index);
+		this.size--;
+		return true;
+	}
+
+	@Override
+	public E poll() {
+		E min = peek();
+		if (min != null) {
+			unlink(min.getArrayIndex());
+			this.size--;
+		}
+		return min;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Resets the queue to its initial state.  Only the buckets are visited, so this is cheap for an almost empty queue.
+	 */
+	@Override
+	public void reset() {
+		for (int b = 0; b < this.heads.length; b++) {
+			for (int i = this.heads[b]; i >= 0; i = this.next[i]) {
+				this.bucketOf[i] = -1;
+			}
+			this.heads[b] = -1;
+		}
+		for (int i = this.overflowHead; i >= 0; i = this.next[i]) {
+			this.bucketOf[i] = -1;
+		}
+		this.overflowHead = -1;
+		this.overflowSize = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Returns an iterator over a snapshot of the elements in this queue, in no particular order.  Removing elements is
+	 * not supported via the iterator.
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		List<E> entries = new ArrayList<>(this.size);
+		for (int head : this.heads) {
+			for (int i = head; i >= 0; i = this.next[i]) {
+				entries.add(this.data[i]);
+			}
+		}
+		for (int i = this.overflowHead; i >= 0; i = this.next[i]) {
+			entries.add(this.data[i]);
+		}
+		return Collections.unmodifiableList(entries).iterator();
+	}
+
+}
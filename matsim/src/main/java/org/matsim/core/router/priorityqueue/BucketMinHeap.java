@@ -0,0 +1,280 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BucketMinHeap.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.priorityqueue;
+
+import java.util.Arrays;
+
+/**
+ * A monotone priority queue with buckets of a fixed cost width (Dial's algorithm) for routers that never add an entry
+ * with a lower cost than the last polled one, e.g. Dijkstra with non-negative link costs.  Adding such an entry (e.g.
+ * because of a negative link cost) throws an {@link IllegalStateException}.  Adding, decreasing a key and removing
+ * take constant time; polling scans forward to the next non-empty bucket and then searches the entry with the lowest
+ * cost within it, so the result is exact for any resolution.  That search is linear in the number of entries in the
+ * bucket, so every poll costs O(b) for b entries in the lowest bucket.
+ * <p></p>
+ * The resolution should be in the order of the cost of a typical link: much smaller values lead to many empty buckets
+ * that need to be scanned, much larger ones to large buckets that need to be searched.  The buckets are kept in a
+ * circular array that grows if the costs in the queue span more buckets than it has, up to {@value #MAX_BUCKETS}
+ * buckets.  Entries with costs beyond that range, and ones with infinite costs (e.g. of a closed link), are kept in an
+ * overflow list instead.  It is only used once all buckets are empty: the entries that fit are then moved to the
+ * buckets, and the remaining ones with infinite costs are searched linearly.
+ *
+ * @see AbstractBucketMinHeap
+ * @param <E> the type of elements held in this collection
+ */
+public final class BucketMinHeap<E extends HasIndex> extends AbstractBucketMinHeap<E> {
+
+	private static final int MAX_BUCKETS = 1 << 24;
+	// keys are clamped to this range, so that differences of two keys cannot overflow
+	private static final long MAX_KEY = 1L << 62;
+	// key of non-finite costs, which always stay in the overflow bucket
+	private static final long NO_KEY = Long.MAX_VALUE;
+
+	private final double resolution;
+	private final long[] keys; // absolute bucket number, by index of the entry
+	private long current = 0; // lower bound of the absolute bucket numbers in the buckets
+	private long maxKey = 0; // upper bound of the absolute bucket numbers in the buckets
+	private long overflowMin = NO_KEY; // lower bound of the keys in the overflow bucket; higher keys must go there, too
+	private boolean polled = false;
+	private double lastPolled = Double.NEGATIVE_INFINITY; // cost of the last polled entry, only valid if polled is true
+	private int mask;
+	private int[] buffer = new int[16];
+
+	public BucketMinHeap(final int maxSize, final double resolution) {
+		this(maxSize, resolution, 1024);
+	}
+
+	public BucketMinHeap(final int maxSize, final double resolution, final int initialBucketCount) {
+		super(maxSize, Integer.highestOneBit(Math.max(2, initialBucketCount - 1)) << 1);
+		if (!(resolution > 0)) {
+			throw new IllegalArgumentException("resolution must be > 0, but is " + resolution);
+		}
+		this.resolution = resolution;
+		this.keys = new long[maxSize];
+		this.mask = this.heads.length - 1;
+	}
+
+	public double getResolution() {
+		return this.resolution;
+	}
+
+	private long keyFor(final double cost) {
+		if (Double.isInfinite(cost) || Double.isNaN(cost)) {
+			return NO_KEY;
+		}
+		return (long) Math.max(-MAX_KEY, Math.min(MAX_KEY, Math.floor(cost / this.resolution)));
+	}
+
+	@Override
+	public boolean add(final E value, final double priority) {
+		if (value == null) {
+			throw new NullPointerException("null values are not supported!");
+		}
+		int index = value.getArrayIndex();
+		if (contains(index)) {
+			return false;
+		}
+		long key = keyFor(priority);
+		int bucket = admit(key, priority);
+		this.keys[index] = key;
+		insert(value, priority, bucket);
+		return true;
+	}
+
+	@Override
+	public boolean decreaseKey(final E value, final double priority) {
+		int index = value.getArrayIndex();
+		if (!contains(index)) {
+			return add(value, priority);
+		}
+		if (priority > this.costs[index]) {
+			return false;
+		}
+		long key = keyFor(priority);
+		int bucket = admit(key, priority);
+		this.costs[index] = priority;
+		this.keys[index] = key;
+		if (bucket != this.bucketOf[index]) {
+			unlink(index);
+			link(index, bucket);
+		}
+		return true;
+	}
+
+	/**
+	 * Makes sure the bucket array covers the key, if it is not kept in the overflow bucket.  Entries may come in any
+	 * order until the first one is polled (and again once the queue has been emptied); afterwards, a cost below the
+	 * last polled one is an error.
+	 *
+	 * @return the bucket to use
+	 */
+	private int admit(final long key, final double cost) {
+		if (this.polled && cost < this.lastPolled && !isEmpty()) {
+			throw new IllegalStateException("cost " + cost + " is lower than the cost of the last polled entry ("
+					+ this.lastPolled + "). This queue only supports monotone costs, e.g. non-negative link costs.");
+		}
+		if (isEmpty()) {
+			// no entry can be out of order, so start over from this one
+			this.polled = false;
+		}
+		if (key == NO_KEY) {
+			return OVERFLOW;
+		}
+		if (size() == overflowSize()) {
+			// the buckets are empty; the overflowing entries that fit come first
+			refill();
+			if (size() == overflowSize()) {
+				this.current = key;
+				this.maxKey = key;
+			}
+		}
+		if (key >= this.overflowMin) {
+			return OVERFLOW;
+		}
+		if (key < this.current) {
+			// peek may have moved on over empty buckets, or entries came out of order before the first poll
+			ensureRange(key, this.maxKey);
+			this.current = key;
+		} else if (key - this.current >= MAX_BUCKETS) {
+			this.overflowMin = key;
+			return OVERFLOW;
+		}
+		if (key > this.maxKey) {
+			ensureRange(this.current, key);
+			this.maxKey = key;
+		}
+		return (int) (key & this.mask);
+	}
+
+	@Override
+	public E poll() {
+		E min = super.poll();
+		if (min != null) {
+			this.lastPolled = this.costs[min.getArrayIndex()];
+			this.polled = true;
+		}
+		return min;
+	}
+
+	@Override
+	public E peek() {
+		if (isEmpty()) {
+			return null;
+		}
+		if (size() == overflowSize()) {
+			refill();
+			if (size() == overflowSize()) {
+				// only infinite costs are left
+				return this.data[findMinInBucket(OVERFLOW)];
+			}
+		}
+		while (this.heads[(int) (this.current & this.mask)] < 0) {
+			this.current++;
+		}
+		return this.data[findMinInBucket((int) (this.current & this.mask))];
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.current = 0;
+		this.maxKey = 0;
+		this.overflowMin = NO_KEY;
+		this.polled = false;
+		this.lastPolled = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * Moves the entries of the overflow bucket that fit into the empty buckets, starting from the lowest one.
+	 */
+	private void refill() {
+		long min = NO_KEY;
+		for (int i = head(OVERFLOW); i >= 0; i = nextInBucket(i)) {
+			min = Math.min(min, this.keys[i]);
+		}
+		this.overflowMin = NO_KEY;
+		if (min == NO_KEY) {
+			return;
+		}
+		long max = min;
+		for (int i = head(OVERFLOW); i >= 0; i = nextInBucket(i)) {
+			if (this.keys[i] != NO_KEY && this.keys[i] - min < MAX_BUCKETS) {
+				max = Math.max(max, this.keys[i]);
+			}
+		}
+		this.current = min;
+		this.maxKey = min;
+		ensureRange(min, max);
+		this.maxKey = max;
+		this.buffer = drainBucket(OVERFLOW, this.buffer);
+		for (int j = 1; j <= this.buffer[0]; j++) {
+			int index = this.buffer[j];
+			long key = this.keys[index];
+			if (key != NO_KEY && key - min < MAX_BUCKETS) {
+				link(index, (int) (key & this.mask));
+			} else {
+				link(index, OVERFLOW);
+				this.overflowMin = Math.min(this.overflowMin, key);
+			}
+		}
+	}
+
+	/**
+	 * Grows the circular array of buckets until all keys from <code>minKey</code> to <code>maxKey</code> fit in.  If
+	 * they span more than {@value #MAX_BUCKETS} buckets, the entries with the highest keys are moved to the overflow
+	 * bucket.
+	 */
+	private void ensureRange(final long minKey, final long maxKey) {
+		if (maxKey - minKey < this.heads.length) {
+			return;
+		}
+		long range = Math.min(maxKey - minKey + 1, MAX_BUCKETS);
+		int[] oldHeads = this.heads;
+		int count = 0;
+		int[] all = new int[16];
+		for (int b = 0; b < oldHeads.length; b++) {
+			this.buffer = drainBucket(b, this.buffer);
+			if (count + this.buffer[0] > all.length) {
+				all = Arrays.copyOf(all, Math.max(all.length * 2, count + this.buffer[0]));
+			}
+			System.arraycopy(this.buffer, 1, all, count, this.buffer[0]);
+			count += this.buffer[0];
+		}
+		this.heads = new int[Integer.highestOneBit((int) range - 1) << 1];
+		Arrays.fill(this.heads, -1);
+		this.mask = this.heads.length - 1;
+		long max = minKey;
+		for (int j = 0; j < count; j++) {
+			long key = this.keys[all[j]];
+			if (key - minKey < MAX_BUCKETS) {
+				link(all[j], (int) (key & this.mask));
+				max = Math.max(max, key);
+			} else {
+				link(all[j], OVERFLOW);
+				this.overflowMin = Math.min(this.overflowMin, key);
+			}
+		}
+		if (count > 0) {
+			this.maxKey = max;
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * MinHeapFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.priorityqueue;
+
+/**
+ * Creates the priority queues used by the fast routers, see e.g.
+ * {@link org.matsim.core.router.FastDijkstraFactory#FastDijkstraFactory(boolean, MinHeapFactory)}.
+ * <p></p>
+ * The monotone queues ({@link #radix()}, {@link #buckets(double)}) are faster than the {@link BinaryMinHeap} for
+ * Dijkstra with non-negative link costs, but must not be used if costs can be negative.
+ */
+public interface MinHeapFactory {
+
+	<E extends HasIndex> MinHeap<E> createMinHeap(int maxSize);
+
+	/**
+	 * The default: a {@link BinaryMinHeap}.
+	 */
+	static MinHeapFactory binary() {
+		return new MinHeapFactory() {
+			@Override
+			public <E extends HasIndex> MinHeap<E> createMinHeap(final int maxSize) {
+				return new BinaryMinHeap<>(maxSize);
+			}
+		};
+	}
+
+	/**
+	 * A {@link RadixMinHeap}.
+	 */
+	static MinHeapFactory radix() {
+		return new MinHeapFactory() {
+			@Override
+			public <E extends HasIndex> MinHeap<E> createMinHeap(final int maxSize) {
+				return new RadixMinHeap<>(maxSize);
+			}
+		};
+	}
+
+	/**
+	 * A {@link BucketMinHeap} with buckets of the given cost width.
+	 */
+	static MinHeapFactory buckets(final double resolution) {
+		return new MinHeapFactory() {
+			@Override
+			public <E extends HasIndex> MinHeap<E> createMinHeap(final int maxSize) {
+				return new BucketMinHeap<>(maxSize, resolution);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,180 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RadixMinHeap.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.priorityqueue;
+
+/**
+ * A monotone priority queue (radix heap, Ahuja et al. 1990) for routers that never add an entry with a lower cost than
+ * the last polled one, e.g. Dijkstra with non-negative link costs.  Adding such an entry (e.g. because of a negative
+ * link cost) throws an {@link IllegalStateException}.  Adding, decreasing a key and removing take constant time;
+ * polling takes amortized O(log C) for keys of C bits, compared to O(log n) of the {@link BinaryMinHeap}.
+ * <p></p>
+ * The costs are mapped to 64 bit keys that have the same order as the doubles, so the queue is exact for any cost
+ * values.  Bucket <code>b</code> holds the entries whose key differs from the base key (the last polled one, or a
+ * lower one if entries were added out of order before the first poll) in bit
+ * <code>b - 1</code> as the highest bit; bucket 0 holds the entries with the same key.  On ties, the order of the
+ * entries is deterministic, but not by index like in the {@link BinaryMinHeap}, so routers may return a different
+ * path of the same cost.
+ *
+ * @see AbstractBucketMinHeap
+ * @param <E> the type of elements held in this collection
+ */
+public final class RadixMinHeap<E extends HasIndex> extends AbstractBucketMinHeap<E> {
+
+	private final long[] keys; // by index of the entry
+	private long last = 0; // base of the buckets: a lower bound of all keys in the queue
+	private long lastPolled = 0; // key of the last polled entry, only valid if polled is true
+	private boolean polled = false;
+	private int[] buffer = new int[16];
+
+	public RadixMinHeap(final int maxSize) {
+		super(maxSize, 65);
+		this.keys = new long[maxSize];
+	}
+
+	/**
+	 * @return a key whose unsigned order is the order of the doubles.
+	 */
+	static long toKey(final double cost) {
+		long bits = Double.doubleToLongBits(cost);
+		return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+	}
+
+	/**
+	 * Makes sure that the buckets can hold the key.  Entries may come in any order until the first one is polled (and
+	 * again once the queue has been emptied); afterwards, a key below the last polled one is an error.
+	 */
+	private long admit(final long key, final double cost) {
+		if (isEmpty()) {
+			this.last = key;
+			this.polled = false;
+		} else if (Long.compareUnsigned(key, this.last) < 0) {
+			if (this.polled && Long.compareUnsigned(key, this.lastPolled) < 0) {
+				throw new IllegalStateException("cost " + cost + " is lower than the cost of the last polled entry. "
+						+ "This queue only supports monotone costs, e.g. non-negative link costs.");
+			}
+			rebase(key);
+		}
+		return key;
+	}
+
+	/**
+	 * Moves all entries to the buckets relative to a new, lower base.
+	 */
+	private void rebase(final long key) {
+		int count = 0;
+		int[] all = new int[Math.max(16, size())];
+		for (int b = 0; b < this.heads.length; b++) {
+			this.buffer = drainBucket(b, this.buffer);
+			System.arraycopy(this.buffer, 1, all, count, this.buffer[0]);
+			count += this.buffer[0];
+		}
+		this.last = key;
+		for (int j = 0; j < count; j++) {
+			link(all[j], bucketFor(this.keys[all[j]]));
+		}
+	}
+
+	private int bucketFor(final long key) {
+		return key == this.last ? 0 : 64 - Long.numberOfLeadingZeros(key ^ this.last);
+	}
+
+	@Override
+	public boolean add(final E value, final double priority) {
+		if (value == null) {
+			throw new NullPointerException("null values are not supported!");
+		}
+		int index = value.getArrayIndex();
+		if (contains(index)) {
+			return false;
+		}
+		long key = admit(toKey(priority), priority);
+		this.keys[index] = key;
+		insert(value, priority, bucketFor(key));
+		return true;
+	}
+
+	@Override
+	public boolean decreaseKey(final E value, final double priority) {
+		int index = value.getArrayIndex();
+		if (!contains(index)) {
+			return add(value, priority);
+		}
+		long key = toKey(priority);
+		if (Long.compareUnsigned(key, this.keys[index]) > 0) {
+			return false;
+		}
+		admit(key, priority);
+		this.keys[index] = key;
+		this.costs[index] = priority;
+		int bucket = bucketFor(key);
+		if (bucket != this.bucketOf[index]) {
+			unlink(index);
+			link(index, bucket);
+		}
+		return true;
+	}
+
+	@Override
+	public E peek() {
+		if (isEmpty()) {
+			return null;
+		}
+		if (this.heads[0] < 0) {
+			// move the entries of the first non-empty bucket to lower buckets, relative to its minimum
+			int b = 1;
+			while (this.heads[b] < 0) {
+				b++;
+			}
+			long min = this.keys[this.heads[b]];
+			for (int i = this.heads[b]; i >= 0; i = nextInBucket(i)) {
+				if (Long.compareUnsigned(this.keys[i], min) < 0) {
+					min = this.keys[i];
+				}
+			}
+			this.last = min;
+			this.buffer = drainBucket(b, this.buffer);
+			for (int j = 1; j <= this.buffer[0]; j++) {
+				int i = this.buffer[j];
+				link(i, bucketFor(this.keys[i]));
+			}
+		}
+		return this.data[this.heads[0]];
+	}
+
+	@Override
+	public E poll() {
+		E min = super.poll();
+		if (min != null) {
+			this.lastPolled = this.keys[min.getArrayIndex()];
+			this.polled = true;
+		}
+		return min;
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		this.last = 0;
+		this.lastPolled = 0;
+		this.polled = false;
+	}
+
+}
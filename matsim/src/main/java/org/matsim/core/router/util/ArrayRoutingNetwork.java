@@ -23,9 +23,28 @@ package org.matsim.core.router.util;
 import org.matsim.api.core.v01.network.Network;
 
 public class ArrayRoutingNetwork extends AbstractRoutingNetwork {
+
+	private final RoutingGraph routingGraph;
 		
 	public ArrayRoutingNetwork(Network network) {
 		super(network);
+		this.routingGraph = null;
+	}
+
+	/**
+	 * Creates a routing network whose nodes are indexed like the nodes of the graph, so that the labels
+	 * of a route can be stored in arrays indexed by {@link ArrayRoutingNetworkNode#getArrayIndex()}.
+	 */
+	public ArrayRoutingNetwork(RoutingGraph routingGraph) {
+		super(routingGraph.getNetwork());
+		this.routingGraph = routingGraph;
+	}
+
+	/**
+	 * @return the graph this network was built on, or <code>null</code> if it was built on the network directly.
+	 */
+	public RoutingGraph getRoutingGraph() {
+		return this.routingGraph;
 	}
 	
 	@Override
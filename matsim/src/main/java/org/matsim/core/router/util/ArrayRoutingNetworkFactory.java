@@ -20,11 +20,7 @@
 
 package org.matsim.core.router.util;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.apache.log4j.Logger;
-import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.network.Node;
@@ -38,38 +34,39 @@ public class ArrayRoutingNetworkFactory extends AbstractRoutingNetworkFactory {
 	private int linkArrayIndexCounter;
 
 	@Override
-	public synchronized ArrayRoutingNetwork createRoutingNetwork(final Network network) {
+	public ArrayRoutingNetwork createRoutingNetwork(final Network network) {
+		return createRoutingNetwork(new RoutingGraph(network));
+	}
+
+	/**
+	 * Creates the routing network on a graph: the array index of a node is its index in the graph, and its out-links
+	 * are ordered like in the graph.  The routing network holds no per-route data, so it can be shared by all routers
+	 * of a network.
+	 */
+	public synchronized ArrayRoutingNetwork createRoutingNetwork(final RoutingGraph graph) {
 		this.nodeArrayIndexCounter = 0;
 		this.linkArrayIndexCounter = 0;
 		
-		ArrayRoutingNetwork routingNetwork = new ArrayRoutingNetwork(network);
+		ArrayRoutingNetwork routingNetwork = new ArrayRoutingNetwork(graph);
 		
-		for (Node node : network.getNodes().values()) {
-			RoutingNetworkNode routingNode = createRoutingNetworkNode(node, node.getOutLinks().size());
-			routingNetwork.addNode(routingNode);
-		}
-		Map<Id<Link>, RoutingNetworkLink> routingLinks = new HashMap<Id<Link>, RoutingNetworkLink>();
-		for (Link link : network.getLinks().values()) {
-			RoutingNetworkNode fromNode = routingNetwork.getNodes().get(link.getFromNode().getId());
-			RoutingNetworkNode toNode = routingNetwork.getNodes().get(link.getToNode().getId());
-			RoutingNetworkLink dijkstraLink = createRoutingNetworkLink(link, fromNode, toNode);
-			routingLinks.put(dijkstraLink.getId(), dijkstraLink);
+		RoutingNetworkNode[] routingNodes = new RoutingNetworkNode[graph.getNodeCount()];
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			routingNodes[i] = createRoutingNetworkNode(graph.getNode(i), graph.getOutEnd(i) - graph.getOutStart(i));
+			routingNetwork.addNode(routingNodes[i]);
 		}
 		
-		for (Node node : network.getNodes().values()) {
-			RoutingNetworkLink[] outLinks = new RoutingNetworkLink[node.getOutLinks().size()];
-			
-			int i = 0;
-			for (Link outLink : node.getOutLinks().values()) {
-				outLinks[i] = routingLinks.remove(outLink.getId());
-				i++;
+		int linkCount = 0;
+		for (int i = 0; i < graph.getNodeCount(); i++) {
+			RoutingNetworkLink[] outLinks = new RoutingNetworkLink[graph.getOutEnd(i) - graph.getOutStart(i)];
+			for (int l = graph.getOutStart(i); l < graph.getOutEnd(i); l++) {
+				outLinks[l - graph.getOutStart(i)] = createRoutingNetworkLink(graph.getOutLink(l), routingNodes[i],
+						routingNodes[graph.getOutLinkToNode(l)]);
+				linkCount++;
 			}
-			
-			RoutingNetworkNode dijkstraNode = routingNetwork.getNodes().get(node.getId());
-			dijkstraNode.setOutLinksArray(outLinks);
+			routingNodes[i].setOutLinksArray(outLinks);
 		}
 		
-		if (routingLinks.size() > 0) log.warn("Not all links have been use in the ArrayRoutingNetwork - check connectivity of input network!");
+		if (linkCount < graph.getNetwork().getLinks().size()) log.warn("Not all links have been use in the ArrayRoutingNetwork - check connectivity of input network!");
 		
 		return routingNetwork;
 	}
@@ -0,0 +1,166 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RoutingGraph.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * The nodes of a network with their outgoing and incoming links in compressed sparse row form.  The nodes are
+ * numbered from <code>0</code> to <code>getNodeCount() - 1</code>; the out-links of node <code>i</code> are stored
+ * at positions <code>getOutStart(i)</code> to <code>getOutEnd(i) - 1</code>, the in-links at
+ * <code>getInStart(i)</code> to <code>getInEnd(i) - 1</code>.
+ * <p></p>
+ * In contrast to a {@link RoutingNetwork}, a routing graph does not hold any per-route data.  It is immutable
+ * and should be created only once per network and shared by all routers on all threads, which keep their
+ * labels in their own arrays indexed by node, invalidated by a search counter.  This is used by the bidirectional
+ * routers and the {@link org.matsim.utils.leastcostpathtree.ArrayLeastCostPathTree}; the Fast* routers work on an
+ * {@link ArrayRoutingNetwork} built on the graph, whose nodes have the same indices.
+ *
+ * @see org.matsim.utils.leastcostpathtree.ArrayLeastCostPathTree
+ */
+public final class RoutingGraph {
+
+	private final Network network;
+	private final Node[] nodes;
+	private final Map<Id<Node>, Integer> nodeIndices;
+
+	private final int[] outStart;
+	private final Link[] outLinks;
+	private final int[] outToNode;
+
+	private final int[] inStart;
+	private final Link[] inLinks;
+	private final int[] inFromNode;
+
+	public RoutingGraph(final Network network) {
+		this.network = network;
+		int nodeCount = network.getNodes().size();
+		this.nodes = new Node[nodeCount];
+		this.nodeIndices = new HashMap<>((int) (nodeCount / 0.75) + 1);
+		int index = 0;
+		for (Node node : network.getNodes().values()) {
+			this.nodes[index] = node;
+			this.nodeIndices.put(node.getId(), index);
+			index++;
+		}
+
+		this.outStart = new int[nodeCount + 1];
+		List<Link> links = new ArrayList<>(network.getLinks().size());
+		for (int i = 0; i < nodeCount; i++) {
+			this.outStart[i] = links.size();
+			for (Link link : this.nodes[i].getOutLinks().values()) {
+				if (this.nodeIndices.containsKey(link.getToNode().getId())) {
+					links.add(link);
+				}
+			}
+		}
+		this.outStart[nodeCount] = links.size();
+		this.outLinks = links.toArray(new Link[links.size()]);
+		this.outToNode = new int[this.outLinks.length];
+		for (int l = 0; l < this.outLinks.length; l++) {
+			this.outToNode[l] = this.nodeIndices.get(this.outLinks[l].getToNode().getId());
+		}
+
+		this.inStart = new int[nodeCount + 1];
+		links.clear();
+		for (int i = 0; i < nodeCount; i++) {
+			this.inStart[i] = links.size();
+			for (Link link : this.nodes[i].getInLinks().values()) {
+				if (this.nodeIndices.containsKey(link.getFromNode().getId())) {
+					links.add(link);
+				}
+			}
+		}
+		this.inStart[nodeCount] = links.size();
+		this.inLinks = links.toArray(new Link[links.size()]);
+		this.inFromNode = new int[this.inLinks.length];
+		for (int l = 0; l < this.inLinks.length; l++) {
+			this.inFromNode[l] = this.nodeIndices.get(this.inLinks[l].getFromNode().getId());
+		}
+	}
+
+	public Network getNetwork() {
+		return this.network;
+	}
+
+	public int getNodeCount() {
+		return this.nodes.length;
+	}
+
+	/**
+	 * @return the index of the node, or <code>-1</code> if it is not part of the graph.
+	 */
+	public int getNodeIndex(final Node node) {
+		Integer index = this.nodeIndices.get(node.getId());
+		return index == null ? -1 : index;
+	}
+
+	public Node getNode(final int index) {
+		return this.nodes[index];
+	}
+
+	public int getOutStart(final int node) {
+		return this.outStart[node];
+	}
+
+	public int getOutEnd(final int node) {
+		return this.outStart[node + 1];
+	}
+
+	/**
+	 * @param position between {@link #getOutStart(int)} and {@link #getOutEnd(int)} of a node
+	 */
+	public Link getOutLink(final int position) {
+		return this.outLinks[position];
+	}
+
+	public int getOutLinkToNode(final int position) {
+		return this.outToNode[position];
+	}
+
+	public int getInStart(final int node) {
+		return this.inStart[node];
+	}
+
+	public int getInEnd(final int node) {
+		return this.inStart[node + 1];
+	}
+
+	/**
+	 * @param position between {@link #getInStart(int)} and {@link #getInEnd(int)} of a node
+	 */
+	public Link getInLink(final int position) {
+		return this.inLinks[position];
+	}
+
+	public int getInLinkFromNode(final int position) {
+		return this.inFromNode[position];
+	}
+
+}
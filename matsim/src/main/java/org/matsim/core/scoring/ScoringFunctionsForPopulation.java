@@ -39,6 +39,7 @@ import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.api.internal.HasPersonId;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
 import org.matsim.core.controler.ControlerListenerManager;
 import org.matsim.core.controler.events.IterationStartsEvent;
 import org.matsim.core.controler.listener.IterationStartsListener;
@@ -53,6 +54,7 @@ import org.matsim.vehicles.Vehicle;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -75,7 +77,6 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	// can be changed there.  kai, sep'17
 	// I just removed that.  kai, apr'18
 	
-	@SuppressWarnings("unused")
 	private final static Logger log = Logger.getLogger(ScoringFunctionsForPopulation.class);
 	private final Population population;
 	private final ScoringFunctionFactory scoringFunctionFactory;
@@ -96,6 +97,17 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	private final Map<Id<Person>, TDoubleCollection> partialScores = new LinkedHashMap<>();
 	private final AtomicReference<Throwable> exception = new AtomicReference<>();
 	private final Map<Id<Person>, Plan> tripRecords = new LinkedHashMap<>() ;
+
+	/*
+	 * Incremental scoring (only if a tolerance is set): for every agent, what it experienced in the iteration in which it
+	 * was last scored, and the score it received then.  As long as an agent executes the same plan and experiences the
+	 * same as then, its activities, legs and events are only compared and kept instead of being scored.  As soon as
+	 * something differs, the kept ones are handed to the scoring function and the agent is scored as usual.
+	 */
+	private final Double incrementalScoringTolerance;
+	private final Map<Id<Person>, ScoredExperience> lastScored = new HashMap<>();
+	private final Map<Id<Person>, IncrementalState> incrementalStates = new HashMap<>();
+	private int unhandledEvents = 0;
 	
 //	/**
 //	 * For something like the bicycle scoring, we need to know individual links at the level of the scoring function.  This is a first sketch how this could be implemented.
@@ -108,8 +120,20 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 	private TripRouter tripRouter;
 
 	@Inject
+	ScoringFunctionsForPopulation( ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+						 Population population, ScoringFunctionFactory scoringFunctionFactory, PlanCalcScoreConfigGroup planCalcScoreConfigGroup) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory,
+				planCalcScoreConfigGroup.getIncrementalScoringTolerance());
+	}
+
 	ScoringFunctionsForPopulation( ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
 						 Population population, ScoringFunctionFactory scoringFunctionFactory) {
+		this(controlerListenerManager, eventsManager, eventsToActivities, eventsToLegs, population, scoringFunctionFactory, (Double) null);
+	}
+
+	ScoringFunctionsForPopulation( ControlerListenerManager controlerListenerManager, EventsManager eventsManager, EventsToActivities eventsToActivities, EventsToLegs eventsToLegs,
+						 Population population, ScoringFunctionFactory scoringFunctionFactory, Double incrementalScoringTolerance) {
+		this.incrementalScoringTolerance = incrementalScoringTolerance;
 		controlerListenerManager.addControlerListener(new IterationStartsListener() {
 			@Override
 			public void notifyIterationStarts(IterationStartsEvent event) {
@@ -133,6 +157,8 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 			this.partialScores.put(person.getId(), new TDoubleArrayList());
 			this.tripRecords.put(person.getId(), PopulationUtils.createPlan());
 		}
+		this.incrementalStates.clear();
+		this.unhandledEvents = 0;
 	}
 
 	private StageActivityTypes getStageActivities() {
@@ -165,7 +191,7 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		// kai/dominik, dec'12
 		if (o instanceof HasPersonId) {
 			ScoringFunction scoringFunction = getScoringFunctionForAgent(((HasPersonId) o).getPersonId());
-			if (scoringFunction != null) {
+			if (scoringFunction != null && (this.incrementalScoringTolerance == null || !deferEvent(((HasPersonId) o).getPersonId(), o))) {
 				if (o instanceof PersonStuckEvent) {
 					scoringFunction.agentStuck(o.getTime());
 				} else if (o instanceof PersonMoneyEvent) {
@@ -193,7 +219,7 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 				Id<Person> driverId = this.vehicles2Drivers.getDriverOfVehicle(vehicleId) ;
 				ScoringFunction scoringFunction = getScoringFunctionForAgent( driverId );
 				// (this will NOT do the scoring function lookup twice since LinkEnterEvent is not an instance of HasPersonId.  kai, mar'17)
-				if (scoringFunction != null) {
+				if (scoringFunction != null && (this.incrementalScoringTolerance == null || !deferEvent(driverId, o))) {
 					scoringFunction.handleEvent(o) ;
 				}
 			}
@@ -209,6 +235,16 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	@Override
 	synchronized public void handleLeg(PersonExperiencedLeg o) {
+		if (this.incrementalScoringTolerance != null) {
+			Leg leg = o.getLeg();
+			if (defer(o.getAgentId(), o, leg.getMode(), leg.getDepartureTime(), leg.getTravelTime())) {
+				return;
+			}
+		}
+		scoreLeg(o);
+	}
+
+	private void scoreLeg(PersonExperiencedLeg o) {
 		Id<Person> agentId = o.getAgentId();
 		Leg leg = o.getLeg();
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
@@ -225,6 +261,16 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 
 	@Override
 	synchronized public void handleActivity(PersonExperiencedActivity o) {
+		if (this.incrementalScoringTolerance != null) {
+			Activity activity = o.getActivity();
+			if (defer(o.getAgentId(), o, activity.getType(), activity.getStartTime(), activity.getEndTime())) {
+				return;
+			}
+		}
+		scoreActivity(o);
+	}
+
+	private void scoreActivity(PersonExperiencedActivity o) {
 		Id<Person> agentId = o.getAgentId();
 		Activity activity = o.getActivity();
 		ScoringFunction scoringFunction = ScoringFunctionsForPopulation.this.getScoringFunctionForAgent(agentId);
@@ -266,6 +312,101 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 		}
 	}
 
+	/**
+	 * Records what the agent experienced.  If the agent is still doing the same as when it was last scored, the activity or
+	 * leg is only kept for later; otherwise, the kept ones are scored now.
+	 *
+	 * @return <code>true</code> if the activity or leg was kept and must not be scored now.
+	 */
+	private boolean defer(Id<Person> agentId, Object experienced, String type, double time1, double time2) {
+		IncrementalState state = getIncrementalState(agentId);
+		if (state == null) {
+			return false;
+		}
+		if (state.reference != null) {
+			if (state.reference.matches(state.matched, type, time1, time2, this.incrementalScoringTolerance)) {
+				state.matched++;
+				state.deferred.add(experienced);
+				return true;
+			}
+			scoreDeferred(agentId, state);
+		}
+		state.experience.add(type, time1, time2);
+		return false;
+	}
+
+	/**
+	 * Keeps the event for later as long as the agent is still doing the same as when it was last scored.  Money and stuck
+	 * events are never kept, and the agent is scored as usual from then on.
+	 *
+	 * @return <code>true</code> if the event was kept and must not be handled now.
+	 */
+	private boolean deferEvent(Id<Person> agentId, Event event) {
+		IncrementalState state = getIncrementalState(agentId);
+		if (state == null) {
+			return false;
+		}
+		if (event instanceof PersonStuckEvent || event instanceof PersonMoneyEvent) {
+			// the last score did not contain this, and the score of this iteration must not be re-used later on
+			scoreDeferred(agentId, state);
+			state.reusable = false;
+			return false;
+		}
+		if (state.reference == null) {
+			return false;
+		}
+		state.deferred.add(event);
+		this.unhandledEvents++;
+		return true;
+	}
+
+	private IncrementalState getIncrementalState(Id<Person> agentId) {
+		IncrementalState state = this.incrementalStates.get(agentId);
+		if (state == null) {
+			Person person = this.population.getPersons().get(agentId);
+			if (person == null) {
+				return null;
+			}
+			ScoredExperience reference = this.lastScored.get(agentId);
+			// (only now, when the agent is under way, the selected plan is known for sure)
+			if (reference != null && reference.plan != person.getSelectedPlan()) {
+				reference = null;
+			}
+			state = new IncrementalState(reference);
+			this.incrementalStates.put(agentId, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Hands the kept activities, legs and events of the agent to its scoring function, in the order in which they arrived,
+	 * and records the kept activities and legs as experience.  From then on the agent is scored as usual.
+	 */
+	private void scoreDeferred(Id<Person> agentId, IncrementalState state) {
+		if (state == null || state.reference == null) {
+			return;
+		}
+		state.reference = null;
+		ScoringFunction scoringFunction = getScoringFunctionForAgent(agentId);
+		for (Object experienced : state.deferred) {
+			if (experienced instanceof PersonExperiencedActivity) {
+				Activity activity = ((PersonExperiencedActivity) experienced).getActivity();
+				state.experience.add(activity.getType(), activity.getStartTime(), activity.getEndTime());
+				scoreActivity((PersonExperiencedActivity) experienced);
+			} else if (experienced instanceof PersonExperiencedLeg) {
+				Leg leg = ((PersonExperiencedLeg) experienced).getLeg();
+				state.experience.add(leg.getMode(), leg.getDepartureTime(), leg.getTravelTime());
+				scoreLeg((PersonExperiencedLeg) experienced);
+			} else {
+				this.unhandledEvents--;
+				if (scoringFunction != null) {
+					scoringFunction.handleEvent((Event) experienced);
+				}
+			}
+		}
+		state.deferred = null;
+	}
+
 	/**
 	 * Returns the scoring function for the specified agent. If the agent
 	 * already has a scoring function, that one is returned. If the agent does
@@ -290,11 +431,53 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 				throw new RuntimeException(throwable);
 			}
 		}
+		int reused = 0;
+		if (this.incrementalScoringTolerance != null) {
+			for (Entry<Id<Person>, IncrementalState> entry : this.incrementalStates.entrySet()) {
+				IncrementalState state = entry.getValue();
+				if (state.reference != null) {
+					if (state.matched == state.reference.size()) {
+						this.agentScorers.put(entry.getKey(), new ReusedScore(state.reference.score));
+						this.partialScores.put(entry.getKey(), new TDoubleArrayList(state.reference.partialScores));
+						reused++;
+					} else {
+						scoreDeferred(entry.getKey(), state);
+					}
+				}
+			}
+		}
 		for (ScoringFunction sf : this.agentScorers.values()) {
 			sf.finish();
 		}
 		for (Entry<Id<Person>, TDoubleCollection> entry : this.partialScores.entrySet()) {
-			entry.getValue().add(this.getScoringFunctionForAgent(entry.getKey()).getScore());
+			ScoringFunction sf = this.getScoringFunctionForAgent(entry.getKey());
+			if (!(sf instanceof ReusedScore)) {
+				entry.getValue().add(sf.getScore());
+			}
+		}
+		if (this.incrementalScoringTolerance != null) {
+			for (Person person : this.population.getPersons().values()) {
+				ScoringFunction sf = this.getScoringFunctionForAgent(person.getId());
+				if (sf == null || sf instanceof ReusedScore) {
+					// (keep comparing against the iteration in which the agent was really scored, so that small differences do not add up)
+					continue;
+				}
+				IncrementalState state = this.incrementalStates.get(person.getId());
+				if (state != null && !state.reusable) {
+					// (the score contains more than the experience, so it cannot be re-used for the same experience)
+					this.lastScored.remove(person.getId());
+					continue;
+				}
+				Experience experience = state == null ? new Experience() : state.experience;
+				this.lastScored.put(person.getId(), new ScoredExperience(person.getSelectedPlan(), experience, sf.getScore(), this.partialScores.get(person.getId())));
+			}
+			long referenceBytes = 0;
+			for (ScoredExperience reference : this.lastScored.values()) {
+				referenceBytes += reference.estimateBytes();
+			}
+			log.info("incremental scoring: re-used the last score of " + reused + " of " + this.population.getPersons().size() + " agents; "
+					+ this.unhandledEvents + " of their events were not handled by a scoring function; the last scores and experiences take about "
+					+ (referenceBytes / 1024) + " kB.");
 		}
 	}
 
@@ -325,4 +508,114 @@ import static org.matsim.core.router.TripStructureUtils.Trip;
 //	public void setPassLinkEventsToPerson(boolean passLinkEventsToPerson) {
 //		this.passLinkEventsToPerson = passLinkEventsToPerson;
 //	}
+
+	private static final class IncrementalState {
+		final Experience experience = new Experience(); // only filled once the agent is scored as usual
+		ScoredExperience reference;
+		int matched = 0; // the number of activities and legs which matched the reference so far
+		List<Object> deferred;
+		boolean reusable = true; // false after money or stuck events, which are not part of the experience
+
+		IncrementalState(ScoredExperience reference) {
+			this.reference = reference;
+			this.deferred = reference == null ? null : new ArrayList<>();
+		}
+	}
+
+	/**
+	 * The activity types and leg modes an agent experienced, each with its start time and its end or travel time.
+	 */
+	private static final class Experience {
+		private final List<String> types = new ArrayList<>();
+		private final TDoubleArrayList times = new TDoubleArrayList();
+
+		void add(String type, double time1, double time2) {
+			this.types.add(type);
+			this.times.add(time1);
+			this.times.add(time2);
+		}
+	}
+
+	/**
+	 * The experience and score of the iteration in which an agent was last scored.  Kept for the whole population between
+	 * iterations, hence in arrays of exactly the needed size, and with the times as floats (which are exact to a few
+	 * milliseconds within a day).
+	 */
+	private static final class ScoredExperience {
+		final Plan plan;
+		private final String[] types;
+		private final float[] times;
+		final double score;
+		final double[] partialScores;
+
+		ScoredExperience(Plan plan, Experience experience, double score, TDoubleCollection partialScores) {
+			this.plan = plan;
+			this.types = experience.types.toArray(new String[experience.types.size()]);
+			this.times = new float[experience.times.size()];
+			for (int i = 0; i < this.times.length; i++) {
+				this.times[i] = (float) experience.times.get(i);
+			}
+			this.score = score;
+			this.partialScores = partialScores.toArray();
+		}
+
+		int size() {
+			return this.types.length;
+		}
+
+		boolean matches(int index, String type, double time1, double time2, double tolerance) {
+			return index < this.types.length && this.types[index].equals(type)
+					&& matches(this.times[2 * index], time1, tolerance) && matches(this.times[2 * index + 1], time2, tolerance);
+		}
+
+		private static boolean matches(float a, double b, double tolerance) {
+			return a == (float) b || Math.abs(a - b) <= tolerance;
+		}
+
+		long estimateBytes() {
+			// object and array headers, references, floats and doubles:
+			return 4 * 16 + 4L * this.types.length + 4L * this.times.length + 8L * this.partialScores.length;
+		}
+	}
+
+	/**
+	 * Stands in for the scoring function of an agent whose score of an earlier iteration is re-used.
+	 */
+	private static final class ReusedScore implements ScoringFunction {
+		private final double score;
+
+		ReusedScore(double score) {
+			this.score = score;
+		}
+
+		@Override
+		public void handleActivity(Activity activity) {
+		}
+
+		@Override
+		public void handleLeg(Leg leg) {
+		}
+
+		@Override
+		public void agentStuck(double time) {
+		}
+
+		@Override
+		public void addMoney(double amount) {
+		}
+
+		@Override
+		public void handleEvent(Event event) {
+		}
+
+		@Override
+		public void finish() {
+		}
+
+
+		@Override
+		public double getScore() {
+			return this.score;
+		}
+	}
 }
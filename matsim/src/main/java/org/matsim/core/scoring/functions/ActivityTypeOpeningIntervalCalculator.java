@@ -12,7 +12,7 @@ public class ActivityTypeOpeningIntervalCalculator implements OpeningIntervalCal
 	@Override
 	public double[] getOpeningInterval(final Activity act) {
 
-		ActivityUtilityParameters actParams = this.params.utilParams.get(act.getType());
+		ActivityUtilityParameters actParams = this.params.getActivityParameters(act.getType());
 		if (actParams == null) {
 			throw new IllegalArgumentException("acttype \"" + act.getType() + "\" is not known in utility parameters " +
 					"(module name=\"planCalcScore\" in the config file).");
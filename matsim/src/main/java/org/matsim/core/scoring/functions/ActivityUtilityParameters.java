@@ -192,6 +192,7 @@ public final class ActivityUtilityParameters implements MatsimParameters {
 	 * (In decimal number of hours.)
 	 */
 	private double zeroUtilityDuration_h; // in hours!
+	private double zeroUtilityDuration_s; // = 3600 * zeroUtilityDuration_h, precomputed for the scoring
 	private double minimalDuration = -1;
 	private double openingTime = -1;
 	private double closingTime = -1;
@@ -224,6 +225,8 @@ public final class ActivityUtilityParameters implements MatsimParameters {
 
 
 		this.zeroUtilityDuration_h = val / 3600. ;
+		this.zeroUtilityDuration_s = 3600. * this.zeroUtilityDuration_h ;
+		// (computed from the value in hours, not taken from val, so that it is exactly what the scoring computed before. )
 
 		// example: pt interaction activity with typical duration = 120sec.
 		// 120/3600 * exp( -10 / (120 / 3600) ) =  1.7 x 10^(-132)  (!!!!!!!!!!)
@@ -263,6 +266,13 @@ public final class ActivityUtilityParameters implements MatsimParameters {
 		return this.zeroUtilityDuration_h;
 	}
 
+	/**
+	 * @return <code>3600. * getZeroUtilityDuration_h()</code>
+	 */
+	public final double getZeroUtilityDuration_s() {
+		return this.zeroUtilityDuration_s;
+	}
+
 	public final double getMinimalDuration() {
 		return this.minimalDuration;
 	}
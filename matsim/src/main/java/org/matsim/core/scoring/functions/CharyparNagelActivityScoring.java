@@ -82,7 +82,7 @@ public final class CharyparNagelActivityScoring implements org.matsim.core.scori
 
 	protected double calcActScore(final double arrivalTime, final double departureTime, final Activity act) {
 
-		ActivityUtilityParameters actParams = this.params.utilParams.get(act.getType());
+		ActivityUtilityParameters actParams = this.params.getActivityParameters(act.getType());
 		if (actParams == null) {
 			throw new IllegalArgumentException("acttype \"" + act.getType() + "\" is not known in utility parameters " +
 					"(module name=\"planCalcScore\" in the config file).");
@@ -167,7 +167,7 @@ public final class CharyparNagelActivityScoring implements org.matsim.core.scori
 					tmpScore += 2*this.params.marginalUtilityOfLateArrival_s*Math.abs(duration);
 				}
 			} else {
-				if ( duration >= 3600.*actParams.getZeroUtilityDuration_h() ) {
+				if ( duration >= actParams.getZeroUtilityDuration_s() ) {
 					double utilPerf = this.params.marginalUtilityOfPerforming_s * typicalDuration
 							* Math.log((duration / 3600.0) / actParams.getZeroUtilityDuration_h());
 					// also removing the "wait" alternative scoring.
@@ -182,7 +182,7 @@ public final class CharyparNagelActivityScoring implements org.matsim.core.scori
 //					}
 					
 					// below zeroUtilityDuration, we linearly extend the slope ...:
-					double slopeAtZeroUtility = this.params.marginalUtilityOfPerforming_s * typicalDuration / ( 3600.*actParams.getZeroUtilityDuration_h() ) ;
+					double slopeAtZeroUtility = this.params.marginalUtilityOfPerforming_s * typicalDuration / actParams.getZeroUtilityDuration_s() ;
 					if ( slopeAtZeroUtility < 0. ) {
 						// (beta_perf might be = 0)
 						System.err.println("beta_perf: " + this.params.marginalUtilityOfPerforming_s);
@@ -190,7 +190,7 @@ public final class CharyparNagelActivityScoring implements org.matsim.core.scori
 						System.err.println( "zero utl duration: " + actParams.getZeroUtilityDuration_h() );
 						throw new RuntimeException( "slope at zero utility < 0.; this should not happen ...");
 					}
-					double durationUnderrun = actParams.getZeroUtilityDuration_h()*3600. - duration ;
+					double durationUnderrun = actParams.getZeroUtilityDuration_s() - duration ;
 					if ( durationUnderrun < 0. ) {
 						throw new RuntimeException( "durationUnderrun < 0; this should not happen ...") ;
 					}
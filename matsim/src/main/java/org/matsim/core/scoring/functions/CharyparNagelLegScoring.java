@@ -91,15 +91,11 @@ public class CharyparNagelLegScoring implements org.matsim.core.scoring.SumScori
 	protected double calcLegScore(final double departureTime, final double arrivalTime, final Leg leg) {
 		double tmpScore = 0.0;
 		double travelTime = arrivalTime - departureTime; // travel time in seconds	
-		ModeUtilityParameters modeParams = this.params.modeParams.get(leg.getMode());
+		ModeUtilityParameters modeParams = this.params.getModeParameters(leg.getMode());
 		if (modeParams == null) {
-			if (leg.getMode().equals(TransportMode.transit_walk) || leg.getMode().equals(TransportMode.access_walk) 
-					|| leg.getMode().equals(TransportMode.egress_walk) ) {
-				modeParams = this.params.modeParams.get(TransportMode.walk);
-			} else {
-//				modeParams = this.params.modeParams.get(TransportMode.other);
-				throw new RuntimeException("just encountered mode for which no scoring parameters are defined: " + leg.getMode()) ;
-			}
+			// (transit_walk, access_walk and egress_walk are scored as walk, see ScoringParameters#getModeParameters. )
+//			modeParams = this.params.modeParams.get(TransportMode.other);
+			throw new RuntimeException("just encountered mode for which no scoring parameters are defined: " + leg.getMode()) ;
 		}
 		tmpScore += travelTime * modeParams.marginalUtilityOfTraveling_s;
 		if (modeParams.marginalUtilityOfDistance_m != 0.0
@@ -125,9 +121,8 @@ public class CharyparNagelLegScoring implements org.matsim.core.scoring.SumScori
 		// (yy NOTE: the constant is added for _every_ pt leg.  This is not how such models are estimated.  kai, nov'12)
 		
 		// account for the daily constants
-		if (!modesAlreadyConsideredForDailyConstants.contains(leg.getMode())) {
+		if (modesAlreadyConsideredForDailyConstants.add(leg.getMode())) {
 			tmpScore += modeParams.dailyUtilityConstant + modeParams.dailyMoneyConstant * this.params.marginalUtilityOfMoney;
-			modesAlreadyConsideredForDailyConstants.add(leg.getMode());
 		}
 		// yyyy the above will cause problems if we ever decide to differentiate pt mode into bus, tram, train, ...
 		// Might have to move the MainModeIdentifier then.  kai, sep'18
@@ -153,7 +148,7 @@ public class CharyparNagelLegScoring implements org.matsim.core.scoring.SumScori
 			}
 			this.nextEnterVehicleIsFirstOfTrip = false ;
 			// add score of waiting, _minus_ score of travelling (since it is added in the legscoring above):
-			this.score += (event.getTime() - this.lastActivityEndTime) * (this.params.marginalUtilityOfWaitingPt_s - this.params.modeParams.get(TransportMode.pt).marginalUtilityOfTraveling_s) ;
+			this.score += (event.getTime() - this.lastActivityEndTime) * (this.params.marginalUtilityOfWaitingPt_s - this.params.getModeParameters(TransportMode.pt).marginalUtilityOfTraveling_s) ;
 		}
 
 		if ( event instanceof PersonDepartureEvent ) {
@@ -162,7 +157,7 @@ public class CharyparNagelLegScoring implements org.matsim.core.scoring.SumScori
 			this.currentLegIsPtLeg = this.ptModes.contains(mode);
 			if ( currentLegIsPtLeg ) {
 				if ( !this.nextStartPtLegIsFirstOfTrip ) {
-					this.score -= params.modeParams.get(mode).constant ;
+					this.score -= params.getModeParameters(mode).constant ;
 					// (yyyy deducting this again, since is it wrongly added above.  should be consolidated; this is so the code
 					// modification is minimally invasive.  kai, dec'12)
 				}
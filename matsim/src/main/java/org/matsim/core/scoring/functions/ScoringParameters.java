@@ -20,11 +20,14 @@
 
 package org.matsim.core.scoring.functions;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
 
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.internal.MatsimParameters;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
@@ -50,6 +53,12 @@ public class ScoringParameters implements MatsimParameters {
 	
 	public final double simulationPeriodInDays;
 
+	// The maps above are sorted by activity type and mode, which makes every lookup compare strings.  The scoring looks up
+	// parameters for every activity and leg of every agent, so it uses these hash tables instead.  The mode table also
+	// contains the modes which are scored as walk if they have no parameters of their own.
+	private final Map<String, ActivityUtilityParameters> activityTable;
+	private final Map<String, ModeUtilityParameters> modeTable;
+
 	private ScoringParameters(
 			final Map<String, ActivityUtilityParameters> utilParams,
 			final Map<String, ModeUtilityParameters> modeParams,
@@ -64,8 +73,18 @@ public class ScoringParameters implements MatsimParameters {
 			final boolean scoreActs,
 			final boolean usingOldScoringBelowZeroUtilityDuration,
 			final double simulationPeriodInDays) {
-		this.utilParams = utilParams;
-		this.modeParams = modeParams;
+		this.utilParams = Collections.unmodifiableMap(utilParams);
+		this.modeParams = Collections.unmodifiableMap(modeParams);
+		this.activityTable = new HashMap<>(utilParams);
+		this.modeTable = new HashMap<>(modeParams);
+		ModeUtilityParameters walkParams = modeParams.get(TransportMode.walk);
+		if (walkParams != null) {
+			for (String walkMode : new String[] { TransportMode.transit_walk, TransportMode.access_walk, TransportMode.egress_walk }) {
+				if (!this.modeTable.containsKey(walkMode)) {
+					this.modeTable.put(walkMode, walkParams);
+				}
+			}
+		}
 		this.marginalUtilityOfWaiting_s = marginalUtilityOfWaiting_s;
 		this.marginalUtilityOfLateArrival_s = marginalUtilityOfLateArrival_s;
 		this.marginalUtilityOfEarlyDeparture_s = marginalUtilityOfEarlyDeparture_s;
@@ -79,6 +98,21 @@ public class ScoringParameters implements MatsimParameters {
 		this.simulationPeriodInDays = simulationPeriodInDays;
 	}
 
+	/**
+	 * @return the parameters of the activity type, or <code>null</code> if there are none.
+	 */
+	public ActivityUtilityParameters getActivityParameters(final String activityType) {
+		return this.activityTable.get(activityType);
+	}
+
+	/**
+	 * @return the parameters of the mode, or <code>null</code> if there are none.  The transit, access and egress walk
+	 * modes get the parameters of walk if they have no parameters of their own.
+	 */
+	public ModeUtilityParameters getModeParameters(final String mode) {
+		return this.modeTable.get(mode);
+	}
+
 	public static final class Builder {
 		private final Map<String, ActivityUtilityParameters.Builder> utilParams;
 		private final Map<String, ModeUtilityParameters.Builder> modeParams;
@@ -62,7 +62,8 @@ public class SubpopulationScoringParameters implements ScoringParametersForPerso
 				person.getId().toString(),
 				subpopulationAttributeName);
 
-		if (!this.params.containsKey(subpopulation)) {
+		ScoringParameters scoringParameters = this.params.get(subpopulation);
+		if (scoringParameters == null) {
 			/* lazy initialization of params. not strictly thread safe, as different threads could
 			 * end up with different params-object, although all objects will have the same
 			 * values in them due to using the same config. Still much better from a memory performance
@@ -83,11 +84,10 @@ public class SubpopulationScoringParameters implements ScoringParametersForPerso
 				builder.setActivityParameters(PtConstants.TRANSIT_ACTIVITY_TYPE, modeParamsBuilder);
 			}
 
-			this.params.put(
-					subpopulation,
-					builder.build());
+			scoringParameters = builder.build();
+			this.params.put(subpopulation, scoringParameters);
 		}
 
-		return this.params.get(subpopulation);
+		return scoringParameters;
 	}
 }
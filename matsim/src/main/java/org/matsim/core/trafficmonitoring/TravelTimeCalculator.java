@@ -56,6 +56,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * use {@link TravelTimeDataHashMap},}
  * as that one does not use any memory to time bins where no traffic occurred. By default,
  * {@link TravelTimeDataArray} is used.
+ * <br>
+ * Optionally (see {@link TravelTimeCalculatorConfigGroup#isUseSnapshotForRouting()}), the data is double-buffered: the router then
+ * reads a snapshot of the last completed iteration, which is frozen by {@link #freezeSnapshotForRouting()}, while the events of the
+ * running iteration are collected into the other buffer.  Freezing only swaps the two buffers; the per-link data objects are
+ * re-used and reset in place.
  *
  * @author dgrether
  * @author mrieser
@@ -72,12 +77,15 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private final int numSlots;
 	TimeSlotComputation aggregator;
 
+	/**
+	 * The buffer into which the events are collected.
+	 */
+	private volatile TravelTimeBuffer collectingBuffer;
 
-	private Map<Id<Link>, TravelTimeData> linkData;
-
-	private Map<Tuple<Id<Link>, Id<Link>>, TravelTimeData> linkToLinkData;
-
-	private final DataContainerProvider dataContainerProvider;
+	/**
+	 * The buffer from which the router reads.  Is the same as {@link #collectingBuffer} unless the snapshot for routing is switched on.
+	 */
+	private volatile TravelTimeBuffer routingBuffer;
 
 	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
 
@@ -130,6 +138,9 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 					throw new RuntimeException( config.getTravelTimeGetterType() + " is unknown!" );
 			}
 		}
+		if ( config.isUseSnapshotForRouting() ) {
+			calculator.enableSnapshotForRouting( network );
+		}
 		return calculator;
 	}
 
@@ -166,6 +177,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		private boolean calculateLinkToLinkTravelTimes = false ;
 		private boolean filterModes = false ;
 		private Set<String> analyzedModes = null ;
+		private boolean useSnapshotForRouting = false ;
 		private TravelTimeCalculatorConfigGroup ttcConfig;
 		private boolean toBeConfigured = false ;
 
@@ -197,6 +209,10 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			this.analyzedModes = analyzedModes;
 		}
 
+		public void setUseSnapshotForRouting( boolean useSnapshotForRouting ){
+			this.useSnapshotForRouting = useSnapshotForRouting;
+		}
+
 		public void configure ( TravelTimeCalculatorConfigGroup ttcConfig ) {
 			// yyyyyy this is a fix to get the outward API sorted out somewhat better.  kai, feb'19
 			// yyyyyy presumably would like to replace this with setters for {@link TravelTimeDataFactory} and {@link TravelTimeGetter}.  But it ain't that easy because
@@ -212,6 +228,9 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			if( toBeConfigured ){
 				TravelTimeCalculator.configure( abc, this.ttcConfig, this.network );
 			}
+			if( useSnapshotForRouting ){
+				abc.enableSnapshotForRouting( this.network );
+			}
 			return abc ;
 		}
 
@@ -231,10 +250,32 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		this.aggregator = new TimeSlotComputation(this.numSlots, this.timeSlice);
 		this.travelTimeGetter = new AveragingTravelTimeGetter( this.aggregator ) ;
 		this.ttDataFactory = new TravelTimeDataArrayFactory(network, this.numSlots);
-		if (this.calculateLinkTravelTimes){
-			this.linkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4));
+		this.collectingBuffer = new TravelTimeBuffer(network, this.calculateLinkTravelTimes, this.calculateLinkToLinkTravelTimes, this.ttDataFactory);
+		this.routingBuffer = this.collectingBuffer;
+		this.linkEnterEvents = new ConcurrentHashMap<>();
 
-			/*
+		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
+		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
+		this.vehiclesToIgnore = new HashSet<>();
+
+
+		this.reset(0);
+
+	}
+
+	/**
+	 * The link and link-to-link travel time data of one iteration.
+	 */
+	private static final class TravelTimeBuffer {
+		private final Map<Id<Link>, TravelTimeData> linkData;
+		private final Map<Tuple<Id<Link>, Id<Link>>, TravelTimeData> linkToLinkData;
+		private final DataContainerProvider dataContainerProvider;
+
+		TravelTimeBuffer(Network network, boolean calculateLinkTravelTimes, boolean calculateLinkToLinkTravelTimes, TravelTimeDataFactory ttDataFactory) {
+			if (calculateLinkTravelTimes){
+				this.linkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4));
+
+				/*
 			 * So far, link data objects were stored in a HashMap. This lookup strategy is used
 			 * by a MapBasedDataContainerProvider.
 			 * When ArrayRoutingNetworks are used (as the FastRouter implementations do), the
@@ -244,22 +285,50 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			 * increases the routing performance by 20-30%.
 			 * cdobler, oct'13
 			 */
-			//		this.dataContainerProvider = new MapBasedDataContainerProvider(linkData, ttDataFactory);
-			this.dataContainerProvider = new ArrayBasedDataContainerProvider(linkData, ttDataFactory, network);
-		} else this.dataContainerProvider = null;
-		if (this.calculateLinkToLinkTravelTimes){
-			// assume that every link has 2 outgoing links as default
-			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
+				//		this.dataContainerProvider = new MapBasedDataContainerProvider(linkData, ttDataFactory);
+				this.dataContainerProvider = new ArrayBasedDataContainerProvider(linkData, ttDataFactory, network);
+			} else {
+				this.linkData = null;
+				this.dataContainerProvider = null;
+			}
+			if (calculateLinkToLinkTravelTimes){
+				// assume that every link has 2 outgoing links as default
+				this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
+			} else this.linkToLinkData = null;
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
-
-		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
-		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
-
+	}
 
-		this.reset(0);
+	private void enableSnapshotForRouting(Network network) {
+		if (this.routingBuffer == this.collectingBuffer) {
+			// (the router sees free speed travel times until the first snapshot is frozen, as it would after a reset of the single buffer)
+			this.routingBuffer = new TravelTimeBuffer(network, this.calculateLinkTravelTimes, this.calculateLinkToLinkTravelTimes, this.ttDataFactory);
+		}
+	}
 
+	/**
+	 * Freezes the data collected so far into the snapshot that is read by the router, and makes the previous snapshot the buffer for the
+	 * next iteration's events.  The latter is reset in {@link #reset(int)}, so the snapshot is never touched by a reset.  To be called
+	 * when the events of an iteration are processed completely, e.g. at iteration end.  Does nothing if the snapshot for routing is
+	 * not switched on.
+	 */
+	public void freezeSnapshotForRouting() {
+		if (this.routingBuffer == this.collectingBuffer) {
+			return;
+		}
+		TravelTimeBuffer finished = this.collectingBuffer;
+		// consolidate everything now, so that concurrent readers of the snapshot never have to:
+		if (this.calculateLinkTravelTimes) {
+			for (TravelTimeData data : finished.linkData.values()) {
+				consolidateData(data);
+			}
+		}
+		if (this.calculateLinkToLinkTravelTimes) {
+			for (TravelTimeData data : finished.linkToLinkData.values()) {
+				consolidateData(data);
+			}
+		}
+		this.collectingBuffer = this.routingBuffer;
+		this.routingBuffer = finished;
 	}
 
 	@Override
@@ -271,7 +340,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		LinkEnterEvent oldEvent = this.linkEnterEvents.remove(e.getVehicleId());
 		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
 			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
-			TravelTimeData data = getLinkToLinkTravelTimeData(fromToLink );
+			TravelTimeData data = getLinkToLinkTravelTimeData(this.collectingBuffer, fromToLink );
 			double enterTime = oldEvent.getTime();
 
 			final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
@@ -286,7 +355,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		if (this.calculateLinkTravelTimes) {
 			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
 			if (oldEvent != null) {
-				TravelTimeData data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
+				TravelTimeData data = this.collectingBuffer.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
 				double enterTime = oldEvent.getTime();
 
 				final int timeSlot = this.aggregator.getTimeSlotIndex(enterTime );
@@ -329,7 +398,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	public void handleEvent(VehicleAbortsEvent event) {
 		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
 		if (e != null) {
-			TravelTimeData data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
+			TravelTimeData data = this.collectingBuffer.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
 			data.setNeedsConsolidation( true );
 
 			//			this.aggregator.addStuckEventTravelTime(data, e.getTime(), event.getTime());
@@ -348,11 +417,11 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
 	}
 
-	private TravelTimeData getLinkToLinkTravelTimeData( Tuple<Id<Link>, Id<Link>> fromLinkToLink ) {
-		TravelTimeData data = this.linkToLinkData.get(fromLinkToLink);
+	private TravelTimeData getLinkToLinkTravelTimeData( TravelTimeBuffer buffer, Tuple<Id<Link>, Id<Link>> fromLinkToLink ) {
+		TravelTimeData data = buffer.linkToLinkData.get(fromLinkToLink);
 		if ( null == data ) {
 			data = this.ttDataFactory.createTravelTimeData(fromLinkToLink.getFirst()) ;
-			this.linkToLinkData.put(fromLinkToLink, data);
+			buffer.linkToLinkData.put(fromLinkToLink, data);
 		}
 		return data;
 	}
@@ -367,7 +436,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 	private double getLinkTravelTime(final Link link, final double time) {
 		if (this.calculateLinkTravelTimes) {
 
-			TravelTimeData data = this.dataContainerProvider.getTravelTimeData(link, true);
+			TravelTimeData data = this.routingBuffer.dataContainerProvider.getTravelTimeData(link, true);
 			if ( data.isNeedingConsolidation() ) {
 				consolidateData(data);
 			}
@@ -411,7 +480,7 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 			throw new IllegalStateException("No link to link travel time is available " +
 									    "if calculation is switched off by config option!");
 		}
-		TravelTimeData data = this.getLinkToLinkTravelTimeData(new Tuple<>(fromLinkId, toLinkId) );
+		TravelTimeData data = this.getLinkToLinkTravelTimeData(this.routingBuffer, new Tuple<>(fromLinkId, toLinkId) );
 		if ( data.isNeedingConsolidation() ) {
 			consolidateData(data);
 		}
@@ -420,14 +489,16 @@ public final class TravelTimeCalculator implements LinkEnterEventHandler, LinkLe
 
 	@Override
 	public void reset(int iteration) {
+		// (only the collecting buffer is reset; if the snapshot for routing is switched on, the router keeps reading the frozen one)
+		TravelTimeBuffer buffer = this.collectingBuffer;
 		if (this.calculateLinkTravelTimes) {
-			for (TravelTimeData data : this.linkData.values()){
+			for (TravelTimeData data : buffer.linkData.values()){
 				data.resetTravelTimes();
 				data.setNeedsConsolidation( false );
 			}
 		}
 		if (this.calculateLinkToLinkTravelTimes){
-			for (TravelTimeData data : this.linkToLinkData.values()){
+			for (TravelTimeData data : buffer.linkToLinkData.values()){
 				data.resetTravelTimes();
 				data.setNeedsConsolidation( false );
 			}
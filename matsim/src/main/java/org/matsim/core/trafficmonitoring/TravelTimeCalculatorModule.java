@@ -25,6 +25,7 @@ package org.matsim.core.trafficmonitoring;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Singleton;
+import com.google.inject.multibindings.Multibinder;
 import com.google.inject.name.Names;
 
 import org.matsim.api.core.v01.network.Network;
@@ -48,6 +49,12 @@ import javax.inject.Provider;
  */
 public class TravelTimeCalculatorModule extends AbstractModule {
 
+	/**
+	 * Names the set of {@link TravelTimeCalculator}s that use a snapshot for routing.  The core events handling freezes them at
+	 * iteration end, before any iteration-end listener of a module (e.g. the link stats) reads the travel times.
+	 */
+	public static final String SNAPSHOTS_FOR_ROUTING = "snapshotsForRouting";
+
 	@Override
 	public void install() {
 		if (getConfig().travelTimeCalculator().getSeparateModes()) {
@@ -70,6 +77,9 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 					}
 				});
 
+				if (getConfig().travelTimeCalculator().isUseSnapshotForRouting()) {
+					snapshotsForRouting().addBinding().to(Key.get(TravelTimeCalculator.class, Names.named(mode)));
+				}
 			}
 		} else {
 			// (all analyzed modes are measured together, and the same result is returned to each mode)
@@ -87,10 +97,17 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 			if (getConfig().travelTimeCalculator().isCalculateLinkToLinkTravelTimes()) {
 				bind(LinkToLinkTravelTime.class).toProvider(ObservedLinkToLinkTravelTimes.class);
 			}
+			if (getConfig().travelTimeCalculator().isUseSnapshotForRouting()) {
+				snapshotsForRouting().addBinding().to(TravelTimeCalculator.class);
+			}
 		}
 
 	}
 
+	private Multibinder<TravelTimeCalculator> snapshotsForRouting() {
+		return Multibinder.newSetBinder(binder(), TravelTimeCalculator.class, Names.named(SNAPSHOTS_FOR_ROUTING));
+	}
+
 	private static class SingleModeTravelTimeCalculatorProvider implements Provider<TravelTimeCalculator> {
 
 		@Inject TravelTimeCalculatorConfigGroup config;
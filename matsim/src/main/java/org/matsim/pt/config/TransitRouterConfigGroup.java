@@ -41,6 +41,12 @@ public class TransitRouterConfigGroup extends ReflectiveConfigGroup {
 	
 	private boolean cacheTree = false;
 
+	public enum RoutingAlgorithmType { DijkstraBased, Raptor }
+
+	private RoutingAlgorithmType routingAlgorithmType = RoutingAlgorithmType.DijkstraBased;
+
+	private String routerNetworkCacheDirectory = null;
+
 	public TransitRouterConfigGroup() {
 		super(GROUP_NAME);
 	}
@@ -48,6 +54,17 @@ public class TransitRouterConfigGroup extends ReflectiveConfigGroup {
 	private static final String DIRECT_WALK_FACTOR="directWalkFactor" ;
 	static final String DIRECT_WALK_FACTOR_CMT = "Factor with which direct walk generalized cost is multiplied before it is compared "
 			+ "to the pt generalized cost.  Set to a very high value to reduce direct walk results." ;
+	private static final String ROUTING_ALGORITHM_TYPE = "routingAlgorithmType";
+	static final String ROUTING_ALGORITHM_TYPE_CMT = "The algorithm used to route pt trips.  DijkstraBased searches the least-cost path "
+			+ "in the transit router network; Raptor scans the schedule in rounds, which is usually much faster on large schedules "
+			+ "and finds the Pareto-optimal routes in arrival time and number of transfers.  Raptor is not a drop-in replacement: "
+			+ "the cost is only used to choose among these routes, so a cheaper route that arrives later with the same number of "
+			+ "transfers (e.g. one with a shorter walk) is not found, and the routes can differ from the ones of DijkstraBased.  "
+			+ "Possible values: DijkstraBased, Raptor";
+	private static final String ROUTER_NETWORK_CACHE_DIRECTORY = "routerNetworkCacheDirectory";
+	static final String ROUTER_NETWORK_CACHE_DIRECTORY_CMT = "Directory in which the transit router network is cached in a binary file, "
+			+ "keyed by a checksum of the schedule and " + MAX_BEELINE_WALK_CONNECTION_DISTANCE + ".  If a matching file exists, the "
+			+ "transfer links are read from it instead of being searched again.  Not set (default): no caching";
 	@Override
 	public Map<String, String> getComments() {
 		Map<String, String> comments = super.getComments();
@@ -56,6 +73,8 @@ public class TransitRouterConfigGroup extends ReflectiveConfigGroup {
 		comments.put(MAX_BEELINE_WALK_CONNECTION_DISTANCE, "maximum beeline distance between stops that agents could transfer to by walking");
 		comments.put(ADDITIONAL_TRANSFER_TIME, "additional time the router allocates when a line switch happens. Can be interpreted as a 'safety' time that agents need to safely transfer from one line to another");
 		comments.put(DIRECT_WALK_FACTOR, DIRECT_WALK_FACTOR_CMT);
+		comments.put(ROUTING_ALGORITHM_TYPE, ROUTING_ALGORITHM_TYPE_CMT);
+		comments.put(ROUTER_NETWORK_CACHE_DIRECTORY, ROUTER_NETWORK_CACHE_DIRECTORY_CMT);
 		return comments;
 	}
 
@@ -125,4 +144,36 @@ public class TransitRouterConfigGroup extends ReflectiveConfigGroup {
 	public void setCacheTree(boolean cacheTree) {
 		this.cacheTree = cacheTree;
 	}
+
+	/**
+	 * {@value #ROUTING_ALGORITHM_TYPE_CMT}
+	 */
+	@StringGetter(ROUTING_ALGORITHM_TYPE)
+	public RoutingAlgorithmType getRoutingAlgorithmType() {
+		return this.routingAlgorithmType;
+	}
+	/**
+	 * {@value #ROUTING_ALGORITHM_TYPE_CMT}
+	 */
+	@StringSetter(ROUTING_ALGORITHM_TYPE)
+	public void setRoutingAlgorithmType(final RoutingAlgorithmType routingAlgorithmType) {
+		testForLocked() ;
+		this.routingAlgorithmType = routingAlgorithmType;
+	}
+
+	/**
+	 * {@value #ROUTER_NETWORK_CACHE_DIRECTORY_CMT}
+	 */
+	@StringGetter(ROUTER_NETWORK_CACHE_DIRECTORY)
+	public String getRouterNetworkCacheDirectory() {
+		return this.routerNetworkCacheDirectory;
+	}
+	/**
+	 * {@value #ROUTER_NETWORK_CACHE_DIRECTORY_CMT}
+	 */
+	@StringSetter(ROUTER_NETWORK_CACHE_DIRECTORY)
+	public void setRouterNetworkCacheDirectory(final String routerNetworkCacheDirectory) {
+		testForLocked() ;
+		this.routerNetworkCacheDirectory = routerNetworkCacheDirectory;
+	}
 }
@@ -0,0 +1,255 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * The transit schedule in the flat array form needed by {@link RaptorTransitRouter}.  Stops, routes, the stops
+ * along the routes ("route stops") and the departures are numbered consecutively, and all relations between them
+ * are stored as index ranges into <code>int</code> and <code>double</code> arrays:
+ * <ul>
+ * <li>the route stops of route <code>r</code> are <code>routeStopStart[r]</code> to <code>routeStopStart[r+1] - 1</code>,
+ * in the order they are served;</li>
+ * <li>the departures (at the first stop) of route <code>r</code> are <code>departureStart[r]</code> to
+ * <code>departureStart[r+1] - 1</code>, sorted by time;</li>
+ * <li>the route stops at stop <code>s</code> are <code>stopRouteStopStart[s]</code> to <code>stopRouteStopStart[s+1] - 1</code>;</li>
+ * <li>the walk transfers from stop <code>s</code> are <code>transferStart[s]</code> to <code>transferStart[s+1] - 1</code>.</li>
+ * </ul>
+ * Like the {@link TransitRouterNetwork}, the schedule is assumed to repeat every 24 hours.
+ * <p></p>
+ * Instances are immutable after construction and can be shared by all router instances (and threads).
+ */
+public final class RaptorData {
+
+	private static final Logger log = Logger.getLogger(RaptorData.class);
+
+	static final double MIDNIGHT = 24.0 * 3600;
+
+	final TransitStopFacility[] stops;
+	private final Map<Id<TransitStopFacility>, Integer> stopIndices;
+	private final QuadTree<TransitStopFacility> stopsQuadTree;
+
+	final TransitLine[] routeLines;
+	final TransitRoute[] routes;
+	final int[] routeStopStart;
+	final int[] departureStart;
+	final double[] departures;
+
+	final int[] routeStopStop;
+	final int[] routeStopRoute;
+	final double[] routeStopArrivalOffset;
+	final double[] routeStopDepartureOffset;
+	final double[] routeStopDistance; // beeline distance from the first stop of the route
+
+	final int[] stopRouteStopStart;
+	final int[] stopRouteStops;
+
+	final int[] transferStart;
+	final int[] transferToStop;
+	final double[] transferDistance;
+
+	public RaptorData(final TransitSchedule schedule, final double maxBeelineWalkConnectionDistance) {
+		// stops
+		this.stops = schedule.getFacilities().values().toArray(new TransitStopFacility[schedule.getFacilities().size()]);
+		this.stopIndices = new HashMap<>((int) (this.stops.length / 0.75) + 1);
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int s = 0; s < this.stops.length; s++) {
+			this.stopIndices.put(this.stops[s].getId(), s);
+			Coord c = this.stops[s].getCoord();
+			minX = Math.min(minX, c.getX());
+			minY = Math.min(minY, c.getY());
+			maxX = Math.max(maxX, c.getX());
+			maxY = Math.max(maxY, c.getY());
+		}
+		if (this.stops.length == 0) {
+			minX = minY = maxX = maxY = 0;
+		}
+		this.stopsQuadTree = new QuadTree<>(minX, minY, maxX, maxY);
+		for (TransitStopFacility stop : this.stops) {
+			this.stopsQuadTree.put(stop.getCoord().getX(), stop.getCoord().getY(), stop);
+		}
+
+		// routes; routes that cannot be used (less than two stops or no departures) are left out
+		List<TransitLine> lineList = new ArrayList<>();
+		List<TransitRoute> routeList = new ArrayList<>();
+		int routeStopCount = 0;
+		int departureCount = 0;
+		for (TransitLine line : schedule.getTransitLines().values()) {
+			for (TransitRoute route : line.getRoutes().values()) {
+				if (route.getStops().size() > 1 && !route.getDepartures().isEmpty()) {
+					lineList.add(line);
+					routeList.add(route);
+					routeStopCount += route.getStops().size();
+					departureCount += route.getDepartures().size();
+				}
+			}
+		}
+		int routeCount = routeList.size();
+		this.routeLines = lineList.toArray(new TransitLine[routeCount]);
+		this.routes = routeList.toArray(new TransitRoute[routeCount]);
+		this.routeStopStart = new int[routeCount + 1];
+		this.departureStart = new int[routeCount + 1];
+		this.departures = new double[departureCount];
+		this.routeStopStop = new int[routeStopCount];
+		this.routeStopRoute = new int[routeStopCount];
+		this.routeStopArrivalOffset = new double[routeStopCount];
+		this.routeStopDepartureOffset = new double[routeStopCount];
+		this.routeStopDistance = new double[routeStopCount];
+		int[] routeStopsPerStop = new int[this.stops.length];
+
+		int rs = 0;
+		int d = 0;
+		for (int r = 0; r < routeCount; r++) {
+			TransitRoute route = this.routes[r];
+			this.routeStopStart[r] = rs;
+			this.departureStart[r] = d;
+			for (Departure departure : route.getDepartures().values()) {
+				this.departures[d++] = departure.getDepartureTime();
+			}
+			Arrays.sort(this.departures, this.departureStart[r], d);
+
+			Coord previousCoord = null;
+			double distance = 0.0;
+			for (TransitRouteStop routeStop : route.getStops()) {
+				Integer stopIndex = this.stopIndices.get(routeStop.getStopFacility().getId());
+				if (stopIndex == null) {
+					throw new RuntimeException("Stop " + routeStop.getStopFacility().getId() + " of route " + route.getId()
+							+ " is not part of the schedule's facilities.");
+				}
+				Coord coord = routeStop.getStopFacility().getCoord();
+				if (previousCoord != null) {
+					distance += CoordUtils.calcEuclideanDistance(previousCoord, coord);
+				}
+				previousCoord = coord;
+				double arrival = routeStop.getArrivalOffset();
+				double departure = routeStop.getDepartureOffset();
+				this.routeStopStop[rs] = stopIndex;
+				this.routeStopRoute[rs] = r;
+				this.routeStopArrivalOffset[rs] = arrival != Time.UNDEFINED_TIME ? arrival : departure;
+				this.routeStopDepartureOffset[rs] = departure != Time.UNDEFINED_TIME ? departure : arrival;
+				this.routeStopDistance[rs] = distance;
+				routeStopsPerStop[stopIndex]++;
+				rs++;
+			}
+		}
+		this.routeStopStart[routeCount] = rs;
+		this.departureStart[routeCount] = d;
+
+		// route stops per stop
+		this.stopRouteStopStart = new int[this.stops.length + 1];
+		for (int s = 0; s < this.stops.length; s++) {
+			this.stopRouteStopStart[s + 1] = this.stopRouteStopStart[s] + routeStopsPerStop[s];
+		}
+		this.stopRouteStops = new int[routeStopCount];
+		int[] fill = Arrays.copyOf(this.stopRouteStopStart, this.stops.length);
+		for (int i = 0; i < routeStopCount; i++) {
+			this.stopRouteStops[fill[this.routeStopStop[i]]++] = i;
+		}
+
+		// walk transfers between different stops
+		this.transferStart = new int[this.stops.length + 1];
+		List<Integer> toStops = new ArrayList<>();
+		List<Double> distances = new ArrayList<>();
+		for (int s = 0; s < this.stops.length; s++) {
+			this.transferStart[s] = toStops.size();
+			Coord coord = this.stops[s].getCoord();
+			for (TransitStopFacility other : this.stopsQuadTree.getDisk(coord.getX(), coord.getY(), maxBeelineWalkConnectionDistance)) {
+				if (other != this.stops[s]) {
+					toStops.add(this.stopIndices.get(other.getId()));
+					distances.add(CoordUtils.calcEuclideanDistance(coord, other.getCoord()));
+				}
+			}
+		}
+		this.transferStart[this.stops.length] = toStops.size();
+		this.transferToStop = new int[toStops.size()];
+		this.transferDistance = new double[toStops.size()];
+		for (int i = 0; i < this.transferToStop.length; i++) {
+			this.transferToStop[i] = toStops.get(i);
+			this.transferDistance[i] = distances.get(i);
+		}
+
+		log.info("raptor data: " + this.stops.length + " stops, " + routeCount + " routes, " + routeStopCount
+				+ " route stops, " + departureCount + " departures, " + this.transferToStop.length + " transfers.");
+	}
+
+	int getStopCount() {
+		return this.stops.length;
+	}
+
+	int getRouteCount() {
+		return this.routes.length;
+	}
+
+	/**
+	 * @return the index of the stop, or <code>-1</code> if it is not part of the schedule.
+	 */
+	int getStopIndex(final TransitStopFacility stop) {
+		Integer index = this.stopIndices.get(stop.getId());
+		return index == null ? -1 : index;
+	}
+
+	QuadTree<TransitStopFacility> getStopsQuadTree() {
+		return this.stopsQuadTree;
+	}
+
+	/**
+	 * @return the departure time at the first stop of the route of the earliest trip that leaves the given route stop
+	 * not before <code>time</code>, or {@link Double#NaN} if there is none.
+	 */
+	double findTrip(final int routeStop, final double time) {
+		int r = this.routeStopRoute[routeStop];
+		int from = this.departureStart[r];
+		int to = this.departureStart[r + 1];
+		if (from == to) {
+			return Double.NaN;
+		}
+		double timeAtFirstStop = time - this.routeStopDepartureOffset[routeStop];
+		double day = Math.floor(timeAtFirstStop / MIDNIGHT) * MIDNIGHT;
+		int pos = Arrays.binarySearch(this.departures, from, to, timeAtFirstStop - day);
+		if (pos < 0) {
+			pos = -(pos + 1);
+		}
+		if (pos == to) {
+			// no later departure on this day, take the first one of the next day
+			return this.departures[from] + day + MIDNIGHT;
+		}
+		return this.departures[pos] + day;
+	}
+
+}
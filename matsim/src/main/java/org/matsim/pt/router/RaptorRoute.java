@@ -0,0 +1,72 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.List;
+
+/**
+ * A route found by the {@link RaptorTransitRouter}, with the criteria it was compared by.  The times include the
+ * access and egress walks; the cost is the generalized cost of {@link TransitRouterNetworkTravelTimeAndDisutility},
+ * including access and egress.
+ */
+public final class RaptorRoute extends TransitPassengerRoute {
+
+	private final double departureTime;
+	private final double arrivalTime;
+	private final int numberOfTransfers;
+
+	RaptorRoute(double cost, List<RouteSegment> route, double departureTime, double arrivalTime, int numberOfTransfers) {
+		super(cost, route);
+		this.departureTime = departureTime;
+		this.arrivalTime = arrivalTime;
+		this.numberOfTransfers = numberOfTransfers;
+	}
+
+	public double getDepartureTime() {
+		return this.departureTime;
+	}
+
+	public double getArrivalTime() {
+		return this.arrivalTime;
+	}
+
+	public int getNumberOfTransfers() {
+		return this.numberOfTransfers;
+	}
+
+	/**
+	 * @return <code>true</code> if this route is at least as good as the other one in arrival time, transfers and
+	 * cost, and better in at least one of them.
+	 */
+	boolean dominates(final RaptorRoute other) {
+		boolean notWorse = this.arrivalTime <= other.arrivalTime && this.numberOfTransfers <= other.numberOfTransfers
+				&& this.getTravelCost() <= other.getTravelCost();
+		boolean better = this.arrivalTime < other.arrivalTime || this.numberOfTransfers < other.numberOfTransfers
+				|| this.getTravelCost() < other.getTravelCost();
+		return notWorse && better;
+	}
+
+	@Override
+	public String toString() {
+		return "[departure=" + this.departureTime + "][arrival=" + this.arrivalTime + "][transfers=" + this.numberOfTransfers
+				+ "] " + super.toString();
+	}
+
+}
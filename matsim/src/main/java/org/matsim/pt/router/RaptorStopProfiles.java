@@ -0,0 +1,224 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.Arrays;
+
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * The result of a one-to-all query of the {@link RaptorTransitRouter}: for every stop, the departures from the origin
+ * that lead to an earlier arrival at the stop than any later departure ("profile").  Each entry consists of the
+ * departure time at the origin, the arrival time at the stop, the number of transfers and the generalized cost
+ * (including the access walk).  The entries of a stop are sorted by departure time, and thus also by arrival time.
+ * <p></p>
+ * For a query with a single departure time, every reachable stop has exactly one entry.
+ */
+public final class RaptorStopProfiles {
+
+	private final RaptorData data;
+	private final double earliestDepartureTime;
+	private final double latestDepartureTime;
+	private final int[] entryStart;
+	private final double[] departureTimes;
+	private final double[] arrivalTimes;
+	private final int[] transfers;
+	private final double[] costs;
+
+	private RaptorStopProfiles(final Builder builder) {
+		this.data = builder.data;
+		this.earliestDepartureTime = builder.earliestDepartureTime;
+		this.latestDepartureTime = builder.latestDepartureTime;
+		int stopCount = this.data.getStopCount();
+		int count = builder.count;
+		this.entryStart = new int[stopCount + 1];
+		for (int i = 0; i < count; i++) {
+			this.entryStart[builder.stops[i] + 1]++;
+		}
+		for (int s = 0; s < stopCount; s++) {
+			this.entryStart[s + 1] += this.entryStart[s];
+		}
+		this.departureTimes = new double[count];
+		this.arrivalTimes = new double[count];
+		this.transfers = new int[count];
+		this.costs = new double[count];
+		// the entries were added from the latest departure to the earliest one, so fill each stop from the back
+		int[] fill = Arrays.copyOfRange(this.entryStart, 1, stopCount + 1);
+		for (int i = 0; i < count; i++) {
+			int pos = --fill[builder.stops[i]];
+			this.departureTimes[pos] = builder.departureTimes[i];
+			this.arrivalTimes[pos] = builder.arrivalTimes[i];
+			this.transfers[pos] = builder.transfers[i];
+			this.costs[pos] = builder.costs[i];
+		}
+	}
+
+	public double getEarliestDepartureTime() {
+		return this.earliestDepartureTime;
+	}
+
+	public double getLatestDepartureTime() {
+		return this.latestDepartureTime;
+	}
+
+	public boolean isReachable(final TransitStopFacility stop) {
+		return getEntryCount(stop) > 0;
+	}
+
+	/**
+	 * @return the number of entries in the profile of the stop; <code>0</code> if the stop is not reachable.
+	 */
+	public int getEntryCount(final TransitStopFacility stop) {
+		int s = this.data.getStopIndex(stop);
+		return s < 0 ? 0 : this.entryStart[s + 1] - this.entryStart[s];
+	}
+
+	public double getDepartureTime(final TransitStopFacility stop, final int entry) {
+		return this.departureTimes[index(stop, entry)];
+	}
+
+	public double getArrivalTime(final TransitStopFacility stop, final int entry) {
+		return this.arrivalTimes[index(stop, entry)];
+	}
+
+	public int getNumberOfTransfers(final TransitStopFacility stop, final int entry) {
+		return this.transfers[index(stop, entry)];
+	}
+
+	public double getTravelCost(final TransitStopFacility stop, final int entry) {
+		return this.costs[index(stop, entry)];
+	}
+
+	/**
+	 * @return the earliest arrival at the stop when departing from the origin not before <code>departureTime</code>,
+	 * or {@link Double#POSITIVE_INFINITY} if the stop cannot be reached by a departure within the queried time window.
+	 */
+	public double getEarliestArrivalTime(final TransitStopFacility stop, final double departureTime) {
+		int s = this.data.getStopIndex(stop);
+		if (s < 0) {
+			return Double.POSITIVE_INFINITY;
+		}
+		int from = this.entryStart[s];
+		int to = this.entryStart[s + 1];
+		int pos = Arrays.binarySearch(this.departureTimes, from, to, departureTime);
+		if (pos < 0) {
+			pos = -(pos + 1);
+		}
+		return pos < to ? this.arrivalTimes[pos] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @return the least generalized cost of all entries of the stop, or {@link Double#POSITIVE_INFINITY} if it is not
+	 * reachable.
+	 */
+	public double getLeastTravelCost(final TransitStopFacility stop) {
+		int s = this.data.getStopIndex(stop);
+		double least = Double.POSITIVE_INFINITY;
+		if (s >= 0) {
+			for (int i = this.entryStart[s]; i < this.entryStart[s + 1]; i++) {
+				least = Math.min(least, this.costs[i]);
+			}
+		}
+		return least;
+	}
+
+	/**
+	 * The travel time to the stop averaged over all departure times from the beginning of the time window to the
+	 * last entry, assuming that travellers leave at any time and take the next entry, i.e. including the time they
+	 * wait at the origin.  Departure times after the last entry are not included, since the query does not know
+	 * when the next connection after the time window departs.
+	 *
+	 * @return the average travel time, or {@link Double#POSITIVE_INFINITY} if the stop is not reachable.
+	 */
+	public double getAverageTravelTime(final TransitStopFacility stop) {
+		int s = this.data.getStopIndex(stop);
+		if (s < 0 || this.entryStart[s] == this.entryStart[s + 1]) {
+			return Double.POSITIVE_INFINITY;
+		}
+		int last = this.entryStart[s + 1] - 1;
+		double windowEnd = this.departureTimes[last];
+		if (windowEnd <= this.earliestDepartureTime) {
+			return this.arrivalTimes[last] - windowEnd;
+		}
+		double sum = 0.0;
+		double previousDeparture = this.earliestDepartureTime;
+		for (int i = this.entryStart[s]; i <= last; i++) {
+			// integral of (arrival - t) for t from the previous departure to this one
+			double start = previousDeparture;
+			double end = this.departureTimes[i];
+			if (end > start) {
+				sum += (end - start) * (this.arrivalTimes[i] - (start + end) / 2.0);
+			}
+			previousDeparture = Math.max(previousDeparture, end);
+		}
+		return sum / (windowEnd - this.earliestDepartureTime);
+	}
+
+	private int index(final TransitStopFacility stop, final int entry) {
+		int s = this.data.getStopIndex(stop);
+		if (s < 0 || entry < 0 || entry >= this.entryStart[s + 1] - this.entryStart[s]) {
+			throw new IndexOutOfBoundsException("entry " + entry + " of stop " + stop.getId());
+		}
+		return this.entryStart[s] + entry;
+	}
+
+	/*package*/ static final class Builder {
+		private final RaptorData data;
+		private final double earliestDepartureTime;
+		private final double latestDepartureTime;
+		private int count = 0;
+		private int[] stops = new int[16];
+		private double[] departureTimes = new double[16];
+		private double[] arrivalTimes = new double[16];
+		private int[] transfers = new int[16];
+		private double[] costs = new double[16];
+
+		Builder(final RaptorData data, final double earliestDepartureTime, final double latestDepartureTime) {
+			this.data = data;
+			this.earliestDepartureTime = earliestDepartureTime;
+			this.latestDepartureTime = latestDepartureTime;
+		}
+
+		/**
+		 * Entries must be added from the latest departure to the earliest one.
+		 */
+		void add(final int stop, final double departureTime, final double arrivalTime, final int transfers, final double cost) {
+			if (this.count == this.stops.length) {
+				int size = this.count * 2;
+				this.stops = Arrays.copyOf(this.stops, size);
+				this.departureTimes = Arrays.copyOf(this.departureTimes, size);
+				this.arrivalTimes = Arrays.copyOf(this.arrivalTimes, size);
+				this.transfers = Arrays.copyOf(this.transfers, size);
+				this.costs = Arrays.copyOf(this.costs, size);
+			}
+			this.stops[this.count] = stop;
+			this.departureTimes[this.count] = departureTime;
+			this.arrivalTimes[this.count] = arrivalTime;
+			this.transfers[this.count] = transfers;
+			this.costs[this.count] = cost;
+			this.count++;
+		}
+
+		RaptorStopProfiles build() {
+			return new RaptorStopProfiles(this);
+		}
+	}
+
+}
@@ -0,0 +1,701 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.facilities.Facility;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * A transit router based on the RAPTOR algorithm (Delling, Pajor, Werneck: Round-Based Public Transit Routing,
+ * 2012).  Instead of a least-cost-path search on the {@link TransitRouterNetwork}, it scans the routes of the
+ * schedule in rounds, where round <i>k</i> finds the earliest arrival at every stop with <i>k</i> vehicles.  The
+ * schedule is kept in flat arrays in {@link RaptorData}, which can be shared by all router instances.
+ * <p></p>
+ * Three kinds of queries are supported:
+ * <ul>
+ * <li>{@link #calcParetoSet(Facility, Facility, double, Person)} returns all routes that are Pareto-optimal with
+ * respect to arrival time, number of transfers and generalized cost.  Arrival time and transfers are the criteria of
+ * the search itself; the cost is calculated for the routes found and used to filter them.</li>
+ * <li>{@link #calcRoute(Facility, Facility, double, Person)} returns the route with the least cost from that set, or
+ * a direct walk.  The cost is the same as in
+ * {@link TransitRouterNetworkTravelTimeAndDisutility}.</li>
+ * <li>{@link #calcRoutes(Facility, Facility, double, double, Person)} is a range query: all routes that depart within
+ * a time window and are not dominated by a route that departs later and arrives earlier with fewer transfers.</li>
+ * <li>{@link #calcStopArrivals(Coord, double, Person)} and {@link #calcStopProfiles(Coord, double, double, Person)} are
+ * one-to-all queries: the earliest arrival at every stop, for one departure time or for all departures within a time
+ * window, from a single search.  They are meant for accessibility calculations and skims, where one search per
+ * origin-destination pair would be far too slow.</li>
+ * </ul>
+ * In contrast to the cost-based routers, a route that arrives later than another one with the same number of
+ * transfers is never found, even if its cost is lower (e.g. because of shorter walks).  So
+ * {@link #calcRoute(Facility, Facility, double, Person)} does not always return the least-cost route of
+ * {@link TransitRouterImpl}; see {@link org.matsim.pt.config.TransitRouterConfigGroup#setRoutingAlgorithmType}.
+ * <p></p>
+ * Not thread-safe, since the labels of the search are kept between queries to avoid re-allocating them.  Use one
+ * instance per thread; see {@link RaptorTransitRouterFactory}.
+ */
+public class RaptorTransitRouter extends AbstractTransitRouter implements TransitRouter {
+
+	private final RaptorData data;
+
+	private final List<Round> rounds = new ArrayList<>();
+	private final double[] bestArrival;
+	private final int[] bestStamp;
+	private final int[] bestRound;
+	private final int[] bestIteration;
+	private final int[] improved; // stops whose best arrival improved in the current iteration
+	private int improvedCount = 0;
+	private double tracedDepartureTime;
+	private int searchId = 0;
+	private int iteration = 0;
+	private double targetBound = Double.POSITIVE_INFINITY;
+
+	private final double[] accessTime;
+	private final double[] accessCost;
+	private final double[] egressTime;
+	private final double[] egressCost;
+	private final List<TransitStopFacility> accessStops = new ArrayList<>();
+	private final List<TransitStopFacility> egressStops = new ArrayList<>();
+
+	private int[] marked;
+	private int markedCount = 0;
+	private int[] nextMarked;
+	private int nextMarkedCount = 0;
+	private final int[] markStamp;
+	private final int[] transitMarked;
+	private int transitMarkedCount = 0;
+	private final int[] transitMarkStamp;
+	private int markId = 0;
+
+	private final int[] routeQueue;
+	private int routeQueueCount = 0;
+	private final int[] routeQueuePosition;
+	private final int[] routeQueueStamp;
+
+	public RaptorTransitRouter(final TransitRouterConfig config, final TransitSchedule schedule) {
+		this(config, new RaptorData(schedule, config.getBeelineWalkConnectionDistance()),
+				new TransitRouterNetworkTravelTimeAndDisutility(config, new PreparedTransitSchedule(schedule)));
+	}
+
+	/**
+	 * @param travelDisutility is only used for the access, egress and direct walks.
+	 */
+	public RaptorTransitRouter(final TransitRouterConfig config, final RaptorData data, final TransitTravelDisutility travelDisutility) {
+		super(config, travelDisutility);
+		this.data = data;
+		int stopCount = data.getStopCount();
+		this.bestArrival = new double[stopCount];
+		this.bestStamp = new int[stopCount];
+		this.bestRound = new int[stopCount];
+		this.bestIteration = new int[stopCount];
+		this.improved = new int[stopCount];
+		this.accessTime = new double[stopCount];
+		this.accessCost = new double[stopCount];
+		this.egressTime = new double[stopCount];
+		this.egressCost = new double[stopCount];
+		this.marked = new int[stopCount];
+		this.nextMarked = new int[stopCount];
+		this.markStamp = new int[stopCount];
+		this.transitMarked = new int[stopCount];
+		this.transitMarkStamp = new int[stopCount];
+		int routeCount = data.getRouteCount();
+		this.routeQueue = new int[routeCount];
+		this.routeQueuePosition = new int[routeCount];
+		this.routeQueueStamp = new int[routeCount];
+	}
+
+	@Override
+	public List<Leg> calcRoute(final Facility fromFacility, final Facility toFacility, final double departureTime, final Person person) {
+		RaptorRoute best = null;
+		for (RaptorRoute route : calcParetoSet(fromFacility, toFacility, departureTime, person)) {
+			if (best == null || route.getTravelCost() < best.getTravelCost()
+					|| (route.getTravelCost() == best.getTravelCost() && route.getArrivalTime() < best.getArrivalTime())) {
+				best = route;
+			}
+		}
+		if (best == null) {
+			return createDirectWalkLegList(null, fromFacility.getCoord(), toFacility.getCoord());
+		}
+		double directWalkCost = getWalkDisutility(person, fromFacility.getCoord(), toFacility.getCoord());
+		if (directWalkCost * getConfig().getDirectWalkFactor() < best.getTravelCost()) {
+			return createDirectWalkLegList(null, fromFacility.getCoord(), toFacility.getCoord());
+		}
+		return createLegs(best, fromFacility, toFacility, person);
+	}
+
+	/**
+	 * Converts a route returned by one of the query methods into legs, like {@link #calcRoute(Facility, Facility, double, Person)}.
+	 */
+	public List<Leg> createLegs(final RaptorRoute route, final Facility fromFacility, final Facility toFacility, final Person person) {
+		return convertPassengerRouteToLegList(route.getDepartureTime(), route, fromFacility.getCoord(), toFacility.getCoord(), person);
+	}
+
+	/**
+	 * @return the routes departing at <code>departureTime</code> that are not dominated in arrival time, number of
+	 * transfers and cost, ordered by arrival time.  Empty if no transit route is found.  Direct walks are not included.
+	 */
+	public List<RaptorRoute> calcParetoSet(final Facility fromFacility, final Facility toFacility, final double departureTime, final Person person) {
+		if (!prepareQuery(fromFacility.getCoord(), toFacility.getCoord(), person)) {
+			return Collections.emptyList();
+		}
+		runIteration(departureTime);
+		List<RaptorRoute> candidates = new ArrayList<>();
+		collectRoutes(candidates);
+		List<RaptorRoute> result = new ArrayList<>();
+		for (RaptorRoute candidate : candidates) {
+			boolean dominated = false;
+			for (RaptorRoute other : candidates) {
+				if (other.dominates(candidate)) {
+					dominated = true;
+					break;
+				}
+			}
+			if (!dominated) {
+				result.add(candidate);
+			}
+		}
+		result.sort(Comparator.comparingDouble(RaptorRoute::getArrivalTime));
+		return result;
+	}
+
+	/**
+	 * Range query (rRAPTOR): finds the routes for all departures between <code>earliestDepartureTime</code> and
+	 * <code>latestDepartureTime</code> with a single set of labels, by running the search for every relevant
+	 * departure time from the latest to the earliest.
+	 *
+	 * @return the routes that are not dominated by another route with a later or equal departure, an earlier or equal
+	 * arrival and not more transfers, ordered by departure time.
+	 */
+	public List<RaptorRoute> calcRoutes(final Facility fromFacility, final Facility toFacility,
+			final double earliestDepartureTime, final double latestDepartureTime, final Person person) {
+		if (!prepareQuery(fromFacility.getCoord(), toFacility.getCoord(), person)) {
+			return Collections.emptyList();
+		}
+		double[] departureTimes = collectDepartureTimes(earliestDepartureTime, latestDepartureTime);
+		List<RaptorRoute> candidates = new ArrayList<>();
+		for (int i = departureTimes.length - 1; i >= 0; i--) {
+			if (i < departureTimes.length - 1 && departureTimes[i] == departureTimes[i + 1]) {
+				continue;
+			}
+			runIteration(departureTimes[i]);
+			collectRoutes(candidates);
+		}
+		List<RaptorRoute> result = new ArrayList<>();
+		for (int i = 0; i < candidates.size(); i++) {
+			RaptorRoute candidate = candidates.get(i);
+			boolean dominated = false;
+			for (int j = 0; j < candidates.size() && !dominated; j++) {
+				RaptorRoute other = candidates.get(j);
+				if (j != i && other.getDepartureTime() >= candidate.getDepartureTime()
+						&& other.getArrivalTime() <= candidate.getArrivalTime()
+						&& other.getNumberOfTransfers() <= candidate.getNumberOfTransfers()) {
+					boolean equal = other.getDepartureTime() == candidate.getDepartureTime()
+							&& other.getArrivalTime() == candidate.getArrivalTime()
+							&& other.getNumberOfTransfers() == candidate.getNumberOfTransfers();
+					// of equal routes, keep the cheapest one
+					dominated = !equal || other.getTravelCost() < candidate.getTravelCost()
+							|| (other.getTravelCost() == candidate.getTravelCost() && j < i);
+				}
+			}
+			if (!dominated) {
+				result.add(candidate);
+			}
+		}
+		result.sort(Comparator.comparingDouble(RaptorRoute::getDepartureTime).thenComparingDouble(RaptorRoute::getArrivalTime));
+		return result;
+	}
+
+	/**
+	 * One-to-all query: the earliest arrival at every stop that can be reached from <code>fromCoord</code> when
+	 * departing at <code>departureTime</code>.  Stops within walking distance of the origin are reached by walking.
+	 */
+	public RaptorStopProfiles calcStopArrivals(final Coord fromCoord, final double departureTime, final Person person) {
+		RaptorStopProfiles.Builder builder = new RaptorStopProfiles.Builder(this.data, departureTime, departureTime);
+		if (startSearch(fromCoord, person)) {
+			runIteration(departureTime);
+			recordImprovedStops(builder, departureTime);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * One-to-all range query: for every stop, the earliest arrivals for all departures from <code>fromCoord</code>
+	 * between <code>earliestDepartureTime</code> and <code>latestDepartureTime</code>, as a profile of departure and
+	 * arrival times (see {@link RaptorStopProfiles}).  All departure times share one set of labels, like in
+	 * {@link #calcRoutes(Facility, Facility, double, double, Person)}.
+	 */
+	public RaptorStopProfiles calcStopProfiles(final Coord fromCoord, final double earliestDepartureTime,
+			final double latestDepartureTime, final Person person) {
+		RaptorStopProfiles.Builder builder = new RaptorStopProfiles.Builder(this.data, earliestDepartureTime, latestDepartureTime);
+		if (startSearch(fromCoord, person)) {
+			double[] departureTimes = collectDepartureTimes(earliestDepartureTime, latestDepartureTime);
+			for (int i = departureTimes.length - 1; i >= 0; i--) {
+				if (i < departureTimes.length - 1 && departureTimes[i] == departureTimes[i + 1]) {
+					continue;
+				}
+				runIteration(departureTimes[i]);
+				recordImprovedStops(builder, departureTimes[i]);
+			}
+		}
+		return builder.build();
+	}
+
+	// ---
+
+	/**
+	 * Starts a new search: invalidates all labels and finds the access and egress stops.
+	 *
+	 * @return <code>false</code> if there are no access or egress stops.
+	 */
+	private boolean prepareQuery(final Coord fromCoord, final Coord toCoord, final Person person) {
+		startSearch(fromCoord, person);
+		findNearbyStops(toCoord, this.egressStops);
+		for (TransitStopFacility stop : this.egressStops) {
+			int s = this.data.getStopIndex(stop);
+			this.egressTime[s] = getWalkTime(person, stop.getCoord(), toCoord);
+			this.egressCost[s] = getWalkDisutility(person, stop.getCoord(), toCoord);
+		}
+		return !this.accessStops.isEmpty() && !this.egressStops.isEmpty();
+	}
+
+	/**
+	 * Invalidates all labels and finds the access stops.  There are no egress stops until they are set.
+	 *
+	 * @return <code>false</code> if there are no access stops.
+	 */
+	private boolean startSearch(final Coord fromCoord, final Person person) {
+		this.searchId++;
+		if (this.searchId == Integer.MAX_VALUE) {
+			Arrays.fill(this.bestStamp, 0);
+			for (Round round : this.rounds) {
+				round.clearStamps();
+			}
+			this.searchId = 1;
+		}
+		this.targetBound = Double.POSITIVE_INFINITY;
+
+		findNearbyStops(fromCoord, this.accessStops);
+		for (TransitStopFacility stop : this.accessStops) {
+			int s = this.data.getStopIndex(stop);
+			this.accessTime[s] = getWalkTime(person, fromCoord, stop.getCoord());
+			this.accessCost[s] = getWalkDisutility(person, fromCoord, stop.getCoord());
+		}
+		this.egressStops.clear();
+		return !this.accessStops.isEmpty();
+	}
+
+	/**
+	 * Same selection of stops as in {@link TransitRouterImpl}.
+	 */
+	private void findNearbyStops(final Coord coord, final List<TransitStopFacility> result) {
+		result.clear();
+		QuadTree<TransitStopFacility> quadTree = this.data.getStopsQuadTree();
+		if (quadTree.size() == 0) {
+			return;
+		}
+		Collection<TransitStopFacility> stops = quadTree.getDisk(coord.getX(), coord.getY(), getConfig().getSearchRadius());
+		if (stops.size() < 2) {
+			// also enlarge search area if only one stop found, maybe a second one is near the border of the search area
+			TransitStopFacility nearest = quadTree.getClosest(coord.getX(), coord.getY());
+			double distance = CoordUtils.calcEuclideanDistance(coord, nearest.getCoord());
+			stops = quadTree.getDisk(coord.getX(), coord.getY(), distance + getConfig().getExtensionRadius());
+		}
+		result.addAll(stops);
+	}
+
+	private double[] collectDepartureTimes(final double earliestDepartureTime, final double latestDepartureTime) {
+		double[] times = new double[64];
+		int count = 0;
+		for (TransitStopFacility stop : this.accessStops) {
+			int s = this.data.getStopIndex(stop);
+			double walk = this.accessTime[s];
+			for (int i = this.data.stopRouteStopStart[s]; i < this.data.stopRouteStopStart[s + 1]; i++) {
+				int rs = this.data.stopRouteStops[i];
+				int r = this.data.routeStopRoute[rs];
+				if (rs == this.data.routeStopStart[r + 1] - 1) {
+					continue; // nobody boards at the last stop
+				}
+				double offset = this.data.routeStopDepartureOffset[rs] - walk;
+				double firstDay = Math.floor((earliestDepartureTime - offset - RaptorData.MIDNIGHT) / RaptorData.MIDNIGHT) * RaptorData.MIDNIGHT;
+				for (double day = firstDay; day + offset <= latestDepartureTime; day += RaptorData.MIDNIGHT) {
+					for (int d = this.data.departureStart[r]; d < this.data.departureStart[r + 1]; d++) {
+						double time = this.data.departures[d] + day + offset;
+						if (time >= earliestDepartureTime && time <= latestDepartureTime) {
+							if (count == times.length) {
+								times = Arrays.copyOf(times, count * 2);
+							}
+							times[count++] = time;
+						}
+					}
+				}
+			}
+		}
+		times = Arrays.copyOf(times, count);
+		Arrays.sort(times);
+		return times;
+	}
+
+	/**
+	 * One run of RAPTOR for the given departure time.  Labels of earlier runs of the same search remain valid, which
+	 * is what makes the range query work: a route found for a later departure can also be used when departing earlier.
+	 */
+	private void runIteration(final double departureTime) {
+		this.iteration++;
+		nextMarkId();
+		this.markedCount = 0;
+		this.improvedCount = 0;
+
+		Round round0 = getRound(0);
+		for (TransitStopFacility stop : this.accessStops) {
+			int s = this.data.getStopIndex(stop);
+			double time = departureTime + this.accessTime[s];
+			if (!round0.hasArrival(s, this.searchId) || time < round0.arrival[s]) {
+				round0.setArrival(s, time, -1, this.searchId);
+				updateBest(s, time, 0);
+				if (this.markStamp[s] != this.markId) {
+					this.markStamp[s] = this.markId;
+					this.marked[this.markedCount++] = s;
+				}
+			}
+		}
+
+		double additionalTransferTime = getConfig().getAdditionalTransferTime();
+		double walkSpeed = getConfig().getBeelineWalkSpeed();
+		for (int k = 1; this.markedCount > 0; k++) {
+			Round previous = this.rounds.get(k - 1);
+			Round current = getRound(k);
+			queueRoutes();
+			nextMarkId();
+			this.nextMarkedCount = 0;
+			this.transitMarkedCount = 0;
+
+			// scan the routes
+			for (int q = 0; q < this.routeQueueCount; q++) {
+				int r = this.routeQueue[q];
+				int end = this.data.routeStopStart[r + 1];
+				double trip = Double.NaN;
+				int board = -1;
+				for (int i = this.routeQueuePosition[r]; i < end; i++) {
+					int s = this.data.routeStopStop[i];
+					if (board >= 0) {
+						double arrival = trip + this.data.routeStopArrivalOffset[i];
+						if (arrival < getBound(s)) {
+							current.setTransit(s, arrival, board, i, trip, this.iteration, this.searchId);
+							current.setArrival(s, arrival, -1, this.searchId);
+							updateBest(s, arrival, k);
+							if (this.transitMarkStamp[s] != this.markId) {
+								this.transitMarkStamp[s] = this.markId;
+								this.transitMarked[this.transitMarkedCount++] = s;
+							}
+							markNext(s);
+						}
+					}
+					if (i < end - 1 && previous.hasArrival(s, this.searchId)) {
+						double ready = previous.arrival[s];
+						if (k > 1 && previous.transferFrom[s] < 0) {
+							ready += additionalTransferTime; // line switch at the same stop
+						}
+						if (board < 0 || ready <= trip + this.data.routeStopDepartureOffset[i]) {
+							double earlierTrip = this.data.findTrip(i, ready);
+							if (!Double.isNaN(earlierTrip) && (board < 0 || earlierTrip < trip)) {
+								trip = earlierTrip;
+								board = i;
+							}
+						}
+					}
+				}
+			}
+
+			// walk transfers, only after arriving by a vehicle
+			for (int m = 0; m < this.transitMarkedCount; m++) {
+				int s = this.transitMarked[m];
+				double transitArrival = current.transitArrival[s];
+				for (int t = this.data.transferStart[s]; t < this.data.transferStart[s + 1]; t++) {
+					int toStop = this.data.transferToStop[t];
+					double arrival = transitArrival + this.data.transferDistance[t] / walkSpeed + additionalTransferTime;
+					if (arrival < getBound(toStop)) {
+						current.setArrival(toStop, arrival, s, this.searchId);
+						updateBest(toStop, arrival, k);
+						markNext(toStop);
+					}
+				}
+			}
+
+			for (TransitStopFacility stop : this.egressStops) {
+				int e = this.data.getStopIndex(stop);
+				if (current.hasTransit(e, this.searchId)) {
+					this.targetBound = Math.min(this.targetBound, current.transitArrival[e] + this.egressTime[e]);
+				}
+			}
+
+			int[] tmp = this.marked;
+			this.marked = this.nextMarked;
+			this.nextMarked = tmp;
+			this.markedCount = this.nextMarkedCount;
+		}
+	}
+
+	/**
+	 * Fills the route queue with all routes serving a marked stop, each with the first marked stop along the route.
+	 */
+	private void queueRoutes() {
+		this.routeQueueCount = 0;
+		int queueId = this.markId;
+		for (int m = 0; m < this.markedCount; m++) {
+			int s = this.marked[m];
+			for (int i = this.data.stopRouteStopStart[s]; i < this.data.stopRouteStopStart[s + 1]; i++) {
+				int rs = this.data.stopRouteStops[i];
+				int r = this.data.routeStopRoute[rs];
+				if (this.routeQueueStamp[r] != queueId) {
+					this.routeQueueStamp[r] = queueId;
+					this.routeQueuePosition[r] = rs;
+					this.routeQueue[this.routeQueueCount++] = r;
+				} else if (rs < this.routeQueuePosition[r]) {
+					this.routeQueuePosition[r] = rs;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds a route for every egress stop that was reached by a vehicle in the last iteration.
+	 */
+	private void collectRoutes(final List<RaptorRoute> result) {
+		for (int k = 1; k < this.rounds.size(); k++) {
+			Round round = this.rounds.get(k);
+			for (TransitStopFacility stop : this.egressStops) {
+				int e = this.data.getStopIndex(stop);
+				if (round.hasTransit(e, this.searchId) && round.transitIteration[e] == this.iteration) {
+					result.add(createRoute(k, e));
+				}
+			}
+		}
+	}
+
+	private RaptorRoute createRoute(final int round, final int egressStop) {
+		LinkedList<RouteSegment> segments = new LinkedList<>();
+		double cost = this.egressCost[egressStop] + traceBack(round, egressStop, segments);
+		double arrivalTime = this.rounds.get(round).transitArrival[egressStop] + this.egressTime[egressStop];
+		return new RaptorRoute(cost, segments, this.tracedDepartureTime, arrivalTime, round - 1);
+	}
+
+	/**
+	 * Adds the stops whose earliest arrival was improved by the last iteration to the profiles.
+	 */
+	private void recordImprovedStops(final RaptorStopProfiles.Builder builder, final double departureTime) {
+		TransitRouterConfig config = getConfig();
+		for (int i = 0; i < this.improvedCount; i++) {
+			int s = this.improved[i];
+			int k = this.bestRound[s];
+			double cost;
+			if (k == 0) {
+				cost = this.accessCost[s];
+			} else {
+				Round round = this.rounds.get(k);
+				int from = round.transferFrom[s];
+				cost = 0.0;
+				if (from >= 0) {
+					// the final walk transfer, without line switch, since nobody boards here
+					double walkDistance = CoordUtils.calcEuclideanDistance(this.data.stops[from].getCoord(), this.data.stops[s].getCoord());
+					cost += - walkDistance / config.getBeelineWalkSpeed() * config.getMarginalUtilityOfTravelTimeWalk_utl_s()
+							- walkDistance * config.getMarginalUtilityOfTravelDistanceWalk_utl_m();
+				}
+				cost += traceBack(k, from >= 0 ? from : s, null);
+			}
+			builder.add(s, departureTime, this.bestArrival[s], Math.max(0, k - 1), cost);
+		}
+	}
+
+	/**
+	 * Follows the labels back from the arrival by vehicle at stop <code>s</code> in the given round to the origin,
+	 * and calculates the cost in the same way as {@link TransitRouterNetworkTravelTimeAndDisutility} would for the
+	 * corresponding path in the {@link TransitRouterNetwork}.  The departure time of the route is stored in
+	 * {@link #tracedDepartureTime}.
+	 *
+	 * @param segments if not <code>null</code>, the segments of the route are added to it
+	 * @return the cost from the origin to the arrival at <code>s</code>
+	 */
+	private double traceBack(final int round, final int stop, final LinkedList<RouteSegment> segments) {
+		TransitRouterConfig config = getConfig();
+		double additionalTransferTime = config.getAdditionalTransferTime();
+		double cost = 0.0;
+		int k = round;
+		int s = stop;
+		while (true) {
+			Round current = this.rounds.get(k);
+			Round previous = this.rounds.get(k - 1);
+			int board = current.transitBoard[s];
+			int alight = current.transitAlight[s];
+			int boardStop = this.data.routeStopStop[board];
+			int r = this.data.routeStopRoute[board];
+			double previousArrival = previous.arrival[boardStop];
+			boolean sameStopTransfer = k > 1 && previous.transferFrom[boardStop] < 0;
+			double ready = previousArrival + (sameStopTransfer ? additionalTransferTime : 0.0);
+			double vehicleArrival = current.transitTrip[s] + this.data.routeStopArrivalOffset[board];
+			double waitTime = Math.max(0.0, vehicleArrival - ready);
+			double inVehicleTime = current.transitArrival[s] - ready - waitTime;
+			double distance = this.data.routeStopDistance[alight] - this.data.routeStopDistance[board];
+			cost += - inVehicleTime * config.getMarginalUtilityOfTravelTimePt_utl_s()
+					- waitTime * config.getMarginalUtilityOfWaitingPt_utl_s()
+					- distance * config.getMarginalUtilityOfTravelDistancePt_utl_m();
+			if (segments != null) {
+				segments.addFirst(new RouteSegment(this.data.stops[boardStop], this.data.stops[s], current.transitArrival[s] - previousArrival,
+						this.data.routeLines[r].getId(), this.data.routes[r].getId()));
+			}
+
+			k--;
+			if (k == 0) {
+				this.tracedDepartureTime = previousArrival - this.accessTime[boardStop];
+				return cost + this.accessCost[boardStop];
+			}
+			if (sameStopTransfer) {
+				cost += - additionalTransferTime * config.getMarginalUtilityOfWaitingPt_utl_s() - config.getUtilityOfLineSwitch_utl();
+				s = boardStop;
+			} else {
+				int fromStop = previous.transferFrom[boardStop];
+				double walkDistance = CoordUtils.calcEuclideanDistance(this.data.stops[fromStop].getCoord(), this.data.stops[boardStop].getCoord());
+				double walkTime = walkDistance / config.getBeelineWalkSpeed();
+				cost += - walkTime * config.getMarginalUtilityOfTravelTimeWalk_utl_s()
+						- walkDistance * config.getMarginalUtilityOfTravelDistanceWalk_utl_m()
+						- additionalTransferTime * config.getMarginalUtilityOfWaitingPt_utl_s()
+						- config.getUtilityOfLineSwitch_utl();
+				if (segments != null) {
+					segments.addFirst(new RouteSegment(this.data.stops[fromStop], this.data.stops[boardStop], walkTime + additionalTransferTime, null, null));
+				}
+				s = fromStop;
+			}
+		}
+	}
+
+	private double getBound(final int s) {
+		double best = this.bestStamp[s] == this.searchId ? this.bestArrival[s] : Double.POSITIVE_INFINITY;
+		return Math.min(best, this.targetBound);
+	}
+
+	private void updateBest(final int s, final double time, final int round) {
+		if (this.bestStamp[s] != this.searchId || time < this.bestArrival[s]) {
+			this.bestStamp[s] = this.searchId;
+			this.bestArrival[s] = time;
+			this.bestRound[s] = round;
+			if (this.bestIteration[s] != this.iteration) {
+				this.bestIteration[s] = this.iteration;
+				this.improved[this.improvedCount++] = s;
+			}
+		}
+	}
+
+	private void markNext(final int s) {
+		if (this.markStamp[s] != this.markId) {
+			this.markStamp[s] = this.markId;
+			this.nextMarked[this.nextMarkedCount++] = s;
+		}
+	}
+
+	private void nextMarkId() {
+		this.markId++;
+		if (this.markId == Integer.MAX_VALUE) {
+			Arrays.fill(this.markStamp, 0);
+			Arrays.fill(this.transitMarkStamp, 0);
+			Arrays.fill(this.routeQueueStamp, 0);
+			this.markId = 1;
+		}
+	}
+
+	private Round getRound(final int k) {
+		while (this.rounds.size() <= k) {
+			this.rounds.add(new Round(this.data.getStopCount()));
+		}
+		return this.rounds.get(k);
+	}
+
+	/**
+	 * The labels of one round.  A label is valid if its stamp equals the id of the current search, so nothing needs
+	 * to be reset between searches.
+	 */
+	private static final class Round {
+		// best arrival, by vehicle or by a walk transfer after it
+		final double[] arrival;
+		final int[] arrivalStamp;
+		final int[] transferFrom; // -1 if not reached by a walk transfer
+
+		// arrival by vehicle
+		final double[] transitArrival;
+		final int[] transitStamp;
+		final int[] transitBoard; // route stop
+		final int[] transitAlight; // route stop
+		final double[] transitTrip; // departure time at the first stop
+		final int[] transitIteration;
+
+		Round(final int stopCount) {
+			this.arrival = new double[stopCount];
+			this.arrivalStamp = new int[stopCount];
+			this.transferFrom = new int[stopCount];
+			this.transitArrival = new double[stopCount];
+			this.transitStamp = new int[stopCount];
+			this.transitBoard = new int[stopCount];
+			this.transitAlight = new int[stopCount];
+			this.transitTrip = new double[stopCount];
+			this.transitIteration = new int[stopCount];
+		}
+
+		boolean hasArrival(final int s, final int searchId) {
+			return this.arrivalStamp[s] == searchId;
+		}
+
+		boolean hasTransit(final int s, final int searchId) {
+			return this.transitStamp[s] == searchId;
+		}
+
+		void setArrival(final int s, final double time, final int transferFrom, final int searchId) {
+			this.arrival[s] = time;
+			this.arrivalStamp[s] = searchId;
+			this.transferFrom[s] = transferFrom;
+		}
+
+		void setTransit(final int s, final double time, final int board, final int alight, final double trip, final int iteration, final int searchId) {
+			this.transitArrival[s] = time;
+			this.transitStamp[s] = searchId;
+			this.transitBoard[s] = board;
+			this.transitAlight[s] = alight;
+			this.transitTrip[s] = trip;
+			this.transitIteration[s] = iteration;
+		}
+
+		void clearStamps() {
+			Arrays.fill(this.arrivalStamp, 0);
+			Arrays.fill(this.transitStamp, 0);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * Creates {@link RaptorTransitRouter}s.  The {@link RaptorData} is built once and shared by all routers; each call
+ * to {@link #get()} returns a new router, since the routers themselves are not thread-safe.
+ */
+@Singleton
+public class RaptorTransitRouterFactory implements Provider<TransitRouter> {
+
+	private final TransitRouterConfig config;
+	private final TransitSchedule transitSchedule;
+	private RaptorData raptorData;
+	private PreparedTransitSchedule preparedTransitSchedule;
+
+	@Inject
+	RaptorTransitRouterFactory(final TransitSchedule schedule, final EventsManager events, final Config config) {
+		this(schedule, new TransitRouterConfig(
+				config.planCalcScore(),
+				config.plansCalcRoute(),
+				config.transitRouter(),
+				config.vspExperimental()));
+		events.addHandler((TransitScheduleChangedEventHandler) event -> {
+			raptorData = null;
+			preparedTransitSchedule = null;
+		});
+	}
+
+	public RaptorTransitRouterFactory(final TransitSchedule schedule, final TransitRouterConfig config) {
+		this.config = config;
+		this.transitSchedule = schedule;
+	}
+
+	@Override
+	public TransitRouter get() {
+		if (this.raptorData == null) {
+			this.raptorData = new RaptorData(this.transitSchedule, this.config.getBeelineWalkConnectionDistance());
+		}
+		if (this.preparedTransitSchedule == null) {
+			this.preparedTransitSchedule = new PreparedTransitSchedule(this.transitSchedule);
+		}
+
+		TransitRouterNetworkTravelTimeAndDisutility ttCalculator = new TransitRouterNetworkTravelTimeAndDisutility(this.config, this.preparedTransitSchedule);
+		return new RaptorTransitRouter(this.config, this.raptorData, ttCalculator);
+	}
+
+}
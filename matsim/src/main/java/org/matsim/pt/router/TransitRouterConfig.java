@@ -101,6 +101,8 @@ public class TransitRouterConfig implements MatsimParameters {
 	
 	private boolean cacheTree;
 
+	private String routerNetworkCacheDirectory;
+
 	public TransitRouterConfig(final Config config) {
 		this(config.planCalcScore(), config.plansCalcRoute(), config.transitRouter(), config.vspExperimental());
 	}
@@ -153,6 +155,7 @@ public class TransitRouterConfig implements MatsimParameters {
 		this.setAdditionalTransferTime(trConfig.getAdditionalTransferTime());
 		this.directWalkFactor = trConfig.getDirectWalkFactor() ;
 		this.cacheTree = trConfig.isCacheTree();
+		this.routerNetworkCacheDirectory = trConfig.getRouterNetworkCacheDirectory();
 	}
 
 	public void setUtilityOfLineSwitch_utl(final double utilityOfLineSwitch_utl_sec) {
@@ -273,4 +276,15 @@ public class TransitRouterConfig implements MatsimParameters {
 	public void setCacheTree(boolean cacheTree) {
 		this.cacheTree = cacheTree;
 	}
+
+	/**
+	 * @return the directory to cache the {@link TransitRouterNetwork} in, or <code>null</code> if it is not cached.
+	 */
+	public String getRouterNetworkCacheDirectory() {
+		return this.routerNetworkCacheDirectory;
+	}
+
+	public void setRouterNetworkCacheDirectory(String routerNetworkCacheDirectory) {
+		this.routerNetworkCacheDirectory = routerNetworkCacheDirectory;
+	}
 }
@@ -55,7 +55,7 @@ public class TransitRouterImpl extends AbstractTransitRouter implements TransitR
     public TransitRouterImpl(final TransitRouterConfig trConfig, final TransitSchedule schedule) {
         super(trConfig);
         this.transitNetwork = TransitRouterNetwork.createFromSchedule(schedule,
-                trConfig.getBeelineWalkConnectionDistance());
+                trConfig.getBeelineWalkConnectionDistance(), trConfig.getRouterNetworkCacheDirectory());
         this.preparedTransitSchedule = new PreparedTransitSchedule(schedule);
         TransitRouterNetworkTravelTimeAndDisutility transitRouterNetworkTravelTimeAndDisutility = new TransitRouterNetworkTravelTimeAndDisutility(
                 trConfig,
@@ -60,7 +60,8 @@ public class TransitRouterImplFactory implements Provider<TransitRouter> {
 	@Override
 	public TransitRouter get() {
 		if (this.routerNetwork == null) {
-			this.routerNetwork = TransitRouterNetwork.createFromSchedule(transitSchedule, this.config.getBeelineWalkConnectionDistance());
+			this.routerNetwork = TransitRouterNetwork.createFromSchedule(transitSchedule, this.config.getBeelineWalkConnectionDistance(),
+					this.config.getRouterNetworkCacheDirectory());
 		}
 		if (this.preparedTransitSchedule == null) {
 			this.preparedTransitSchedule = new PreparedTransitSchedule(transitSchedule);
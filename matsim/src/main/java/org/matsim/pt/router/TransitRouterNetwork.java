@@ -20,12 +20,18 @@
 
 package org.matsim.pt.router;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Coord;
@@ -36,7 +42,6 @@ import org.matsim.api.core.v01.network.NetworkFactory;
 import org.matsim.api.core.v01.network.Node;
 import org.matsim.core.utils.collections.IdentifiableArrayMap;
 import org.matsim.core.utils.collections.QuadTree;
-import org.matsim.core.utils.collections.Tuple;
 import org.matsim.core.utils.geometry.CoordUtils;
 import org.matsim.core.utils.misc.Counter;
 import org.matsim.core.utils.misc.Time;
@@ -399,6 +404,17 @@ public final class TransitRouterNetwork implements Network {
 	}
 
 	public static TransitRouterNetwork createFromSchedule(final TransitSchedule schedule, final double maxBeelineWalkConnectionDistance) {
+		return createFromSchedule(schedule, maxBeelineWalkConnectionDistance, null);
+	}
+
+	/**
+	 * Creates the network like {@link #createFromSchedule(TransitSchedule, double)}.  Searching the transfer links is
+	 * the expensive part on large schedules; it is done in parallel, and if <code>cacheDirectory</code> is not
+	 * <code>null</code>, the transfer links are stored there and read again the next time the network is created for
+	 * the same schedule and walk connection distance (see {@link TransitRouterNetworkCache}).
+	 */
+	public static TransitRouterNetwork createFromSchedule(final TransitSchedule schedule, final double maxBeelineWalkConnectionDistance,
+			final String cacheDirectory) {
 		log.info("start creating transit network");
 		final TransitRouterNetwork network = new TransitRouterNetwork();
 		final Counter linkCounter = new Counter(" link #");
@@ -427,34 +443,86 @@ public final class TransitRouterNetwork implements Network {
 		// links come in. mrieser, dec'10
 		log.info("add transfer links");
 
-		List<Tuple<TransitRouterNetworkNode, TransitRouterNetworkNode>> toBeAdded = new LinkedList<Tuple<TransitRouterNetworkNode, TransitRouterNetworkNode>>();
-		// connect all stops with walking links if they're located less than beelineWalkConnectionDistance from each other
-		for (TransitRouterNetworkNode node : network.getNodes().values()) {
-			if (node.getInLinks().size() > 0) { // only add links from this node to other nodes if agents actually can arrive here
-				for (TransitRouterNetworkNode node2 : network.getNearestNodes(node.stop.getStopFacility().getCoord(), maxBeelineWalkConnectionDistance)) {
-					if ((node != node2) && (node2.getOutLinks().size() > 0)) { // only add links to other nodes when agents can depart there
-						if ((node.line != node2.line) || (node.stop.getStopFacility() != node2.stop.getStopFacility())) {
-							// do not yet add them to the network, as this would change in/out-links
-							toBeAdded.add(new Tuple<TransitRouterNetworkNode, TransitRouterNetworkNode>(node, node2));
-						}
-					}
-				}
+		TransitRouterNetworkNode[] nodes = network.nodes.values().toArray(new TransitRouterNetworkNode[network.nodes.size()]);
+		TransitRouterNetworkCache cache = cacheDirectory == null ? null
+				: new TransitRouterNetworkCache(cacheDirectory, schedule, maxBeelineWalkConnectionDistance);
+		int[][] transfers = cache == null ? null : cache.read(nodes.length);
+		if (transfers == null) {
+			transfers = findTransfers(network, nodes, maxBeelineWalkConnectionDistance);
+			if (cache != null) {
+				cache.write(transfers);
 			}
 		}
-		log.info(toBeAdded.size() + " transfer links to be added.");
-		for (Tuple<TransitRouterNetworkNode, TransitRouterNetworkNode> tuple : toBeAdded) {
-			network.createLink(tuple.getFirst(), tuple.getSecond(), null, null);
-			linkCounter.incCounter();
+		// add them only now, as adding them while searching would change in/out-links
+		int transferCount = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			for (int j : transfers[i]) {
+				network.createLink(nodes[i], nodes[j], null, null);
+				linkCounter.incCounter();
+				transferCount++;
+			}
 		}
 
 		log.info("transit router network statistics:");
 		log.info(" # nodes: " + network.getNodes().size());
 		log.info(" # links total:     " + network.getLinks().size());
-		log.info(" # transfer links:  " + toBeAdded.size());
+		log.info(" # transfer links:  " + transferCount);
 
 		return network;
 	}
 
+	/**
+	 * Connects all stops with walking links if they're located less than beelineWalkConnectionDistance from each other.
+	 * The nodes are split into chunks that are searched in parallel; the result is the same as a sequential search.
+	 *
+	 * @return for every node (by its index in <code>nodes</code>), the indices of the nodes it has a transfer link to.
+	 */
+	private static int[][] findTransfers(final TransitRouterNetwork network, final TransitRouterNetworkNode[] nodes,
+			final double maxBeelineWalkConnectionDistance) {
+		final Map<TransitRouterNetworkNode, Integer> indices = new IdentityHashMap<>();
+		for (int i = 0; i < nodes.length; i++) {
+			indices.put(nodes[i], i);
+		}
+		final int[][] transfers = new int[nodes.length][];
+		int nOfThreads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), nodes.length / 1000));
+		int chunkSize = (nodes.length + nOfThreads - 1) / Math.max(1, nOfThreads);
+		ExecutorService executor = Executors.newFixedThreadPool(nOfThreads);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int chunkStart = 0; chunkStart < nodes.length; chunkStart += chunkSize) {
+			final int from = chunkStart;
+			final int to = Math.min(nodes.length, chunkStart + chunkSize);
+			futures.add(executor.submit(() -> {
+				int[] buffer = new int[16];
+				for (int i = from; i < to; i++) {
+					TransitRouterNetworkNode node = nodes[i];
+					int count = 0;
+					if (node.getInLinks().size() > 0) { // only add links from this node to other nodes if agents actually can arrive here
+						for (TransitRouterNetworkNode node2 : network.getNearestNodes(node.stop.getStopFacility().getCoord(), maxBeelineWalkConnectionDistance)) {
+							if ((node != node2) && (node2.getOutLinks().size() > 0)) { // only add links to other nodes when agents can depart there
+								if ((node.line != node2.line) || (node.stop.getStopFacility() != node2.stop.getStopFacility())) {
+									if (count == buffer.length) {
+										buffer = Arrays.copyOf(buffer, count * 2);
+									}
+									buffer[count++] = indices.get(node2);
+								}
+							}
+						}
+					}
+					transfers[i] = Arrays.copyOf(buffer, count);
+				}
+			}));
+		}
+		executor.shutdown();
+		try {
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException(e);
+		}
+		return transfers;
+	}
+
 	@Override
 	public void setCapacityPeriod(double capPeriod) {
 		throw new RuntimeException("not implemented") ;
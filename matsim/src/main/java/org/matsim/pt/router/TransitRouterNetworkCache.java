@@ -0,0 +1,181 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.log4j.Logger;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+
+/**
+ * Binary cache of the transfer links of a {@link TransitRouterNetwork}.  The nodes and route links of the network
+ * are cheap to create from the schedule, but searching the transfer links is not, so only the transfer links are
+ * stored, as pairs of node indices.
+ * <p></p>
+ * The file name contains a checksum of everything the network depends on: the lines, routes and stops of the schedule
+ * (in iteration order, which determines the node indices), the stop coordinates and the walk connection distance.
+ * A changed schedule or config thus leads to a different file, and stale files are never read.  Departures do not
+ * affect the network and are not part of the checksum.
+ */
+/*package*/ final class TransitRouterNetworkCache {
+
+	private static final Logger log = Logger.getLogger(TransitRouterNetworkCache.class);
+
+	private static final int MAGIC = 0x4d545252; // "MTRR"
+	private static final int VERSION = 1;
+
+	private final File file;
+	private final byte[] checksum;
+
+	TransitRouterNetworkCache(final String directory, final TransitSchedule schedule, final double maxBeelineWalkConnectionDistance) {
+		this.checksum = calcChecksum(schedule, maxBeelineWalkConnectionDistance);
+		StringBuilder name = new StringBuilder("transitRouterNetwork-");
+		for (int i = 0; i < 12; i++) {
+			name.append(String.format("%02x", this.checksum[i]));
+		}
+		this.file = new File(directory, name.append(".bin").toString());
+	}
+
+	File getFile() {
+		return this.file;
+	}
+
+	/**
+	 * @return the transfers per node, or <code>null</code> if there is no valid cache file.
+	 */
+	int[][] read(final int nodeCount) {
+		if (!this.file.isFile()) {
+			log.info("no cached transit router network found at " + this.file);
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				log.warn("ignoring " + this.file + ": not a transit router network cache of this version.");
+				return null;
+			}
+			byte[] fileChecksum = new byte[in.readInt()];
+			in.readFully(fileChecksum);
+			if (!Arrays.equals(fileChecksum, this.checksum) || in.readInt() != nodeCount) {
+				log.warn("ignoring " + this.file + ": it was created for a different schedule.");
+				return null;
+			}
+			int[][] transfers = new int[nodeCount][];
+			for (int i = 0; i < nodeCount; i++) {
+				int[] toNodes = new int[in.readInt()];
+				for (int j = 0; j < toNodes.length; j++) {
+					toNodes[j] = in.readInt();
+					if (toNodes[j] < 0 || toNodes[j] >= nodeCount) {
+						log.warn("ignoring " + this.file + ": invalid node index " + toNodes[j]);
+						return null;
+					}
+				}
+				transfers[i] = toNodes;
+			}
+			log.info("read transfer links from " + this.file);
+			return transfers;
+		} catch (IOException e) {
+			log.warn("could not read " + this.file + ", the transfer links will be searched again.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Writes to a temporary file first, so that concurrent runs never see an incomplete file.  Failures are only
+	 * logged, since the cache is not essential.
+	 */
+	void write(final int[][] transfers) {
+		File directory = this.file.getAbsoluteFile().getParentFile();
+		File tmpFile = null;
+		try {
+			Files.createDirectories(directory.toPath());
+			tmpFile = File.createTempFile(this.file.getName(), ".tmp", directory);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(this.checksum.length);
+				out.write(this.checksum);
+				out.writeInt(transfers.length);
+				for (int[] toNodes : transfers) {
+					out.writeInt(toNodes.length);
+					for (int toNode : toNodes) {
+						out.writeInt(toNode);
+					}
+				}
+			}
+			Files.move(tmpFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info("wrote transfer links to " + this.file);
+		} catch (IOException e) {
+			log.warn("could not write transit router network cache " + this.file, e);
+			if (tmpFile != null) {
+				tmpFile.delete();
+			}
+		}
+	}
+
+	private static byte[] calcChecksum(final TransitSchedule schedule, final double maxBeelineWalkConnectionDistance) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		byte[] buffer = new byte[8];
+		update(digest, buffer, Double.doubleToLongBits(maxBeelineWalkConnectionDistance));
+		for (TransitLine line : schedule.getTransitLines().values()) {
+			digest.update(line.getId().toString().getBytes(StandardCharsets.UTF_8));
+			for (TransitRoute route : line.getRoutes().values()) {
+				digest.update((byte) 1);
+				digest.update(route.getId().toString().getBytes(StandardCharsets.UTF_8));
+				for (TransitRouteStop stop : route.getStops()) {
+					digest.update((byte) 2);
+					digest.update(stop.getStopFacility().getId().toString().getBytes(StandardCharsets.UTF_8));
+					update(digest, buffer, Double.doubleToLongBits(stop.getStopFacility().getCoord().getX()));
+					update(digest, buffer, Double.doubleToLongBits(stop.getStopFacility().getCoord().getY()));
+				}
+			}
+			digest.update((byte) 3);
+		}
+		return digest.digest();
+	}
+
+	private static void update(final MessageDigest digest, final byte[] buffer, final long value) {
+		for (int i = 0; i < 8; i++) {
+			buffer[i] = (byte) (value >>> (56 - 8 * i));
+		}
+		digest.update(buffer);
+	}
+
+}
@@ -0,0 +1,250 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ArrayLeastCostPathTree.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.utils.leastcostpathtree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Calculates a least-cost-path tree from one origin node to all other nodes of a network, like
+ * {@link LeastCostPathTree}, but stores the labels in arrays indexed by node and remembers the
+ * link over which each node was reached.  This allows to extract complete {@link Path}s to any
+ * number of destinations after a single search, so that it can replace many calls to a
+ * {@link org.matsim.core.router.util.LeastCostPathCalculator} with the same origin and departure time.
+ * <p></p>
+ * The network structure is kept in a {@link RoutingGraph}, which is immutable and can be shared by several
+ * trees, also on different threads.  A tree itself is not thread-safe, but can be re-used for
+ * several searches.
+ */
+public final class ArrayLeastCostPathTree {
+
+	private final RoutingGraph graph;
+	private final TravelTime travelTime;
+	private final TravelDisutility travelDisutility;
+
+	private double[] cost;
+	private double[] time;
+	private double[] distance;
+	private int[] comingFrom; // position in the out-links of the graph, -1 for the origin
+	private int[] visitedInSearch; // nodes with a label in the current search have the current search id
+	private int searchId = 0;
+
+	// indexed binary min-heap of node indices, ordered by cost
+	private int[] heap;
+	private int[] heapPosition;
+	private int heapSize = 0;
+
+	private Node origin = null;
+	private int originIndex = -1;
+	private double departureTime = Double.NaN;
+
+	public ArrayLeastCostPathTree(final RoutingGraph graph, final TravelTime travelTime, final TravelDisutility travelDisutility) {
+		this.graph = graph;
+		this.travelTime = travelTime;
+		this.travelDisutility = travelDisutility;
+		// (the labels are only allocated by the first search, since some users only need a tree now and then)
+	}
+
+	private void allocateLabels() {
+		int n = this.graph.getNodeCount();
+		this.cost = new double[n];
+		this.time = new double[n];
+		this.distance = new double[n];
+		this.comingFrom = new int[n];
+		this.visitedInSearch = new int[n];
+		this.heap = new int[n];
+		this.heapPosition = new int[n];
+		Arrays.fill(this.heapPosition, -1);
+	}
+
+	public void calculate(final Node origin, final double departureTime, final Person person, final Vehicle vehicle) {
+		int originIndex = this.graph.getNodeIndex(origin);
+		if (originIndex < 0) {
+			throw new IllegalArgumentException("Node " + origin.getId() + " is not part of the network of this tree.");
+		}
+		if (this.visitedInSearch == null) {
+			allocateLabels();
+		}
+		this.searchId++;
+		if (this.searchId == Integer.MAX_VALUE) {
+			Arrays.fill(this.visitedInSearch, 0);
+			this.searchId = 1;
+		}
+		this.origin = origin;
+		this.originIndex = originIndex;
+		this.departureTime = departureTime;
+
+		visit(originIndex, 0.0, departureTime, 0.0, -1);
+		while (this.heapSize > 0) {
+			int nodeIndex = poll();
+			double nodeCost = this.cost[nodeIndex];
+			double nodeTime = this.time[nodeIndex];
+			double nodeDistance = this.distance[nodeIndex];
+			for (int l = this.graph.getOutStart(nodeIndex), end = this.graph.getOutEnd(nodeIndex); l < end; l++) {
+				Link link = this.graph.getOutLink(l);
+				int toNode = this.graph.getOutLinkToNode(l);
+				double linkCost = this.travelDisutility.getLinkTravelDisutility(link, nodeTime, person, vehicle);
+				double newCost = nodeCost + linkCost;
+				if (this.visitedInSearch[toNode] != this.searchId) {
+					double linkTime = this.travelTime.getLinkTravelTime(link, nodeTime, person, vehicle);
+					visit(toNode, newCost, nodeTime + linkTime, nodeDistance + link.getLength(), l);
+				} else if (newCost < this.cost[toNode] && this.heapPosition[toNode] >= 0) {
+					double linkTime = this.travelTime.getLinkTravelTime(link, nodeTime, person, vehicle);
+					this.cost[toNode] = newCost;
+					this.time[toNode] = nodeTime + linkTime;
+					this.distance[toNode] = nodeDistance + link.getLength();
+					this.comingFrom[toNode] = l;
+					siftUp(this.heapPosition[toNode]);
+				}
+			}
+		}
+	}
+
+	public Node getOrigin() {
+		return this.origin;
+	}
+
+	public double getDepartureTime() {
+		return this.departureTime;
+	}
+
+	public boolean isReachable(final Node node) {
+		int index = this.graph.getNodeIndex(node);
+		return index >= 0 && this.visitedInSearch != null && this.visitedInSearch[index] == this.searchId;
+	}
+
+	/**
+	 * @return the cost to reach the node, or {@link Double#POSITIVE_INFINITY} if it cannot be reached.
+	 */
+	public double getCost(final Node node) {
+		return isReachable(node) ? this.cost[this.graph.getNodeIndex(node)] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @return the arrival time at the node, or {@link Double#POSITIVE_INFINITY} if it cannot be reached.
+	 */
+	public double getArrivalTime(final Node node) {
+		return isReachable(node) ? this.time[this.graph.getNodeIndex(node)] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @return the length of the least-cost path to the node, or {@link Double#POSITIVE_INFINITY} if it cannot be reached.
+	 */
+	public double getDistance(final Node node) {
+		return isReachable(node) ? this.distance[this.graph.getNodeIndex(node)] : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @return the least-cost path from the origin to the given node, or <code>null</code> if the node cannot be reached.
+	 */
+	public Path getPath(final Node toNode) {
+		if (this.originIndex < 0) {
+			throw new IllegalStateException("No tree calculated yet.");
+		}
+		if (!isReachable(toNode)) {
+			return null;
+		}
+		int nodeIndex = this.graph.getNodeIndex(toNode);
+		List<Node> nodes = new ArrayList<>();
+		List<Link> links = new ArrayList<>();
+		nodes.add(toNode);
+		int current = nodeIndex;
+		while (current != this.originIndex) {
+			Link link = this.graph.getOutLink(this.comingFrom[current]);
+			links.add(link);
+			nodes.add(link.getFromNode());
+			current = this.graph.getNodeIndex(link.getFromNode());
+		}
+		Collections.reverse(nodes);
+		Collections.reverse(links);
+		return new Path(nodes, links, this.time[nodeIndex] - this.departureTime, this.cost[nodeIndex]);
+	}
+
+	private void visit(final int nodeIndex, final double nodeCost, final double nodeTime, final double nodeDistance, final int link) {
+		this.visitedInSearch[nodeIndex] = this.searchId;
+		this.cost[nodeIndex] = nodeCost;
+		this.time[nodeIndex] = nodeTime;
+		this.distance[nodeIndex] = nodeDistance;
+		this.comingFrom[nodeIndex] = link;
+		this.heap[this.heapSize] = nodeIndex;
+		this.heapPosition[nodeIndex] = this.heapSize;
+		this.heapSize++;
+		siftUp(this.heapSize - 1);
+	}
+
+	private int poll() {
+		int first = this.heap[0];
+		this.heapPosition[first] = -1;
+		this.heapSize--;
+		if (this.heapSize > 0) {
+			int last = this.heap[this.heapSize];
+			this.heap[0] = last;
+			this.heapPosition[last] = 0;
+			siftDown(0);
+		}
+		return first;
+	}
+
+	private void siftUp(int position) {
+		int nodeIndex = this.heap[position];
+		double nodeCost = this.cost[nodeIndex];
+		while (position > 0) {
+			int parentPosition = (position - 1) >> 1;
+			int parent = this.heap[parentPosition];
+			if (this.cost[parent] <= nodeCost) break;
+			this.heap[position] = parent;
+			this.heapPosition[parent] = position;
+			position = parentPosition;
+		}
+		this.heap[position] = nodeIndex;
+		this.heapPosition[nodeIndex] = position;
+	}
+
+	private void siftDown(int position) {
+		int nodeIndex = this.heap[position];
+		double nodeCost = this.cost[nodeIndex];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= this.heapSize) break;
+			if (child + 1 < this.heapSize && this.cost[this.heap[child + 1]] < this.cost[this.heap[child]]) {
+				child++;
+			}
+			if (this.cost[this.heap[child]] >= nodeCost) break;
+			this.heap[position] = this.heap[child];
+			this.heapPosition[this.heap[position]] = position;
+			position = child;
+		}
+		this.heap[position] = nodeIndex;
+		this.heapPosition[nodeIndex] = position;
+	}
+
+}
@@ -0,0 +1,162 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.utils.leastcostpathtree;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.matrices.Matrices;
+import org.matsim.matrices.Matrix;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Calculates zone-to-zone travel time, distance and cost matrices ("skims") on a network.  Instead of one
+ * least-cost-path search per pair of zones, one {@link ArrayLeastCostPathTree} is calculated per origin zone and
+ * departure time, and all destinations are read from it.  The origins are distributed over several threads, which
+ * share one {@link RoutingGraph}; every thread re-uses its own tree for all its origins.
+ * <p></p>
+ * Each zone is represented by one node.  The trees are calculated without person and vehicle, so the travel times
+ * and disutilities must not depend on them.
+ */
+public final class NetworkSkimCalculator {
+
+	private static final Logger log = Logger.getLogger(NetworkSkimCalculator.class);
+
+	public static final String TRAVEL_TIME = "travelTime";
+	public static final String DISTANCE = "distance";
+	public static final String COST = "cost";
+
+	private final RoutingGraph graph;
+	private final TravelTime travelTime;
+	private final TravelDisutility travelDisutility;
+	private final int numberOfThreads;
+
+	public NetworkSkimCalculator(final Network network, final TravelTime travelTime, final TravelDisutility travelDisutility, final int numberOfThreads) {
+		this(new RoutingGraph(network), travelTime, travelDisutility, numberOfThreads);
+	}
+
+	public NetworkSkimCalculator(final RoutingGraph graph, final TravelTime travelTime, final TravelDisutility travelDisutility, final int numberOfThreads) {
+		this.graph = graph;
+		this.travelTime = travelTime;
+		this.travelDisutility = travelDisutility;
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+	}
+
+	/**
+	 * Calculates the skims for every departure time.  The result contains three matrices per departure time, with the
+	 * ids <code>travelTime_i</code>, <code>distance_i</code> and <code>cost_i</code>, where <code>i</code> is the index
+	 * of the departure time; the description of each matrix states its departure time.  Pairs of zones that are not
+	 * connected have no entry.
+	 *
+	 * @param zones the node representing each zone, by zone id
+	 */
+	public Matrices calculate(final Map<String, Node> zones, final double[] departureTimes) {
+		String[] zoneIds = zones.keySet().toArray(new String[zones.size()]);
+		Node[] zoneNodes = new Node[zoneIds.length];
+		for (int i = 0; i < zoneIds.length; i++) {
+			zoneNodes[i] = zones.get(zoneIds[i]);
+			if (this.graph.getNodeIndex(zoneNodes[i]) < 0) {
+				throw new IllegalArgumentException("Node " + zoneNodes[i].getId() + " of zone " + zoneIds[i] + " is not part of the network.");
+			}
+		}
+
+		Matrices matrices = new Matrices();
+		for (int b = 0; b < departureTimes.length; b++) {
+			log.info("calculating skims for " + zoneIds.length + " zones, departure at " + Time.writeTime(departureTimes[b]));
+			double[][] times = new double[zoneIds.length][];
+			double[][] distances = new double[zoneIds.length][];
+			double[][] costs = new double[zoneIds.length][];
+			calculateTimeBin(zoneNodes, departureTimes[b], times, distances, costs);
+
+			String when = ", departure at " + Time.writeTime(departureTimes[b]);
+			fillMatrix(matrices.createMatrix(TRAVEL_TIME + "_" + b, "travel time [s]" + when), zoneIds, times);
+			fillMatrix(matrices.createMatrix(DISTANCE + "_" + b, "distance [m]" + when), zoneIds, distances);
+			fillMatrix(matrices.createMatrix(COST + "_" + b, "travel disutility" + when), zoneIds, costs);
+		}
+		return matrices;
+	}
+
+	private void calculateTimeBin(final Node[] zoneNodes, final double departureTime,
+			final double[][] times, final double[][] distances, final double[][] costs) {
+		final AtomicInteger nextOrigin = new AtomicInteger();
+		List<Thread> threads = new ArrayList<>();
+		final List<Throwable> exceptions = new ArrayList<>();
+		int threadCount = Math.min(this.numberOfThreads, zoneNodes.length);
+		for (int t = 0; t < threadCount; t++) {
+			Thread thread = new Thread(() -> {
+				ArrayLeastCostPathTree tree = new ArrayLeastCostPathTree(this.graph, this.travelTime, this.travelDisutility);
+				int o;
+				while ((o = nextOrigin.getAndIncrement()) < zoneNodes.length) {
+					tree.calculate(zoneNodes[o], departureTime, (Person) null, (Vehicle) null);
+					double[] timeRow = new double[zoneNodes.length];
+					double[] distanceRow = new double[zoneNodes.length];
+					double[] costRow = new double[zoneNodes.length];
+					for (int d = 0; d < zoneNodes.length; d++) {
+						timeRow[d] = tree.getArrivalTime(zoneNodes[d]) - departureTime;
+						distanceRow[d] = tree.getDistance(zoneNodes[d]);
+						costRow[d] = tree.getCost(zoneNodes[d]);
+					}
+					times[o] = timeRow;
+					distances[o] = distanceRow;
+					costs[o] = costRow;
+				}
+			}, "NetworkSkims-" + t);
+			thread.setUncaughtExceptionHandler((th, e) -> {
+				synchronized (exceptions) {
+					exceptions.add(e);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		if (!exceptions.isEmpty()) {
+			throw new RuntimeException("Exception while calculating skims.", exceptions.get(0));
+		}
+	}
+
+	private static void fillMatrix(final Matrix matrix, final String[] zoneIds, final double[][] values) {
+		for (int o = 0; o < zoneIds.length; o++) {
+			for (int d = 0; d < zoneIds.length; d++) {
+				double value = values[o][d];
+				if (value != Double.POSITIVE_INFINITY) {
+					matrix.createAndAddEntry(zoneIds[o], zoneIds[d], value);
+				}
+			}
+		}
+	}
+
+}
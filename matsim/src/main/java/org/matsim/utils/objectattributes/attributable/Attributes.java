@@ -23,6 +23,11 @@ public final class Attributes {
 	private String[] keys = EMPTY_KEYS;
 	private Object[] values = EMPTY_VALUES;
 
+	// The copies made by AttributesUtils.copyTo share the arrays with the original until one of them is modified, since
+	// e.g. the attributes of copied plans are rarely changed afterwards.  Both then have this flag set, and copy the
+	// arrays before changing them in place.
+	private boolean shared = false;
+
 	@Override
 	public String toString() {
 		StringBuilder stb = new StringBuilder() ;
@@ -39,6 +44,7 @@ public final class Attributes {
 		final int insertion = Arrays.binarySearch( keys , attribute );
 
 		if ( insertion >= 0 ) {
+			unshare();
 			final Object prev = values[ insertion ];
 			values[ insertion ] = value;
 			return prev;
@@ -56,6 +62,7 @@ public final class Attributes {
 
 		keys[newIndex] = attribute;
 		values[newIndex] = value;
+		shared = false;
 
 		return null;
 	}
@@ -73,6 +80,7 @@ public final class Attributes {
 
 		if ( insertion < 0 ) return null;
 
+		unshare();
 		final Object prev = values[ insertion ];
 
 		for ( int i=insertion; i < keys.length - 1; i++ ) {
@@ -89,6 +97,28 @@ public final class Attributes {
 	public void clear() {
 		keys = EMPTY_KEYS;
 		values = EMPTY_VALUES;
+		shared = false;
+	}
+
+	/**
+	 * Makes this empty instance hold the same mappings as the other one, sharing the arrays until one of them is modified.
+	 */
+	/*package*/ void shareFrom( final Attributes other ) {
+		assert isEmpty();
+		keys = other.keys;
+		values = other.values;
+		if ( keys.length > 0 ) {
+			shared = true;
+			other.shared = true;
+		}
+	}
+
+	private void unshare() {
+		if ( shared ) {
+			keys = keys.clone();
+			values = values.clone();
+			shared = false;
+		}
 	}
 
 	/**
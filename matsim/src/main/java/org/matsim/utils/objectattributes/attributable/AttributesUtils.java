@@ -13,6 +13,11 @@ public class AttributesUtils {
 	 * which should be fine for 99.9% of the usecases of Attributes (value objects)
 	 */
 	public static void copyTo( Attributes from , Attributes to ) {
+		if ( to.isEmpty() ) {
+			// the usual case when copying an object: share the mappings until one of the two is changed
+			to.shareFrom( from );
+			return;
+		}
 		for ( Map.Entry<String, Object> entry : from.getAsMap().entrySet() ) {
 			to.putAttribute( entry.getKey() , entry.getValue() );
 		}
@@ -0,0 +1,214 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SnapshotBuffer.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.vis.snapshotwriters;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+
+/**
+ * A reusable, column-oriented copy of all agent positions of one snapshot. The mobsim thread copies the
+ * {@link AgentSnapshotInfo}s of a time step into primitive arrays, so that the info objects can be discarded
+ * immediately and the buffer can be handed over to a writer thread. The arrays only grow and are never
+ * re-allocated once they are large enough, so a buffer can be used for all snapshots of a mobsim run.
+ * <p></p>
+ * The buffer is read through {@link #get(int)}, which returns a new, independent copy of the given row.  Writers
+ * may thus keep the returned objects (e.g. until <code>endSnapshot</code>), also after the buffer has been cleared
+ * and refilled.  The copies are created on the thread that reads the buffer, i.e. not on the mobsim thread.
+ */
+final class SnapshotBuffer {
+
+	private static final int INITIAL_CAPACITY = 1024;
+	private static final AgentSnapshotInfo.AgentState[] STATES = AgentSnapshotInfo.AgentState.values();
+
+	private double time = -1;
+	private int size = 0;
+
+	private Id<Person>[] ids;
+	private double[] easting;
+	private double[] northing;
+	private double[] azimuth;
+	private double[] color;
+	private byte[] state;
+	private int[] user;
+
+	SnapshotBuffer() {
+		this(INITIAL_CAPACITY);
+	}
+
+	@SuppressWarnings("unchecked")
+	SnapshotBuffer(int initialCapacity) {
+		int capacity = Math.max(1, initialCapacity);
+		this.ids = new Id[capacity];
+		this.easting = new double[capacity];
+		this.northing = new double[capacity];
+		this.azimuth = new double[capacity];
+		this.color = new double[capacity];
+		this.state = new byte[capacity];
+		this.user = new int[capacity];
+	}
+
+	void setTime(double time) {
+		this.time = time;
+	}
+
+	double getTime() {
+		return this.time;
+	}
+
+	int size() {
+		return this.size;
+	}
+
+	int capacity() {
+		return this.ids.length;
+	}
+
+	void add(AgentSnapshotInfo info) {
+		if (this.size == this.ids.length) {
+			grow();
+		}
+		int i = this.size;
+		this.ids[i] = info.getId();
+		this.easting[i] = info.getEasting();
+		this.northing[i] = info.getNorthing();
+		this.azimuth[i] = info.getAzimuth();
+		this.color[i] = info.getColorValueBetweenZeroAndOne();
+		AgentSnapshotInfo.AgentState agentState = info.getAgentState();
+		this.state[i] = (byte) (agentState == null ? -1 : agentState.ordinal());
+		this.user[i] = info.getUserDefined();
+		this.size++;
+	}
+
+	/**
+	 * Returns a copy of the <code>index</code>-th agent of this snapshot. Every call returns a new object, which
+	 * does not depend on the buffer any more.
+	 */
+	AgentSnapshotInfo get(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("index " + index + ", size " + this.size);
+		}
+		byte s = this.state[index];
+		return new BufferedPosition(this.ids[index], this.easting[index], this.northing[index], this.azimuth[index],
+				this.color[index], s < 0 ? null : STATES[s], this.user[index]);
+	}
+
+	/**
+	 * Resets the buffer for the next snapshot, keeping the allocated arrays. Id references are cleared so that
+	 * a buffer does not keep ids of agents alive that have already left the simulation.
+	 */
+	void clear() {
+		Arrays.fill(this.ids, 0, this.size, null);
+		this.size = 0;
+		this.time = -1;
+	}
+
+	private void grow() {
+		int newCapacity = this.ids.length + (this.ids.length >> 1) + 1;
+		this.ids = Arrays.copyOf(this.ids, newCapacity);
+		this.easting = Arrays.copyOf(this.easting, newCapacity);
+		this.northing = Arrays.copyOf(this.northing, newCapacity);
+		this.azimuth = Arrays.copyOf(this.azimuth, newCapacity);
+		this.color = Arrays.copyOf(this.color, newCapacity);
+		this.state = Arrays.copyOf(this.state, newCapacity);
+		this.user = Arrays.copyOf(this.user, newCapacity);
+	}
+
+	private static final class BufferedPosition implements AgentSnapshotInfo {
+		private final Id<Person> id;
+		private final double easting;
+		private final double northing;
+		private final double azimuth;
+		private double color;
+		private AgentState agentState;
+		private int user;
+
+		BufferedPosition(Id<Person> id, double easting, double northing, double azimuth, double color,
+				AgentState agentState, int user) {
+			this.id = id;
+			this.easting = easting;
+			this.northing = northing;
+			this.azimuth = azimuth;
+			this.color = color;
+			this.agentState = agentState;
+			this.user = user;
+		}
+
+		@Override
+		public Id<Person> getId() {
+			return this.id;
+		}
+
+		@Override
+		public double getEasting() {
+			return this.easting;
+		}
+
+		@Override
+		public double getNorthing() {
+			return this.northing;
+		}
+
+		@Override
+		@Deprecated
+		public double getAzimuth() {
+			return this.azimuth;
+		}
+
+		@Override
+		public double getColorValueBetweenZeroAndOne() {
+			return this.color;
+		}
+
+		@Override
+		public void setColorValueBetweenZeroAndOne(double tmp) {
+			this.color = tmp;
+		}
+
+		@Override
+		public AgentState getAgentState() {
+			return this.agentState;
+		}
+
+		@Override
+		public void setAgentState(AgentState agentState) {
+			this.agentState = agentState;
+		}
+
+		@Override
+		public int getUserDefined() {
+			return this.user;
+		}
+
+		@Override
+		public void setUserDefined(int tmp) {
+			this.user = tmp;
+		}
+
+		@Override
+		public String toString() {
+			return "[agentId=" + getId() + "][easting=" + getEasting() + "][northing=" + getNorthing()
+					+ "][agentState=" + getAgentState() + "]";
+		}
+	}
+
+}
@@ -20,9 +20,8 @@
 
 package org.matsim.vis.snapshotwriters;
 
+import org.apache.log4j.Logger;
 import org.matsim.core.config.Config;
-import org.matsim.core.config.groups.ExternalMobimConfigGroup;
-import org.matsim.core.mobsim.framework.ObservableMobsim;
 import org.matsim.core.mobsim.framework.events.MobsimAfterSimStepEvent;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
 import org.matsim.core.mobsim.framework.events.MobsimInitializedEvent;
@@ -32,11 +31,23 @@ import org.matsim.core.mobsim.framework.listeners.MobsimInitializedListener;
 import org.matsim.core.mobsim.qsim.interfaces.Netsim;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+/**
+ * Collects the positions of all vehicles on the network every <code>snapshotPeriod</code> seconds and passes
+ * them to the registered {@link SnapshotWriter}s.
+ * <p></p>
+ * If {@link org.matsim.core.config.groups.QSimConfigGroup#getSnapshotWriterMaxLag()} is positive, the mobsim
+ * thread only copies the positions into a reusable {@link SnapshotBuffer} and a separate thread calls the
+ * writers (and thus does the formatting and compression).  At most <code>maxLag</code> snapshots can be pending;
+ * if the writer thread falls further behind, the mobsim blocks until a buffer becomes free again.  All
+ * calls to the writers happen on that one thread, so writers do not need to be thread-safe.
+ */
 public class SnapshotWriterManager implements MobsimBeforeCleanupListener, MobsimAfterSimStepListener, MobsimInitializedListener {
-	
+	private static final Logger log = Logger.getLogger(SnapshotWriterManager.class);
+
 	private final List<SnapshotWriter> snapshotWriters = new ArrayList<SnapshotWriter>();
 	
 	/** time since last snapshot */
@@ -44,10 +55,23 @@ public class SnapshotWriterManager implements MobsimBeforeCleanupListener, Mobsi
 
 	final private int snapshotPeriod;
 
+	final private int maxLag;
+
+	/** re-used between snapshots to collect the positions from the links */
+	private final List<AgentSnapshotInfo> positions = new ArrayList<>();
+
+	private BlockingQueue<SnapshotBuffer> freeBuffers = null;
+	private BlockingQueue<SnapshotBuffer> pendingBuffers = null;
+	private Thread writerThread = null;
+	private volatile Throwable writerException = null;
+
+	/** put into the pending queue to tell the writer thread that no more snapshots follow */
+	private static final SnapshotBuffer END_OF_SNAPSHOTS = new SnapshotBuffer(1);
+
 	public SnapshotWriterManager(Config config) {
 		snapshotPeriod = findSnapshotPeriod(config);
+		maxLag = config.qsim() != null ? config.qsim().getSnapshotWriterMaxLag() : 0;
 	}
-
 	// yuck
 	private int findSnapshotPeriod(Config config) {
 		if (config.qsim() != null) {
@@ -68,6 +92,53 @@ public class SnapshotWriterManager implements MobsimBeforeCleanupListener, Mobsi
 		if (this.snapshotTime < mobsim.getSimTimer().getSimStartTime()) {
 			this.snapshotTime += this.snapshotPeriod;
 		}
+		if (this.maxLag > 0 && !this.snapshotWriters.isEmpty()) {
+			startWriterThread();
+		}
+	}
+
+	private void startWriterThread() {
+		this.freeBuffers = new ArrayBlockingQueue<>(this.maxLag);
+		// one more slot for the end marker, so that shutdown never blocks:
+		this.pendingBuffers = new ArrayBlockingQueue<>(this.maxLag + 1);
+		for (int i = 0; i < this.maxLag; i++) {
+			this.freeBuffers.add(new SnapshotBuffer());
+		}
+		this.writerThread = new Thread(this::writeSnapshots, "SnapshotWriter");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+	}
+
+	private void writeSnapshots() {
+		try {
+			while (true) {
+				SnapshotBuffer buffer = this.pendingBuffers.take();
+				if (buffer == END_OF_SNAPSHOTS) {
+					return;
+				}
+				writeSnapshot(buffer);
+				buffer.clear();
+				this.freeBuffers.put(buffer);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Throwable e) {
+			this.writerException = e;
+			// unblock the mobsim thread, it will find the exception when it hands over the next snapshot
+			this.freeBuffers.clear();
+			this.freeBuffers.add(new SnapshotBuffer(1));
+		}
+	}
+
+	/*package*/ void writeSnapshot(SnapshotBuffer buffer) {
+		// (every writer gets its own copies of the positions, since some writers, e.g. OTFFileWriter, keep them until endSnapshot)
+		for (SnapshotWriter writer : this.snapshotWriters) {
+			writer.beginSnapshot(buffer.getTime());
+			for (int i = 0, n = buffer.size(); i < n; i++) {
+				writer.addAgent(buffer.get(i));
+			}
+			writer.endSnapshot();
+		}
 	}
 
 	@Override
@@ -76,6 +147,18 @@ public class SnapshotWriterManager implements MobsimBeforeCleanupListener, Mobsi
 	}
 
 	private void closeSnapshotWriters() {
+		if (this.writerThread != null) {
+			if (this.writerException == null) {
+				this.pendingBuffers.add(END_OF_SNAPSHOTS);
+			}
+			try {
+				this.writerThread.join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			this.writerThread = null;
+			checkWriterException();
+		}
 		for (SnapshotWriter writer : this.snapshotWriters) {
 			writer.finish();
 		}
@@ -92,21 +175,48 @@ public class SnapshotWriterManager implements MobsimBeforeCleanupListener, Mobsi
 	
 	private void doSnapshot(final double time, VisMobsim visMobsim) {
 		if (!this.snapshotWriters.isEmpty()) {
-			Collection<AgentSnapshotInfo> positions = new ArrayList<AgentSnapshotInfo>();
+			this.positions.clear();
 			for (VisLink link : visMobsim.getVisNetwork().getVisLinks().values()) {
-				link.getVisData().addAgentSnapshotInfo(positions);
+				link.getVisData().addAgentSnapshotInfo(this.positions);
 			}
 			
 			// We do not put non-network agents in movies.
 			// Otherwise, we would add snapshots from visMobsim.getNonNetworkAgentSnapshots() here.
-			
-			for (SnapshotWriter writer : this.snapshotWriters) {
-				writer.beginSnapshot(time);
-				for (AgentSnapshotInfo position : positions) {
-					writer.addAgent(position);
+
+			if (this.writerThread == null) {
+				for (SnapshotWriter writer : this.snapshotWriters) {
+					writer.beginSnapshot(time);
+					for (AgentSnapshotInfo position : this.positions) {
+						writer.addAgent(position);
+					}
+					writer.endSnapshot();
 				}
-				writer.endSnapshot();
+			} else {
+				handOverSnapshot(time);
 			}
+			this.positions.clear();
+		}
+	}
+
+	private void handOverSnapshot(final double time) {
+		SnapshotBuffer buffer;
+		try {
+			buffer = this.freeBuffers.take(); // blocks if the writer lags behind by maxLag snapshots
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		checkWriterException();
+		buffer.setTime(time);
+		for (AgentSnapshotInfo position : this.positions) {
+			buffer.add(position);
+		}
+		this.pendingBuffers.add(buffer);
+	}
+
+	private void checkWriterException() {
+		if (this.writerException != null) {
+			log.error("writing snapshots failed", this.writerException);
+			throw new RuntimeException("Exception while writing snapshots.", this.writerException);
 		}
 	}
 
@@ -34,6 +34,8 @@ import org.matsim.core.utils.io.IOUtils;
 public class TransimsSnapshotWriter implements SnapshotWriter {
 	private BufferedWriter out = null;
 	private double currentTime = -1;
+	private final StringBuilder line = new StringBuilder(128);
+	private char[] chars = new char[128];
 	
 	public static enum Labels { TIME, VEHICLE, EASTING, NORTHING, VELOCITY } ;
 
@@ -68,17 +70,26 @@ public class TransimsSnapshotWriter implements SnapshotWriter {
 		//drop all parking vehicles
 		if (position.getAgentState() == AgentSnapshotInfo.AgentState.PERSON_AT_ACTIVITY) return;
 
-		String buffer = position.getId().toString()
-					    			+ "\t" + (int)this.currentTime
-		                + "\t0\t0\t1\t0\t" + position.getColorValueBetweenZeroAndOne() // link(0), from node(0), lane(1), dist(0), speed
-		                + "\t1\t0\t" + position.getId().toString()   // vehtype(1), acceleration(0), driver-id
-		                + "\t0\t" + position.getEasting()   // # of passengers(0), easting
-		                + "\t" + position.getNorthing()
-		                + "\t0" // elevation
-		                + "\t0" // azimuth
-		                + "\t"+ "0" + "\n"; // user(0)
+		// re-use the builder, this is called for every vehicle in every snapshot
+		StringBuilder buffer = this.line;
+		buffer.setLength(0);
+		String id = position.getId().toString();
+		buffer.append(id)
+				.append('\t').append((int)this.currentTime)
+				.append("\t0\t0\t1\t0\t").append(position.getColorValueBetweenZeroAndOne()) // link(0), from node(0), lane(1), dist(0), speed
+				.append("\t1\t0\t").append(id)   // vehtype(1), acceleration(0), driver-id
+				.append("\t0\t").append(position.getEasting())   // # of passengers(0), easting
+				.append('\t').append(position.getNorthing())
+				.append("\t0") // elevation
+				.append("\t0") // azimuth
+				.append("\t0\n"); // user(0)
+		int length = buffer.length();
+		if (this.chars.length < length) {
+			this.chars = new char[2 * length];
+		}
+		buffer.getChars(0, length, this.chars, 0);
 		try {
-			out.write(buffer);
+			out.write(this.chars, 0, length);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
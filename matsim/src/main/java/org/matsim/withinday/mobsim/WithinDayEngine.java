@@ -32,9 +32,11 @@ import org.matsim.core.utils.misc.Time;
 import org.matsim.withinday.replanning.parallel.ParallelDuringActivityReplanner;
 import org.matsim.withinday.replanning.parallel.ParallelDuringLegReplanner;
 import org.matsim.withinday.replanning.parallel.ParallelInitialReplanner;
+import org.matsim.withinday.replanning.parallel.ParallelReplanner;
 import org.matsim.withinday.replanning.replanners.interfaces.WithinDayDuringActivityReplannerFactory;
 import org.matsim.withinday.replanning.replanners.interfaces.WithinDayDuringLegReplannerFactory;
 import org.matsim.withinday.replanning.replanners.interfaces.WithinDayInitialReplannerFactory;
+import org.matsim.withinday.utils.PathTreeCache;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -73,6 +75,8 @@ public class WithinDayEngine implements MobsimEngine, ActivityEndReschedulerProv
 	private ParallelDuringActivityReplanner parallelDuringActivityReplanner;
 	private ParallelDuringLegReplanner parallelDuringLegReplanner;
 	
+	private PathTreeCache pathTreeCache = null;
+	
 	private Map<WithinDayDuringActivityReplannerFactory, Tuple<Double, Double>> duringActivityReplannerFactory;
 	private Map<WithinDayDuringLegReplannerFactory, Tuple<Double, Double>> duringLegReplannerFactory;
 	
@@ -120,6 +124,20 @@ public class WithinDayEngine implements MobsimEngine, ActivityEndReschedulerProv
 		return duringLegReplanning;
 	}
 
+	/**
+	 * Enables batched replanning with shared path trees for all replanning modules.
+	 * The cache is cleared once at the beginning of each time step, so that the trees
+	 * are shared by all replanners of that time step.
+	 * 
+	 * @see ParallelReplanner#setPathTreeCache(PathTreeCache)
+	 */
+	public void setPathTreeCache(PathTreeCache pathTreeCache) {
+		this.pathTreeCache = pathTreeCache;
+		this.parallelInitialReplanner.setPathTreeCache(pathTreeCache);
+		this.parallelDuringActivityReplanner.setPathTreeCache(pathTreeCache);
+		this.parallelDuringLegReplanner.setPathTreeCache(pathTreeCache);
+	}
+
 	public void addIntialReplannerFactory(WithinDayInitialReplannerFactory factory) {
 		this.parallelInitialReplanner.addWithinDayReplannerFactory(factory);
 	}
@@ -157,6 +175,11 @@ public class WithinDayEngine implements MobsimEngine, ActivityEndReschedulerProv
 	@Override
 	public void doSimStep(double time) {
 	
+		// travel times may have changed since the last time step
+		if (this.pathTreeCache != null) {
+			this.pathTreeCache.reset();
+		}
+		
 		/*
 		 * Initial replanning (so far?) cannot be performed in the onPrepareSim()
 		 * method since the identifiers and replanners do not know the agents at
@@ -20,23 +20,31 @@
 
 package org.matsim.withinday.replanning.parallel;
 
-import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.withinday.replanning.identifiers.interfaces.AgentSelector;
 import org.matsim.withinday.replanning.replanners.interfaces.WithinDayReplanner;
 import org.matsim.withinday.replanning.replanners.interfaces.WithinDayReplannerFactory;
 import org.matsim.withinday.replanning.replanners.tools.ReplanningTask;
+import org.matsim.withinday.utils.PathTreeCache;
 
 /*
  * Abstract class that contains the basic elements that are needed
@@ -45,6 +53,12 @@ import org.matsim.withinday.replanning.replanners.tools.ReplanningTask;
  * Features like the creation of parallel running threads and the
  * split up of the replanning actions have to be implemented in
  * the subclasses.
+ * 
+ * The replanning runnables are executed by a fixed thread pool that is
+ * created once and kept over all iterations. If a PathTreeCache is set, the 
+ * replanning tasks of a time step are collected and handed over to the 
+ * runnables grouped by the agents' current links, so that agents starting
+ * from the same node are replanned together and can share one path tree.
  */
 public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? extends AgentSelector>> { 
 
@@ -69,13 +83,13 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 	protected int roundRobin = 0;
 	private int lastRoundRobin = 0;
 	protected AtomicBoolean hadException;
-	protected ExceptionHandler uncaughtExceptionHandler;
-	protected CyclicBarrier timeStepStartBarrier;
-	protected CyclicBarrier betweenReplannerBarrier;
-	protected CyclicBarrier timeStepEndBarrier;
+	protected ExecutorService pool;
 	
 	protected boolean simIsRunning = false;
 	
+	private PathTreeCache pathTreeCache = null;
+	private final List<ReplanningTask> batchedReplanningTasks = new ArrayList<>();
+	
 	public ParallelReplanner(int numOfThreads, EventsManager eventsManager) {
 		this.setNumberOfThreads(numOfThreads);
 		this.eventsManager = eventsManager;
@@ -87,20 +101,49 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 		
 		replanningRunnables = new InternalReplanningRunnable[numOfThreads];
 
-		this.timeStepStartBarrier = new CyclicBarrier(numOfThreads + 1);
-		this.betweenReplannerBarrier = new CyclicBarrier(numOfThreads);
-		this.timeStepEndBarrier = new CyclicBarrier(numOfThreads + 1);
-
 		// Do initial Setup of the Runnables
 		for (int i = 0; i < numOfThreads; i++) {
 			ReplanningRunnable replanningRunnable = new InternalReplanningRunnable(replannerName + " Thread" + i + " replanned plans: ");
-			replanningRunnable.setCyclicTimeStepStartBarrier(this.timeStepStartBarrier);
-			replanningRunnable.setBetweenReplannerBarrier(betweenReplannerBarrier);
-			replanningRunnable.setCyclicTimeStepEndBarrier(this.timeStepEndBarrier);
 			replanningRunnable.setEventsManager(eventsManager);
 			
 			replanningRunnables[i] = replanningRunnable;
 		}
+		
+		/*
+		 * The pool is kept over all iterations. Its threads are daemons, so
+		 * they do not prevent the JVM from terminating.
+		 */
+		this.pool = Executors.newFixedThreadPool(numOfThreads, new NamedThreadFactory(replannerName));
+	}
+
+	private static class NamedThreadFactory implements ThreadFactory {
+		private final String name;
+		private int count = 0;
+
+		NamedThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, this.name + count++);
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+	
+	/**
+	 * Enables batched replanning: the replanning tasks of a time step are grouped by
+	 * the agents' current links. The cache is not cleared here, since it is shared by
+	 * all replanners of a time step; this is done once per time step by the
+	 * {@link org.matsim.withinday.mobsim.WithinDayEngine}. The path calculators of the
+	 * replanners have to be created by {@link PathTreeCache#createPathCalculator} to
+	 * actually share the paths.
+	 * 
+	 * @param pathTreeCache the cache, or <code>null</code> to disable batching
+	 */
+	public final void setPathTreeCache(PathTreeCache pathTreeCache) {
+		this.pathTreeCache = pathTreeCache;
 	}
 
 	public final void onPrepareSim() {
@@ -127,42 +170,7 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 		}
 		
 		this.hadException = new AtomicBoolean(false);
-		this.uncaughtExceptionHandler = new ExceptionHandler(this.hadException, this.timeStepStartBarrier, 
-				this.betweenReplannerBarrier, this.timeStepEndBarrier);
-		
-		Thread[] replanningThreads = new Thread[numOfThreads];
-		
-		// initialize threads
-		for (int i = 0; i < numOfThreads; i++) {
-			Thread replanningThread = new Thread(replanningRunnables[i]);
-			Thread.setDefaultUncaughtExceptionHandler(this.uncaughtExceptionHandler);
-			replanningThread.setName(replannerName + i);
-			replanningThreads[i] = replanningThread;
-		}
-		
-		// finalize thread setup and start them
-		for (int i = 0; i < numOfThreads; i++) {
-			replanningRunnables[i].beforeSim();
-			Thread replanningThread = replanningThreads[i];
-			replanningThread.setDaemon(true);
-			replanningThread.start();
-		}
-
 		this.simIsRunning = true;
-		
-		/*
-		 * After initialization the threads are waiting at the
-		 * TimeStepEndBarrier. We trigger this Barrier once so
-		 * they wait at the TimeStepStartBarrier what has to be
-		 * their state if the run() method is called.
-		 */
-		try {
-			this.timeStepEndBarrier.await();
-		} catch (InterruptedException e) {
-			throw new RuntimeException(e);
-		} catch (BrokenBarrierException e) {
-			throw new RuntimeException(e);
-		}
 	}
 	
 	/*
@@ -175,29 +183,72 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 		else lastRoundRobin = roundRobin;
 
 		/*
-		 * If an exception occurred, at least one of the events replanning threads
-		 * has crashed. Therefore the remaining threads would get stuck at the
-		 * CyclicBarrier.
+		 * If an exception occurred, at least one of the replanning runnables
+		 * has crashed. We do not replan any further agents in that case.
 		 */
 		if (hadException.get()) {
 			return;
 		}
 		
-		try {
-			// set current time
-			for (ReplanningRunnable replanningRunnable : replanningRunnables) {
-				replanningRunnable.setTime(time);
-			}
+		if (this.pathTreeCache != null) {
+			this.addBatchedReplanningTasks();
+		}
 
-			this.timeStepStartBarrier.await();
+		// set current time
+		for (ReplanningRunnable replanningRunnable : replanningRunnables) {
+			replanningRunnable.setTime(time);
+		}
 
-			this.timeStepEndBarrier.await();
+		/*
+		 * Only instances of the same replanner run in parallel, therefore we 
+		 * wait until all runnables are done before the next replanner is started.
+		 */
+		List<Future<?>> futures = new ArrayList<>(numOfThreads);
+		for (Id<WithinDayReplanner> replannerId : new ArrayList<>(replanningRunnables[0].getWithinDayReplannerIds())) {
+			futures.clear();
+			for (ReplanningRunnable replanningRunnable : replanningRunnables) {
+				replanningRunnable.setWithinDayReplannerToRun(replannerId);
+				futures.add(this.pool.submit(replanningRunnable));
+			}
+			try {
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			} catch (ExecutionException e) {
+				this.hadException.set(true);
+				log.error("Exception while replanning with " + replannerName + ".", e.getCause());
+				throw new RuntimeException(e.getCause());
+			}
+		}
+	}
 
-		} catch (InterruptedException e) {
-			throw new RuntimeException(e);
-		} catch (BrokenBarrierException e) {
-	      	throw new RuntimeException(e);
+	/*
+	 * Hands over the collected tasks to the runnables, grouped by replanner and
+	 * by the current link of the agents.
+	 */
+	private void addBatchedReplanningTasks() {
+		Comparator<ReplanningTask> byReplanner = Comparator.comparing(ReplanningTask::getWithinDayReplannerId);
+		Comparator<ReplanningTask> byLink = Comparator.comparing(task -> task.getAgentToReplan().getCurrentLinkId(),
+				Comparator.nullsFirst(Comparator.<Id<Link>>naturalOrder()));
+		this.batchedReplanningTasks.sort(byReplanner.thenComparing(byLink));
+		
+		/*
+		 * Consecutive tasks with the same link are given to the same runnable. With a 
+		 * shared queue (the default), all runnables take their tasks from one queue anyway.
+		 */
+		int runnable = 0;
+		Id<Link> lastLinkId = null;
+		for (ReplanningTask replanningTask : this.batchedReplanningTasks) {
+			Id<Link> linkId = replanningTask.getAgentToReplan().getCurrentLinkId();
+			if (linkId == null || !linkId.equals(lastLinkId)) {
+				runnable = (runnable + 1) % this.numOfThreads;
+				lastLinkId = linkId;
+			}
+			this.replanningRunnables[runnable].addReplanningTask(replanningTask);
 		}
+		this.batchedReplanningTasks.clear();
 	}
 
 	public final void afterSim() {
@@ -213,13 +264,9 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 		roundRobin = 0;
 		lastRoundRobin = 0;
 		
-		/*
-		 * Calling the afterSim Method of the QSimEngineThreads
-		 * will set their simulationRunning flag to false.
-		 */
+		this.batchedReplanningTasks.clear();
+		
 		for (ReplanningRunnable runnable : this.replanningRunnables) {
-			runnable.afterSim();
-			
 			/*
 			 * Remove replanners from the runnables - now they are re-created from scratch
 			 * for each iteration.
@@ -229,19 +276,6 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 				runnable.removeWithinDayReplanner(factory.getId());
 			}
 		}
-
-		/*
-		 * Triggering the startBarrier of the QSimEngineThreads.
-		 * They will check whether the Simulation is still running.
-		 * It is not, so the Threads will stop running.
-		 */
-		try {
-			this.timeStepStartBarrier.await();
-		} catch (InterruptedException e) {
-			throw new RuntimeException(e);
-		} catch (BrokenBarrierException e) {
-			throw new RuntimeException(e);
-		}
 	}
 	
 	public final void addWithinDayReplannerFactory(T factory) {
@@ -288,7 +322,12 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 	}
 
 	public final void addReplanningTask(ReplanningTask replanningTask) {	
-		this.replanningRunnables[this.roundRobin % this.numOfThreads].addReplanningTask(replanningTask);
+		if (this.pathTreeCache != null) {
+			// handed over to the runnables at the beginning of run(time)
+			this.batchedReplanningTasks.add(replanningTask);
+		} else {
+			this.replanningRunnables[this.roundRobin % this.numOfThreads].addReplanningTask(replanningTask);
+		}
 		this.roundRobin++;
 	}
 
@@ -316,38 +355,4 @@ public abstract class ParallelReplanner<T extends WithinDayReplannerFactory<? ex
 		}
 				
 	}	// InternalReplanningThread
-	
-	/**
-	 * @author mrieser
-	 */
-	private static class ExceptionHandler implements UncaughtExceptionHandler {
-
-		private final AtomicBoolean hadException;
-		private final CyclicBarrier timeStepStartBarrier;
-		private final CyclicBarrier betweenReplannerBarrier;
-		private final CyclicBarrier timeStepEndBarrier;
-
-		public ExceptionHandler(final AtomicBoolean hadException, CyclicBarrier timeStepStartBarrier,
-				CyclicBarrier betweenReplannerBarrier, CyclicBarrier timeStepEndBarrier) {
-			this.hadException = hadException;
-			this.timeStepStartBarrier = timeStepStartBarrier;
-			this.betweenReplannerBarrier = betweenReplannerBarrier;
-			this.timeStepEndBarrier = timeStepEndBarrier;
-		}
-
-		@Override
-		public void uncaughtException(Thread t, Throwable e) {
-			this.hadException.set(true);
-			log.error("Thread " + t.getName() + " died with exception while replanning.", e);
-
-			/*
-			 * By reseting the barriers, they will throw a BrokenBarrierException
-			 * which again will stop the events processing threads.
-			 */
-			this.timeStepStartBarrier.reset();
-			this.betweenReplannerBarrier.reset();
-			this.timeStepEndBarrier.reset();
-		}
-
-	}
 }
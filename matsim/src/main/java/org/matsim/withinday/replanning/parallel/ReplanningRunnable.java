@@ -23,7 +23,6 @@ package org.matsim.withinday.replanning.parallel;
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Id;
 import org.matsim.core.api.experimental.events.EventsManager;
-import org.matsim.core.gbl.Gbl;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.utils.misc.Counter;
 import org.matsim.core.utils.misc.Time;
@@ -34,16 +33,19 @@ import org.matsim.withinday.replanning.replanners.tools.ReplanningTask;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Queue;
+import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.CyclicBarrier;
 
 /*
  * Typical Replanner Implementations should be able to use this 
  * Class method without any changes.
- * Override the doReplanning() method to implement the replanning functionality.
+ * 
+ * Each run() call processes the ReplanningTasks of one WithinDayReplanner,
+ * which has to be set before via setWithinDayReplannerToRun(...). The
+ * ParallelReplanner runs all its ReplanningRunnables for one replanner in
+ * its thread pool and waits until they are done before it continues with
+ * the next replanner.
  */
 public abstract class ReplanningRunnable implements Runnable {
 
@@ -51,7 +53,7 @@ public abstract class ReplanningRunnable implements Runnable {
 	
 	private Counter counter;
 	private double time = 0.0;
-	private volatile boolean simulationRunning = false;
+	private Id<WithinDayReplanner> withinDayReplannerToRun = null;
 	
 	/*
 	 *  The original WithinDayReplanners are initialized and assigned
@@ -63,18 +65,14 @@ public abstract class ReplanningRunnable implements Runnable {
 	
 	/*
 	 * Use one List of ReplanningTasks per WithinDayReplanner. By doing so
-	 * and by using a CyclicBarrier, it can be ensured that only instances
-	 * of the same WithinDayReplanner are run in parallel. Otherwise two
-	 * different Replanners on different Threads could try to replan the
-	 * same Agent.
+	 * and by running the replanners one after another, it can be ensured 
+	 * that only instances of the same WithinDayReplanner are run in parallel. 
+	 * Otherwise two different Replanners on different Threads could try to 
+	 * replan the same Agent.
 	 */
 	protected Map<Id<WithinDayReplanner>, Queue<ReplanningTask>> replanningTasks = new TreeMap<>();
     protected EventsManager eventsManager;
 	
-	protected CyclicBarrier timeStepStartBarrier;
-	protected CyclicBarrier betweenReplannerBarrier;
-	protected CyclicBarrier timeStepEndBarrier;
-	
 	public ReplanningRunnable(String counterText) {
 		counter = new Counter(counterText);
 	}
@@ -87,16 +85,15 @@ public abstract class ReplanningRunnable implements Runnable {
 		this.time = time;
 	}
 		
-	public final void setCyclicTimeStepStartBarrier(CyclicBarrier barrier) {
-		this.timeStepStartBarrier = barrier;
-	}
-	
-	public final void setBetweenReplannerBarrier(CyclicBarrier barrier) {
-		this.betweenReplannerBarrier = barrier;
+	public final void setWithinDayReplannerToRun(Id<WithinDayReplanner> withinDayReplannerId) {
+		this.withinDayReplannerToRun = withinDayReplannerId;
 	}
 	
-	public final void setCyclicTimeStepEndBarrier(CyclicBarrier barrier) {
-		this.timeStepEndBarrier = barrier;
+	/*
+	 * The ids of all added replanners, in the order in which they have to be run.
+	 */
+	public final Set<Id<WithinDayReplanner>> getWithinDayReplannerIds() {
+		return this.replanningTasks.keySet();
 	}
 
 	public final void addReplanningTask(ReplanningTask replanningTask) {
@@ -121,109 +118,64 @@ public abstract class ReplanningRunnable implements Runnable {
 		}
 	}
 	
-	public final void beforeSim() {
-		this.simulationRunning = true;
-	}
-	
-	public final void afterSim() {
-		this.simulationRunning = false;
-	}
-	
 	/*
 	 * Typical Replanner Implementations should be able to use 
 	 * this method without any Changes.
 	 */
-	private void doReplanning() throws InterruptedException, BrokenBarrierException {
+	private void doReplanning(Id<WithinDayReplanner> withinDayReplannerId) {
 
-		for (Entry<Id<WithinDayReplanner>, Queue<ReplanningTask>> entry : this.replanningTasks.entrySet()) {
-			
-			Id<WithinDayReplanner> withinDayReplannerId = entry.getKey();
-			Queue<ReplanningTask> queue = entry.getValue();
-			
-			WithinDayReplanner<? extends AgentSelector> withinDayReplanner = this.withinDayReplanners.get(withinDayReplannerId);
+		Queue<ReplanningTask> queue = this.replanningTasks.get(withinDayReplannerId);
+		WithinDayReplanner<? extends AgentSelector> withinDayReplanner = this.withinDayReplanners.get(withinDayReplannerId);
+		
+		if (withinDayReplannerId == null) {
+			log.error("WithinDayReplanner Id is null!");
+			return;
+		} else if (withinDayReplanner == null || queue == null) {
+			log.error("WithinDayReplanner is null!");
+			return;
+		}
+
+		// set time once per replanner and time step
+		withinDayReplanner.setTime(time);
+		
+		ReplanningTask replanningTask;
+		while (true) {
+			replanningTask = queue.poll();
 			
-			if (withinDayReplannerId == null) {
-				log.error("WithinDayReplanner Id is null!");
-				continue;
-			} else if (withinDayReplanner == null) {
-				log.error("WithinDayReplanner is null!");
+			// if no more elements are left in the queue, end while loop
+			if (replanningTask == null) break;
+
+			MobsimAgent withinDayAgent = replanningTask.getAgentToReplan();
+							
+			if (withinDayAgent == null) {
+				log.error("WithinDayAgent is null!");
 				continue;
 			}
-
-			// set time once per replanner and time step
-			withinDayReplanner.setTime(time);
 			
-			ReplanningTask replanningTask;
-			while (true) {
-				replanningTask = queue.poll();
-				
-				// if no more elements are left in the queue, end while loop
-				if (replanningTask == null) break;
-
-				MobsimAgent withinDayAgent = replanningTask.getAgentToReplan();
-								
-				if (withinDayAgent == null) {
-					log.error("WithinDayAgent is null!");
-					continue;
+			boolean replanningSuccessful = withinDayReplanner.doReplanning(withinDayAgent);
+			
+			if (!replanningSuccessful) {
+				log.error("Replanning was not successful! Replanner " + withinDayReplanner.getClass().toString() + 
+						", time " + Time.writeTime(time) + ", agent " + withinDayAgent.getId());
+			}
+			else {
+				/*
+				 * If the EventsManager is not null, we create an entry for the events log file.
+				 */
+				if (eventsManager != null) {
+					ReplanningEvent replanningEvent = new ReplanningEvent(time, withinDayAgent.getId(), 
+							withinDayReplanner.getClass().getSimpleName());
+					eventsManager.processEvent(replanningEvent);
 				}
 				
-				boolean replanningSuccessful = withinDayReplanner.doReplanning(withinDayAgent);
-				
-				if (!replanningSuccessful) {
-					log.error("Replanning was not successful! Replanner " + withinDayReplanner.getClass().toString() + 
-							", time " + Time.writeTime(time) + ", agent " + withinDayAgent.getId());
-				}
-				else {
-					/*
-					 * If the EventsManager is not null, we create an entry for the events log file.
-					 */
-					if (eventsManager != null) {
-						ReplanningEvent replanningEvent = new ReplanningEvent(time, withinDayAgent.getId(), 
-								withinDayReplanner.getClass().getSimpleName());
-						eventsManager.processEvent(replanningEvent);
-					}
-					
-					counter.incCounter();
-				}
+				counter.incCounter();
 			}
-			
-			/*
-			 * Wait here until all Threads have ended the replanning for the
-			 * current WithinDayReplanner.
-			 */
-			this.betweenReplannerBarrier.await();
 		}
 	}
 	
 	@Override
 	public final void run() {
-		while (simulationRunning) {
-			try {
-				/*
-				 * The End of the Replanning is synchronized with 
-				 * the TimeStepEndBarrier. If all Threads reach this Barrier
-				 * the main run() Thread can go on.
-				 * 
-				 * The Threads wait now at the TimeStepStartBarrier until
-				 * they are triggered again in the next TimeStep by the main run()
-				 * method.
-				 */
-				timeStepEndBarrier.await();
-					
-				timeStepStartBarrier.await();
-
-				if (!simulationRunning) {
-					Gbl.printCurrentThreadCpuTime();
-					return;
-				}
-				
-				doReplanning();
-			} catch (InterruptedException | BrokenBarrierException e) {
-				throw new RuntimeException(e);
-			}
-
-        }	// while Simulation Running
-
+		doReplanning(this.withinDayReplannerToRun);
 	}	// run()
 	
 }
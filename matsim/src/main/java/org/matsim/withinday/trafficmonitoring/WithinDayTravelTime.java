@@ -21,18 +21,21 @@
 package org.matsim.withinday.trafficmonitoring;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -53,7 +56,6 @@ import org.matsim.api.core.v01.events.handler.VehicleLeavesTrafficEventHandler;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.api.core.v01.population.Person;
-import org.matsim.core.gbl.Gbl;
 import org.matsim.core.mobsim.framework.events.MobsimAfterSimStepEvent;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
@@ -74,6 +76,11 @@ import org.matsim.vehicles.Vehicle;
 /**
  * Collects link travel times over a given time span (storedTravelTimesBinSize)
  * and calculates an average travel time over this time span.
+ * <p></p>
+ * Per time step, only links with travel times that entered or left the time
+ * window (or whose free speed changed) are updated.  If there are enough of 
+ * them, the update is split among the threads of a pool; if no link changed, 
+ * no thread is involved at all.
  * 
  * TODO:
  * - make storedTravelTimesBinSize configurable (e.g. via config)
@@ -91,10 +98,16 @@ public class WithinDayTravelTime implements TravelTime,
 
 	private Network network;
 
-	// Trips with no Activity on the current Link
+	// Trips with no Activity on the current Link. The TripBin of a vehicle is re-used for all link trips of a leg
+	// and removed when the vehicle leaves the traffic.
 	private Map<Id<Vehicle>, TripBin> regularActiveTrips; // VehicleId
 	private Map<Id<Link>, TravelTimeInfo> travelTimeInfos; // LinkId
 	
+	// Links that store trips or have a changed free speed; they are checked in every time step
+	private List<TravelTimeInfo> activeTravelTimeInfos;
+	// Active links whose mean travel time has to be re-calculated in the current time step
+	private final List<TravelTimeInfo> changedTravelTimeInfos = new ArrayList<>();
+	
 	private TravelTimeInfoProvider travelTimeInfoProvider;
 
 	// Links that are changed by network change events
@@ -104,10 +117,11 @@ public class WithinDayTravelTime implements TravelTime,
 	/*
 	 * For parallel Execution
 	 */
-	private CyclicBarrier startBarrier;
-	private CyclicBarrier endBarrier;
-	private UpdateMeanTravelTimesRunnable[] updateMeanTravelTimesRunnables;
+	private ExecutorService pool;
+	private UpdateMeanTravelTimesRunner[] updateMeanTravelTimesRunners;
 	private final int numOfThreads;
+	// below this number of changed links, updating them is cheaper than handing them over to the pool
+	private static final int MIN_CHANGED_LINKS_PER_THREAD = 250;
 
 	private final int infoTimeStep = 3600;
 	private int nextInfoTime = 0;
@@ -150,13 +164,14 @@ public class WithinDayTravelTime implements TravelTime,
 	private void init() {
 		this.regularActiveTrips = new HashMap<>();
 		this.travelTimeInfos = new ConcurrentHashMap<>();
+		this.activeTravelTimeInfos = new ArrayList<>();
+		this.changedTravelTimeInfos.clear();
 		this.changedLinksByTime = new TreeMap<>();
 		this.vehiclesToFilter = new HashSet<>();
 		
 		// one TravelTimeInfo per link:
 		for (Link link : this.network.getLinks().values()) {
-			TravelTimeInfo travelTimeInfo = new TravelTimeInfo();
-			this.travelTimeInfos.put(link.getId(), travelTimeInfo);
+			this.travelTimeInfos.put(link.getId(), new TravelTimeInfo(this.activeTravelTimeInfos));
 		}
 		
 		/*
@@ -255,10 +270,12 @@ public class WithinDayTravelTime implements TravelTime,
 		Id<Vehicle> vehicleId = event.getVehicleId();
 		double time = event.getTime();
 
-		TripBin tripBin = new TripBin();
+		TripBin tripBin = this.regularActiveTrips.get(vehicleId);
+		if (tripBin == null) {
+			tripBin = new TripBin();
+			this.regularActiveTrips.put(vehicleId, tripBin);
+		}
 		tripBin.enterTime = time;
-
-		this.regularActiveTrips.put(vehicleId, tripBin);
 	}
 
 	@Override
@@ -267,16 +284,13 @@ public class WithinDayTravelTime implements TravelTime,
 		Id<Vehicle> vehicleId = event.getVehicleId();
 		double time = event.getTime();
 
-		TripBin tripBin = this.regularActiveTrips.remove(vehicleId);
-		if (tripBin != null) {
-			tripBin.leaveTime = time;
-
-			double tripTime = tripBin.leaveTime - tripBin.enterTime;
+		TripBin tripBin = this.regularActiveTrips.get(vehicleId);
+		if (tripBin != null && tripBin.isActive()) {
+			double tripTime = time - tripBin.enterTime;
+			tripBin.deactivate();
 
 			TravelTimeInfo travelTimeInfo = this.travelTimeInfoProvider.getTravelTimeInfo(linkId);
-			travelTimeInfo.tripBins.add(tripBin);
-			travelTimeInfo.addedTravelTimes += tripTime;
-			travelTimeInfo.addedTrips++;
+			travelTimeInfo.addTrip(time, tripTime);
 
 			travelTimeInfo.checkActiveState();
 			travelTimeInfo.checkBinSize(tripTime);
@@ -373,6 +387,7 @@ public class WithinDayTravelTime implements TravelTime,
 				}
 				TravelTimeInfo travelTimeInfo = this.travelTimeInfoProvider.getTravelTimeInfo(link);
 				travelTimeInfo.init(freeSpeedTravelTime);
+				travelTimeInfo.changed = true;
 				travelTimeInfo.checkActiveState();	// ensure that the estimated link travel time is updated
 			}
 		}
@@ -410,32 +425,15 @@ public class WithinDayTravelTime implements TravelTime,
 	public void notifyMobsimBeforeCleanup(MobsimBeforeCleanupEvent e) {
 		problem = false ;
 		
-		/*
-		 * Calling the afterSim Method of the Threads will set their 
-		 * simulationRunning flag to false.
-		 */
-		for (UpdateMeanTravelTimesRunnable runnable : this.updateMeanTravelTimesRunnables) {
-			runnable.afterSim();
-		}
-
-		/*
-		 * Triggering the startBarrier of the UpdateMeanTravelTimesRunnables.
-		 * They will check whether the Simulation is still running.
-		 * It is not, so the Threads will terminate.
-		 */
-		try {
-			this.startBarrier.await();
-		} catch (InterruptedException | BrokenBarrierException ex) {
-			throw new RuntimeException(ex);
+		if (this.pool != null) {
+			this.pool.shutdown();
+			this.pool = null;
 		}
 	}
 	
 	private void printInfo(double time) {
 		if (time >= this.nextInfoTime) {
-			int activeLinks = 0;
-			for (UpdateMeanTravelTimesRunnable runnable : this.updateMeanTravelTimesRunnables) {
-				activeLinks += runnable.getActiveLinksCount();
-			}
+			int activeLinks = this.activeTravelTimeInfos.size();
 
 			log.info("WithinDayTravelTime at " + Time.writeTime(time) + " #links=" + activeLinks);
 
@@ -444,17 +442,33 @@ public class WithinDayTravelTime implements TravelTime,
 	}
 
 	private static class TripBin {
-		double enterTime;
-		double leaveTime;
+		double enterTime = Double.NaN;
+
+		boolean isActive() {
+			return !Double.isNaN(this.enterTime);
+		}
+
+		void deactivate() {
+			this.enterTime = Double.NaN;
+		}
 	}
 
 	/*package*/ static class TravelTimeInfo {
 
-		UpdateMeanTravelTimesRunnable runnable;
-		List<TripBin> tripBins = new ArrayList<>();
+		private final List<TravelTimeInfo> activeTravelTimeInfos;
+
+		/*
+		 * The trips within the current time window, oldest first, stored in a
+		 * ring buffer: leave time and travel time of trip i are at position
+		 * (firstTrip + i) % tripLeaveTimes.length. 
+		 */
+		private double[] tripLeaveTimes = new double[4];
+		private double[] tripTimes = new double[4];
+		private int firstTrip = 0;
+		private int numTrips = 0;
 
 		boolean isActive = false;
-		// int numActiveTrips = 0;
+		boolean changed = false; // trips were added or the free speed travel time has changed
 		int addedTrips = 0;
 		double addedTravelTimes = 0.0;
 		double sumTravelTimes = 0.0; // We cache the sum of the TravelTimes
@@ -467,6 +481,10 @@ public class WithinDayTravelTime implements TravelTime,
 		static Counter enlarge = new Counter("WithinDayTravelTime: enlarged time bin size: ");
 		static Counter shrink = new Counter("WithinDayTravelTime: shrunk time bin size: ");
 
+		/*package*/ TravelTimeInfo(List<TravelTimeInfo> activeTravelTimeInfos) {
+			this.activeTravelTimeInfos = activeTravelTimeInfos;
+		}
+
 		/*package*/ void init(double freeSpeedTravelTime) {
 			this.freeSpeedTravelTime = freeSpeedTravelTime;
 			this.dynamicBinSize = freeSpeedTravelTime * 2.5;
@@ -475,7 +493,7 @@ public class WithinDayTravelTime implements TravelTime,
 		/*package*/ void checkActiveState() {
 			if (!isActive) {
 				this.isActive = true;
-				runnable.addTravelTimeInfo(this);
+				this.activeTravelTimeInfos.add(this);
 			}
 		}
 
@@ -488,6 +506,56 @@ public class WithinDayTravelTime implements TravelTime,
 				shrink.incCounter();
 			}
 		}
+
+		/*package*/ void addTrip(double leaveTime, double tripTime) {
+			if (this.numTrips == this.tripLeaveTimes.length) {
+				// unroll the ring buffer into arrays of twice the size
+				int capacity = this.tripLeaveTimes.length;
+				double[] leaveTimes = new double[2 * capacity];
+				double[] times = new double[2 * capacity];
+				for (int i = 0; i < this.numTrips; i++) {
+					int j = (this.firstTrip + i) % capacity;
+					leaveTimes[i] = this.tripLeaveTimes[j];
+					times[i] = this.tripTimes[j];
+				}
+				this.tripLeaveTimes = leaveTimes;
+				this.tripTimes = times;
+				this.firstTrip = 0;
+			}
+			int pos = (this.firstTrip + this.numTrips) % this.tripLeaveTimes.length;
+			this.tripLeaveTimes[pos] = leaveTime;
+			this.tripTimes[pos] = tripTime;
+			this.numTrips++;
+
+			this.addedTravelTimes += tripTime;
+			this.addedTrips++;
+			this.changed = true;
+		}
+
+		/*package*/ int getNumTrips() {
+			return this.numTrips;
+		}
+
+		/*
+		 * Returns true if the oldest stored trip has left the time window.
+		 */
+		/*package*/ boolean hasExpiredTrips(double time) {
+			return this.numTrips > 0 && this.tripLeaveTimes[this.firstTrip] + this.dynamicBinSize < time;
+		}
+
+		/*
+		 * Removes all trips that have left the time window and returns the sum of their travel times.
+		 */
+		/*package*/ double removeExpiredTrips(double time) {
+			double removedTravelTimes = 0.0;
+			while (hasExpiredTrips(time)) {
+				removedTravelTimes += this.tripTimes[this.firstTrip];
+				this.firstTrip = (this.firstTrip + 1) % this.tripLeaveTimes.length;
+				this.numTrips--;
+			}
+			if (this.numTrips == 0) this.firstTrip = 0;
+			return removedTravelTimes;
+		}
 	}
 
 	/*
@@ -497,208 +565,149 @@ public class WithinDayTravelTime implements TravelTime,
 	 */
 
 	/*
-	 * The Threads are waiting at the TimeStepStartBarrier. We trigger them by
-	 * reaching this Barrier. Now the Threads will start moving the Nodes. We
-	 * wait until all of them reach the TimeStepEndBarrier to move on. We should
-	 * not have any Problems with Race Conditions because even if the Threads
-	 * would be faster than this Thread, means they reach the TimeStepEndBarrier
-	 * before this Method does, it should work anyway.
+	 * Collects the active links whose mean travel time may change in this time
+	 * step and updates them. Links without stored trips are deactivated and fall
+	 * back to their free speed travel time. If no link has changed, we are done
+	 * without involving any other thread. If only a few links have changed, they
+	 * are updated in this thread, otherwise they are split among the runners in 
+	 * the pool.
 	 */
 	private void run(double time) {
-
-		try {
-			// set current Time
-			for (UpdateMeanTravelTimesRunnable updateMeanTravelTimesRunnable : updateMeanTravelTimesRunnables) {
-				updateMeanTravelTimesRunnable.setTime(time);
+		this.changedTravelTimeInfos.clear();
+
+		int numActive = 0;
+		for (int i = 0; i < this.activeTravelTimeInfos.size(); i++) {
+			TravelTimeInfo travelTimeInfo = this.activeTravelTimeInfos.get(i);
+			if (travelTimeInfo.getNumTrips() == 0 && !travelTimeInfo.changed) {
+				/*
+				 * If no further trips are stored in the TravelTimeInfo,
+				 * we deactivate the link and ensure that its expected
+				 * travel time is its free speed travel time.
+				 */
+				travelTimeInfo.isActive = false;
+				travelTimeInfo.travelTime = travelTimeInfo.freeSpeedTravelTime;
+				continue;
 			}
+			this.activeTravelTimeInfos.set(numActive++, travelTimeInfo);
+			if (travelTimeInfo.changed || travelTimeInfo.hasExpiredTrips(time)) {
+				this.changedTravelTimeInfos.add(travelTimeInfo);
+			}
+		}
+		this.activeTravelTimeInfos.subList(numActive, this.activeTravelTimeInfos.size()).clear();
+
+		int numChanged = this.changedTravelTimeInfos.size();
+		if (numChanged == 0) return;
 
-			this.startBarrier.await();
+		int numRunners = this.pool == null ? 1 : Math.min(this.numOfThreads, numChanged / MIN_CHANGED_LINKS_PER_THREAD);
+		if (numRunners <= 1) {
+			for (TravelTimeInfo travelTimeInfo : this.changedTravelTimeInfos) {
+				calcBinTravelTime(time, travelTimeInfo);
+			}
+			return;
+		}
 
-			this.endBarrier.await();
-		} catch (InterruptedException | BrokenBarrierException e) {
+		int linksPerRunner = (numChanged + numRunners - 1) / numRunners;
+		for (int i = 0; i < numRunners; i++) {
+			int from = Math.min(numChanged, i * linksPerRunner);
+			int to = Math.min(numChanged, from + linksPerRunner);
+			this.updateMeanTravelTimesRunners[i].setWork(time, from, to);
+		}
+		try {
+			for (Future<Boolean> future : this.pool.invokeAll(Arrays.asList(this.updateMeanTravelTimesRunners).subList(0, numRunners))) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
 			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
 		}
 	}
 
 	private void initParallelThreads() {
-
-		this.startBarrier = new CyclicBarrier(numOfThreads + 1);
-		this.endBarrier = new CyclicBarrier(numOfThreads + 1);
-
-		Thread[] threads = new Thread[numOfThreads];
-		this.updateMeanTravelTimesRunnables = new UpdateMeanTravelTimesRunnable[numOfThreads];
-
-		// setup threads
-		for (int i = 0; i < numOfThreads; i++) {
-			UpdateMeanTravelTimesRunnable updateMeanTravelTimesRunnable = new UpdateMeanTravelTimesRunnable();
-			updateMeanTravelTimesRunnable.setStartBarrier(this.startBarrier);
-			updateMeanTravelTimesRunnable.setEndBarrier(this.endBarrier);
-			updateMeanTravelTimesRunnables[i] = updateMeanTravelTimesRunnable;
-			
-			Thread thread = new Thread(updateMeanTravelTimesRunnable);
-			thread.setName("UpdateMeanTravelTimes" + i);
-			thread.setDaemon(true); // make the Thread demons so they will terminate automatically
-			threads[i] = thread;
-			
-			thread.start();
+		if (this.pool != null) {
+			this.pool.shutdown();
+			this.pool = null;
 		}
+		if (this.numOfThreads <= 1) return;
 
-		/*
-		 * Assign the TravelTimeInfos to the Threads
-		 */
-		int roundRobin = 0;
-		for (TravelTimeInfo travelTimeInfo : this.travelTimeInfos.values()) {
-			travelTimeInfo.runnable = updateMeanTravelTimesRunnables[roundRobin % numOfThreads];
-			roundRobin++;
+		this.pool = Executors.newFixedThreadPool(this.numOfThreads, new NamedThreadFactory());
+		this.updateMeanTravelTimesRunners = new UpdateMeanTravelTimesRunner[this.numOfThreads];
+		for (int i = 0; i < this.numOfThreads; i++) {
+			this.updateMeanTravelTimesRunners[i] = new UpdateMeanTravelTimesRunner(this.changedTravelTimeInfos);
 		}
+	}
 
-		/*
-		 * After initialization the Threads are waiting at the endBarrier. We
-		 * trigger this Barrier once so they wait at the startBarrier what has
-		 * to be their state when the run() method is called.
-		 */
-		try {
-			this.endBarrier.await();
-		} catch (InterruptedException | BrokenBarrierException e) {
-			throw new RuntimeException(e);
+	private static class NamedThreadFactory implements ThreadFactory {
+		private int count = 0;
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "UpdateMeanTravelTimes" + count++);
+			thread.setDaemon(true); // make the Thread demons so they will terminate automatically
+			return thread;
 		}
 	}
 
 	/*
-	 * The thread class that updates the mean travel times.
+	 * Updates the mean travel times of a consecutive range of the changed links.
 	 */
-	private static class UpdateMeanTravelTimesRunnable implements Runnable {
+	private static class UpdateMeanTravelTimesRunner implements Callable<Boolean> {
 
-		private volatile boolean simulationRunning = true;
-		
-		private CyclicBarrier startBarrier = null;
-		private CyclicBarrier endBarrier = null;
-		
+		private final List<TravelTimeInfo> changedTravelTimeInfos;
 		private double time = Time.UNDEFINED_TIME;
-		private Collection<TravelTimeInfo> activeTravelTimeInfos;
-
-		public UpdateMeanTravelTimesRunnable() {
-			activeTravelTimeInfos = new ArrayList<>();
-		}
-
-		public void setStartBarrier(CyclicBarrier cyclicBarrier) {
-			this.startBarrier = cyclicBarrier;
-		}
-
-		public void setEndBarrier(CyclicBarrier cyclicBarrier) {
-			this.endBarrier = cyclicBarrier;
-		}
+		private int from = 0;
+		private int to = 0;
 
-		public void setTime(final double t) {
-			time = t;
+		UpdateMeanTravelTimesRunner(List<TravelTimeInfo> changedTravelTimeInfos) {
+			this.changedTravelTimeInfos = changedTravelTimeInfos;
 		}
 
-		public void addTravelTimeInfo(TravelTimeInfo travelTimeInfo) {
-			this.activeTravelTimeInfos.add(travelTimeInfo);
+		void setWork(final double t, final int from, final int to) {
+			this.time = t;
+			this.from = from;
+			this.to = to;
 		}
 
-		public int getActiveLinksCount() {
-			return this.activeTravelTimeInfos.size();
-		}
-
-		public void afterSim() {
-			this.simulationRunning = false;
-		}
-		
 		@Override
-		public void run() {
-
-			while (true) {
-				try {
-					/*
-					 * The End of the Moving is synchronized with the
-					 * endBarrier. If all Threads reach this Barrier the main
-					 * run() Thread can go on.
-					 * 
-					 * The Threads wait now at the startBarrier until they are
-					 * triggered again in the next TimeStep by the main run()
-					 * method.
-					 */
-					endBarrier.await();
-
-					startBarrier.await();
-
-					/*
-					 * Check if Simulation is still running.
-					 * Otherwise print CPU usage and end Thread.
-					 */
-					if (!simulationRunning) {
-						Gbl.printCurrentThreadCpuTime();
-						return;
-					}
-					
-					Iterator<TravelTimeInfo> iter = activeTravelTimeInfos.iterator();
-					while (iter.hasNext()) {
-						TravelTimeInfo travelTimeInfo = iter.next();
-						calcBinTravelTime(this.time, travelTimeInfo);
-
-						/*
-						 * If no further trips are stored in the TravelTimeInfo,
-						 * we deactivate the link and ensure that its expected
-						 * travel time is its free speed travel time.
-						 */
-						if (travelTimeInfo.tripBins.size() == 0) {
-							travelTimeInfo.isActive = false;
-							travelTimeInfo.travelTime = travelTimeInfo.freeSpeedTravelTime;
-							iter.remove();
-						}
-					}
-
-				} catch (InterruptedException | BrokenBarrierException e) {
-					throw new RuntimeException(e);
-				}
+		public Boolean call() {
+			for (int i = this.from; i < this.to; i++) {
+				calcBinTravelTime(this.time, this.changedTravelTimeInfos.get(i));
 			}
-		} // run()
+			return true;
+		}
+	}
 
-		private void calcBinTravelTime(double time, TravelTimeInfo travelTimeInfo) {
-			double removedTravelTimes = 0.0;
+	private static void calcBinTravelTime(double time, TravelTimeInfo travelTimeInfo) {
 
-			List<TripBin> tripBins = travelTimeInfo.tripBins;
-
-			// first remove old TravelTimes
-			Iterator<TripBin> iter = tripBins.iterator();
-			while (iter.hasNext()) {
-				TripBin tripBin = iter.next();
-				if (tripBin.leaveTime + travelTimeInfo.dynamicBinSize < time) {
-					double travelTime = tripBin.leaveTime - tripBin.enterTime;
-					removedTravelTimes += travelTime;
-					iter.remove();
-				} else break;
-			}
+		// first remove old TravelTimes
+		double removedTravelTimes = travelTimeInfo.removeExpiredTrips(time);
 
-			/*
-			 * We don't need an update if no Trips have been added or removed
-			 * within the current SimStep. The initial FreeSpeedTravelTime has
-			 * to be set correctly via setTravelTime!
-			 */
-//			if (removedTravelTimes == 0.0 && travelTimeInfo.addedTravelTimes == 0.0) return;
-			// yyyyyy does not work when a network change event comes in. If the old functionality was intentional, we need to talk:
-			// We are setting speed to zero in the bushfire, and if there is no car on the link already, no car will enter it
-			// (because of special within-day rerouting logic). kai, feb'18
+		/*
+		 * Links are only updated if trips have been added or removed within the 
+		 * current SimStep, or if their free speed travel time has changed 
+		 * (see run(time)). The initial FreeSpeedTravelTime has to be set 
+		 * correctly via setTravelTime!
+		 */
+		// (Before, all active links were updated in every time step. Network change events
+		// set the changed flag, so a speed of zero is also taken into account on empty links. kai, feb'18)
 
-			travelTimeInfo.sumTravelTimes = travelTimeInfo.sumTravelTimes - removedTravelTimes + travelTimeInfo.addedTravelTimes;
+		travelTimeInfo.sumTravelTimes = travelTimeInfo.sumTravelTimes - removedTravelTimes + travelTimeInfo.addedTravelTimes;
 
-			travelTimeInfo.addedTravelTimes = 0.0;
-			/*
-			 * Ensure that we don't allow TravelTimes shorter than the FreeSpeedTravelTime.
-			 */
-			double meanTravelTime = travelTimeInfo.freeSpeedTravelTime;
-			if (!tripBins.isEmpty()) meanTravelTime = travelTimeInfo.sumTravelTimes / tripBins.size();
+		travelTimeInfo.addedTravelTimes = 0.0;
+		travelTimeInfo.changed = false;
+		/*
+		 * Ensure that we don't allow TravelTimes shorter than the FreeSpeedTravelTime.
+		 */
+		double meanTravelTime = travelTimeInfo.freeSpeedTravelTime;
+		if (travelTimeInfo.getNumTrips() > 0) meanTravelTime = travelTimeInfo.sumTravelTimes / travelTimeInfo.getNumTrips();
 
-			if (meanTravelTime < travelTimeInfo.freeSpeedTravelTime) {
-//				log.warn("Mean TravelTime too short?");
-				// can happen when network change event came in with lower speed. kai, feb'18
-				travelTimeInfo.travelTime = travelTimeInfo.freeSpeedTravelTime;
-			} else {
-				travelTimeInfo.travelTime = meanTravelTime;
-			}
+		if (meanTravelTime < travelTimeInfo.freeSpeedTravelTime) {
+//			log.warn("Mean TravelTime too short?");
+			// can happen when network change event came in with lower speed. kai, feb'18
+			travelTimeInfo.travelTime = travelTimeInfo.freeSpeedTravelTime;
+		} else {
+			travelTimeInfo.travelTime = meanTravelTime;
 		}
-
-	} // ReplannerRunnable
+	}
 
 }
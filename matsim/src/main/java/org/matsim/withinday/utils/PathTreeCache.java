@@ -0,0 +1,191 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PathTreeCache.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.withinday.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.RoutingGraph;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.utils.leastcostpathtree.ArrayLeastCostPathTree;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Shares one-to-all least-cost-path trees between all replanners (and threads) of one within-day replanning
+ * time step.  If many agents are replanned from the same node at the same time, which is typical for
+ * evacuation or incident scenarios, one tree is calculated and all their routes are taken from it,
+ * instead of running a separate route search per agent.
+ * <p></p>
+ * A tree is only calculated once at least <code>minRequestsPerTree</code> routes have been requested from
+ * the same node and departure time; until then, requests are answered by the regular path calculator.
+ * The trees are calculated without person and vehicle, so this must only be used with travel times and
+ * disutilities that do not depend on them.
+ * <p></p>
+ * Register the cache at the {@link org.matsim.withinday.mobsim.WithinDayEngine}, which clears it at the
+ * beginning of each replanning step, and wrap the path calculators of the replanners with
+ * {@link #createPathCalculator(LeastCostPathCalculator)}.
+ */
+public final class PathTreeCache {
+
+	private final RoutingGraph graph;
+	private final TravelTime travelTime;
+	private final TravelDisutility travelDisutility;
+	private final int minRequestsPerTree;
+
+	private final Map<Key, AtomicInteger> requests = new ConcurrentHashMap<>();
+	// the calculation of a tree is memoized as a task, so that it does not run inside the map's lock:
+	private final Map<Key, FutureTask<ArrayLeastCostPathTree>> trees = new ConcurrentHashMap<>();
+	// trees are large, so they are re-used over time steps
+	private final ConcurrentLinkedQueue<ArrayLeastCostPathTree> freeTrees = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger treeCount = new AtomicInteger();
+	private final AtomicInteger pathsFromTrees = new AtomicInteger();
+
+	public PathTreeCache(Network network, TravelTime travelTime, TravelDisutility travelDisutility, int minRequestsPerTree) {
+		this.graph = new RoutingGraph(network);
+		this.travelTime = travelTime;
+		this.travelDisutility = travelDisutility;
+		this.minRequestsPerTree = Math.max(1, minRequestsPerTree);
+	}
+
+	/**
+	 * Discards all trees, since travel times may have changed.  Must not be called while routes are requested.
+	 */
+	public void reset() {
+		for (FutureTask<ArrayLeastCostPathTree> task : this.trees.values()) {
+			if (task.isDone() && !task.isCancelled()) {
+				try {
+					this.freeTrees.add(task.get());
+				} catch (InterruptedException | ExecutionException e) {
+					// (a failed calculation has already been reported to the requesting replanner; the tree is not re-used)
+				}
+			}
+		}
+		this.trees.clear();
+		this.requests.clear();
+	}
+
+	/**
+	 * @return a path calculator that takes the paths from the shared trees if possible, and otherwise
+	 * uses the given one.
+	 */
+	public LeastCostPathCalculator createPathCalculator(final LeastCostPathCalculator delegate) {
+		return (fromNode, toNode, starttime, person, vehicle) -> {
+			LeastCostPathCalculator.Path path = getPath(fromNode, toNode, starttime);
+			return path != null ? path : delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+		};
+	}
+
+	/**
+	 * @return the number of trees calculated since this cache was created.
+	 */
+	public int getTreeCount() {
+		return this.treeCount.get();
+	}
+
+	/**
+	 * @return the number of paths that were taken from a tree since this cache was created.
+	 */
+	public int getPathsFromTreesCount() {
+		return this.pathsFromTrees.get();
+	}
+
+	/**
+	 * @return the path, or <code>null</code> if it should be calculated by the regular path calculator.
+	 */
+	/*package*/ LeastCostPathCalculator.Path getPath(final Node fromNode, final Node toNode, final double departureTime) {
+		if (this.graph.getNodeIndex(fromNode) < 0 || this.graph.getNodeIndex(toNode) < 0) {
+			return null;
+		}
+		Key key = new Key(fromNode, departureTime);
+		FutureTask<ArrayLeastCostPathTree> task = this.trees.get(key);
+		if (task == null) {
+			int requestCount = this.requests.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+			if (requestCount < this.minRequestsPerTree) {
+				return null;
+			}
+			FutureTask<ArrayLeastCostPathTree> newTask = new FutureTask<>(() -> calculateTree(key));
+			task = this.trees.putIfAbsent(key, newTask);
+			if (task == null) {
+				// this thread calculates the tree; concurrent requests for the same key wait for it in getTree
+				task = newTask;
+				task.run();
+			}
+		}
+		LeastCostPathCalculator.Path path = getTree(task).getPath(toNode);
+		if (path != null) {
+			this.pathsFromTrees.incrementAndGet();
+		}
+		return path;
+	}
+
+	private static ArrayLeastCostPathTree getTree(final FutureTask<ArrayLeastCostPathTree> task) {
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Exception while calculating a least-cost path tree.", e.getCause());
+		}
+	}
+
+	private ArrayLeastCostPathTree calculateTree(final Key key) {
+		ArrayLeastCostPathTree tree = this.freeTrees.poll();
+		if (tree == null) {
+			tree = new ArrayLeastCostPathTree(this.graph, this.travelTime, this.travelDisutility);
+		}
+		tree.calculate(key.fromNode, key.departureTime, (Person) null, (Vehicle) null);
+		this.treeCount.incrementAndGet();
+		return tree;
+	}
+
+	private static final class Key {
+		private final Node fromNode;
+		private final double departureTime;
+
+		Key(Node fromNode, double departureTime) {
+			this.fromNode = fromNode;
+			this.departureTime = departureTime;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) return false;
+			Key other = (Key) obj;
+			return this.fromNode == other.fromNode && Double.compare(this.departureTime, other.departureTime) == 0;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * this.fromNode.getId().hashCode() + Double.hashCode(this.departureTime);
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IterationMetricsTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.analysis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class IterationMetricsTest {
+
+	@Rule public MatsimTestUtils util = new MatsimTestUtils();
+
+	@Test
+	public void testCountersAndTimers() {
+		IterationMetrics metrics = new IterationMetrics();
+		Assert.assertFalse(metrics.isEnabled());
+
+		IterationMetrics.Counter counter = metrics.getCounter("c");
+		Assert.assertSame(counter, metrics.getCounter("c"));
+		counter.increment();
+		counter.add(4);
+		Assert.assertEquals(5, counter.get());
+
+		IterationMetrics.Timer timer = metrics.getTimer("t");
+		for (int i = 1; i <= 100; i++) {
+			timer.record(i * 1000);
+		}
+		Assert.assertEquals(100, timer.getCount());
+		Assert.assertEquals(5050 * 1000, timer.getTotalNanos());
+		Assert.assertEquals(50500.0, timer.getMeanNanos(), 1e-9);
+		Assert.assertEquals(100000, timer.getMaxNanos());
+		long median = timer.getPercentileNanos(0.5);
+		Assert.assertTrue(median >= 50000 && median < 2 * 50000);
+		Assert.assertEquals(100000, timer.getPercentileNanos(1.0));
+
+		metrics.setGauge("g", 1.5);
+		metrics.reset();
+		Assert.assertEquals(0, counter.get());
+		Assert.assertEquals(0, timer.getCount());
+		Assert.assertEquals(0, timer.getPercentileNanos(0.5));
+		Assert.assertTrue(metrics.getGauges().isEmpty());
+		// the instances stay registered
+		Assert.assertSame(timer, metrics.getTimer("t"));
+	}
+
+	@Test
+	public void testWriteJson() throws IOException {
+		IterationMetrics metrics = new IterationMetrics();
+		metrics.getCounter("events").add(42);
+		metrics.getTimer("routing.car").record(2000000);
+		metrics.setGauge("heap.used_mb", 12.5);
+
+		String filename = this.util.getOutputDirectory() + "metrics.json";
+		metrics.writeJson(filename, 3);
+
+		StringBuilder content = new StringBuilder();
+		try (BufferedReader reader = IOUtils.getBufferedReader(filename)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				content.append(line).append('\n');
+			}
+		}
+		String json = content.toString();
+		Assert.assertTrue(json.contains("\"iteration\": 3"));
+		Assert.assertTrue(json.contains("\"events\": 42"));
+		Assert.assertTrue(json.contains("\"routing.car\": { \"count\": 1, \"total_ms\": 2.0"));
+		Assert.assertTrue(json.contains("\"heap.used_mb\": 12.5"));
+	}
+
+}
@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.network.Node;
@@ -49,6 +50,7 @@ import javax.inject.Singleton;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 
 /**
  * @author mrieser
@@ -371,6 +373,51 @@ public class LinkStatsControlerListenerTest {
 		Assert.assertEquals(7, volumes[2], 1e-8);
 	}
 	
+	@Test
+	public void testTravelTimesOfIteration_withSnapshotForRouting() throws IOException {
+		Config config = this.util.loadConfig((String) null);
+		config.controler().setMobsim("dummy");
+		config.controler().setFirstIteration(0);
+		config.controler().setLastIteration(2);
+		config.controler().setWritePlansInterval(0);
+		config.controler().setCreateGraphs(false);
+		config.controler().setDumpDataAtEnd(false);
+		config.controler().setWriteEventsInterval(0);
+		config.linkStats().setWriteLinkStatsInterval(1);
+		config.linkStats().setAverageLinkStatsOverIterations(1);
+		config.travelTimeCalculator().setUseSnapshotForRouting(true);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Node node1 = scenario.getNetwork().getFactory().createNode(Id.create("1", Node.class), new Coord((double) 0, (double) 0));
+		Node node2 = scenario.getNetwork().getFactory().createNode(Id.create("2", Node.class), new Coord((double) 1000, (double) 0));
+		scenario.getNetwork().addNode(node1);
+		scenario.getNetwork().addNode(node2);
+		Link link = scenario.getNetwork().getFactory().createLink(Id.create("100", Link.class), node1, node2);
+		link.setLength(1000.0);
+		link.setFreespeed(10.0);
+		scenario.getNetwork().addLink(link);
+		final Controler controler = new Controler(scenario);
+		controler.addOverridingModule(new AbstractModule() {
+			@Override
+			public void install() {
+				bind(Mobsim.class).toProvider(CongestedMobsimFactory.class);
+			}
+		});
+		controler.run();
+
+		// the link stats have to see the travel times of their own iteration, not the ones still used for routing, nor free speed (100s):
+		Assert.assertEquals(300.0, getTravelTimeOfFirstHour(config.controler().getOutputDirectory() + "ITERS/it.0/0.linkstats.txt.gz"), 1e-8);
+		Assert.assertEquals(600.0, getTravelTimeOfFirstHour(config.controler().getOutputDirectory() + "ITERS/it.1/1.linkstats.txt.gz"), 1e-8);
+		Assert.assertEquals(900.0, getTravelTimeOfFirstHour(config.controler().getOutputDirectory() + "ITERS/it.2/2.linkstats.txt.gz"), 1e-8);
+	}
+
+	private double getTravelTimeOfFirstHour(final String filename) throws IOException {
+		try (BufferedReader reader = IOUtils.getBufferedReader(filename)) {
+			int column = Arrays.asList(reader.readLine().split("\t")).indexOf("TRAVELTIME0-1avg");
+			String line = reader.readLine(); // link 100
+			return Double.parseDouble(line.split("\t")[column]);
+		}
+	}
+
 	private double[] getVolumes(final String filename) throws IOException {
 		BufferedReader reader = IOUtils.getBufferedReader(filename);
 		reader.readLine(); // header
@@ -403,6 +450,30 @@ public class LinkStatsControlerListenerTest {
 		}
 	}
 
+	/**
+	 * Lets one vehicle cross link 100 in the first hour, the travel time growing by 300s with every iteration.
+	 */
+	@Singleton
+	private static class CongestedMobsimFactory implements Provider<Mobsim> {
+		private int count = 1;
+
+		@Inject EventsManager eventsManager;
+
+		@Override
+		public Mobsim get() {
+			final double travelTime = 300.0 * count++;
+			return new Mobsim() {
+				@Override
+				public void run() {
+					Id<Link> linkId = Id.create("100", Link.class);
+					Id<Vehicle> vehicleId = Id.create("1", Vehicle.class);
+					eventsManager.processEvent(new LinkEnterEvent(0.0, vehicleId, linkId));
+					eventsManager.processEvent(new LinkLeaveEvent(travelTime, vehicleId, linkId));
+				}
+			};
+		}
+	}
+
 	@Singleton
 	private static class DummyMobsimFactory implements Provider<Mobsim> {
 		private int count = 1;
@@ -0,0 +1,95 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * OutputTaskExecutorTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OutputTaskExecutorTest {
+
+	@Test
+	public void testTasksRunDirectlyIfNotInBackground() {
+		OutputTaskExecutor executor = new OutputTaskExecutor(false);
+		final List<Integer> done = new ArrayList<>();
+		executor.submit("task", new Runnable() {
+			@Override
+			public void run() {
+				done.add(1);
+			}
+		});
+		Assert.assertEquals(1, done.size());
+		executor.awaitCompletion();
+	}
+
+	@Test
+	public void testTasksRunInOrderInBackground() {
+		OutputTaskExecutor executor = new OutputTaskExecutor(true);
+		final List<Integer> done = Collections.synchronizedList(new ArrayList<Integer>());
+		for (int i = 0; i < 100; i++) {
+			final int task = i;
+			executor.submit("task " + i, new Runnable() {
+				@Override
+				public void run() {
+					done.add(task);
+				}
+			});
+		}
+		executor.awaitCompletion();
+		Assert.assertEquals(100, done.size());
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals(i, done.get(i).intValue());
+		}
+
+		// the executor can be used again after waiting
+		executor.submit("another task", new Runnable() {
+			@Override
+			public void run() {
+				done.add(100);
+			}
+		});
+		executor.awaitCompletion();
+		Assert.assertEquals(101, done.size());
+	}
+
+	@Test
+	public void testFailureIsReported() {
+		OutputTaskExecutor executor = new OutputTaskExecutor(true);
+		executor.submit("failing task", new Runnable() {
+			@Override
+			public void run() {
+				throw new IllegalStateException("expected");
+			}
+		});
+		try {
+			executor.awaitCompletion();
+			Assert.fail("expected an exception");
+		} catch (RuntimeException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		// the failure is only reported once
+		executor.awaitCompletion();
+	}
+
+}
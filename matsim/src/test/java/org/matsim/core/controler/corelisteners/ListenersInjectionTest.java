@@ -66,6 +66,11 @@ public class ListenersInjectionTest {
 		testIsSingleton( PlansScoring.class );
 	}
 
+	@Test
+	public void testPopulationSamplingIsSingleton() {
+		testIsSingleton( PopulationSampling.class );
+	}
+
 	private void testIsSingleton( final Class<? extends ControlerListener> klass ) {
 		final Config config = ConfigUtils.createConfig();
 		final String outputDir = utils.getOutputDirectory();
@@ -0,0 +1,96 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PopulationSamplingImplTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.controler.corelisteners;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class PopulationSamplingImplTest {
+
+	@Test
+	public void testSampleGrowsToFullPopulation() {
+		Config config = ConfigUtils.createConfig();
+		config.controler().setFirstIteration(0);
+		config.controler().setPopulationSampleInitialFraction(0.1);
+		config.controler().setPopulationSampleFullIteration(4);
+		config.plans().setSubpopulationAttributeName("subpopulation");
+		config.qsim().setFlowCapFactor(0.5);
+		config.qsim().setStorageCapFactor(0.8);
+
+		Population population = ScenarioUtils.createScenario(config).getPopulation();
+		for (int i = 0; i < 1000; i++) {
+			Person person = population.getFactory().createPerson(Id.create(i, Person.class));
+			population.addPerson(person);
+			if (i < 100) {
+				population.getPersonAttributes().putAttribute(person.getId().toString(), "subpopulation", "freight");
+			}
+		}
+
+		PopulationSamplingImpl sampling = new PopulationSamplingImpl(population, config.controler(), config.qsim(), config.plans(), config.global());
+		Assert.assertEquals(0.1, sampling.getSampleFraction(0), 1e-9);
+		Assert.assertEquals(Math.pow(0.1, 0.5), sampling.getSampleFraction(2), 1e-9);
+		Assert.assertEquals(1.0, sampling.getSampleFraction(4), 0.0);
+
+		sampling.notifyIterationStarts(new IterationStartsEvent(null, 0));
+		Assert.assertEquals(100, population.getPersons().size());
+		Assert.assertEquals(0.05, config.qsim().getFlowCapFactor(), 1e-9);
+		Assert.assertEquals(0.08, config.qsim().getStorageCapFactor(), 1e-9);
+		int freight = 0;
+		for (Person person : population.getPersons().values()) {
+			if (person.getId().toString().length() <= 2) {
+				freight++;
+			}
+		}
+		Assert.assertEquals("each subpopulation is sampled separately", 10, freight);
+		Set<Id<Person>> firstSample = new HashSet<>(population.getPersons().keySet());
+
+		sampling.notifyIterationStarts(new IterationStartsEvent(null, 2));
+		Assert.assertTrue("a larger sample contains the smaller one", population.getPersons().keySet().containsAll(firstSample));
+		Assert.assertTrue(population.getPersons().size() > 100 && population.getPersons().size() < 1000);
+
+		sampling.notifyIterationStarts(new IterationStartsEvent(null, 4));
+		Assert.assertEquals(1000, population.getPersons().size());
+		Assert.assertEquals(0.5, config.qsim().getFlowCapFactor(), 1e-9);
+
+		// the original order is restored
+		sampling.notifyIterationStarts(new IterationStartsEvent(null, 1));
+		sampling.notifyShutdown(new ShutdownEvent(null, false));
+		Assert.assertEquals(1000, population.getPersons().size());
+		int i = 0;
+		for (Id<Person> personId : population.getPersons().keySet()) {
+			Assert.assertEquals(Id.create(i, Person.class), personId);
+			i++;
+		}
+		Assert.assertEquals(0.8, config.qsim().getStorageCapFactor(), 1e-9);
+	}
+
+}
@@ -22,6 +22,7 @@ package org.matsim.core.events;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
+import org.matsim.analysis.IterationMetrics;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.events.handler.EventHandler;
@@ -63,6 +64,31 @@ public class EventsManagerImplTest {
 		}
 	}
 
+	@Test
+	public void testProcessEvent_HandlerMetrics() {
+		EventsManager manager = EventsUtils.createEventsManager();
+		CountingMyEventHandler handler = new CountingMyEventHandler();
+		manager.addHandler(handler);
+		IterationMetrics metrics = new IterationMetrics();
+		Assert.assertTrue(EventsUtils.setHandlerMetrics(manager, metrics));
+		String name = "events.handler." + CountingMyEventHandler.class.getName() + ".myEvent";
+
+		// nothing is recorded as long as the metrics are disabled
+		manager.processEvent(new MyEvent(1.0));
+		Assert.assertFalse(metrics.getTimers().containsKey(name));
+
+		metrics.setEnabled(true);
+		manager.processEvent(new MyEvent(2.0));
+		manager.processEvent(new MyEvent(3.0));
+		Assert.assertEquals(3, handler.counter);
+		Assert.assertEquals(2, metrics.getTimer(name).getCount());
+
+		EventsUtils.setHandlerMetrics(manager, null);
+		manager.processEvent(new MyEvent(4.0));
+		Assert.assertEquals(4, handler.counter);
+		Assert.assertEquals(2, metrics.getTimer(name).getCount());
+	}
+
 	/*package*/ static class MyEvent extends Event {
 		public MyEvent(final double time) {
 			super(time);
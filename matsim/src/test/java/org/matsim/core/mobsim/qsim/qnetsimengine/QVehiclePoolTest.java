@@ -0,0 +1,60 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.vehicles.Vehicle;
+import org.matsim.vehicles.VehicleUtils;
+
+public class QVehiclePoolTest {
+
+	@Test
+	public void testReuseBetweenMobsimRuns() {
+		Vehicle vehicle1 = VehicleUtils.getFactory().createVehicle(Id.create("1", Vehicle.class), VehicleUtils.getDefaultVehicleType());
+		Vehicle vehicle2 = VehicleUtils.getFactory().createVehicle(Id.create("2", Vehicle.class), VehicleUtils.getDefaultVehicleType());
+		QVehiclePool pool = new QVehiclePool();
+
+		QVehicleFactory factory = pool.createFactoryForNewMobsim();
+		QVehicle q1 = factory.createQVehicle(vehicle1);
+		QVehicle q2 = factory.createQVehicle(vehicle2);
+		q1.setEarliestLinkExitTime(100.0);
+		q1.setLinkEnterTime(50.0);
+		Assert.assertNotSame("same vehicle twice in one run must not share the object", q1, factory.createQVehicle(vehicle1));
+
+		// second run only uses vehicle 1
+		factory = pool.createFactoryForNewMobsim();
+		QVehicle reused = factory.createQVehicle(vehicle1);
+		Assert.assertSame(q1, reused);
+		Assert.assertEquals(0.0, reused.getEarliestLinkExitTime(), 0.0);
+		Assert.assertEquals(0.0, reused.getLinkEnterTime(), 0.0);
+		Assert.assertNull(reused.getDriver());
+		Assert.assertNull(reused.getCurrentLink());
+
+		// vehicle 2 was not used in the second run, so it is gone from the pool
+		factory = pool.createFactoryForNewMobsim();
+		Assert.assertNotSame(q2, factory.createQVehicle(vehicle2));
+		Assert.assertSame(q1, factory.createQVehicle(vehicle1));
+		Assert.assertEquals(2, pool.getReusedCount());
+		Assert.assertEquals(4, pool.getCreatedCount());
+	}
+
+}
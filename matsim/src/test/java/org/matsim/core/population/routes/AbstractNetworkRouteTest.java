@@ -66,6 +66,26 @@ public abstract class AbstractNetworkRouteTest {
 		Assert.assertEquals(Id.create("14", Link.class), linkIds.get(4));
 	}
 
+	@Test
+	public void testClone_independentLinkIds() {
+		Network network = createTestNetwork();
+		final Id<Link> link11 = Id.create(11, Link.class);
+		final Id<Link> link15 = Id.create(15, Link.class);
+		NetworkRoute route = getNetworkRouteInstance(link11, link15, network);
+		route.setLinkIds(link11, NetworkUtils.getLinkIds("-22 2 3 24 14"), link15);
+
+		NetworkRoute clone = (NetworkRoute) route.clone();
+		Assert.assertEquals(route.getLinkIds(), clone.getLinkIds());
+
+		clone.setLinkIds(link11, NetworkUtils.getLinkIds("12 13 14"), link15);
+		Assert.assertEquals(NetworkUtils.getLinkIds("-22 2 3 24 14"), route.getLinkIds());
+		Assert.assertEquals(NetworkUtils.getLinkIds("12 13 14"), clone.getLinkIds());
+
+		route.setLinkIds(link11, null, link15);
+		Assert.assertEquals(0, route.getLinkIds().size());
+		Assert.assertEquals(NetworkUtils.getLinkIds("12 13 14"), clone.getLinkIds());
+	}
+
 	@Test
 	public void testSetLinks_linksNull() {
 		Network network = createTestNetwork();
@@ -38,7 +38,11 @@ import org.matsim.core.replanning.selectors.PlanSelector;
 import org.matsim.core.replanning.selectors.RandomPlanSelector;
 import org.matsim.core.scenario.ScenarioUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -288,6 +292,167 @@ public class StrategyManagerTest {
 		assertTrue("plan should not have been removed.", p.getPlans().contains(plans[plans.length - 3]));
 	}
 
+	@Test
+	public void testNumberOfThreadsDoesNotChangeResults() {
+		Population pop1 = createPopulationWithScoredPlans();
+		Population pop2 = createPopulationWithScoredPlans();
+
+		int[] counters1 = runWithThreads(pop1, 1);
+		int[] counters2 = runWithThreads(pop2, 4);
+
+		assertEquals(counters1[0], counters2[0]);
+		assertEquals(counters1[1], counters2[1]);
+		for (Person p1 : pop1.getPersons().values()) {
+			Person p2 = pop2.getPersons().get(p1.getId());
+			assertEquals("wrong number of plans.", 4, p1.getPlans().size());
+			assertEquals(p1.getPlans().size(), p2.getPlans().size());
+			for (int i = 0; i < p1.getPlans().size(); i++) {
+				assertEquals(p1.getPlans().get(i).getScore(), p2.getPlans().get(i).getScore());
+			}
+			assertEquals(p1.getSelectedPlan().getScore(), p2.getSelectedPlan().getScore());
+		}
+	}
+
+	@Test
+	public void testPersonKeysOfCollidingHashCodes() {
+		Person p1 = PopulationUtils.getFactory().createPerson(Id.create("Aa", Person.class));
+		Person p2 = PopulationUtils.getFactory().createPerson(Id.create("BB", Person.class));
+		assertEquals("Aa".hashCode(), "BB".hashCode());
+		assertFalse(GenericStrategyManager.getPersonKey(p1) == GenericStrategyManager.getPersonKey(p2));
+		assertEquals(GenericStrategyManager.getPersonKey(p1),
+				GenericStrategyManager.getPersonKey(PopulationUtils.getFactory().createPerson(Id.create("Aa", Person.class))));
+	}
+
+	@Test
+	public void testThreadsAreReusedAcrossIterations() {
+		Population pop1 = createPopulationWithScoredPlans();
+		Population pop2 = createPopulationWithScoredPlans();
+
+		MatsimRandom.reset(4711);
+		StrategyManager manager = new StrategyManager();
+		manager.addStrategyForDefaultSubpopulation(new StrategyCounter(new RandomPlanSelector<Plan, Person>()), 1.0);
+		manager.setMaxPlansPerAgent(4);
+		manager.setNumberOfThreads(2);
+		manager.run(pop1, null);
+		int threadsAfterFirstRun = countStrategyManagerThreads();
+		manager.run(pop2, null);
+		assertEquals("the second run should not start new threads.", threadsAfterFirstRun, countStrategyManagerThreads());
+	}
+
+	@Test
+	public void testStrategiesRunOnTheReplanningThreads() {
+		Population pop1 = createPopulationWithScoredPlans();
+		Population pop2 = createPopulationWithScoredPlans();
+
+		ScoreDrawingModule module1 = runModuleWithThreads(pop1, 1);
+		ScoreDrawingModule module2 = runModuleWithThreads(pop2, 4);
+
+		assertFalse(module2.threadNames.isEmpty());
+		for (String threadName : module2.threadNames) {
+			assertTrue("the module should run on the replanning threads.", threadName.startsWith("GenericStrategyManager."));
+		}
+		assertEquals("the plans should be handed over in the order of the persons.", module1.finishedPlans, module2.finishedPlans);
+		for (Person p1 : pop1.getPersons().values()) {
+			Person p2 = pop2.getPersons().get(p1.getId());
+			assertEquals(p1.getPlans().size(), p2.getPlans().size());
+			for (int i = 0; i < p1.getPlans().size(); i++) {
+				assertEquals(p1.getPlans().get(i).getScore(), p2.getPlans().get(i).getScore());
+			}
+			assertEquals(p1.getSelectedPlan().getScore(), p2.getSelectedPlan().getScore());
+		}
+	}
+
+	private static ScoreDrawingModule runModuleWithThreads(final Population pop, final int numberOfThreads) {
+		MatsimRandom.reset(4711);
+		ScoreDrawingModule module = new ScoreDrawingModule();
+		PlanStrategyImpl strategy = new PlanStrategyImpl(new RandomPlanSelector<Plan, Person>());
+		strategy.addStrategyModule(module);
+		strategy.addStrategyModule(module.new OrderRecorder());
+		StrategyManager manager = new StrategyManager();
+		manager.addStrategyForDefaultSubpopulation(strategy, 1.0);
+		manager.setMaxPlansPerAgent(4);
+		manager.setNumberOfThreads(numberOfThreads);
+		manager.run(pop, null);
+		return module;
+	}
+
+	/**
+	 * Draws a new score for every plan from the random number generator of the current thread.
+	 */
+	private static class ScoreDrawingModule implements PlanStrategyModule {
+		/*package*/ final Set<String> threadNames = Collections.synchronizedSet(new HashSet<String>());
+		/*package*/ final List<Double> finishedPlans = new ArrayList<>();
+
+		@Override
+		public void prepareReplanning(ReplanningContext replanningContext) {
+		}
+
+		@Override
+		public void handlePlan(Plan plan) {
+			this.threadNames.add(Thread.currentThread().getName());
+			plan.setScore(MatsimRandom.getRandom().nextDouble());
+		}
+
+		@Override
+		public void finishReplanning() {
+		}
+
+		/**
+		 * Records the order in which the later modules of the strategy get the plans.
+		 */
+		/*package*/ class OrderRecorder implements PlanStrategyModule {
+			@Override
+			public void prepareReplanning(ReplanningContext replanningContext) {
+			}
+
+			@Override
+			public void handlePlan(Plan plan) {
+				finishedPlans.add(plan.getScore());
+			}
+
+			@Override
+			public void finishReplanning() {
+			}
+		}
+	}
+
+	private static int countStrategyManagerThreads() {
+		int threads = 0;
+		for (Thread thread : Thread.getAllStackTraces().keySet()) {
+			if (thread.getName().startsWith("GenericStrategyManager.")) {
+				threads++;
+			}
+		}
+		return threads;
+	}
+
+	private static Population createPopulationWithScoredPlans() {
+		Population pop = ScenarioUtils.createScenario(ConfigUtils.createConfig()).getPopulation();
+		for (int i = 0; i < 200; i++) {
+			Person p = PopulationUtils.getFactory().createPerson(Id.create(i, Person.class));
+			for (int j = 0; j < 6; j++) {
+				Plan plan = PersonUtils.createAndAddPlan(p, j == 0);
+				plan.setScore(Double.valueOf(j));
+			}
+			pop.addPerson(p);
+		}
+		return pop;
+	}
+
+	private static int[] runWithThreads(final Population pop, final int numberOfThreads) {
+		MatsimRandom.reset(4711);
+		StrategyManager manager = new StrategyManager();
+		StrategyCounter strategy1 = new StrategyCounter(new RandomPlanSelector<Plan, Person>());
+		StrategyCounter strategy2 = new StrategyCounter(new RandomPlanSelector<Plan, Person>());
+		manager.addStrategyForDefaultSubpopulation(strategy1, 0.3);
+		manager.addStrategyForDefaultSubpopulation(strategy2, 0.7);
+		manager.setPlanSelectorForRemoval(new RandomPlanSelector<Plan, Person>());
+		manager.setMaxPlansPerAgent(4);
+		manager.setNumberOfThreads(numberOfThreads);
+		manager.run(pop, null);
+		return new int[] { strategy1.getCounter(), strategy2.getCounter() };
+	}
+
 	@Test
 	public void testGetStrategies() {
 		// init StrategyManager
@@ -21,6 +21,7 @@
 package org.matsim.core.replanning.selectors;
 
 import java.util.ArrayList;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Coord;
@@ -308,6 +309,42 @@ public class PathSizeLogitSelectorTest extends AbstractPlanSelectorTest {
 		assertEquals(2132, cnt3);
 	}
 
+	public void testCalcWeights_departureTimeWindow() {
+		this.network = createNetwork();
+		Link l1 = network.getLinks().get(Id.create("1", Link.class));
+		Link l6 = network.getLinks().get(Id.create("6", Link.class));
+		Link l7 = network.getLinks().get(Id.create("7", Link.class));
+
+		// the same route three times, the legs of the first two and of the last two are one hour apart
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		double[] departureTimes = new double[] {0.0, 3600.0, 7201.0};
+		Plan[] plans = new Plan[departureTimes.length];
+		for (int i = 0; i < departureTimes.length; i++) {
+			plans[i] = PopulationUtils.createPlan(person);
+			Leg leg = PopulationUtils.createLeg(TransportMode.car);
+			leg.setDepartureTime(departureTimes[i]);
+			NetworkRoute r = RouteUtils.createLinkNetworkRouteImpl(l6.getId(), l7.getId());
+			ArrayList<Id<Link>> srcRoute = new ArrayList<Id<Link>>();
+			srcRoute.add(l1.getId());
+			r.setLinkIds(l6.getId(), srcRoute, l7.getId());
+			leg.setRoute(r);
+			plans[i].addActivity(PopulationUtils.createActivityFromLinkId("h", l6.getId()));
+			plans[i].addLeg(leg);
+			plans[i].addActivity(PopulationUtils.createActivityFromLinkId("w", l7.getId()));
+			plans[i].setScore(-10.0);
+			person.addPlan(plans[i]);
+		}
+
+		PathSizeLogitSelector selector = new PathSizeLogitSelector(this.config.planCalcScore(), network);
+		for (int repeat = 0; repeat < 2; repeat++) {
+			// the second time the buffers and the link index are re-used
+			Map<Plan, Double> weights = selector.calcWeights(person.getPlans());
+			assertEquals(0.25, weights.get(plans[0]), 1e-12);
+			assertEquals(0.25, weights.get(plans[1]), 1e-12);
+			assertEquals(1.0, weights.get(plans[2]), 1e-12);
+		}
+	}
+
 	private Network createNetwork() {
 		//we use a simple "red bus / blue bus paradox" network
 		// Sketch of the network
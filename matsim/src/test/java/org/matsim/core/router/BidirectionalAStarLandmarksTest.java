@@ -0,0 +1,125 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BidirectionalAStarLandmarksTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class BidirectionalAStarLandmarksTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		return new BidirectionalAStarLandmarksFactory(2).createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	public void testCalcLeastCostPath_TimeDependentSameAsDijkstra() {
+		Network network = createGridNetwork(8);
+		TimeDependentTravelTime travelTime = new TimeDependentTravelTime();
+
+		LeastCostPathCalculator dijkstra = new DijkstraFactory().createPathCalculator(network, travelTime, travelTime);
+		LeastCostPathCalculator bidirectional = new BidirectionalAStarLandmarksFactory(2).createPathCalculator(network, travelTime, travelTime);
+
+		for (double departureTime : new double[] { 6.0 * 3600, 7.5 * 3600, 17.25 * 3600 }) {
+			for (Node fromNode : network.getNodes().values()) {
+				for (Node toNode : network.getNodes().values()) {
+					Path expected = dijkstra.calcLeastCostPath(fromNode, toNode, departureTime, null, null);
+					Path actual = bidirectional.calcLeastCostPath(fromNode, toNode, departureTime, null, null);
+					assertEquals("wrong cost from " + fromNode.getId() + " to " + toNode.getId(), expected.travelCost, actual.travelCost, 1e-6);
+					assertEquals(expected.travelTime, actual.travelTime, 1e-6);
+					assertEquals(fromNode, actual.getFromNode());
+					assertEquals(toNode, actual.getToNode());
+					assertEquals(actual.nodes.size(), actual.links.size() + 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return a grid of size x size nodes, 1000 m apart, connected in both directions by links of different lengths
+	 * and speeds.
+	 */
+	/*package*/ static Network createGridNetwork(final int size) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				nodes[i][j] = NetworkUtils.createAndAddNode(network, Id.create(i + "_" + j, Node.class), new Coord(i * 1000.0, j * 1000.0));
+			}
+		}
+		int linkCount = 0;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				if (i + 1 < size) {
+					addLinks(network, nodes[i][j], nodes[i + 1][j], linkCount);
+					linkCount += 2;
+				}
+				if (j + 1 < size) {
+					addLinks(network, nodes[i][j], nodes[i][j + 1], linkCount);
+					linkCount += 2;
+				}
+			}
+		}
+		return network;
+	}
+
+	private static void addLinks(final Network network, final Node node1, final Node node2, final int linkCount) {
+		double length = 1000.0 * (1.0 + (linkCount % 5) * 0.1);
+		double freespeed = 10.0 + (linkCount % 3) * 10.0;
+		NetworkUtils.createAndAddLink(network, Id.create(linkCount, Link.class), node1, node2, length, freespeed, 1000.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.create(linkCount + 1, Link.class), node2, node1, length, freespeed * 0.8, 1000.0, 1.0);
+	}
+
+	/**
+	 * Travel times between one and two times the free speed travel time, changing over the day differently for each link.
+	 */
+	/*package*/ static class TimeDependentTravelTime implements TravelTime, TravelDisutility {
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			double freespeedTravelTime = link.getLength() / link.getFreespeed();
+			return freespeedTravelTime * (1.5 + 0.5 * Math.sin(time / 1800.0 + link.getId().hashCode()));
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed();
+		}
+	}
+
+}
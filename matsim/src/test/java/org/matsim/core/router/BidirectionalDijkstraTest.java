@@ -0,0 +1,131 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BidirectionalDijkstraTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.priorityqueue.MinHeapFactory;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.vehicles.Vehicle;
+
+public class BidirectionalDijkstraTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		return new BidirectionalDijkstraFactory().createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	public void testCalcLeastCostPath_SameAsDijkstra() {
+		Network network = BidirectionalAStarLandmarksTest.createGridNetwork(8);
+		FreespeedTravelTimeAndDisutility travelTime = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+
+		LeastCostPathCalculator dijkstra = new DijkstraFactory().createPathCalculator(network, travelTime, travelTime);
+		LeastCostPathCalculator bidirectional = new BidirectionalDijkstraFactory().createPathCalculator(network, travelTime, travelTime);
+
+		for (Node fromNode : network.getNodes().values()) {
+			for (Node toNode : network.getNodes().values()) {
+				Path expected = dijkstra.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null);
+				Path actual = bidirectional.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null);
+				assertEquals("wrong cost from " + fromNode.getId() + " to " + toNode.getId(), expected.travelCost, actual.travelCost, 1e-6);
+				assertEquals(expected.travelTime, actual.travelTime, 1e-6);
+				assertEquals(actual.nodes.size(), actual.links.size() + 1);
+			}
+		}
+	}
+
+	public void testCalcLeastCostPath_MonotoneHeaps() {
+		Network network = BidirectionalAStarLandmarksTest.createGridNetwork(8);
+		FreespeedTravelTimeAndDisutility travelTime = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+
+		LeastCostPathCalculator binary = new BidirectionalDijkstraFactory().createPathCalculator(network, travelTime, travelTime);
+		LeastCostPathCalculator radix = new BidirectionalDijkstraFactory(MinHeapFactory.radix()).createPathCalculator(network, travelTime, travelTime);
+		LeastCostPathCalculator buckets = new BidirectionalDijkstraFactory(MinHeapFactory.buckets(10.0)).createPathCalculator(network, travelTime, travelTime);
+
+		for (Node fromNode : network.getNodes().values()) {
+			for (Node toNode : network.getNodes().values()) {
+				Path expected = binary.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null);
+				assertEquals(expected.travelCost, radix.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null).travelCost, 1e-6);
+				assertEquals(expected.travelCost, buckets.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null).travelCost, 1e-6);
+			}
+		}
+	}
+
+	/**
+	 * A closed link with an infinite cost must not break the routers that use the bucket queue.
+	 */
+	public void testCalcLeastCostPath_InfiniteCostLink() {
+		Network network = BidirectionalAStarLandmarksTest.createGridNetwork(5);
+		final FreespeedTravelTimeAndDisutility travelTime = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		final Link closedLink = network.getLinks().values().iterator().next();
+		TravelDisutility disutility = new TravelDisutility() {
+			@Override
+			public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+				return link == closedLink ? Double.POSITIVE_INFINITY : travelTime.getLinkTravelDisutility(link, time, person, vehicle);
+			}
+			@Override
+			public double getLinkMinimumTravelDisutility(Link link) {
+				return travelTime.getLinkMinimumTravelDisutility(link);
+			}
+		};
+
+		LeastCostPathCalculator binary = new DijkstraFactory().createPathCalculator(network, disutility, travelTime);
+		LeastCostPathCalculator fast = new FastDijkstraFactory(false, MinHeapFactory.buckets(10.0)).createPathCalculator(network, disutility, travelTime);
+		LeastCostPathCalculator bidirectional = new BidirectionalDijkstraFactory(MinHeapFactory.buckets(10.0)).createPathCalculator(network, disutility, travelTime);
+
+		for (Node fromNode : network.getNodes().values()) {
+			for (Node toNode : network.getNodes().values()) {
+				Path expected = binary.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null);
+				assertFalse(expected.links.contains(closedLink));
+				assertEquals(expected.travelCost, fast.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null).travelCost, 1e-6);
+				assertEquals(expected.travelCost, bidirectional.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null).travelCost, 1e-6);
+			}
+		}
+	}
+
+	public void testCalcLeastCostPath_TimeDependentCostsAreEvaluated() {
+		Network network = BidirectionalAStarLandmarksTest.createGridNetwork(5);
+		BidirectionalAStarLandmarksTest.TimeDependentTravelTime travelTime = new BidirectionalAStarLandmarksTest.TimeDependentTravelTime();
+		LeastCostPathCalculator bidirectional = new BidirectionalDijkstraFactory().createPathCalculator(network, travelTime, travelTime);
+
+		Node fromNode = network.getNodes().values().iterator().next();
+		for (Node toNode : network.getNodes().values()) {
+			Path path = bidirectional.calcLeastCostPath(fromNode, toNode, 7.0 * 3600, null, null);
+			double time = 7.0 * 3600;
+			double cost = 0.0;
+			for (int i = 0; i < path.links.size(); i++) {
+				assertEquals(path.nodes.get(i), path.links.get(i).getFromNode());
+				assertEquals(path.nodes.get(i + 1), path.links.get(i).getToNode());
+				cost += travelTime.getLinkTravelDisutility(path.links.get(i), time, null, null);
+				time += travelTime.getLinkTravelTime(path.links.get(i), time, null, null);
+			}
+			assertEquals(cost, path.travelCost, 1e-6);
+			assertEquals(time - 7.0 * 3600, path.travelTime, 1e-6);
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * AbstractLeastCostPathCalculatorTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2026 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class FastAStarLandmarksTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		return new FastAStarLandmarksFactory(1).createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	/**
+	 * The routers of a factory share the routing network and the landmarks, and invalidate their own labels
+	 * between routes, so alternating routes with several routers must give the same costs as a Dijkstra.
+	 */
+	public void testRoutersOfOneFactory() {
+		Scenario scenario = ScenarioUtils.createScenario(loadConfig(null));
+		Network network = scenario.getNetwork();
+		new MatsimNetworkReader(network).readFile("test/scenarios/equil/network.xml");
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+
+		FastAStarLandmarksFactory factory = new FastAStarLandmarksFactory(1);
+		LeastCostPathCalculator[] routers = new LeastCostPathCalculator[] {
+				factory.createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator),
+				factory.createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator) };
+		LeastCostPathCalculator dijkstra = new Dijkstra(network, travelTimeCostCalculator, travelTimeCostCalculator);
+
+		int route = 0;
+		for (Node fromNode : network.getNodes().values()) {
+			for (Node toNode : network.getNodes().values()) {
+				Path expected = dijkstra.calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null);
+				Path path = routers[route++ % routers.length].calcLeastCostPath(fromNode, toNode, 8.0 * 3600, null, null);
+				assertEquals("wrong cost from " + fromNode.getId() + " to " + toNode.getId(), expected.travelCost, path.travelCost, EPSILON);
+				assertSame(fromNode, path.nodes.get(0));
+				assertSame(toNode, path.nodes.get(path.nodes.size() - 1));
+			}
+		}
+	}
+
+}
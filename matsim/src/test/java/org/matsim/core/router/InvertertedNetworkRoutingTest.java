@@ -19,11 +19,15 @@
  * *********************************************************************** */
 package org.matsim.core.router;
 
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Test;
 import org.matsim.api.core.v01.*;
 import org.matsim.api.core.v01.network.*;
 import org.matsim.api.core.v01.population.*;
 import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.network.algorithms.NetworkExpandNode.TurnInfo;
 import org.matsim.core.network.algorithms.NetworkTurnInfoBuilder;
 import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.routes.NetworkRoute;
@@ -100,6 +104,75 @@ public class InvertertedNetworkRoutingTest {
 		
 	}
 
+	/**
+	 * The routes of the {@link LinkToLinkDijkstra} on the original network must be the same as those on the inverted network.
+	 */
+	@Test
+	public void testLinkToLinkDijkstraSameAsInvertedNetwork() {
+		Fixture f = new Fixture();
+		LinkToLinkTravelTimeStub tt = new LinkToLinkTravelTimeStub();
+		TravelDisutilityFactory tc = new RandomizingTimeDistanceTravelDisutilityFactory( TransportMode.car, f.s.getConfig().planCalcScore() );
+
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		Facility fromFacility = new LinkWrapperFacility(f.s.getNetwork().getLinks().get(Id.create("12", Link.class)));
+		Facility toFacility = new LinkWrapperFacility(f.s.getNetwork().getLinks().get(Id.create("78", Link.class)));
+
+		LinkToLinkRoutingModule invertedRouter = new LinkToLinkRoutingModule("mode", f.s.getPopulation().getFactory(),
+				f.s.getNetwork(), new DijkstraFactory(), tc, tt, new NetworkTurnInfoBuilder(f.s));
+		LinkToLinkRoutingModule router = new LinkToLinkRoutingModule("mode", f.s.getPopulation().getFactory(),
+				new LinkToLinkGraph(f.s.getNetwork(), new NetworkTurnInfoBuilder(f.s)), tc, tt);
+
+		double[][] turningMoveCosts = { {0.0, 100.0, 50.0}, {100.0, 0.0, 50.0}, {50.0, 100.0, 0.0} };
+		String[] expectedSecondLinks = { "34", "35", "36" };
+		for (int i = 0; i < turningMoveCosts.length; i++) {
+			tt.setTurningMoveCosts(turningMoveCosts[i][0], turningMoveCosts[i][1], turningMoveCosts[i][2]);
+			NetworkRoute expected = calcRoute(invertedRouter, fromFacility, toFacility, person);
+			NetworkRoute route = calcRoute(router, fromFacility, toFacility, person);
+			Assert.assertEquals(3, route.getLinkIds().size());
+			Assert.assertEquals(Id.create("23", Link.class), route.getLinkIds().get(0));
+			Assert.assertEquals(Id.create(expectedSecondLinks[i], Link.class), route.getLinkIds().get(1));
+			Assert.assertEquals(expected.getLinkIds(), route.getLinkIds());
+			Assert.assertEquals(expected.getTravelTime(), route.getTravelTime(), 1e-8);
+			Assert.assertEquals(expected.getTravelCost(), route.getTravelCost(), 1e-8);
+			Assert.assertEquals(expected.getDistance(), route.getDistance(), 1e-8);
+		}
+	}
+
+	@Test
+	public void testLinkToLinkDijkstraTurnRestrictions() {
+		Fixture f = new Fixture();
+		LinkToLinkTravelTimeStub tt = new LinkToLinkTravelTimeStub();
+		TravelDisutilityFactory tc = new RandomizingTimeDistanceTravelDisutilityFactory( TransportMode.car, f.s.getConfig().planCalcScore() );
+
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		Facility fromFacility = new LinkWrapperFacility(f.s.getNetwork().getLinks().get(Id.create("12", Link.class)));
+		Facility toFacility = new LinkWrapperFacility(f.s.getNetwork().getLinks().get(Id.create("78", Link.class)));
+
+		// only allow the turn from link 23 to link 35, which is the most expensive one
+		Map<Id<Link>, List<TurnInfo>> turns = new NetworkTurnInfoBuilder(f.s).createAllowedTurnInfos();
+		turns.get(Id.create("23", Link.class)).removeIf(turnInfo -> !turnInfo.getToLinkId().equals(Id.create("35", Link.class)));
+		LinkToLinkRoutingModule router = new LinkToLinkRoutingModule("mode", f.s.getPopulation().getFactory(),
+				new LinkToLinkGraph(f.s.getNetwork(), turns), tc, tt);
+		tt.setTurningMoveCosts(0.0, 100.0, 0.0);
+
+		NetworkRoute route = calcRoute(router, fromFacility, toFacility, person);
+		Assert.assertEquals(3, route.getLinkIds().size());
+		Assert.assertEquals(Id.create("23", Link.class), route.getLinkIds().get(0));
+		Assert.assertEquals(Id.create("35", Link.class), route.getLinkIds().get(1));
+		Assert.assertEquals(Id.create("57", Link.class), route.getLinkIds().get(2));
+
+		// without any turn from link 23, link 78 cannot be reached
+		turns.get(Id.create("23", Link.class)).clear();
+		router = new LinkToLinkRoutingModule("mode", f.s.getPopulation().getFactory(),
+				new LinkToLinkGraph(f.s.getNetwork(), turns), tc, tt);
+		try {
+			calcRoute(router, fromFacility, toFacility, person);
+			Assert.fail("expected RuntimeException.");
+		} catch (RuntimeException e) {
+			// expected
+		}
+	}
+
 	private NetworkRoute calcRoute(LinkToLinkRoutingModule router, final Facility fromFacility,
             final Facility toFacility, final Person person)
 	{
@@ -19,6 +19,7 @@
 
 package org.matsim.core.router;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
@@ -41,12 +42,14 @@ import org.matsim.core.population.routes.NetworkRoute;
 import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
 import org.matsim.core.router.costcalculators.RandomizingTimeDistanceTravelDisutilityFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.RoutingGraph;
 import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.scenario.ScenarioUtils;
 import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
 import org.matsim.facilities.FacilitiesUtils;
 import org.matsim.facilities.Facility;
+import org.matsim.utils.leastcostpathtree.ArrayLeastCostPathTree;
 
 public class NetworkRoutingModuleTest {
 
@@ -142,6 +145,73 @@ public class NetworkRoutingModuleTest {
 		}
 	}
 
+	@Test
+	public void testCalcRoutesInBatch() {
+		Fixture f = new Fixture();
+		FreespeedTravelTimeAndDisutility freespeed = new FreespeedTravelTimeAndDisutility(-6.0/3600, +6.0/3600, 0.0);
+		LeastCostPathCalculator routeAlgo = new Dijkstra(f.s.getNetwork(), freespeed, freespeed);
+		ArrayLeastCostPathTree tree = new ArrayLeastCostPathTree(new RoutingGraph(f.s.getNetwork()), freespeed, freespeed);
+
+		NetworkRoutingModule single = new NetworkRoutingModule(TransportMode.car, f.s.getPopulation().getFactory(), f.s.getNetwork(), routeAlgo);
+		NetworkRoutingModule batch = new NetworkRoutingModule(TransportMode.car, f.s.getPopulation().getFactory(), f.s.getNetwork(), routeAlgo,
+				tree, 900.0);
+
+		Person person = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		Facility f1 = FacilitiesUtils.toFacility(PopulationUtils.createActivityFromLinkId("h", Id.create("1", Link.class)), null);
+		Facility f2 = FacilitiesUtils.toFacility(PopulationUtils.createActivityFromLinkId("h", Id.create("2", Link.class)), null);
+		Facility f3 = FacilitiesUtils.toFacility(PopulationUtils.createActivityFromLinkId("h", Id.create("3", Link.class)), null);
+		List<RoutingRequest> requests = Arrays.asList(
+				new RoutingRequest(f1, f3, 7.0*3600, person),
+				new RoutingRequest(f2, f3, 7.0*3600, person),
+				new RoutingRequest(f1, f2, 7.0*3600 + 60, person),
+				new RoutingRequest(f1, f1, 7.0*3600 + 120, person),
+				new RoutingRequest(f1, f3, 8.0*3600, person));
+
+		List<List<? extends PlanElement>> singleResults = single.calcRoutes(requests);
+		List<List<? extends PlanElement>> batchResults = batch.calcRoutes(requests);
+		Assert.assertEquals(requests.size(), singleResults.size());
+		Assert.assertEquals(requests.size(), batchResults.size());
+		for (int i = 0; i < requests.size(); i++) {
+			Leg expected = (Leg) singleResults.get(i).get(0);
+			Leg leg = (Leg) batchResults.get(i).get(0);
+			Assert.assertEquals(requests.get(i).getDepartureTime(), leg.getDepartureTime(), 1e-8);
+			Assert.assertEquals(expected.getTravelTime(), leg.getTravelTime(), 1e-8);
+			Assert.assertEquals(((NetworkRoute) expected.getRoute()).getLinkIds(), ((NetworkRoute) leg.getRoute()).getLinkIds());
+			Assert.assertEquals(expected.getRoute().getStartLinkId(), leg.getRoute().getStartLinkId());
+			Assert.assertEquals(expected.getRoute().getEndLinkId(), leg.getRoute().getEndLinkId());
+			Assert.assertEquals(expected.getRoute().getDistance(), leg.getRoute().getDistance(), 1e-8);
+		}
+		Assert.assertEquals(100.0, ((Leg) batchResults.get(0).get(0)).getTravelTime(), 1e-8);
+	}
+
+	@Test
+	public void testCalcRoutesInBatch_personDependentDisutility() {
+		Fixture f = new Fixture();
+		TravelTime timeObject = TravelTimeCalculator.create(f.s.getNetwork(), f.s.getConfig().travelTimeCalculator()).getLinkTravelTimes() ;
+		RandomizingTimeDistanceTravelDisutilityFactory factory = new RandomizingTimeDistanceTravelDisutilityFactory( TransportMode.car, f.s.getConfig().planCalcScore() );
+		factory.setSigma(3.0);
+		TravelDisutility costObject = factory.createTravelDisutility(timeObject);
+		LeastCostPathCalculator routeAlgo = new Dijkstra(f.s.getNetwork(), costObject, timeObject );
+		ArrayLeastCostPathTree tree = new ArrayLeastCostPathTree(new RoutingGraph(f.s.getNetwork()), timeObject, costObject);
+		NetworkRoutingModule batch = new NetworkRoutingModule(TransportMode.car, f.s.getPopulation().getFactory(), f.s.getNetwork(), routeAlgo,
+				tree, 900.0);
+
+		Person person1 = PopulationUtils.getFactory().createPerson(Id.create(1, Person.class));
+		Person person2 = PopulationUtils.getFactory().createPerson(Id.create(2, Person.class));
+		Facility f1 = FacilitiesUtils.toFacility(PopulationUtils.createActivityFromLinkId("h", Id.create("1", Link.class)), null);
+		Facility f3 = FacilitiesUtils.toFacility(PopulationUtils.createActivityFromLinkId("h", Id.create("3", Link.class)), null);
+
+		// a single request is routed with its person
+		Assert.assertEquals(1, batch.calcRoutes(Arrays.asList(new RoutingRequest(f1, f3, 7.0*3600, person1))).size());
+		try {
+			// the batch must not use the travel disutility of one of the persons for all of them
+			batch.calcRoutes(Arrays.asList(new RoutingRequest(f1, f3, 7.0*3600, person1), new RoutingRequest(f1, f3, 7.0*3600, person2)));
+			Assert.fail("expected RuntimeException, got none.");
+		} catch (RuntimeException e) {
+			// expected
+		}
+	}
+
 	private static class Fixture {
 		public final Scenario s = ScenarioUtils.createScenario(ConfigUtils.createConfig());
 
@@ -0,0 +1,140 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TripRouteCacheTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.router;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.config.groups.PlansCalcRouteConfigGroup;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.facilities.FacilitiesUtils;
+import org.matsim.facilities.Facility;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class TripRouteCacheTest {
+
+	private static Facility createFacility(final String linkId, final double x) {
+		return FacilitiesUtils.toFacility(
+				PopulationUtils.createActivityFromCoordAndLinkId("h", new Coord(x, 0.0), Id.create(linkId, Link.class)), null);
+	}
+
+	private static List<PlanElement> createTrip(final Facility from, final Facility to, final double departureTime) {
+		Leg leg = PopulationUtils.createLeg(TransportMode.car);
+		leg.setRoute(RouteUtils.createGenericRouteImpl(from.getLinkId(), to.getLinkId()));
+		leg.getRoute().setTravelTime(120.0);
+		leg.setDepartureTime(departureTime);
+		leg.setTravelTime(120.0);
+		return Arrays.<PlanElement>asList(leg);
+	}
+
+	@Test
+	public void testHitsAreShiftedCopies() {
+		TripRouteCache cache = new TripRouteCache(Collections.singleton(TransportMode.car), 10, 900.0, false);
+		Facility from = createFacility("1", 0.0);
+		Facility to = createFacility("2", 0.0);
+
+		Assert.assertNull(cache.getTrip(TransportMode.car, from, to, 3600.0));
+		List<PlanElement> trip = createTrip(from, to, 3600.0);
+		cache.putTrip(TransportMode.car, from, to, 3600.0, trip);
+
+		// same links and time bin, but other coordinates
+		List<PlanElement> cached = cache.getTrip(TransportMode.car, createFacility("1", 50.0), createFacility("2", 70.0), 3700.0);
+		Assert.assertNotNull(cached);
+		Assert.assertEquals(1, cached.size());
+		Leg leg = (Leg) cached.get(0);
+		Assert.assertNotSame(trip.get(0), leg);
+		Assert.assertNotSame(((Leg) trip.get(0)).getRoute(), leg.getRoute());
+		Assert.assertEquals(3700.0, leg.getDepartureTime(), MatsimTestUtils.EPSILON);
+		Assert.assertEquals(120.0, leg.getTravelTime(), MatsimTestUtils.EPSILON);
+		Assert.assertEquals(Id.create("2", Link.class), leg.getRoute().getEndLinkId());
+
+		// changing the returned or the stored trip must not change the cache
+		leg.setDepartureTime(0.0);
+		((Leg) trip.get(0)).setTravelTime(1.0);
+		Leg again = (Leg) cache.getTrip(TransportMode.car, from, to, 3600.0).get(0);
+		Assert.assertEquals(3600.0, again.getDepartureTime(), MatsimTestUtils.EPSILON);
+		Assert.assertEquals(120.0, again.getTravelTime(), MatsimTestUtils.EPSILON);
+
+		Assert.assertNull("other time bin", cache.getTrip(TransportMode.car, from, to, 4500.0));
+		Assert.assertNull("other direction", cache.getTrip(TransportMode.car, to, from, 3600.0));
+		Assert.assertEquals(2, cache.getHitCount());
+		Assert.assertEquals(3, cache.getMissCount());
+		Assert.assertEquals(0.4, cache.getHitRate(), MatsimTestUtils.EPSILON);
+
+		// modes which are not cached are not counted
+		Assert.assertNull(cache.getTrip(TransportMode.walk, from, to, 3600.0));
+		cache.putTrip(TransportMode.walk, from, to, 3600.0, trip);
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(3, cache.getMissCount());
+	}
+
+	@Test
+	public void testKeyByCoord() {
+		TripRouteCache cache = new TripRouteCache(Collections.singleton(TransportMode.car), 10, 900.0, true);
+		Facility from = createFacility("1", 0.0);
+		Facility to = createFacility("2", 0.0);
+		cache.putTrip(TransportMode.car, from, to, 3600.0, createTrip(from, to, 3600.0));
+
+		Assert.assertNotNull(cache.getTrip(TransportMode.car, createFacility("1", 0.0), createFacility("2", 0.0), 3600.0));
+		Assert.assertNull(cache.getTrip(TransportMode.car, createFacility("1", 50.0), to, 3600.0));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsDropped() {
+		TripRouteCache cache = new TripRouteCache(Collections.singleton(TransportMode.car), 2, 900.0, false);
+		Facility f1 = createFacility("1", 0.0);
+		Facility f2 = createFacility("2", 0.0);
+		Facility f3 = createFacility("3", 0.0);
+
+		cache.putTrip(TransportMode.car, f1, f2, 0.0, createTrip(f1, f2, 0.0));
+		cache.putTrip(TransportMode.car, f2, f3, 0.0, createTrip(f2, f3, 0.0));
+		Assert.assertNotNull(cache.getTrip(TransportMode.car, f1, f2, 0.0));
+		cache.putTrip(TransportMode.car, f1, f3, 0.0, createTrip(f1, f3, 0.0));
+
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNotNull(cache.getTrip(TransportMode.car, f1, f2, 0.0));
+		Assert.assertNotNull(cache.getTrip(TransportMode.car, f1, f3, 0.0));
+		Assert.assertNull(cache.getTrip(TransportMode.car, f2, f3, 0.0));
+	}
+
+	@Test
+	public void testNotCreatedWithRoutingRandomness() {
+		PlansCalcRouteConfigGroup config = new PlansCalcRouteConfigGroup();
+		config.setRouteCacheSize(100);
+		Assert.assertNull("routes depend on the person with the default routing randomness", TripRouteCache.create(config));
+
+		config.setRoutingRandomness(0.0);
+		Assert.assertNotNull(TripRouteCache.create(config));
+
+		config.setRouteCacheSize(0);
+		Assert.assertNull(TripRouteCache.create(config));
+	}
+
+}
@@ -27,6 +27,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.PlanElement;
@@ -47,6 +48,7 @@ import org.matsim.facilities.Facility;
 import org.matsim.testcases.MatsimTestUtils;
 import org.matsim.vehicles.Vehicle;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -142,4 +144,55 @@ public class PlanRouterTest {
 
     }
 
+    @Test
+    public void routesInBatchesLikeOneByOne() {
+        Scenario scenario1 = loadEquilWithBatchRouting();
+        Scenario scenario2 = loadEquilWithBatchRouting();
+
+        PlanRouter oneByOne = new PlanRouter(createTripRouter(scenario1));
+        for (Person person : scenario1.getPopulation().getPersons().values()) {
+            oneByOne.run(person.getSelectedPlan());
+        }
+        List<Plan> plans = new ArrayList<>();
+        for (Person person : scenario2.getPopulation().getPersons().values()) {
+            plans.add(person.getSelectedPlan());
+        }
+        new PlanRouter(createTripRouter(scenario2)).runInBatches(plans);
+
+        for (Person person1 : scenario1.getPopulation().getPersons().values()) {
+            List<Leg> legs1 = TripStructureUtils.getLegs(person1.getSelectedPlan());
+            List<Leg> legs2 = TripStructureUtils.getLegs(scenario2.getPopulation().getPersons().get(person1.getId()).getSelectedPlan());
+            Assert.assertEquals(legs1.size(), legs2.size());
+            for (int i = 0; i < legs1.size(); i++) {
+                Assert.assertEquals(legs1.get(i).getDepartureTime(), legs2.get(i).getDepartureTime(), 1e-8);
+                Assert.assertEquals(legs1.get(i).getTravelTime(), legs2.get(i).getTravelTime(), 1e-8);
+                // (equil has several routes of the same cost, so only compare what does not depend on the one chosen)
+                Assert.assertEquals(legs1.get(i).getRoute().getStartLinkId(), legs2.get(i).getRoute().getStartLinkId());
+                Assert.assertEquals(legs1.get(i).getRoute().getEndLinkId(), legs2.get(i).getRoute().getEndLinkId());
+                Assert.assertEquals(legs1.get(i).getRoute().getDistance(), legs2.get(i).getRoute().getDistance(), 1e-8);
+            }
+        }
+    }
+
+    private static Scenario loadEquilWithBatchRouting() {
+        final Config config = ConfigUtils.loadConfig(IOUtils.newUrl(ExamplesUtils.getTestScenarioURL("equil"), "config.xml"));
+        config.plans().setInputFile("plans100.xml");
+        config.plansCalcRoute().setRoutingRandomness(0.);
+        config.plansCalcRoute().setBatchRoutingTimeBinSize(900.);
+        return ScenarioUtils.loadScenario(config);
+    }
+
+    private static TripRouter createTripRouter(final Scenario scenario) {
+        com.google.inject.Injector injector = Injector.createInjector(scenario.getConfig(), new AbstractModule() {
+            @Override
+            public void install() {
+                install(new TripRouterModule());
+                install(new ScenarioByInstanceModule(scenario));
+                addTravelTimeBinding("car").toInstance(new FreeSpeedTravelTime());
+                addTravelDisutilityFactoryBinding("car").toInstance(new OnlyTimeDependentTravelDisutilityFactory());
+            }
+        });
+        return injector.getInstance(TripRouter.class);
+    }
+
 }
\ No newline at end of file
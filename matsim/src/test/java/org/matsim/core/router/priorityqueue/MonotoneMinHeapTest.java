@@ -0,0 +1,290 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * MonotoneMinHeapTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.priorityqueue;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link RadixMinHeap} and {@link BucketMinHeap}, which only support the monotone use of a Dijkstra search.
+ */
+public class MonotoneMinHeapTest {
+
+	private static final int MAX_ELEMENTS = 1000;
+
+	@Test
+	public void testAddPoll() {
+		testAddPoll(new RadixMinHeap<>(MAX_ELEMENTS));
+		testAddPoll(new BucketMinHeap<>(MAX_ELEMENTS, 1.0));
+		testAddPoll(new BucketMinHeap<>(MAX_ELEMENTS, 10.0, 2));
+	}
+
+	private void testAddPoll(MinHeap<HasIndex> pq) {
+		Entry entry0 = new Entry(0);
+		Entry entry1 = new Entry(1);
+		Entry entry2 = new Entry(2);
+		Entry entry3 = new Entry(3);
+
+		Assert.assertTrue(pq.isEmpty());
+		Assert.assertTrue(pq.add(entry0, 5.5));
+		Assert.assertTrue(pq.add(entry1, 2.0));
+		Assert.assertTrue(pq.add(entry2, 2.5));
+		Assert.assertTrue(pq.add(entry3, 1000.0));
+		Assert.assertFalse(pq.add(entry1, 0.5)); // already in the queue
+		Assert.assertEquals(4, pq.size());
+
+		Assert.assertEquals(entry1, pq.peek());
+		Assert.assertEquals(entry1, pq.poll());
+		Assert.assertEquals(entry2, pq.poll());
+		Assert.assertEquals(entry0, pq.poll());
+		Assert.assertEquals(entry3, pq.poll());
+		Assert.assertNull(pq.poll());
+		Assert.assertTrue(pq.isEmpty());
+	}
+
+	@Test
+	public void testDecreaseKeyAndRemove() {
+		testDecreaseKeyAndRemove(new RadixMinHeap<>(MAX_ELEMENTS));
+		testDecreaseKeyAndRemove(new BucketMinHeap<>(MAX_ELEMENTS, 1.0));
+	}
+
+	private void testDecreaseKeyAndRemove(MinHeap<HasIndex> pq) {
+		Entry entry0 = new Entry(0);
+		Entry entry1 = new Entry(1);
+		Entry entry2 = new Entry(2);
+
+		pq.add(entry0, 1.0);
+		pq.add(entry1, 10.0);
+		pq.add(entry2, 20.0);
+		Assert.assertEquals(entry0, pq.poll());
+
+		Assert.assertFalse(pq.decreaseKey(entry1, 15.0)); // higher cost
+		Assert.assertTrue(pq.decreaseKey(entry2, 5.0));
+		Assert.assertTrue(pq.remove(entry1));
+		Assert.assertFalse(pq.remove(entry1));
+		Assert.assertEquals(1, pq.size());
+		Assert.assertEquals(entry2, pq.poll());
+		Assert.assertTrue(pq.isEmpty());
+	}
+
+	@Test
+	public void testReset() {
+		testReset(new RadixMinHeap<>(MAX_ELEMENTS));
+		testReset(new BucketMinHeap<>(MAX_ELEMENTS, 1.0));
+	}
+
+	private void testReset(MinHeap<HasIndex> pq) {
+		Entry entry0 = new Entry(0);
+		Entry entry1 = new Entry(1);
+
+		pq.add(entry0, 100.0);
+		pq.add(entry1, 200.0);
+		Assert.assertEquals(entry0, pq.poll());
+		pq.reset();
+		Assert.assertTrue(pq.isEmpty());
+
+		// after a reset, the queue must accept costs below the ones polled before
+		pq.add(entry1, 3.0);
+		pq.add(entry0, 2.0);
+		Assert.assertEquals(entry0, pq.poll());
+		Assert.assertEquals(entry1, pq.poll());
+	}
+
+	@Test
+	public void testLowerCostThanPolled() {
+		testLowerCostThanPolled(new RadixMinHeap<>(MAX_ELEMENTS));
+		testLowerCostThanPolled(new BucketMinHeap<>(MAX_ELEMENTS, 1.0));
+		testLowerCostThanPolled(new BucketMinHeap<>(MAX_ELEMENTS, 100.0)); // same bucket as the polled entry
+	}
+
+	private void testLowerCostThanPolled(MinHeap<HasIndex> pq) {
+		Entry entry0 = new Entry(0);
+		Entry entry1 = new Entry(1);
+		Entry entry2 = new Entry(2);
+
+		pq.add(entry0, 10.0);
+		pq.add(entry1, 20.0);
+		Assert.assertEquals(entry0, pq.poll());
+		try {
+			pq.add(entry2, 5.0);
+			Assert.fail("expected IllegalStateException, got none.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			pq.decreaseKey(entry1, 9.5);
+			Assert.fail("expected IllegalStateException, got none.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		// the same cost as the polled one is fine
+		Assert.assertTrue(pq.add(entry2, 10.0));
+		Assert.assertEquals(entry2, pq.poll());
+		Assert.assertEquals(entry1, pq.poll());
+	}
+
+	@Test
+	public void testAddBelowPeeked() {
+		testAddBelowPeeked(new RadixMinHeap<>(MAX_ELEMENTS));
+		testAddBelowPeeked(new BucketMinHeap<>(MAX_ELEMENTS, 1.0));
+	}
+
+	/**
+	 * peek may move the queue on to the next entry; adding a cheaper one afterwards is still monotone.
+	 */
+	private void testAddBelowPeeked(MinHeap<HasIndex> pq) {
+		Entry entry0 = new Entry(0);
+		Entry entry1 = new Entry(1);
+		Entry entry2 = new Entry(2);
+
+		pq.add(entry0, 1.0);
+		pq.add(entry1, 50.0);
+		Assert.assertEquals(entry0, pq.poll());
+		Assert.assertEquals(entry1, pq.peek());
+		pq.add(entry2, 7.0);
+		Assert.assertEquals(entry2, pq.poll());
+		Assert.assertEquals(entry1, pq.poll());
+	}
+
+	@Test
+	public void testInfiniteCosts() {
+		testInfiniteCosts(new RadixMinHeap<>(MAX_ELEMENTS));
+		testInfiniteCosts(new BucketMinHeap<>(MAX_ELEMENTS, 1.0));
+	}
+
+	private void testInfiniteCosts(MinHeap<HasIndex> pq) {
+		Entry entry0 = new Entry(0);
+		Entry entry1 = new Entry(1);
+		Entry entry2 = new Entry(2);
+		Entry entry3 = new Entry(3);
+
+		pq.add(entry0, 0.0);
+		Assert.assertEquals(entry0, pq.poll());
+		pq.add(entry1, Double.POSITIVE_INFINITY);
+		pq.add(entry2, 30.0);
+		Assert.assertEquals(entry2, pq.poll());
+		pq.add(entry3, Double.POSITIVE_INFINITY);
+		Assert.assertTrue(pq.decreaseKey(entry3, 40.0));
+		Assert.assertEquals(entry3, pq.poll());
+		Assert.assertEquals(entry1, pq.poll());
+		Assert.assertTrue(pq.isEmpty());
+	}
+
+	@Test
+	public void testCostsBeyondBucketRange() {
+		BucketMinHeap<HasIndex> pq = new BucketMinHeap<>(MAX_ELEMENTS, 1.0, 2);
+		Entry entry0 = new Entry(0);
+		Entry entry1 = new Entry(1);
+		Entry entry2 = new Entry(2);
+		Entry entry3 = new Entry(3);
+		Entry entry4 = new Entry(4);
+
+		pq.add(entry0, 1e12);
+		pq.add(entry1, 1e15);
+		pq.add(entry2, 5.0); // the range is extended downwards, the highest entries overflow
+		pq.add(entry3, Double.POSITIVE_INFINITY);
+		pq.add(entry4, 1e9);
+		Assert.assertEquals(5, pq.size());
+		Assert.assertEquals(entry2, pq.poll());
+		Assert.assertEquals(entry4, pq.poll());
+		Assert.assertEquals(entry0, pq.poll());
+		Assert.assertTrue(pq.decreaseKey(entry3, 2e12));
+		Assert.assertEquals(entry3, pq.poll());
+		Assert.assertEquals(entry1, pq.poll());
+		Assert.assertTrue(pq.isEmpty());
+	}
+
+	@Test
+	public void testMonotoneSequence() {
+		testMonotoneSequence(new RadixMinHeap<>(MAX_ELEMENTS));
+		testMonotoneSequence(new BucketMinHeap<>(MAX_ELEMENTS, 0.5));
+		testMonotoneSequence(new BucketMinHeap<>(MAX_ELEMENTS, 3.0, 2)); // forces the buckets to grow
+	}
+
+	/**
+	 * Adds, decreases and polls entries like a Dijkstra search does, and compares the order of the polled entries
+	 * with the one of a {@link BinaryMinHeap}.
+	 */
+	private void testMonotoneSequence(MinHeap<HasIndex> pq) {
+		MinHeap<HasIndex> reference = new BinaryMinHeap<>(MAX_ELEMENTS);
+		Entry[] entries = new Entry[MAX_ELEMENTS];
+		double[] costs = new double[MAX_ELEMENTS];
+		boolean[] settled = new boolean[MAX_ELEMENTS];
+		for (int i = 0; i < MAX_ELEMENTS; i++) {
+			entries[i] = new Entry(i);
+		}
+		Random random = new Random(4711);
+
+		pq.add(entries[0], 0.0);
+		reference.add(entries[0], 0.0);
+		costs[0] = 0.0;
+		int polled = 0;
+		while (!reference.isEmpty()) {
+			HasIndex expected = reference.poll();
+			HasIndex actual = pq.poll();
+			Assert.assertNotNull(actual);
+			// entries with equal costs may come in any order
+			Assert.assertEquals(costs[expected.getArrayIndex()], costs[actual.getArrayIndex()], 0.0);
+			settled[actual.getArrayIndex()] = true;
+			if (actual != expected) {
+				// keep both queues in the same state
+				reference.remove(actual);
+				reference.add(expected, costs[expected.getArrayIndex()]);
+			}
+			polled++;
+			double base = costs[actual.getArrayIndex()];
+			for (int n = 0; n < 5; n++) {
+				int i = random.nextInt(MAX_ELEMENTS);
+				if (settled[i]) {
+					continue;
+				}
+				double cost = base + random.nextInt(50) * 0.25;
+				if (pq.add(entries[i], cost)) {
+					reference.add(entries[i], cost);
+					costs[i] = cost;
+				} else if (cost < costs[i]) {
+					pq.decreaseKey(entries[i], cost);
+					reference.decreaseKey(entries[i], cost);
+					costs[i] = cost;
+				}
+			}
+		}
+		Assert.assertTrue(pq.isEmpty());
+		Assert.assertTrue(polled > 1);
+	}
+
+	private static class Entry implements HasIndex {
+
+		final int index;
+
+		public Entry(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public int getArrayIndex() {
+			return this.index;
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RoutingGraphTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.router.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+
+public class RoutingGraphTest {
+
+	@Test
+	public void testLinksOfNodes() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord(1000, 0));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.create("3", Node.class), new Coord(1000, 1000));
+		Node n4 = NetworkUtils.createAndAddNode(network, Id.create("4", Node.class), new Coord(0, 1000));
+		NetworkUtils.createAndAddLink(network, Id.create("12", Link.class), n1, n2, 1000.0, 10.0, 1000.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.create("21", Link.class), n2, n1, 1000.0, 10.0, 1000.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.create("23", Link.class), n2, n3, 1000.0, 10.0, 1000.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.create("13", Link.class), n1, n3, 1414.0, 10.0, 1000.0, 1.0);
+
+		RoutingGraph graph = new RoutingGraph(network);
+		Assert.assertSame(network, graph.getNetwork());
+		Assert.assertEquals(4, graph.getNodeCount());
+
+		for (Node node : network.getNodes().values()) {
+			int index = graph.getNodeIndex(node);
+			Assert.assertSame(node, graph.getNode(index));
+
+			Set<Link> outLinks = new HashSet<>();
+			for (int l = graph.getOutStart(index); l < graph.getOutEnd(index); l++) {
+				Link link = graph.getOutLink(l);
+				Assert.assertSame(node, link.getFromNode());
+				Assert.assertSame(link.getToNode(), graph.getNode(graph.getOutLinkToNode(l)));
+				outLinks.add(link);
+			}
+			Assert.assertEquals(new HashSet<>(node.getOutLinks().values()), outLinks);
+
+			Set<Link> inLinks = new HashSet<>();
+			for (int l = graph.getInStart(index); l < graph.getInEnd(index); l++) {
+				Link link = graph.getInLink(l);
+				Assert.assertSame(node, link.getToNode());
+				Assert.assertSame(link.getFromNode(), graph.getNode(graph.getInLinkFromNode(l)));
+				inLinks.add(link);
+			}
+			Assert.assertEquals(new HashSet<>(node.getInLinks().values()), inLinks);
+		}
+
+		Assert.assertEquals(0, graph.getOutEnd(graph.getNodeIndex(n4)) - graph.getOutStart(graph.getNodeIndex(n4)));
+		Node other = NetworkUtils.createNode(Id.create("5", Node.class), new Coord(0, 0));
+		Assert.assertEquals(-1, graph.getNodeIndex(other));
+	}
+
+}
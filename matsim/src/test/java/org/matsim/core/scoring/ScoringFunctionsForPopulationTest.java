@@ -5,10 +5,14 @@ import org.junit.Test;
 import org.matsim.api.core.v01.Coord;
 import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
 import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.network.Link;
 import org.matsim.api.core.v01.population.Activity;
 import org.matsim.api.core.v01.population.Leg;
 import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.population.Population;
 import org.matsim.api.core.v01.population.PopulationFactory;
 import org.matsim.core.api.experimental.events.EventsManager;
@@ -69,17 +73,178 @@ public class ScoringFunctionsForPopulationTest {
 		Assert.assertEquals("transit_walk", ((Leg) rs.lastTrip.getTripElements().get(4)).getMode());
 	}
 
+	@Test
+	public void testIncrementalScoring() {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		Id<Person> personId = Id.create(1, Person.class);
+		Person p = pf.createPerson(personId);
+		p.addPlan(pf.createPlan());
+		population.addPerson(p);
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		ScoringFunctionFactory scoringFunctionFactory = agentId -> new RecordingScoringFunction();
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, new EventsToActivities(),
+				new EventsToLegs(scenario), population, scoringFunctionFactory, 60.0);
+
+		// iteration 0: scored as usual
+		controlerListenerManager.fireControlerIterationStartsEvent(0);
+		RecordingScoringFunction rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		experienceDay(sf, pf, personId, 1800.0);
+		Assert.assertEquals(3, rs.handledCounter);
+		sf.finishScoringFunctions();
+		Assert.assertEquals(3.0, sf.getScoringFunctionForAgent(personId).getScore(), 0.0);
+
+		// iteration 1: same plan, leg only 30 seconds slower: the score of iteration 0 is re-used
+		controlerListenerManager.fireControlerIterationStartsEvent(1);
+		rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		experienceDay(sf, pf, personId, 1830.0);
+		Assert.assertEquals(0, rs.handledCounter);
+		sf.finishScoringFunctions();
+		Assert.assertNotSame(rs, sf.getScoringFunctionForAgent(personId));
+		Assert.assertEquals(3.0, sf.getScoringFunctionForAgent(personId).getScore(), 0.0);
+
+		// iteration 2: leg 2 minutes slower than in iteration 0: scored again, including the kept first activity
+		controlerListenerManager.fireControlerIterationStartsEvent(2);
+		rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		experienceDay(sf, pf, personId, 1920.0);
+		Assert.assertEquals(3, rs.handledCounter);
+		sf.finishScoringFunctions();
+		Assert.assertSame(rs, sf.getScoringFunctionForAgent(personId));
+
+		// iteration 3: another plan is selected: scored again
+		controlerListenerManager.fireControlerIterationStartsEvent(3);
+		Plan plan = pf.createPlan();
+		p.addPlan(plan);
+		p.setSelectedPlan(plan);
+		rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		experienceDay(sf, pf, personId, 1920.0);
+		Assert.assertEquals(3, rs.handledCounter);
+	}
+
+	@Test
+	public void testIncrementalScoring_moneyEventsAreNotReused() {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		Id<Person> personId = Id.create(1, Person.class);
+		Person p = pf.createPerson(personId);
+		p.addPlan(pf.createPlan());
+		population.addPerson(p);
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		ScoringFunctionFactory scoringFunctionFactory = agentId -> new RecordingScoringFunction();
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, new EventsToActivities(),
+				new EventsToLegs(scenario), population, scoringFunctionFactory, 60.0);
+
+		// iteration 0: scored as usual, and kept as reference
+		controlerListenerManager.fireControlerIterationStartsEvent(0);
+		experienceDay(sf, pf, personId, 1800.0);
+		sf.finishScoringFunctions();
+
+		// iteration 1: same day, but with a toll: scored again
+		controlerListenerManager.fireControlerIterationStartsEvent(1);
+		RecordingScoringFunction rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		experienceDay(sf, pf, personId, 1800.0);
+		sf.handleEvent(new PersonMoneyEvent(8 * 3600, personId, -5.0));
+		sf.finishScoringFunctions();
+		Assert.assertEquals(3, rs.handledCounter);
+		Assert.assertSame(rs, sf.getScoringFunctionForAgent(personId));
+
+		// iteration 2: same day without toll: neither the score with the toll nor the one before it may be re-used
+		controlerListenerManager.fireControlerIterationStartsEvent(2);
+		rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		experienceDay(sf, pf, personId, 1800.0);
+		sf.finishScoringFunctions();
+		Assert.assertEquals(3, rs.handledCounter);
+		Assert.assertSame(rs, sf.getScoringFunctionForAgent(personId));
+
+		// iteration 3: same day again: now the score of iteration 2 is re-used
+		controlerListenerManager.fireControlerIterationStartsEvent(3);
+		rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		experienceDay(sf, pf, personId, 1800.0);
+		sf.finishScoringFunctions();
+		Assert.assertEquals(0, rs.handledCounter);
+		Assert.assertNotSame(rs, sf.getScoringFunctionForAgent(personId));
+	}
+
+	@Test
+	public void testIncrementalScoring_eventsAreKeptUntilTheDayDiffers() {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		Population population = scenario.getPopulation();
+		PopulationFactory pf = population.getFactory();
+		Id<Person> personId = Id.create(1, Person.class);
+		Person p = pf.createPerson(personId);
+		p.addPlan(pf.createPlan());
+		population.addPerson(p);
+
+		ControlerListenerManagerImpl controlerListenerManager = new ControlerListenerManagerImpl();
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		ScoringFunctionFactory scoringFunctionFactory = agentId -> new RecordingScoringFunction();
+		ScoringFunctionsForPopulation sf = new ScoringFunctionsForPopulation(controlerListenerManager, eventsManager, new EventsToActivities(),
+				new EventsToLegs(scenario), population, scoringFunctionFactory, 60.0);
+
+		// iteration 0: every event is handled
+		controlerListenerManager.fireControlerIterationStartsEvent(0);
+		RecordingScoringFunction rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		sf.handleEvent(new ActivityEndEvent(7 * 3600, personId, Id.create(1, Link.class), null, "home"));
+		experienceDay(sf, pf, personId, 1800.0);
+		sf.finishScoringFunctions();
+		Assert.assertEquals(1, rs.eventCounter);
+
+		// iteration 1: same day: the score is re-used, and the scoring function gets no event at all
+		controlerListenerManager.fireControlerIterationStartsEvent(1);
+		rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		sf.handleEvent(new ActivityEndEvent(7 * 3600, personId, Id.create(1, Link.class), null, "home"));
+		experienceDay(sf, pf, personId, 1800.0);
+		sf.finishScoringFunctions();
+		Assert.assertEquals(0, rs.eventCounter);
+		Assert.assertEquals(0, rs.handledCounter);
+		Assert.assertNotSame(rs, sf.getScoringFunctionForAgent(personId));
+
+		// iteration 2: the leg differs: the kept event is handed to the scoring function after all
+		controlerListenerManager.fireControlerIterationStartsEvent(2);
+		rs = (RecordingScoringFunction) sf.getScoringFunctionForAgent(personId);
+		sf.handleEvent(new ActivityEndEvent(7 * 3600, personId, Id.create(1, Link.class), null, "home"));
+		Assert.assertEquals(0, rs.eventCounter);
+		experienceDay(sf, pf, personId, 2400.0);
+		sf.finishScoringFunctions();
+		Assert.assertEquals(1, rs.eventCounter);
+		Assert.assertEquals(3, rs.handledCounter);
+		Assert.assertSame(rs, sf.getScoringFunctionForAgent(personId));
+	}
+
+	private static void experienceDay(ScoringFunctionsForPopulation sf, PopulationFactory pf, Id<Person> personId, double travelTime) {
+		Activity home = pf.createActivityFromCoord("home", new Coord(100, 100));
+		home.setEndTime(7 * 3600);
+		sf.handleActivity(new PersonExperiencedActivity(personId, home));
+		Leg leg = pf.createLeg("walk");
+		leg.setDepartureTime(7 * 3600);
+		leg.setTravelTime(travelTime);
+		sf.handleLeg(new PersonExperiencedLeg(personId, leg));
+		Activity work = pf.createActivityFromCoord("work", new Coord(1000, 100));
+		work.setStartTime(7 * 3600 + travelTime);
+		sf.handleActivity(new PersonExperiencedActivity(personId, work));
+	}
+
 	private static class RecordingScoringFunction implements ScoringFunction {
 
+		int handledCounter = 0;
+		int eventCounter = 0;
 		int tripCounter = 0;
 		TripStructureUtils.Trip lastTrip = null;
 
 		@Override
 		public void handleActivity(Activity activity) {
+			this.handledCounter++;
 		}
 
 		@Override
 		public void handleLeg(Leg leg) {
+			this.handledCounter++;
 		}
 
 		@Override
@@ -102,11 +267,12 @@ public class ScoringFunctionsForPopulationTest {
 
 		@Override
 		public double getScore() {
-			return 0;
+			return this.handledCounter;
 		}
 
 		@Override
 		public void handleEvent(Event event) {
+			this.eventCounter++;
 		}
 	}
 
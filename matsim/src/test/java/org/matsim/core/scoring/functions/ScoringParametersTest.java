@@ -0,0 +1,69 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ScoringParametersTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.scoring.functions;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup.ActivityParams;
+import org.matsim.core.config.groups.ScenarioConfigGroup;
+
+public class ScoringParametersTest {
+
+	@Test
+	public void testLookupsMatchMaps() {
+		PlanCalcScoreConfigGroup config = new PlanCalcScoreConfigGroup();
+		ActivityParams home = new ActivityParams("home");
+		home.setTypicalDuration(12 * 3600);
+		config.addActivityParams(home);
+		ActivityParams work = new ActivityParams("work");
+		work.setTypicalDuration(8 * 3600);
+		config.addActivityParams(work);
+
+		ScoringParameters params = new ScoringParameters.Builder(config, config.getScoringParameters(null), new ScenarioConfigGroup()).build();
+
+		for (String type : params.utilParams.keySet()) {
+			Assert.assertSame(params.utilParams.get(type), params.getActivityParameters(new String(type)));
+		}
+		for (String mode : params.modeParams.keySet()) {
+			Assert.assertSame(params.modeParams.get(mode), params.getModeParameters(new String(mode)));
+		}
+		Assert.assertNull(params.getActivityParameters("shop"));
+		Assert.assertNull(params.getModeParameters("teleportation"));
+
+		ActivityUtilityParameters homeParams = params.getActivityParameters("home");
+		Assert.assertEquals(3600. * homeParams.getZeroUtilityDuration_h(), homeParams.getZeroUtilityDuration_s(), 0.0);
+	}
+
+	@Test
+	public void testWalkModesFallBackToWalk() {
+		PlanCalcScoreConfigGroup config = new PlanCalcScoreConfigGroup();
+		ScoringParameters params = new ScoringParameters.Builder(config, config.getScoringParameters(null), new ScenarioConfigGroup()).build();
+
+		ModeUtilityParameters walk = params.getModeParameters(TransportMode.walk);
+		Assert.assertNotNull(walk);
+		Assert.assertSame(walk, params.getModeParameters(TransportMode.transit_walk));
+		Assert.assertSame(walk, params.getModeParameters(TransportMode.access_walk));
+		Assert.assertSame(walk, params.getModeParameters(TransportMode.egress_walk));
+		Assert.assertFalse(params.modeParams.containsKey(TransportMode.transit_walk));
+	}
+
+}
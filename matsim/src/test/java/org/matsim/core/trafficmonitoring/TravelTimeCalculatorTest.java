@@ -413,6 +413,51 @@ public class TravelTimeCalculatorTest extends MatsimTestCase {
 
 	}
 
+	public void testGetLinkTravelTime_snapshotForRouting() {
+		Network network = NetworkUtils.createNetwork();
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(900);
+		config.setUseSnapshotForRouting(true);
+
+		Node n1 = network.getFactory().createNode(Id.create(1, Node.class), new Coord(0, 0));
+		Node n2 = network.getFactory().createNode(Id.create(2, Node.class), new Coord(1000, 0));
+		network.addNode(n1);
+		network.addNode(n2);
+		Link link1 = network.getFactory().createLink(Id.create(1, Link.class), n1, n2);
+		network.addLink(link1);
+
+		TravelTimeCalculator.Builder builder = new TravelTimeCalculator.Builder(network);
+		builder.setTimeslice(900);
+		builder.configure(config);
+		TravelTimeCalculator ttc = builder.build();
+
+		Id<Vehicle> vehId = Id.create("veh", Vehicle.class);
+
+		ttc.handleEvent(new LinkEnterEvent(100, vehId, link1.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(200, vehId, link1.getId()));
+		Assert.assertEquals("nothing frozen yet, so the router should see free speed", 1000.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-8);
+
+		ttc.freezeSnapshotForRouting();
+		Assert.assertEquals(100.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-8);
+
+		// the next iteration collects into the other buffer; the snapshot is neither reset nor changed by the new events:
+		ttc.reset(1);
+		Assert.assertEquals(100.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-8);
+		ttc.handleEvent(new LinkEnterEvent(100, vehId, link1.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(400, vehId, link1.getId()));
+		Assert.assertEquals(100.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-8);
+
+		ttc.freezeSnapshotForRouting();
+		Assert.assertEquals(300.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-8);
+
+		// the buffer that held the first snapshot is re-used, and must not carry its old travel times into the third iteration:
+		ttc.reset(2);
+		ttc.handleEvent(new LinkEnterEvent(100, vehId, link1.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(150, vehId, link1.getId()));
+		ttc.freezeSnapshotForRouting();
+		Assert.assertEquals(50.0, ttc.getLinkTravelTimes().getLinkTravelTime(link1, 200, null, null), 1e-8);
+	}
+
 	/**
 	 * Enable filtering but set an empty string as modes to analyze.
 	 * Expect that all link travel times are ignored.
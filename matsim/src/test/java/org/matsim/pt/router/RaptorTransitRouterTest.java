@@ -0,0 +1,364 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RaptorTransitRouterTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.pt.router;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.pt.routes.ExperimentalTransitRoute;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitScheduleFactory;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+import org.matsim.testcases.MatsimTestCase;
+
+public class RaptorTransitRouterTest {
+
+	@Test
+	public void testSingleLine() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		Coord fromCoord = new Coord(3800, 5100);
+		Coord toCoord = new Coord(16100, 5050);
+		List<Leg> legs = router.calcRoute(new FakeFacility(fromCoord), new FakeFacility(toCoord), 5.0*3600, null);
+		assertEquals(3, legs.size());
+		assertEquals(TransportMode.transit_walk, legs.get(0).getMode());
+		assertEquals(TransportMode.pt, legs.get(1).getMode());
+		assertEquals(TransportMode.transit_walk, legs.get(2).getMode());
+		assertTrue("expected TransitRoute in leg.", legs.get(1).getRoute() instanceof ExperimentalTransitRoute);
+		ExperimentalTransitRoute ptRoute = (ExperimentalTransitRoute) legs.get(1).getRoute();
+		assertEquals(Id.create("0", TransitStopFacility.class), ptRoute.getAccessStopId());
+		assertEquals(Id.create("6", TransitStopFacility.class), ptRoute.getEgressStopId());
+		assertEquals(f.blueLine.getId(), ptRoute.getLineId());
+		assertEquals(Id.create("blue A > I", TransitRoute.class), ptRoute.getRouteId());
+		double actualTravelTime = 0.0;
+		for (Leg leg : legs) {
+			actualTravelTime += leg.getTravelTime();
+		}
+		double expectedTravelTime = 29.0 * 60 + // agent takes the *:06 course, arriving in D at *:29
+				CoordUtils.calcEuclideanDistance(f.schedule.getFacilities().get(Id.create("6", TransitStopFacility.class)).getCoord(), toCoord) / trConfig.getBeelineWalkSpeed();
+		assertEquals(expectedTravelTime, actualTravelTime, MatsimTestCase.EPSILON);
+	}
+
+	@Test
+	public void testLineChange() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		Coord toCoord = new Coord(16100, 10050);
+		List<Leg> legs = router.calcRoute(new FakeFacility(new Coord(3800, 5100)), new FakeFacility(toCoord), 6.0*3600, null);
+		assertEquals(5, legs.size());
+		assertEquals(TransportMode.transit_walk, legs.get(0).getMode());
+		assertEquals(TransportMode.pt, legs.get(1).getMode());
+		assertEquals(TransportMode.transit_walk, legs.get(2).getMode());
+		assertEquals(TransportMode.pt, legs.get(3).getMode());
+		assertEquals(TransportMode.transit_walk, legs.get(4).getMode());
+		ExperimentalTransitRoute ptRoute = (ExperimentalTransitRoute) legs.get(1).getRoute();
+		assertEquals(Id.create("0", TransitStopFacility.class), ptRoute.getAccessStopId());
+		assertEquals(Id.create("4", TransitStopFacility.class), ptRoute.getEgressStopId());
+		assertEquals(f.blueLine.getId(), ptRoute.getLineId());
+		ptRoute = (ExperimentalTransitRoute) legs.get(3).getRoute();
+		assertEquals(Id.create("18", TransitStopFacility.class), ptRoute.getAccessStopId());
+		assertEquals(Id.create("19", TransitStopFacility.class), ptRoute.getEgressStopId());
+		assertEquals(f.greenLine.getId(), ptRoute.getLineId());
+		assertEquals(Id.create("green clockwise", TransitRoute.class), ptRoute.getRouteId());
+		double actualTravelTime = 0.0;
+		for (Leg leg : legs) {
+			actualTravelTime += leg.getTravelTime();
+		}
+		double expectedTravelTime = 31.0 * 60 + // agent takes the *:06 course, arriving in C at *:18, walks to the green line, departing at *:21, arriving in K at*:31
+				CoordUtils.calcEuclideanDistance(f.schedule.getFacilities().get(Id.create("19", TransitStopFacility.class)).getCoord(), toCoord) / trConfig.getBeelineWalkSpeed();
+		assertEquals(expectedTravelTime, actualTravelTime, MatsimTestCase.EPSILON);
+	}
+
+	@Test
+	public void testLineChange_sameStop() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		Coord toCoord = new Coord(28100, 4950);
+		List<Leg> legs = router.calcRoute(new FakeFacility(new Coord(3800, 5100)), new FakeFacility(toCoord), 5.0*3600 + 40.0*60, null);
+		assertEquals(4, legs.size());
+		assertEquals(TransportMode.transit_walk, legs.get(0).getMode());
+		assertEquals(TransportMode.pt, legs.get(1).getMode());
+		assertEquals(TransportMode.pt, legs.get(2).getMode());
+		assertEquals(TransportMode.transit_walk, legs.get(3).getMode());
+		ExperimentalTransitRoute ptRoute = (ExperimentalTransitRoute) legs.get(1).getRoute();
+		assertEquals(Id.create("0", TransitStopFacility.class), ptRoute.getAccessStopId());
+		assertEquals(Id.create("4", TransitStopFacility.class), ptRoute.getEgressStopId());
+		assertEquals(f.blueLine.getId(), ptRoute.getLineId());
+		ptRoute = (ExperimentalTransitRoute) legs.get(2).getRoute();
+		assertEquals(Id.create("4", TransitStopFacility.class), ptRoute.getAccessStopId());
+		assertEquals(Id.create("12", TransitStopFacility.class), ptRoute.getEgressStopId());
+		assertEquals(f.redLine.getId(), ptRoute.getLineId());
+		assertEquals(Id.create("red C > G", TransitRoute.class), ptRoute.getRouteId());
+		double actualTravelTime = 0.0;
+		for (Leg leg : legs) {
+			actualTravelTime += leg.getTravelTime();
+		}
+		double expectedTravelTime = 29.0 * 60 + // agent takes the *:46 course, arriving in C at *:58, departing at *:00, arriving in G at*:09
+				CoordUtils.calcEuclideanDistance(f.schedule.getFacilities().get(Id.create("12", TransitStopFacility.class)).getCoord(), toCoord) / trConfig.getBeelineWalkSpeed();
+		assertEquals(expectedTravelTime, actualTravelTime, MatsimTestCase.EPSILON);
+	}
+
+	@Test
+	public void testParetoSet_lineChange() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		List<RaptorRoute> routes = router.calcParetoSet(new FakeFacility(new Coord(3800, 5100)), new FakeFacility(new Coord(28100, 4950)), 5.0*3600 + 40.0*60, null);
+		// the route with the transfer to the red line arrives earliest
+		RaptorRoute earliest = routes.get(0);
+		assertEquals(1, earliest.getNumberOfTransfers());
+		for (RaptorRoute route : routes) {
+			assertTrue(route.getArrivalTime() >= earliest.getArrivalTime());
+			if (route != earliest) {
+				// any other Pareto-optimal route arrives later, so it must have fewer transfers or a lower cost
+				assertTrue(route.getNumberOfTransfers() < earliest.getNumberOfTransfers() || route.getTravelCost() < earliest.getTravelCost());
+			}
+		}
+	}
+
+	/**
+	 * Compares the routes with the ones of {@link TransitRouterImpl} on the same schedule, for trips with and without
+	 * transfers, by walking and at the same stop.
+	 */
+	@Test
+	public void testSameRoutesAsTransitRouterImpl() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter raptor = new RaptorTransitRouter(trConfig, f.schedule);
+		TransitRouterImpl reference = new TransitRouterImpl(trConfig, f.schedule);
+		Coord[][] odPairs = new Coord[][] {
+			{ new Coord(3800, 5100), new Coord(16100, 5050) }, // single line
+			{ new Coord(3800, 5100), new Coord(16100, 10050) }, // change lines with a walk
+			{ new Coord(3800, 5100), new Coord(28100, 4950) }, // change lines at the same stop
+		};
+		// (the same trips as in TransitRouterImplTest)
+		double[] departureTimes = new double[] { 5.0*3600, 6.0*3600, 5.0*3600 + 40.0*60 };
+		for (int p = 0; p < odPairs.length; p++) {
+			Coord[] od = odPairs[p];
+			double departureTime = departureTimes[p];
+			String message = "from " + od[0] + " to " + od[1] + " at " + departureTime + ": ";
+			List<Leg> expected = reference.calcRoute(new FakeFacility(od[0]), new FakeFacility(od[1]), departureTime, null);
+			List<Leg> actual = raptor.calcRoute(new FakeFacility(od[0]), new FakeFacility(od[1]), departureTime, null);
+			assertNotNull(message, actual);
+			assertEquals(message + "number of legs", expected.size(), actual.size());
+			double expectedTravelTime = 0.0;
+			double actualTravelTime = 0.0;
+			for (int i = 0; i < expected.size(); i++) {
+				Leg expectedLeg = expected.get(i);
+				Leg actualLeg = actual.get(i);
+				assertEquals(message + "mode of leg " + i, expectedLeg.getMode(), actualLeg.getMode());
+				if (expectedLeg.getRoute() instanceof ExperimentalTransitRoute) {
+					ExperimentalTransitRoute expectedRoute = (ExperimentalTransitRoute) expectedLeg.getRoute();
+					ExperimentalTransitRoute actualRoute = (ExperimentalTransitRoute) actualLeg.getRoute();
+					assertEquals(message + "line of leg " + i, expectedRoute.getLineId(), actualRoute.getLineId());
+					assertEquals(message + "route of leg " + i, expectedRoute.getRouteId(), actualRoute.getRouteId());
+					assertEquals(message + "access stop of leg " + i, expectedRoute.getAccessStopId(), actualRoute.getAccessStopId());
+					assertEquals(message + "egress stop of leg " + i, expectedRoute.getEgressStopId(), actualRoute.getEgressStopId());
+				}
+				expectedTravelTime += expectedLeg.getTravelTime();
+				actualTravelTime += actualLeg.getTravelTime();
+			}
+			assertEquals(message + "travel time", expectedTravelTime, actualTravelTime, MatsimTestCase.EPSILON);
+		}
+	}
+
+	/**
+	 * Pins down where RAPTOR differs from {@link TransitRouterImpl}: the cost is not a criterion of the search, so a
+	 * route that is cheaper, but arrives later at the same stop with the same number of transfers, is never found.
+	 * Here, a slow line leaves next to the origin, and a fast one after a long and expensive walk; both arrive at the
+	 * same stop.
+	 */
+	@Test
+	public void testCheaperLaterRouteIsNotFound() {
+		Scenario scenario = ScenarioUtils.createScenario(ConfigUtils.createConfig());
+		scenario.getConfig().transit().setUseTransit(true);
+		Network network = scenario.getNetwork();
+		Node nodeNear = network.getFactory().createNode(Id.create("near", Node.class), new Coord(0, 100));
+		Node nodeFar = network.getFactory().createNode(Id.create("far", Node.class), new Coord(0, -400));
+		Node nodeTo = network.getFactory().createNode(Id.create("to", Node.class), new Coord(5000, 100));
+		network.addNode(nodeNear);
+		network.addNode(nodeFar);
+		network.addNode(nodeTo);
+		Link slowLink = network.getFactory().createLink(Id.create("slow", Link.class), nodeNear, nodeTo);
+		Link fastLink = network.getFactory().createLink(Id.create("fast", Link.class), nodeFar, nodeTo);
+		network.addLink(slowLink);
+		network.addLink(fastLink);
+
+		TransitSchedule schedule = scenario.getTransitSchedule();
+		TransitScheduleFactory sb = schedule.getFactory();
+		TransitStopFacility stopNear = sb.createTransitStopFacility(Id.create("near", TransitStopFacility.class), nodeNear.getCoord(), false);
+		TransitStopFacility stopFar = sb.createTransitStopFacility(Id.create("far", TransitStopFacility.class), nodeFar.getCoord(), false);
+		TransitStopFacility stopTo = sb.createTransitStopFacility(Id.create("to", TransitStopFacility.class), nodeTo.getCoord(), false);
+		stopNear.setLinkId(slowLink.getId());
+		stopFar.setLinkId(fastLink.getId());
+		stopTo.setLinkId(fastLink.getId());
+		schedule.addStopFacility(stopNear);
+		schedule.addStopFacility(stopFar);
+		schedule.addStopFacility(stopTo);
+		addLine(schedule, "slow", slowLink, stopNear, stopTo, 600.0);
+		addLine(schedule, "fast", fastLink, stopFar, stopTo, 300.0);
+
+		TransitRouterConfig trConfig = new TransitRouterConfig(scenario.getConfig());
+		trConfig.setMarginalUtilityOfTravelTimeWalk_utl_s(-66.0 / 3600.0); // walking is expensive
+		RaptorTransitRouter raptor = new RaptorTransitRouter(trConfig, schedule);
+		TransitRouterImpl reference = new TransitRouterImpl(trConfig, schedule);
+		FakeFacility from = new FakeFacility(new Coord(0, 0));
+		FakeFacility to = new FakeFacility(new Coord(5000, 0));
+
+		List<Leg> expected = reference.calcRoute(from, to, 0.0, null);
+		assertEquals(3, expected.size());
+		assertEquals(Id.create("slow", TransitLine.class), ((ExperimentalTransitRoute) expected.get(1).getRoute()).getLineId());
+
+		List<Leg> actual = raptor.calcRoute(from, to, 0.0, null);
+		assertEquals(3, actual.size());
+		assertEquals(Id.create("fast", TransitLine.class), ((ExperimentalTransitRoute) actual.get(1).getRoute()).getLineId());
+		List<RaptorRoute> paretoSet = raptor.calcParetoSet(from, to, 0.0, null);
+		assertEquals(1, paretoSet.size());
+	}
+
+	private static void addLine(TransitSchedule schedule, String id, Link link, TransitStopFacility fromStop,
+			TransitStopFacility toStop, double travelTime) {
+		TransitScheduleFactory sb = schedule.getFactory();
+		TransitLine line = sb.createTransitLine(Id.create(id, TransitLine.class));
+		List<TransitRouteStop> stops = new ArrayList<>(2);
+		stops.add(sb.createTransitRouteStop(fromStop, 0, 0));
+		stops.add(sb.createTransitRouteStop(toStop, travelTime, travelTime));
+		TransitRoute route = sb.createTransitRoute(Id.create(id, TransitRoute.class),
+				RouteUtils.createLinkNetworkRouteImpl(link.getId(), link.getId()), stops, "bus");
+		route.addDeparture(sb.createDeparture(Id.create(id, Departure.class), 1000.0));
+		line.addRoute(route);
+		schedule.addTransitLine(line);
+	}
+
+	@Test
+	public void testParetoSet_singleLine() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		List<RaptorRoute> routes = router.calcParetoSet(new FakeFacility(new Coord(3800, 5100)), new FakeFacility(new Coord(16100, 5050)), 5.0*3600, null);
+		assertTrue(routes.size() >= 1);
+		RaptorRoute route = routes.get(0); // the one with the earliest arrival
+		assertEquals(0, route.getNumberOfTransfers());
+		assertEquals(5.0*3600, route.getDepartureTime(), MatsimTestCase.EPSILON);
+		assertTrue(route.getArrivalTime() > 5.0*3600 + 29.0*60);
+		assertTrue(route.getArrivalTime() < 5.0*3600 + 35.0*60);
+	}
+
+	@Test
+	public void testRangeQuery_allDepartures() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		Coord fromCoord = new Coord(3800, 5100);
+		List<RaptorRoute> routes = router.calcRoutes(new FakeFacility(fromCoord), new FakeFacility(new Coord(16100, 5050)),
+				5.0*3600, 5.0*3600 + 50.0*60, null);
+		// the blue line leaves A at 5:06, 5:26 and 5:46
+		assertEquals(3, routes.size());
+		double accessWalkTime = CoordUtils.calcEuclideanDistance(fromCoord, f.schedule.getFacilities().get(Id.create("0", TransitStopFacility.class)).getCoord()) / trConfig.getBeelineWalkSpeed();
+		double[] expectedDepartures = new double[] {5.0*3600 + 6.0*60, 5.0*3600 + 26.0*60, 5.0*3600 + 46.0*60};
+		for (int i = 0; i < routes.size(); i++) {
+			RaptorRoute route = routes.get(i);
+			assertEquals(expectedDepartures[i] - accessWalkTime, route.getDepartureTime(), MatsimTestCase.EPSILON);
+			assertEquals(0, route.getNumberOfTransfers());
+			List<Leg> legs = router.createLegs(route, new FakeFacility(fromCoord), new FakeFacility(new Coord(16100, 5050)), null);
+			assertEquals(3, legs.size());
+			assertEquals(TransportMode.pt, legs.get(1).getMode());
+		}
+	}
+
+	@Test
+	public void testRangeQuery_noDepartures() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		List<RaptorRoute> routes = router.calcRoutes(new FakeFacility(new Coord(3800, 5100)), new FakeFacility(new Coord(16100, 5050)),
+				5.0*3600 + 7.0*60, 5.0*3600 + 20.0*60, null);
+		assertTrue(routes.isEmpty());
+	}
+
+	@Test
+	public void testStopArrivals() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		RaptorStopProfiles arrivals = router.calcStopArrivals(new Coord(3800, 5100), 5.0*3600, null);
+		TransitStopFacility stopA = f.schedule.getFacilities().get(Id.create("0", TransitStopFacility.class));
+		TransitStopFacility stopD = f.schedule.getFacilities().get(Id.create("6", TransitStopFacility.class));
+		assertEquals(1, arrivals.getEntryCount(stopA)); // by walking
+		assertEquals(1, arrivals.getEntryCount(stopD));
+		assertEquals(5.0*3600 + 29.0*60, arrivals.getArrivalTime(stopD, 0), MatsimTestCase.EPSILON);
+		assertEquals(0, arrivals.getNumberOfTransfers(stopD, 0));
+		assertTrue(arrivals.getTravelCost(stopD, 0) > arrivals.getTravelCost(stopA, 0));
+	}
+
+	@Test
+	public void testStopProfiles() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		RaptorStopProfiles profiles = router.calcStopProfiles(new Coord(3800, 5100), 5.0*3600, 5.0*3600 + 50.0*60, null);
+		TransitStopFacility stopD = f.schedule.getFacilities().get(Id.create("6", TransitStopFacility.class));
+		// the blue line leaves A at 5:06, 5:26 and 5:46
+		assertEquals(3, profiles.getEntryCount(stopD));
+		assertEquals(5.0*3600 + 29.0*60, profiles.getArrivalTime(stopD, 0), MatsimTestCase.EPSILON);
+		assertEquals(5.0*3600 + 49.0*60, profiles.getArrivalTime(stopD, 1), MatsimTestCase.EPSILON);
+		assertEquals(6.0*3600 + 9.0*60, profiles.getArrivalTime(stopD, 2), MatsimTestCase.EPSILON);
+		assertEquals(5.0*3600 + 49.0*60, profiles.getEarliestArrivalTime(stopD, 5.0*3600 + 10.0*60), MatsimTestCase.EPSILON);
+		assertEquals(Double.POSITIVE_INFINITY, profiles.getEarliestArrivalTime(stopD, 5.0*3600 + 55.0*60), 0.0);
+		double average = profiles.getAverageTravelTime(stopD);
+		assertTrue(average > 23.0*60);
+		assertTrue(average < 23.0*60 + 20.0*60);
+	}
+
+}
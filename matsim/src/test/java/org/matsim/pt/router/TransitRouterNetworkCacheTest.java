@@ -0,0 +1,105 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TransitRouterNetworkCacheTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.pt.router;
+
+import java.util.Iterator;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.pt.router.TransitRouterNetwork.TransitRouterNetworkLink;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class TransitRouterNetworkCacheTest {
+
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testWriteAndRead() {
+		Fixture f = new Fixture();
+		f.init();
+		String cacheDirectory = this.utils.getOutputDirectory() + "cache";
+		TransitRouterNetwork expected = TransitRouterNetwork.createFromSchedule(f.schedule, 1000.0);
+
+		TransitRouterNetworkCache cache = new TransitRouterNetworkCache(cacheDirectory, f.schedule, 1000.0);
+		Assert.assertFalse(cache.getFile().exists());
+		TransitRouterNetwork written = TransitRouterNetwork.createFromSchedule(f.schedule, 1000.0, cacheDirectory);
+		Assert.assertTrue(cache.getFile().exists());
+		assertSameLinks(expected, written);
+
+		TransitRouterNetwork read = TransitRouterNetwork.createFromSchedule(f.schedule, 1000.0, cacheDirectory);
+		assertSameLinks(expected, read);
+	}
+
+	@Test
+	public void testSecondCreationReadsCache() {
+		Fixture f = new Fixture();
+		f.init();
+		String cacheDirectory = this.utils.getOutputDirectory() + "cache";
+		TransitRouterNetwork first = TransitRouterNetwork.createFromSchedule(f.schedule, 1000.0, cacheDirectory);
+		Assert.assertTrue("the fixture should have transfer links", countTransferLinks(first) > 0);
+
+		// replace the cached transfers by none at all; a network that is really read from the cache then has no transfer links
+		TransitRouterNetworkCache cache = new TransitRouterNetworkCache(cacheDirectory, f.schedule, 1000.0);
+		cache.write(new int[first.getNodes().size()][0]);
+		TransitRouterNetwork second = TransitRouterNetwork.createFromSchedule(f.schedule, 1000.0, cacheDirectory);
+		Assert.assertEquals(first.getNodes().size(), second.getNodes().size());
+		Assert.assertEquals("the transfers were not taken from the cache", 0, countTransferLinks(second));
+		Assert.assertEquals(first.getLinks().size() - countTransferLinks(first), second.getLinks().size());
+	}
+
+	@Test
+	public void testDifferentDistanceDifferentFile() {
+		Fixture f = new Fixture();
+		f.init();
+		String cacheDirectory = this.utils.getOutputDirectory() + "cache";
+		TransitRouterNetwork.createFromSchedule(f.schedule, 1000.0, cacheDirectory);
+
+		TransitRouterNetworkCache cache = new TransitRouterNetworkCache(cacheDirectory, f.schedule, 100.0);
+		Assert.assertFalse(cache.getFile().exists());
+		TransitRouterNetwork network = TransitRouterNetwork.createFromSchedule(f.schedule, 100.0, cacheDirectory);
+		assertSameLinks(TransitRouterNetwork.createFromSchedule(f.schedule, 100.0), network);
+	}
+
+	private static int countTransferLinks(final TransitRouterNetwork network) {
+		int count = 0;
+		for (TransitRouterNetworkLink link : network.getLinks().values()) {
+			if (link.getRoute() == null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void assertSameLinks(final TransitRouterNetwork expected, final TransitRouterNetwork actual) {
+		Assert.assertEquals(expected.getNodes().size(), actual.getNodes().size());
+		Assert.assertEquals(expected.getLinks().size(), actual.getLinks().size());
+		Iterator<? extends TransitRouterNetworkLink> actualLinks = actual.getLinks().values().iterator();
+		for (TransitRouterNetworkLink link : expected.getLinks().values()) {
+			TransitRouterNetworkLink other = actualLinks.next();
+			Assert.assertEquals(link.getId(), other.getId());
+			Assert.assertEquals(link.getFromNode().getId(), other.getFromNode().getId());
+			Assert.assertEquals(link.getToNode().getId(), other.getToNode().getId());
+			Assert.assertSame(link.getRoute(), other.getRoute());
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * NetworkSkimCalculatorTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.utils.leastcostpathtree;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.matrices.Matrices;
+import org.matsim.matrices.Matrix;
+
+public class NetworkSkimCalculatorTest {
+
+	@Test
+	public void testSkims() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord(1000, 0));
+		Node n3 = NetworkUtils.createAndAddNode(network, Id.create("3", Node.class), new Coord(3000, 0));
+		NetworkUtils.createAndAddLink(network, Id.create("12", Link.class), n1, n2, 1000.0, 10.0, 1000.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.create("23", Link.class), n2, n3, 2000.0, 20.0, 1000.0, 1.0);
+		NetworkUtils.createAndAddLink(network, Id.create("21", Link.class), n2, n1, 1000.0, 10.0, 1000.0, 1.0);
+
+		// cost == travel time
+		FreespeedTravelTimeAndDisutility ttd = new FreespeedTravelTimeAndDisutility(0.0, 1.0, 0.0);
+		NetworkSkimCalculator calculator = new NetworkSkimCalculator(network, ttd, ttd, 2);
+		Map<String, Node> zones = new LinkedHashMap<>();
+		zones.put("a", n1);
+		zones.put("b", n2);
+		zones.put("c", n3);
+		Matrices skims = calculator.calculate(zones, new double[] {7.0 * 3600, 17.0 * 3600});
+
+		Assert.assertEquals(6, skims.getMatrices().size());
+		for (int b = 0; b < 2; b++) {
+			Matrix times = skims.getMatrix(NetworkSkimCalculator.TRAVEL_TIME + "_" + b);
+			Matrix distances = skims.getMatrix(NetworkSkimCalculator.DISTANCE + "_" + b);
+			Matrix costs = skims.getMatrix(NetworkSkimCalculator.COST + "_" + b);
+			Assert.assertEquals(0.0, times.getEntry("a", "a").getValue(), 1e-8);
+			Assert.assertEquals(200.0, times.getEntry("a", "c").getValue(), 1e-8);
+			Assert.assertEquals(3000.0, distances.getEntry("a", "c").getValue(), 1e-8);
+			Assert.assertEquals(200.0, costs.getEntry("a", "c").getValue(), 1e-8);
+			Assert.assertEquals(100.0, times.getEntry("b", "a").getValue(), 1e-8);
+			Assert.assertNull("c is a dead end", times.getEntry("c", "a"));
+			Assert.assertNull(distances.getEntry("c", "b"));
+		}
+	}
+
+}
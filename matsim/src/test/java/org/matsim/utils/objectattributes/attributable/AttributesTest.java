@@ -80,4 +80,32 @@ public class AttributesTest {
 		Assert.assertNull( "unexpected mapping " ,
 				attributes.getAttribute( "rain is nice" ) );
 	}
+
+	@Test
+	public void testCopiesAreIndependent() {
+		final Attributes original = new Attributes();
+		original.putAttribute( "sun" , "nice" );
+		original.putAttribute( "the answer" , 7 );
+
+		final Attributes copy1 = new Attributes();
+		AttributesUtils.copyTo( original , copy1 );
+		final Attributes copy2 = new Attributes();
+		AttributesUtils.copyTo( original , copy2 );
+
+		copy1.putAttribute( "the answer" , 42 );
+		copy2.removeAttribute( "sun" );
+		original.putAttribute( "rain is nice" , false );
+
+		Assert.assertEquals( "unexpected value " , 7 , original.getAttribute( "the answer" ) );
+		Assert.assertEquals( "unexpected value " , "nice" , original.getAttribute( "sun" ) );
+		Assert.assertEquals( "unexpected number of elements in "+original , 3 , original.size() );
+
+		Assert.assertEquals( "unexpected value " , 42 , copy1.getAttribute( "the answer" ) );
+		Assert.assertEquals( "unexpected value " , "nice" , copy1.getAttribute( "sun" ) );
+		Assert.assertEquals( "unexpected number of elements in "+copy1 , 2 , copy1.size() );
+
+		Assert.assertNull( "unexpected mapping " , copy2.getAttribute( "sun" ) );
+		Assert.assertEquals( "unexpected value " , 7 , copy2.getAttribute( "the answer" ) );
+		Assert.assertEquals( "unexpected number of elements in "+copy2 , 1 , copy2.size() );
+	}
 }
@@ -0,0 +1,143 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.vis.snapshotwriters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.ConfigUtils;
+
+public class SnapshotBufferTest {
+
+	@Test
+	public void testAddAndGet_growsBeyondInitialCapacity() {
+		AgentSnapshotInfoFactory factory = new AgentSnapshotInfoFactory(new SnapshotLinkWidthCalculator());
+		SnapshotBuffer buffer = new SnapshotBuffer(2);
+		buffer.setTime(3600.0);
+
+		for (int i = 0; i < 5; i++) {
+			AgentSnapshotInfo info = factory.createAgentSnapshotInfo(Id.create(i, Person.class), 100.0 * i, 50.0 * i, 0.0, 0.0);
+			info.setAgentState(AgentSnapshotInfo.AgentState.PERSON_DRIVING_CAR);
+			info.setColorValueBetweenZeroAndOne(0.1 * i);
+			info.setUserDefined(i);
+			buffer.add(info);
+		}
+
+		Assert.assertEquals(5, buffer.size());
+		Assert.assertTrue(buffer.capacity() >= 5);
+		Assert.assertEquals(3600.0, buffer.getTime(), 0.0);
+		for (int i = 0; i < 5; i++) {
+			AgentSnapshotInfo row = buffer.get(i);
+			Assert.assertEquals(Id.create(i, Person.class), row.getId());
+			Assert.assertEquals(100.0 * i, row.getEasting(), 1e-10);
+			Assert.assertEquals(50.0 * i, row.getNorthing(), 1e-10);
+			Assert.assertEquals(0.1 * i, row.getColorValueBetweenZeroAndOne(), 1e-10);
+			Assert.assertEquals(AgentSnapshotInfo.AgentState.PERSON_DRIVING_CAR, row.getAgentState());
+			Assert.assertEquals(i, row.getUserDefined());
+		}
+	}
+
+	@Test
+	public void testClear_keepsCapacity() {
+		AgentSnapshotInfoFactory factory = new AgentSnapshotInfoFactory(new SnapshotLinkWidthCalculator());
+		SnapshotBuffer buffer = new SnapshotBuffer(4);
+		for (int i = 0; i < 10; i++) {
+			buffer.add(factory.createAgentSnapshotInfo(Id.create(i, Person.class), i, i, 0.0, 0.0));
+		}
+		int capacity = buffer.capacity();
+
+		buffer.clear();
+		Assert.assertEquals(0, buffer.size());
+		Assert.assertEquals(capacity, buffer.capacity());
+
+		buffer.add(factory.createAgentSnapshotInfo(Id.create("x", Person.class), 1.0, 2.0, 0.0, 0.0));
+		Assert.assertEquals(1, buffer.size());
+		Assert.assertEquals(Id.create("x", Person.class), buffer.get(0).getId());
+		Assert.assertNull(buffer.get(0).getAgentState());
+	}
+
+	@Test
+	public void testWriteSnapshot_writersMayRetainPositions() {
+		AgentSnapshotInfoFactory factory = new AgentSnapshotInfoFactory(new SnapshotLinkWidthCalculator());
+		RetainingWriter writer1 = new RetainingWriter();
+		RetainingWriter writer2 = new RetainingWriter();
+		SnapshotWriterManager manager = new SnapshotWriterManager(ConfigUtils.createConfig());
+		manager.addSnapshotWriter(writer1);
+		manager.addSnapshotWriter(writer2);
+
+		SnapshotBuffer buffer = new SnapshotBuffer(2);
+		buffer.setTime(0.0);
+		for (int i = 0; i < 3; i++) {
+			buffer.add(factory.createAgentSnapshotInfo(Id.create(i, Person.class), 10.0 * i, 20.0 * i, 0.0, 0.0));
+		}
+		manager.writeSnapshot(buffer);
+
+		// the buffer is re-used for the next snapshot while the writers still hold the positions of the first one:
+		buffer.clear();
+		buffer.add(factory.createAgentSnapshotInfo(Id.create("other", Person.class), -1.0, -1.0, 0.0, 0.0));
+
+		for (RetainingWriter writer : new RetainingWriter[] { writer1, writer2 }) {
+			Assert.assertEquals(3, writer.retained.size());
+			for (int i = 0; i < 3; i++) {
+				AgentSnapshotInfo position = writer.retained.get(i);
+				Assert.assertEquals(Id.create(i, Person.class), position.getId());
+				Assert.assertEquals(10.0 * i, position.getEasting(), 1e-10);
+				Assert.assertEquals(20.0 * i, position.getNorthing(), 1e-10);
+			}
+		}
+		// a writer modifying its copy must not affect the other writer:
+		writer1.retained.get(0).setUserDefined(42);
+		Assert.assertEquals(0, writer2.retained.get(0).getUserDefined());
+	}
+
+	/**
+	 * Keeps all positions it is given, like OTFFileWriter does until <code>endSnapshot</code>.
+	 */
+	private static class RetainingWriter implements SnapshotWriter {
+		final List<AgentSnapshotInfo> retained = new ArrayList<>();
+
+		@Override
+		public void beginSnapshot(double time) {
+		}
+
+		@Override
+		public void endSnapshot() {
+		}
+
+		@Override
+		public void addAgent(AgentSnapshotInfo position) {
+			this.retained.add(position);
+		}
+
+		@Override
+		public void finish() {
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGet_outOfRange() {
+		new SnapshotBuffer().get(0);
+	}
+
+}
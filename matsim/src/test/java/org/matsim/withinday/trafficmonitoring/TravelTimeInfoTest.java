@@ -0,0 +1,69 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.withinday.trafficmonitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.withinday.trafficmonitoring.WithinDayTravelTime.TravelTimeInfo;
+
+public class TravelTimeInfoTest {
+
+	@Test
+	public void testTripWindow_wrapsAndGrows() {
+		List<TravelTimeInfo> active = new ArrayList<>();
+		TravelTimeInfo info = new TravelTimeInfo(active);
+		info.init(10.0); // bin size 25
+
+		// fill, partially expire and refill, so that the ring buffer wraps around before it grows
+		for (int i = 0; i < 4; i++) {
+			info.addTrip(i, 10.0 + i);
+		}
+		Assert.assertEquals(10.0 + 11.0, info.removeExpiredTrips(26.5), 1e-10);
+		Assert.assertEquals(2, info.getNumTrips());
+		for (int i = 4; i < 10; i++) {
+			info.addTrip(i, 10.0 + i);
+		}
+		Assert.assertEquals(8, info.getNumTrips());
+
+		Assert.assertFalse(info.hasExpiredTrips(27.0));
+		Assert.assertTrue(info.hasExpiredTrips(27.5));
+		double removed = 0.0;
+		for (int i = 2; i < 10; i++) {
+			removed += 10.0 + i;
+		}
+		Assert.assertEquals(removed, info.removeExpiredTrips(100.0), 1e-10);
+		Assert.assertEquals(0, info.getNumTrips());
+		Assert.assertFalse(info.hasExpiredTrips(1000.0));
+	}
+
+	@Test
+	public void testCheckActiveState_registersOnce() {
+		List<TravelTimeInfo> active = new ArrayList<>();
+		TravelTimeInfo info = new TravelTimeInfo(active);
+		info.checkActiveState();
+		info.checkActiveState();
+		Assert.assertEquals(1, active.size());
+		Assert.assertSame(info, active.get(0));
+	}
+
+}
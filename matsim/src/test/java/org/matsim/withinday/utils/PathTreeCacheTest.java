@@ -0,0 +1,75 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2019 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.withinday.utils;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.router.AbstractLeastCostPathCalculatorTest;
+import org.matsim.core.router.DijkstraFactory;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.scenario.ScenarioUtils;
+
+/**
+ * Runs the default router tests with all paths taken from the shared trees.
+ */
+public class PathTreeCacheTest extends AbstractLeastCostPathCalculatorTest {
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		PathTreeCache cache = new PathTreeCache(network, travelTimeCostCalculator, travelTimeCostCalculator, 1);
+		return cache.createPathCalculator((fromNode, toNode, starttime, person, vehicle) -> {
+			throw new AssertionError("path should have been taken from a tree");
+		});
+	}
+
+	public void testPathsEqualDijkstra() {
+		Scenario scenario = ScenarioUtils.createScenario(loadConfig(null));
+		Network network = scenario.getNetwork();
+		new MatsimNetworkReader(scenario.getNetwork()).readFile("test/scenarios/equil/network.xml");
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		LeastCostPathCalculator dijkstra = new DijkstraFactory().createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+		PathTreeCache cache = new PathTreeCache(network, travelTimeCostCalculator, travelTimeCostCalculator, 2);
+		LeastCostPathCalculator cached = cache.createPathCalculator(dijkstra);
+
+		Node fromNode = network.getNodes().get(Id.create("1", Node.class));
+		for (Node toNode : network.getNodes().values()) {
+			Path expected = dijkstra.calcLeastCostPath(fromNode, toNode, 7.0 * 3600, null, null);
+			Path actual = cached.calcLeastCostPath(fromNode, toNode, 7.0 * 3600, null, null);
+			assertEquals(expected.travelCost, actual.travelCost, 1e-8);
+			assertEquals(expected.travelTime, actual.travelTime, 1e-8);
+			assertEquals(expected.links.size(), actual.links.size());
+		}
+		// the first request was answered by dijkstra, all others by the same tree
+		assertEquals(1, cache.getTreeCount());
+		assertEquals(network.getNodes().size() - 1, cache.getPathsFromTreesCount());
+
+		cache.reset();
+		cached.calcLeastCostPath(fromNode, fromNode, 7.0 * 3600, null, null);
+		assertEquals(1, cache.getTreeCount());
+	}
+
+}